@@ -1,9 +1,12 @@
 #include "../include/VendorLockInAnalyzer.h"
 #include "../include/MigrationDifficultyAnalyzer.h"
 #include "../include/ExitReadinessDashboard.h"
+#include "../include/ScoringPipeline.h"
 #include "ProdlyJNI.h"
 #include <string>
 #include <vector>
+#include <unordered_map>
+#include <algorithm>
 
 // Helper function to convert jstring to std::string
 std::string jstringToString(JNIEnv* env, jstring jstr) {
@@ -26,13 +29,148 @@ jobjectArray createStringArray(JNIEnv* env, const std::vector<std::string>& stri
     return result;
 }
 
+// Helper function to decode a query encoded by com.prodly.ScoreQuery
+ScoreQuery readQuery(JNIEnv* env, jintArray fields, jintArray ops, jdoubleArray values,
+                     jint sortField, jboolean descending, jint limit) {
+    ScoreQuery q;
+    jsize count = env->GetArrayLength(fields);
+    std::vector<jint> fieldCodes(count);
+    std::vector<jint> opCodes(count);
+    std::vector<jdouble> operands(count);
+    env->GetIntArrayRegion(fields, 0, count, fieldCodes.data());
+    env->GetIntArrayRegion(ops, 0, count, opCodes.data());
+    env->GetDoubleArrayRegion(values, 0, count, operands.data());
+    
+    for (jsize i = 0; i < count; i++) {
+        QueryPredicate predicate;
+        predicate.field = fieldCodes[i];
+        predicate.op = opCodes[i];
+        predicate.value = operands[i];
+        q.predicates.push_back(predicate);
+    }
+    q.sortField = sortField;
+    q.descending = descending == JNI_TRUE;
+    q.limit = limit;
+    return q;
+}
+
+// Helper function to create a query result: Object[] { String[] ids, String[] names (or null), double[] scores }
+jobjectArray createQueryResult(JNIEnv* env, const std::vector<std::string>& ids,
+                               const std::vector<std::string>* names, const std::vector<double>& scores) {
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(3, objectClass, nullptr);
+    
+    jobjectArray idArray = createStringArray(env, ids);
+    env->SetObjectArrayElement(result, 0, idArray);
+    env->DeleteLocalRef(idArray);
+    
+    if (names != nullptr) {
+        jobjectArray nameArray = createStringArray(env, *names);
+        env->SetObjectArrayElement(result, 1, nameArray);
+        env->DeleteLocalRef(nameArray);
+    }
+    
+    jdoubleArray scoreArray = env->NewDoubleArray(scores.size());
+    env->SetDoubleArrayRegion(scoreArray, 0, scores.size(), scores.data());
+    env->SetObjectArrayElement(result, 2, scoreArray);
+    env->DeleteLocalRef(scoreArray);
+    
+    return result;
+}
+
+// Helper function to create a column export: Object[] { String[] ids, double[][] columns }
+jobjectArray createColumnExport(JNIEnv* env, const std::vector<std::string>& ids,
+                                const std::vector<const std::vector<double>*>& columns, int offset = 0) {
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(2, objectClass, nullptr);
+    
+    jobjectArray idArray = createStringArray(env, ids);
+    env->SetObjectArrayElement(result, 0, idArray);
+    env->DeleteLocalRef(idArray);
+    
+    // One region copy per column, starting at slot offset; fields the module does not hold come back as zeros
+    jobjectArray columnArray = env->NewObjectArray(columns.size(), env->FindClass("[D"), nullptr);
+    for (size_t c = 0; c < columns.size(); c++) {
+        jdoubleArray column = env->NewDoubleArray(ids.size());
+        if (columns[c] != nullptr) {
+            env->SetDoubleArrayRegion(column, 0, ids.size(), columns[c]->data() + offset);
+        }
+        env->SetObjectArrayElement(columnArray, c, column);
+        env->DeleteLocalRef(column);
+    }
+    env->SetObjectArrayElement(result, 1, columnArray);
+    env->DeleteLocalRef(columnArray);
+    return result;
+}
+
+// Helper function to create a score sketch: Object[] { double[] { low, high, sum, sumOfSquares }, long[] bucketCounts }
+jobjectArray createScoreSketch(JNIEnv* env, const ScoreSketch& sketch) {
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(2, objectClass, nullptr);
+    
+    jdouble header[4] = { sketch.getLow(), sketch.getHigh(), sketch.getSum(), sketch.getSumOfSquares() };
+    jdoubleArray headerArray = env->NewDoubleArray(4);
+    env->SetDoubleArrayRegion(headerArray, 0, 4, header);
+    env->SetObjectArrayElement(result, 0, headerArray);
+    env->DeleteLocalRef(headerArray);
+    
+    const std::vector<long long>& counts = sketch.getBucketCounts();
+    std::vector<jlong> values(counts.begin(), counts.end());
+    jlongArray countArray = env->NewLongArray(values.size());
+    env->SetLongArrayRegion(countArray, 0, values.size(), values.data());
+    env->SetObjectArrayElement(result, 1, countArray);
+    env->DeleteLocalRef(countArray);
+    return result;
+}
+
+// Helper function to read a Java int[] into a vector
+std::vector<int> readIntArray(JNIEnv* env, jintArray array) {
+    jsize count = env->GetArrayLength(array);
+    std::vector<jint> values(count);
+    env->GetIntArrayRegion(array, 0, count, values.data());
+    return std::vector<int>(values.begin(), values.end());
+}
+
+// Helper function to decode a scoring model compiled by com.prodly.ScoringModel
+ScoringModel readScoringModel(JNIEnv* env, jintArray fields, jintArray perFields, jdoubleArray intercepts,
+                              jdoubleArray slopes, jdoubleArray caps) {
+    jsize count = env->GetArrayLength(fields);
+    std::vector<int> fieldCodes = readIntArray(env, fields);
+    std::vector<int> perCodes = readIntArray(env, perFields);
+    std::vector<jdouble> interceptValues(count);
+    std::vector<jdouble> slopeValues(count);
+    std::vector<jdouble> capValues(count);
+    env->GetDoubleArrayRegion(intercepts, 0, count, interceptValues.data());
+    env->GetDoubleArrayRegion(slopes, 0, count, slopeValues.data());
+    env->GetDoubleArrayRegion(caps, 0, count, capValues.data());
+    
+    std::vector<ScoringFactor> factors;
+    for (jsize i = 0; i < count; i++) {
+        factors.push_back(ScoringFactor(fieldCodes[i], perCodes[i], interceptValues[i],
+                                        slopeValues[i], capValues[i]));
+    }
+    return ScoringModel(factors);
+}
+
 // Module 1: Vendor Lock-In Analyzer JNI
 JNIEXPORT jlong JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_createNativeObject(JNIEnv* env, jobject obj) {
     VendorLockInAnalyzer* analyzer = new VendorLockInAnalyzer();
     return reinterpret_cast<jlong>(analyzer);
 }
 
-JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addVendor(JNIEnv* env, jobject obj,
+// Returns 0 if the storage files could not be opened or created
+JNIEXPORT jlong JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_createDiskObject(JNIEnv* env, jobject obj,
+        jstring storagePath, jint cachePages) {
+    VendorLockInAnalyzer* analyzer = new VendorLockInAnalyzer(jstringToString(env, storagePath), cachePages);
+    if (!analyzer->isDiskBacked()) {
+        delete analyzer;
+        return 0;
+    }
+    return reinterpret_cast<jlong>(analyzer);
+}
+
+// Returns the vendor's new lock-in score, saving a second call for score alerts
+JNIEXPORT jdouble JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addVendor(JNIEnv* env, jobject obj,
         jlong nativePtr, jstring vendorId, jstring vendorName, jdouble contractValue,
         jint contractMonths, jdouble dataVolumeGB, jint apiDependencies,
         jboolean hasCustomIntegration, jdouble switchingCost) {
@@ -42,6 +180,7 @@ JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addVendor(JNIEnv*
     
     analyzer->addVendor(id, name, contractValue, contractMonths, dataVolumeGB,
                        apiDependencies, hasCustomIntegration == JNI_TRUE, switchingCost);
+    return analyzer->calculateLockInScore(id);
 }
 
 JNIEXPORT jdouble JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_calculateLockInScore(JNIEnv* env, jobject obj, jlong nativePtr, jstring vendorId) {
@@ -50,6 +189,13 @@ JNIEXPORT jdouble JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_calculateLockI
     return analyzer->calculateLockInScore(id);
 }
 
+JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_setScoringModel(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jintArray perFields, jdoubleArray intercepts,
+        jdoubleArray slopes, jdoubleArray caps) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    analyzer->setScoringModel(readScoringModel(env, fields, perFields, intercepts, slopes, caps));
+}
+
 JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getAllScores(JNIEnv* env, jobject obj, jlong nativePtr) {
     VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
     auto scores = analyzer->getAllScores();
@@ -71,6 +217,193 @@ JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getAllSco
     return result;
 }
 
+JNIEXPORT jdoubleArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getPropagatedScores(JNIEnv* env, jobject obj,
+        jlong nativePtr, jdouble damping, jdouble tolerance) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    std::vector<double> scores = analyzer->getPropagatedScores(damping, tolerance);
+    
+    // One primitive array in slot order instead of a String pair per vendor
+    jdoubleArray result = env->NewDoubleArray(scores.size());
+    env->SetDoubleArrayRegion(result, 0, scores.size(), scores.data());
+    return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getScoresPage(JNIEnv* env, jobject obj,
+        jlong nativePtr, jint offset, jobjectArray idsOut, jobjectArray namesOut, jdoubleArray scoresOut) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    
+    // Page size is given by the length of the caller's buffers; each ScorePage owns its own
+    jsize limit = env->GetArrayLength(scoresOut);
+    auto page = analyzer->getScoresPage(offset, limit);
+    
+    std::vector<jdouble> scores(page.size());
+    for (size_t i = 0; i < page.size(); i++) {
+        jstring id = env->NewStringUTF(page[i]->vendorId.c_str());
+        env->SetObjectArrayElement(idsOut, i, id);
+        env->DeleteLocalRef(id);
+        
+        if (namesOut != nullptr) {
+            jstring name = env->NewStringUTF(page[i]->vendorName.c_str());
+            env->SetObjectArrayElement(namesOut, i, name);
+            env->DeleteLocalRef(name);
+        }
+        scores[i] = page[i]->lockInScore;
+    }
+    env->SetDoubleArrayRegion(scoresOut, 0, scores.size(), scores.data());
+    
+    return static_cast<jint>(page.size());
+}
+
+// Fills the caller's buffers with vendors by descending score; returns the count written
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getTopScores(JNIEnv* env, jobject obj,
+        jlong nativePtr, jlong offset, jobjectArray idsOut, jdoubleArray scoresOut) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    auto page = analyzer->getTopScores(offset, env->GetArrayLength(scoresOut));
+    
+    std::vector<jdouble> scores(page.size());
+    for (size_t i = 0; i < page.size(); i++) {
+        jstring id = env->NewStringUTF(page[i].first.c_str());
+        env->SetObjectArrayElement(idsOut, i, id);
+        env->DeleteLocalRef(id);
+        scores[i] = page[i].second;
+    }
+    env->SetDoubleArrayRegion(scoresOut, 0, scores.size(), scores.data());
+    return static_cast<jint>(page.size());
+}
+
+JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_flush(JNIEnv* env, jobject obj, jlong nativePtr) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    analyzer->flush();
+}
+
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVendorCount(JNIEnv* env, jobject obj, jlong nativePtr) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return analyzer->getVendorCount();
+}
+
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getSlot(JNIEnv* env, jobject obj, jlong nativePtr, jstring vendorId) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return analyzer->getSlot(jstringToString(env, vendorId));
+}
+
+JNIEXPORT jlong JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVersion(JNIEnv* env, jobject obj, jlong nativePtr) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return static_cast<jlong>(analyzer->getVersion());
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getScoreSketch(JNIEnv* env, jobject obj, jlong nativePtr) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return createScoreSketch(env, analyzer->getScoreSketch());
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_query(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jintArray ops, jdoubleArray values,
+        jint sortField, jboolean descending, jint limit) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    ScoreQuery q = readQuery(env, fields, ops, values, sortField, descending, limit);
+    auto rows = analyzer->query(q);
+    
+    // Only matching rows cross JNI
+    std::vector<std::string> ids(rows.size());
+    std::vector<std::string> names(rows.size());
+    std::vector<double> scores(rows.size());
+    for (size_t i = 0; i < rows.size(); i++) {
+        ids[i] = rows[i]->vendorId;
+        names[i] = rows[i]->vendorName;
+        scores[i] = rows[i]->lockInScore;
+    }
+    return createQueryResult(env, ids, &names, scores);
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_exportColumns(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    std::vector<std::string> ids;
+    std::vector<const std::vector<double>*> columns;
+    analyzer->exportColumns(readIntArray(env, fields), ids, columns);
+    return createColumnExport(env, ids, columns);
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_exportColumnsRange(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jint offset, jint limit) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    std::vector<std::string> ids;
+    std::vector<const std::vector<double>*> columns;
+    analyzer->exportColumns(readIntArray(env, fields), ids, columns, offset, limit);
+    return createColumnExport(env, ids, columns, std::max(0, static_cast<int>(offset)));
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_findSimilarVendors(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId, jint k) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    auto neighbors = analyzer->findSimilarVendors(jstringToString(env, vendorId), k);
+    
+    // Object[] { String[] ids, String[] names, double[] distances, double[] scores }
+    std::vector<std::string> ids(neighbors.size());
+    std::vector<std::string> names(neighbors.size());
+    std::vector<double> distances(neighbors.size());
+    std::vector<double> scores(neighbors.size());
+    for (size_t i = 0; i < neighbors.size(); i++) {
+        ids[i] = neighbors[i].first->vendorId;
+        names[i] = neighbors[i].first->vendorName;
+        distances[i] = neighbors[i].second;
+        scores[i] = neighbors[i].first->lockInScore;
+    }
+    jobjectArray result = env->NewObjectArray(4, env->FindClass("java/lang/Object"), nullptr);
+    jobjectArray idArray = createStringArray(env, ids);
+    jobjectArray nameArray = createStringArray(env, names);
+    jdoubleArray distanceArray = env->NewDoubleArray(distances.size());
+    jdoubleArray scoreArray = env->NewDoubleArray(scores.size());
+    env->SetDoubleArrayRegion(distanceArray, 0, distances.size(), distances.data());
+    env->SetDoubleArrayRegion(scoreArray, 0, scores.size(), scores.data());
+    env->SetObjectArrayElement(result, 0, idArray);
+    env->SetObjectArrayElement(result, 1, nameArray);
+    env->SetObjectArrayElement(result, 2, distanceArray);
+    env->SetObjectArrayElement(result, 3, scoreArray);
+    env->DeleteLocalRef(idArray);
+    env->DeleteLocalRef(nameArray);
+    env->DeleteLocalRef(distanceArray);
+    env->DeleteLocalRef(scoreArray);
+    return result;
+}
+
+JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addDependency(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId, jstring dependencyId) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    analyzer->addDependency(jstringToString(env, vendorId), jstringToString(env, dependencyId));
+}
+
+JNIEXPORT jboolean JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_dependsOn(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId, jstring dependencyId) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return analyzer->dependsOn(jstringToString(env, vendorId), jstringToString(env, dependencyId))
+        ? JNI_TRUE : JNI_FALSE;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVendorDependencies(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return createStringArray(env, analyzer->getVendorDependencies(jstringToString(env, vendorId)));
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVendorDependents(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    return createStringArray(env, analyzer->getVendorDependents(jstringToString(env, vendorId)));
+}
+
+// Direct edges flattened as { vendor, dependency, vendor, dependency, ... }
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getDependencyEdges(JNIEnv* env, jobject obj,
+        jlong nativePtr) {
+    VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
+    std::vector<std::string> flattened;
+    for (const auto& edge : analyzer->getDependencyEdges()) {
+        flattened.push_back(edge.first);
+        flattened.push_back(edge.second);
+    }
+    return createStringArray(env, flattened);
+}
+
 JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_deleteNativeObject(JNIEnv* env, jobject obj, jlong nativePtr) {
     VendorLockInAnalyzer* analyzer = reinterpret_cast<VendorLockInAnalyzer*>(nativePtr);
     delete analyzer;
@@ -82,7 +415,7 @@ JNIEXPORT jlong JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_createNat
     return reinterpret_cast<jlong>(analyzer);
 }
 
-JNIEXPORT void JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_addTask(JNIEnv* env, jobject obj,
+JNIEXPORT jboolean JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_addTask(JNIEnv* env, jobject obj,
         jlong nativePtr, jstring taskId, jstring taskName, jint difficulty,
         jint estimatedDays, jobjectArray dependencies) {
     MigrationDifficultyAnalyzer* analyzer = reinterpret_cast<MigrationDifficultyAnalyzer*>(nativePtr);
@@ -99,7 +432,7 @@ JNIEXPORT void JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_addTask(JN
         }
     }
     
-    analyzer->addTask(id, name, difficulty, estimatedDays, deps);
+    return analyzer->addTask(id, name, difficulty, estimatedDays, deps) ? JNI_TRUE : JNI_FALSE;
 }
 
 JNIEXPORT jdouble JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_calculateMigrationDifficulty(JNIEnv* env, jobject obj, jlong nativePtr, jstring vendorId) {
@@ -121,6 +454,125 @@ JNIEXPORT jint JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_getTotalMi
     return analyzer->getTotalMigrationDays(id);
 }
 
+JNIEXPORT jdoubleArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_simulateCompletion(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId, jint trials, jint distribution, jlong seed) {
+    MigrationDifficultyAnalyzer* analyzer = reinterpret_cast<MigrationDifficultyAnalyzer*>(nativePtr);
+    std::string id = jstringToString(env, vendorId);
+    CompletionForecast forecast = analyzer->simulateCompletion(id, trials, distribution,
+                                                               static_cast<unsigned long long>(seed));
+    
+    // Layout matches com.prodly.CompletionForecast
+    jdouble values[7] = { static_cast<jdouble>(forecast.trials), forecast.mean, forecast.p50,
+                          forecast.p90, forecast.p99, forecast.minDays, forecast.maxDays };
+    jdoubleArray result = env->NewDoubleArray(7);
+    env->SetDoubleArrayRegion(result, 0, 7, values);
+    return result;
+}
+
+// Helper function to read parallel (String[] ids, int[] values) arrays into a map; null means empty
+std::unordered_map<std::string, int> readIdValueMap(JNIEnv* env, jobjectArray ids, jintArray values) {
+    std::unordered_map<std::string, int> result;
+    if (ids == nullptr || values == nullptr) {
+        return result;
+    }
+    jsize count = std::min(env->GetArrayLength(ids), env->GetArrayLength(values));
+    std::vector<jint> buffer(count);
+    env->GetIntArrayRegion(values, 0, count, buffer.data());
+    for (jsize i = 0; i < count; i++) {
+        jstring id = (jstring)env->GetObjectArrayElement(ids, i);
+        result[jstringToString(env, id)] = buffer[i];
+        env->DeleteLocalRef(id);
+    }
+    return result;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_scheduleTasks(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring vendorId, jint engineers, jobjectArray demandIds, jintArray demands,
+        jobjectArray priorityIds, jintArray priorities) {
+    MigrationDifficultyAnalyzer* analyzer = reinterpret_cast<MigrationDifficultyAnalyzer*>(nativePtr);
+    std::string id = jstringToString(env, vendorId);
+    std::unordered_map<std::string, int> demandMap = readIdValueMap(env, demandIds, demands);
+    std::unordered_map<std::string, int> priorityMap = readIdValueMap(env, priorityIds, priorities);
+    
+    MigrationSchedule schedule;
+    if (priorityMap.empty()) {
+        schedule = analyzer->scheduleTasks(id, engineers, demandMap);
+    } else {
+        // Overridden tasks use the given priority, the rest keep the default
+        schedule = analyzer->scheduleTasks(id, engineers, demandMap,
+            [&](const MigrationTask& task) {
+                auto it = priorityMap.find(task.taskId);
+                return it != priorityMap.end() ? it->second : analyzer->calculateTaskPriority(task);
+            });
+    }
+    
+    // Object[] { String[] taskIds, int[] startDays, int[] finishDays, int[] assignees }
+    size_t n = schedule.assignments.size();
+    std::vector<std::string> taskIds(n);
+    std::vector<jint> starts(n), finishes(n), assignees(n);
+    for (size_t i = 0; i < n; i++) {
+        taskIds[i] = schedule.assignments[i].taskId;
+        starts[i] = schedule.assignments[i].startDay;
+        finishes[i] = schedule.assignments[i].finishDay;
+        assignees[i] = schedule.assignments[i].assignee;
+    }
+    
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(4, objectClass, nullptr);
+    jobjectArray idArray = createStringArray(env, taskIds);
+    env->SetObjectArrayElement(result, 0, idArray);
+    env->DeleteLocalRef(idArray);
+    
+    const std::vector<jint>* columns[3] = { &starts, &finishes, &assignees };
+    for (int c = 0; c < 3; c++) {
+        jintArray column = env->NewIntArray(n);
+        env->SetIntArrayRegion(column, 0, n, columns[c]->data());
+        env->SetObjectArrayElement(result, c + 1, column);
+        env->DeleteLocalRef(column);
+    }
+    return result;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_exportTasks(JNIEnv* env, jobject obj,
+        jlong nativePtr, jint offset, jint limit) {
+    MigrationDifficultyAnalyzer* analyzer = reinterpret_cast<MigrationDifficultyAnalyzer*>(nativePtr);
+    std::vector<MigrationTask> tasks = analyzer->getTasks(offset, limit);
+    
+    // Object[] { String[] taskIds, String[] taskNames, int[] difficulties, int[] estimatedDays,
+    //            int[] dependencyOffsets, String[] dependencies }; task i depends on
+    // dependencies[dependencyOffsets[i] .. dependencyOffsets[i + 1])
+    size_t n = tasks.size();
+    std::vector<std::string> taskIds(n), taskNames(n), dependencies;
+    std::vector<jint> difficulties(n), days(n), offsets;
+    offsets.push_back(0);
+    for (size_t i = 0; i < n; i++) {
+        taskIds[i] = tasks[i].taskId;
+        taskNames[i] = tasks[i].taskName;
+        difficulties[i] = tasks[i].difficulty;
+        days[i] = tasks[i].estimatedDays;
+        dependencies.insert(dependencies.end(), tasks[i].dependencies.begin(), tasks[i].dependencies.end());
+        offsets.push_back(static_cast<jint>(dependencies.size()));
+    }
+    
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(6, objectClass, nullptr);
+    const std::vector<std::string>* strings[3] = { &taskIds, &taskNames, &dependencies };
+    const int stringSlots[3] = { 0, 1, 5 };
+    for (int c = 0; c < 3; c++) {
+        jobjectArray column = createStringArray(env, *strings[c]);
+        env->SetObjectArrayElement(result, stringSlots[c], column);
+        env->DeleteLocalRef(column);
+    }
+    const std::vector<jint>* ints[3] = { &difficulties, &days, &offsets };
+    for (int c = 0; c < 3; c++) {
+        jintArray column = env->NewIntArray(ints[c]->size());
+        env->SetIntArrayRegion(column, 0, ints[c]->size(), ints[c]->data());
+        env->SetObjectArrayElement(result, 2 + c, column);
+        env->DeleteLocalRef(column);
+    }
+    return result;
+}
+
 JNIEXPORT void JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_deleteNativeObject(JNIEnv* env, jobject obj, jlong nativePtr) {
     MigrationDifficultyAnalyzer* analyzer = reinterpret_cast<MigrationDifficultyAnalyzer*>(nativePtr);
     delete analyzer;
@@ -132,7 +584,8 @@ JNIEXPORT jlong JNICALL Java_com_prodly_ExitReadinessDashboardJNI_createNativeOb
     return reinterpret_cast<jlong>(dashboard);
 }
 
-JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_addVendorMetrics(JNIEnv* env, jobject obj,
+// Returns the vendor's new exit readiness
+JNIEXPORT jdouble JNICALL Java_com_prodly_ExitReadinessDashboardJNI_addVendorMetrics(JNIEnv* env, jobject obj,
         jlong nativePtr, jstring vendorId, jdouble lockInScore, jdouble migrationDifficulty,
         jint dataExportCapability, jint contractFlexibility, jint technicalComplexity) {
     ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
@@ -140,6 +593,29 @@ JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_addVendorMetric
     
     dashboard->addVendorMetrics(id, lockInScore, migrationDifficulty,
                                dataExportCapability, contractFlexibility, technicalComplexity);
+    return dashboard->calculateExitReadiness(id);
+}
+
+JNIEXPORT jdoubleArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_updateScores(JNIEnv* env, jobject obj,
+        jlong nativePtr, jobjectArray vendorIds, jdoubleArray lockInScores, jdoubleArray migrationDifficulties) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    jsize count = env->GetArrayLength(vendorIds);
+    std::vector<std::string> ids;
+    ids.reserve(count);
+    for (jsize i = 0; i < count; i++) {
+        jstring id = (jstring)env->GetObjectArrayElement(vendorIds, i);
+        ids.push_back(jstringToString(env, id));
+        env->DeleteLocalRef(id);
+    }
+    std::vector<double> lockIn(count);
+    std::vector<double> migration(count);
+    env->GetDoubleArrayRegion(lockInScores, 0, count, lockIn.data());
+    env->GetDoubleArrayRegion(migrationDifficulties, 0, count, migration.data());
+    std::vector<double> readiness;
+    dashboard->updateScores(ids, lockIn, migration, readiness);
+    jdoubleArray result = env->NewDoubleArray(count);
+    env->SetDoubleArrayRegion(result, 0, count, readiness.data());
+    return result;
 }
 
 JNIEXPORT jdouble JNICALL Java_com_prodly_ExitReadinessDashboardJNI_calculateExitReadiness(JNIEnv* env, jobject obj, jlong nativePtr, jstring vendorId) {
@@ -148,6 +624,13 @@ JNIEXPORT jdouble JNICALL Java_com_prodly_ExitReadinessDashboardJNI_calculateExi
     return dashboard->calculateExitReadiness(id);
 }
 
+JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_setScoringModel(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jintArray perFields, jdoubleArray intercepts,
+        jdoubleArray slopes, jdoubleArray caps) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    dashboard->setScoringModel(readScoringModel(env, fields, perFields, intercepts, slopes, caps));
+}
+
 JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVendorsSortedByReadiness(JNIEnv* env, jobject obj, jlong nativePtr) {
     ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
     auto vendors = dashboard->getVendorsSortedByReadiness();
@@ -167,8 +650,225 @@ JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVend
     return result;
 }
 
+JNIEXPORT jint JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getReadinessPage(JNIEnv* env, jobject obj,
+        jlong nativePtr, jint offset, jobjectArray idsOut, jdoubleArray scoresOut) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    
+    jsize limit = env->GetArrayLength(scoresOut);
+    auto page = dashboard->getVendorsPageByReadiness(offset, limit);
+    
+    std::vector<jdouble> scores(page.size());
+    for (size_t i = 0; i < page.size(); i++) {
+        jstring id = env->NewStringUTF(page[i].first.c_str());
+        env->SetObjectArrayElement(idsOut, i, id);
+        env->DeleteLocalRef(id);
+        scores[i] = page[i].second;
+    }
+    env->SetDoubleArrayRegion(scoresOut, 0, scores.size(), scores.data());
+    
+    return static_cast<jint>(page.size());
+}
+
+JNIEXPORT jint JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVendorCount(JNIEnv* env, jobject obj, jlong nativePtr) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    return dashboard->getVendorCount();
+}
+
+JNIEXPORT jlong JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVersion(JNIEnv* env, jobject obj, jlong nativePtr) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    return static_cast<jlong>(dashboard->getVersion());
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getScoreSketch(JNIEnv* env, jobject obj, jlong nativePtr) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    return createScoreSketch(env, dashboard->getScoreSketch());
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_exportColumns(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    std::vector<std::string> ids;
+    std::vector<const std::vector<double>*> columns;
+    dashboard->exportColumns(readIntArray(env, fields), ids, columns);
+    return createColumnExport(env, ids, columns);
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_exportColumnsRange(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jint offset, jint limit) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    std::vector<std::string> ids;
+    std::vector<const std::vector<double>*> columns;
+    dashboard->exportColumns(readIntArray(env, fields), ids, columns, offset, limit);
+    return createColumnExport(env, ids, columns, std::max(0, static_cast<int>(offset)));
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_query(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jintArray ops, jdoubleArray values,
+        jint sortField, jboolean descending, jint limit) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    ScoreQuery q = readQuery(env, fields, ops, values, sortField, descending, limit);
+    auto rows = dashboard->query(q);
+    
+    std::vector<std::string> ids(rows.size());
+    std::vector<double> scores(rows.size());
+    for (size_t i = 0; i < rows.size(); i++) {
+        ids[i] = rows[i].first;
+        scores[i] = rows[i].second;
+    }
+    return createQueryResult(env, ids, nullptr, scores);
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getExitPathTree(JNIEnv* env, jobject obj,
+        jlong nativePtr, jstring targetState) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    std::string target = jstringToString(env, targetState);
+    const ExitPathTree& tree = dashboard->getExitPathTree(target);
+    
+    // Object[] { String[] states, int[] nextHop, double[] cost }, layout matches com.prodly.ExitPathTree
+    jsize n = static_cast<jsize>(tree.states.size());
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(3, objectClass, nullptr);
+    
+    jobjectArray stateArray = createStringArray(env, tree.states);
+    env->SetObjectArrayElement(result, 0, stateArray);
+    env->DeleteLocalRef(stateArray);
+    
+    std::vector<jint> nextHop(tree.nextHop.begin(), tree.nextHop.end());
+    jintArray hopArray = env->NewIntArray(n);
+    env->SetIntArrayRegion(hopArray, 0, n, nextHop.data());
+    env->SetObjectArrayElement(result, 1, hopArray);
+    env->DeleteLocalRef(hopArray);
+    
+    jdoubleArray costArray = env->NewDoubleArray(n);
+    env->SetDoubleArrayRegion(costArray, 0, n, tree.cost.data());
+    env->SetObjectArrayElement(result, 2, costArray);
+    env->DeleteLocalRef(costArray);
+    
+    return result;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getTopExitPlans(JNIEnv* env, jobject obj,
+        jlong nativePtr, jobjectArray vendorIds, jint k, jstring targetState) {
+    ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
+    std::string target = jstringToString(env, targetState);
+    
+    std::vector<std::string> ids;
+    jsize vendorCount = env->GetArrayLength(vendorIds);
+    ids.reserve(vendorCount);
+    for (jsize i = 0; i < vendorCount; i++) {
+        jstring id = (jstring)env->GetObjectArrayElement(vendorIds, i);
+        ids.push_back(jstringToString(env, id));
+        env->DeleteLocalRef(id);
+    }
+    
+    std::vector<std::vector<ExitPlan>> plans = dashboard->getTopExitPlans(ids, k, target);
+    
+    // Object[] { int[] planOffsets, int[] stateOffsets, String[] states, double[] costs }:
+    // plans of vendor v are [planOffsets[v], planOffsets[v + 1]), states of plan p are
+    // states[stateOffsets[p] .. stateOffsets[p + 1])
+    std::vector<jint> planOffsets(1, 0);
+    std::vector<jint> stateOffsets(1, 0);
+    std::vector<std::string> states;
+    std::vector<jdouble> costs;
+    for (const auto& vendorPlans : plans) {
+        for (const ExitPlan& plan : vendorPlans) {
+            states.insert(states.end(), plan.states.begin(), plan.states.end());
+            stateOffsets.push_back(static_cast<jint>(states.size()));
+            costs.push_back(plan.cost);
+        }
+        planOffsets.push_back(static_cast<jint>(costs.size()));
+    }
+    
+    jclass objectClass = env->FindClass("java/lang/Object");
+    jobjectArray result = env->NewObjectArray(4, objectClass, nullptr);
+    
+    jintArray planArray = env->NewIntArray(planOffsets.size());
+    env->SetIntArrayRegion(planArray, 0, planOffsets.size(), planOffsets.data());
+    env->SetObjectArrayElement(result, 0, planArray);
+    env->DeleteLocalRef(planArray);
+    
+    jintArray stateOffsetArray = env->NewIntArray(stateOffsets.size());
+    env->SetIntArrayRegion(stateOffsetArray, 0, stateOffsets.size(), stateOffsets.data());
+    env->SetObjectArrayElement(result, 1, stateOffsetArray);
+    env->DeleteLocalRef(stateOffsetArray);
+    
+    jobjectArray stateArray = createStringArray(env, states);
+    env->SetObjectArrayElement(result, 2, stateArray);
+    env->DeleteLocalRef(stateArray);
+    
+    jdoubleArray costArray = env->NewDoubleArray(costs.size());
+    env->SetDoubleArrayRegion(costArray, 0, costs.size(), costs.data());
+    env->SetObjectArrayElement(result, 3, costArray);
+    env->DeleteLocalRef(costArray);
+    
+    return result;
+}
+
 JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_deleteNativeObject(JNIEnv* env, jobject obj, jlong nativePtr) {
     ExitReadinessDashboard* dashboard = reinterpret_cast<ExitReadinessDashboard*>(nativePtr);
     delete dashboard;
 }
 
+
+// Cross-module scoring pipeline JNI
+JNIEXPORT jlong JNICALL Java_com_prodly_ScoringPipelineJNI_createNativeObject(JNIEnv* env, jobject obj) {
+    ScoringPipeline* pipeline = new ScoringPipeline();
+    return reinterpret_cast<jlong>(pipeline);
+}
+
+JNIEXPORT void JNICALL Java_com_prodly_ScoringPipelineJNI_setLockInModel(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jintArray perFields, jdoubleArray intercepts,
+        jdoubleArray slopes, jdoubleArray caps) {
+    ScoringPipeline* pipeline = reinterpret_cast<ScoringPipeline*>(nativePtr);
+    pipeline->setLockInModel(readScoringModel(env, fields, perFields, intercepts, slopes, caps));
+}
+
+JNIEXPORT void JNICALL Java_com_prodly_ScoringPipelineJNI_setReadinessModel(JNIEnv* env, jobject obj,
+        jlong nativePtr, jintArray fields, jintArray perFields, jdoubleArray intercepts,
+        jdoubleArray slopes, jdoubleArray caps) {
+    ScoringPipeline* pipeline = reinterpret_cast<ScoringPipeline*>(nativePtr);
+    pipeline->setReadinessModel(readScoringModel(env, fields, perFields, intercepts, slopes, caps));
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ScoringPipelineJNI_run(JNIEnv* env, jobject obj,
+        jlong nativePtr, jint vendorCount, jintArray fields, jobjectArray columns,
+        jintArray taskOffsets, jintArray taskDays, jintArray taskDifficulty,
+        jintArray dependencyOffsets, jintArray dependencies, jint threads) {
+    ScoringPipeline* pipeline = reinterpret_cast<ScoringPipeline*>(nativePtr);
+    
+    // Arrays were laid out and validated by com.prodly.PipelineBatch; copy each once
+    PipelineBatch batch;
+    batch.vendorCount = vendorCount;
+    std::vector<int> fieldCodes = readIntArray(env, fields);
+    for (size_t c = 0; c < fieldCodes.size(); c++) {
+        if (fieldCodes[c] < 0 || fieldCodes[c] >= static_cast<int>(batch.columns.size())) continue;
+        jdoubleArray column = (jdoubleArray)env->GetObjectArrayElement(columns, c);
+        std::vector<double>& values = batch.columns[fieldCodes[c]];
+        values.resize(vendorCount);
+        env->GetDoubleArrayRegion(column, 0, vendorCount, values.data());
+        env->DeleteLocalRef(column);
+    }
+    batch.taskOffsets = readIntArray(env, taskOffsets);
+    batch.taskDays = readIntArray(env, taskDays);
+    batch.taskDifficulty = readIntArray(env, taskDifficulty);
+    batch.dependencyOffsets = readIntArray(env, dependencyOffsets);
+    batch.dependencies = readIntArray(env, dependencies);
+    
+    PipelineScores scores = pipeline->run(batch, threads);
+    
+    // double[][] { lockIn, migrationDifficulty, exitReadiness }, layout matches com.prodly.PipelineScores
+    const std::vector<double>* results[] = { &scores.lockIn, &scores.migrationDifficulty, &scores.exitReadiness };
+    jobjectArray result = env->NewObjectArray(3, env->FindClass("[D"), nullptr);
+    for (int r = 0; r < 3; r++) {
+        jdoubleArray values = env->NewDoubleArray(vendorCount);
+        env->SetDoubleArrayRegion(values, 0, vendorCount, results[r]->data());
+        env->SetObjectArrayElement(result, r, values);
+        env->DeleteLocalRef(values);
+    }
+    return result;
+}
+
+JNIEXPORT void JNICALL Java_com_prodly_ScoringPipelineJNI_deleteNativeObject(JNIEnv* env, jobject obj, jlong nativePtr) {
+    ScoringPipeline* pipeline = reinterpret_cast<ScoringPipeline*>(nativePtr);
+    delete pipeline;
+}
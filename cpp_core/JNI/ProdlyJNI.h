@@ -9,26 +9,66 @@ extern "C" {
 
 // Module 1: Vendor Lock-In Analyzer
 JNIEXPORT jlong JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_createNativeObject(JNIEnv *, jobject);
-JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addVendor(JNIEnv *, jobject, jlong, jstring, jstring, jdouble, jint, jdouble, jint, jboolean, jdouble);
+JNIEXPORT jlong JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_createDiskObject(JNIEnv *, jobject, jstring, jint);
+JNIEXPORT jdouble JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addVendor(JNIEnv *, jobject, jlong, jstring, jstring, jdouble, jint, jdouble, jint, jboolean, jdouble);
 JNIEXPORT jdouble JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_calculateLockInScore(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_setScoringModel(JNIEnv *, jobject, jlong, jintArray, jintArray, jdoubleArray, jdoubleArray, jdoubleArray);
 JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getAllScores(JNIEnv *, jobject, jlong);
+JNIEXPORT jdoubleArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getPropagatedScores(JNIEnv *, jobject, jlong, jdouble, jdouble);
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getScoresPage(JNIEnv *, jobject, jlong, jint, jobjectArray, jobjectArray, jdoubleArray);
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getTopScores(JNIEnv *, jobject, jlong, jlong, jobjectArray, jdoubleArray);
+JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_flush(JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVendorCount(JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getSlot(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT jlong JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVersion(JNIEnv *, jobject, jlong);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getScoreSketch(JNIEnv *, jobject, jlong);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_query(JNIEnv *, jobject, jlong, jintArray, jintArray, jdoubleArray, jint, jboolean, jint);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_exportColumns(JNIEnv *, jobject, jlong, jintArray);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_exportColumnsRange(JNIEnv *, jobject, jlong, jintArray, jint, jint);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_findSimilarVendors(JNIEnv *, jobject, jlong, jstring, jint);
+JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_addDependency(JNIEnv *, jobject, jlong, jstring, jstring);
+JNIEXPORT jboolean JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_dependsOn(JNIEnv *, jobject, jlong, jstring, jstring);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVendorDependencies(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getVendorDependents(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_getDependencyEdges(JNIEnv *, jobject, jlong);
 JNIEXPORT void JNICALL Java_com_prodly_VendorLockInAnalyzerJNI_deleteNativeObject(JNIEnv *, jobject, jlong);
 
 // Module 2: Migration Difficulty Analyzer
 JNIEXPORT jlong JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_createNativeObject(JNIEnv *, jobject);
-JNIEXPORT void JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_addTask(JNIEnv *, jobject, jlong, jstring, jstring, jint, jint, jobjectArray);
+JNIEXPORT jboolean JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_addTask(JNIEnv *, jobject, jlong, jstring, jstring, jint, jint, jobjectArray);
 JNIEXPORT jdouble JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_calculateMigrationDifficulty(JNIEnv *, jobject, jlong, jstring);
 JNIEXPORT jobjectArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_getOptimalMigrationSequence(JNIEnv *, jobject, jlong, jstring);
 JNIEXPORT jint JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_getTotalMigrationDays(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT jdoubleArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_simulateCompletion(JNIEnv *, jobject, jlong, jstring, jint, jint, jlong);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_scheduleTasks(JNIEnv *, jobject, jlong, jstring, jint, jobjectArray, jintArray, jobjectArray, jintArray);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_exportTasks(JNIEnv *, jobject, jlong, jint, jint);
 JNIEXPORT void JNICALL Java_com_prodly_MigrationDifficultyAnalyzerJNI_deleteNativeObject(JNIEnv *, jobject, jlong);
 
 // Module 3: Exit Readiness Dashboard
 JNIEXPORT jlong JNICALL Java_com_prodly_ExitReadinessDashboardJNI_createNativeObject(JNIEnv *, jobject);
-JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_addVendorMetrics(JNIEnv *, jobject, jlong, jstring, jdouble, jdouble, jint, jint, jint);
+JNIEXPORT jdouble JNICALL Java_com_prodly_ExitReadinessDashboardJNI_addVendorMetrics(JNIEnv *, jobject, jlong, jstring, jdouble, jdouble, jint, jint, jint);
+JNIEXPORT jdoubleArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_updateScores(JNIEnv *, jobject, jlong, jobjectArray, jdoubleArray, jdoubleArray);
 JNIEXPORT jdouble JNICALL Java_com_prodly_ExitReadinessDashboardJNI_calculateExitReadiness(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_setScoringModel(JNIEnv *, jobject, jlong, jintArray, jintArray, jdoubleArray, jdoubleArray, jdoubleArray);
 JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVendorsSortedByReadiness(JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getReadinessPage(JNIEnv *, jobject, jlong, jint, jobjectArray, jdoubleArray);
+JNIEXPORT jint JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVendorCount(JNIEnv *, jobject, jlong);
+JNIEXPORT jlong JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getVersion(JNIEnv *, jobject, jlong);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getScoreSketch(JNIEnv *, jobject, jlong);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_exportColumns(JNIEnv *, jobject, jlong, jintArray);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_exportColumnsRange(JNIEnv *, jobject, jlong, jintArray, jint, jint);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_query(JNIEnv *, jobject, jlong, jintArray, jintArray, jdoubleArray, jint, jboolean, jint);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getExitPathTree(JNIEnv *, jobject, jlong, jstring);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ExitReadinessDashboardJNI_getTopExitPlans(JNIEnv *, jobject, jlong, jobjectArray, jint, jstring);
 JNIEXPORT void JNICALL Java_com_prodly_ExitReadinessDashboardJNI_deleteNativeObject(JNIEnv *, jobject, jlong);
 
+// Cross-module scoring pipeline
+JNIEXPORT jlong JNICALL Java_com_prodly_ScoringPipelineJNI_createNativeObject(JNIEnv *, jobject);
+JNIEXPORT void JNICALL Java_com_prodly_ScoringPipelineJNI_setLockInModel(JNIEnv *, jobject, jlong, jintArray, jintArray, jdoubleArray, jdoubleArray, jdoubleArray);
+JNIEXPORT void JNICALL Java_com_prodly_ScoringPipelineJNI_setReadinessModel(JNIEnv *, jobject, jlong, jintArray, jintArray, jdoubleArray, jdoubleArray, jdoubleArray);
+JNIEXPORT jobjectArray JNICALL Java_com_prodly_ScoringPipelineJNI_run(JNIEnv *, jobject, jlong, jint, jintArray, jobjectArray, jintArray, jintArray, jintArray, jintArray, jintArray, jint);
+JNIEXPORT void JNICALL Java_com_prodly_ScoringPipelineJNI_deleteNativeObject(JNIEnv *, jobject, jlong);
+
 #ifdef __cplusplus
 }
 #endif
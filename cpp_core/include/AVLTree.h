@@ -4,9 +4,13 @@
 #include <string>
 #include <vector>
 #include <utility>
+#include <unordered_map>
+#include <functional>
 
 /**
  * AVL Tree implementation for sorted vendor data
+ * Nodes are ordered by (value, key) so traversal follows the score;
+ * subtree sizes allow rank-based paging in O(log n + page size).
  */
 class AVLTree {
 public:
@@ -14,8 +18,13 @@ public:
     ~AVLTree();
 
     // Insert key-value pair (key = vendorId, value = score)
+    // An existing key is re-positioned according to its new value
     void insert(const std::string& key, double value);
 
+    // Replace all entries at once: one sort, then a balanced build in O(n)
+    // that reuses the existing nodes (keys must be unique)
+    void assign(std::vector<std::pair<std::string, double>> entries);
+
     // Get value by key
     double get(const std::string& key);
 
@@ -28,6 +37,16 @@ public:
     // Get all key-value pairs in reverse sorted order (descending)
     std::vector<std::pair<std::string, double>> getAllSortedReverse();
 
+    // Get a page of key-value pairs in reverse sorted order, starting at rank offset
+    std::vector<std::pair<std::string, double>> getPageReverse(int offset, int limit);
+
+    // Visit entries with low <= value <= high in value order; the visitor returns false to stop
+    void forEachInRange(double low, double high, bool descending,
+                        const std::function<bool(const std::string&, double)>& visit);
+
+    // Number of entries with low <= value <= high, in O(log n) using subtree counts
+    int countInRange(double low, double high);
+
     // Get size
     int size();
 
@@ -38,25 +57,38 @@ private:
         AVLNode* left;
         AVLNode* right;
         int height;
+        int count; // Number of nodes in this subtree
 
-        AVLNode(const std::string& k, double v) 
-            : key(k), value(v), left(nullptr), right(nullptr), height(1) {}
+        AVLNode(const std::string& k, double v)
+            : key(k), value(v), left(nullptr), right(nullptr), height(1), count(1) {}
     };
 
     AVLNode* root;
     int treeSize;
+    std::unordered_map<std::string, double> keyIndex; // key -> current value
 
     // AVL tree operations
+    static bool less(double v1, const std::string& k1, double v2, const std::string& k2);
     int getHeight(AVLNode* node);
+    int getCount(AVLNode* node);
+    void update(AVLNode* node);
     int getBalance(AVLNode* node);
     AVLNode* rightRotate(AVLNode* y);
     AVLNode* leftRotate(AVLNode* x);
+    AVLNode* rebalance(AVLNode* node);
     AVLNode* insertHelper(AVLNode* node, const std::string& key, double value);
-    AVLNode* searchHelper(AVLNode* node, const std::string& key);
+    AVLNode* removeHelper(AVLNode* node, const std::string& key, double value);
+    AVLNode* buildBalanced(const std::vector<std::pair<std::string, double>>& sorted,
+                           const std::vector<AVLNode*>& nodes, int lo, int hi);
+    void collectNodes(AVLNode* node, std::vector<AVLNode*>& nodes);
     void inOrderTraversal(AVLNode* node, std::vector<std::pair<std::string, double>>& result);
     void inOrderTraversalReverse(AVLNode* node, std::vector<std::pair<std::string, double>>& result);
+    void pageReverse(AVLNode* node, int& skip, int& remaining,
+                     std::vector<std::pair<std::string, double>>& result);
+    bool rangeHelper(AVLNode* node, double low, double high, bool descending,
+                     const std::function<bool(const std::string&, double)>& visit);
+    int countBelow(double bound, bool inclusive);
     void deleteTree(AVLNode* node);
 };
 
 #endif // AVL_TREE_H
-
@@ -0,0 +1,162 @@
+#ifndef BPLUS_TREE_H
+#define BPLUS_TREE_H
+
+#include <cstdint>
+#include <fstream>
+#include <functional>
+#include <list>
+#include <memory>
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+/**
+ * Bounded cache over a file of fixed-size pages
+ * At most `capacity` pages are held in memory; the least recently used page is
+ * evicted (written back if dirty) to make room. Pages pinned by an operation in
+ * progress are never evicted, so an operation may briefly exceed the capacity.
+ */
+class PageCache {
+public:
+    PageCache(const std::string& path, int pageSize, int capacity);
+    ~PageCache();
+
+    bool isOpen() const;
+
+    // Page contents, loaded if needed; valid until unpinned
+    char* pin(uint32_t page);
+    void unpin(uint32_t page, bool dirty);
+
+    // Append a zeroed page to the file and pin it
+    uint32_t allocate(char*& data);
+
+    // Write every dirty page back
+    void flush();
+
+    int getPageSize() const { return pageSize; }
+    uint32_t getPageCount() const { return pageCount; }
+    long long getHits() const { return hits; }
+    long long getMisses() const { return misses; }
+    long long getEvictions() const { return evictions; }
+
+private:
+    struct Frame {
+        uint32_t page;
+        std::vector<char> data;
+        int pins;
+        bool dirty;
+        std::list<Frame*>::iterator position; // In lru
+    };
+
+    std::fstream file;
+    bool open;
+    int pageSize;
+    int capacity;
+    uint32_t pageCount;
+    std::unordered_map<uint32_t, std::unique_ptr<Frame>> frames;
+    std::list<Frame*> lru; // Most recently used first
+    long long hits;
+    long long misses;
+    long long evictions;
+
+    Frame* frameFor(uint32_t page); // Evicts if full; the frame's data is not loaded
+    void write(Frame* frame);
+};
+
+/**
+ * Disk-resident B+tree with fixed-width keys and values
+ * Keys compare as bytes (memcmp). Nodes are pages of a file read through a
+ * bounded PageCache, so the tree can hold far more entries than fit in memory
+ * while the upper levels and hot leaves stay cached. Leaves are chained both
+ * ways for ordered scans, and internal nodes keep the entry count under each
+ * child, so a scan can start at any rank in O(log n).
+ *
+ * Deletion does not merge nodes: an emptied leaf stays in the chain and is
+ * reused by later inserts into its key range.
+ */
+class BPlusTree {
+public:
+    // Open or create the tree file; an existing file must have the same key and value sizes
+    BPlusTree(const std::string& path, int keySize, int valueSize, int cachePages, int pageSize = 4096);
+    ~BPlusTree();
+
+    bool isOpen() const;
+
+    // Insert or replace; true if the key was new
+    bool insert(const char* key, const char* value);
+
+    // Copy the key's value into value (if not nullptr); false if absent
+    bool find(const char* key, char* value);
+
+    // Remove the key; false if absent
+    bool erase(const char* key);
+
+    long long size() const;
+
+    // Visit entries in key order starting at the first key >= from (descending: the
+    // last key <= from); from = nullptr starts at the smallest (largest) key.
+    // The visitor returns false to stop and must not modify the tree.
+    void scan(const char* from, bool descending,
+              const std::function<bool(const char* key, const char* value)>& visit);
+
+    // As scan, starting at the entry of the given rank (0 = first in scan order)
+    void scanFromRank(long long rank, bool descending,
+                      const std::function<bool(const char* key, const char* value)>& visit);
+
+    // Write dirty pages and the header back to the file
+    void flush();
+
+    const PageCache& getCache() const;
+    int getHeight() const;
+
+private:
+    struct Split {
+        bool happened;
+        std::vector<char> separator;
+        uint32_t rightPage;
+        long long leftCount;
+        long long rightCount;
+    };
+
+    std::unique_ptr<PageCache> cache;
+    bool open;
+    int keySize;
+    int valueSize;
+    int pageSize;
+    int leafCapacity;
+    int internalCapacity;
+    uint32_t root;
+    int height; // Internal levels above the leaves
+    long long count;
+    bool headerDirty;
+
+    // Node layout helpers
+    static bool isLeaf(const char* node);
+    static int entryCount(const char* node);
+    static void setEntryCount(char* node, int n);
+    static uint32_t previousLeaf(const char* node);
+    static uint32_t nextLeaf(const char* node);
+    static void setPreviousLeaf(char* node, uint32_t page);
+    static void setNextLeaf(char* node, uint32_t page);
+    char* leafKey(char* node, int i) const;
+    char* leafValue(char* node, int i) const;
+    uint32_t* children(char* node) const;
+    long long* childCounts(char* node) const;
+    char* internalKey(char* node, int i) const;
+    int internalCountsOffset() const;
+
+    int compare(const char* a, const char* b) const;
+    int lowerBound(char* leaf, const char* key) const;  // First entry >= key
+    int childIndex(char* node, const char* key) const;  // Child whose range holds key
+    uint32_t newNode(bool leaf, char*& data);
+    uint32_t edgeLeaf(bool last);
+
+    // Add a child split below slot; a full node splits into result (towards the
+    // right edge when rightmost, so sequential loads pack pages)
+    void insertIntoInternal(char* node, int slot, const Split& split, Split& result, bool rightmost);
+    void walkLeaves(uint32_t page, int pos, bool descending,
+                    const std::function<bool(const char* key, const char* value)>& visit);
+    void writeHeader();
+};
+
+#endif // BPLUS_TREE_H
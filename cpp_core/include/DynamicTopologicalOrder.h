@@ -0,0 +1,55 @@
+#ifndef DYNAMIC_TOPOLOGICAL_ORDER_H
+#define DYNAMIC_TOPOLOGICAL_ORDER_H
+
+#include <vector>
+
+/**
+ * Online topological order for a growing DAG (Pearce-Kelly)
+ * The order is kept valid after every edge insertion. Adding x -> y only
+ * reorders the vertices whose positions lie between y and x and that are
+ * reachable from y or reach x, so typical insertions touch a small region
+ * instead of resorting the whole graph. Edges that would close a cycle
+ * are rejected at insertion time.
+ */
+class DynamicTopologicalOrder {
+public:
+    DynamicTopologicalOrder();
+
+    // Add a vertex at the end of the order and return its id
+    int addVertex();
+
+    // Add edge from -> to; returns false and leaves the graph unchanged if it would create a cycle
+    bool addEdge(int from, int to);
+
+    // Removing an edge never invalidates the order
+    void removeEdge(int from, int to);
+
+    bool hasEdge(int from, int to) const;
+
+    int size() const;
+    int positionOf(int vertex) const;
+    int vertexAt(int position) const;
+    const std::vector<int>& predecessors(int vertex) const;
+
+    // Positions whose vertex changed during the last addEdge call
+    const std::vector<int>& lastMovedPositions() const;
+
+private:
+    std::vector<std::vector<int>> outEdges;
+    std::vector<std::vector<int>> inEdges;
+    std::vector<int> position; // vertex -> position in the order
+    std::vector<int> order;    // position -> vertex
+
+    // Scratch space reused across insertions
+    std::vector<char> visited;
+    std::vector<int> stack;
+    std::vector<int> deltaForward;
+    std::vector<int> deltaBackward;
+    std::vector<int> moved;
+
+    bool searchForward(int start, int target, int upperBound);
+    void searchBackward(int start, int lowerBound);
+    void reorder();
+};
+
+#endif // DYNAMIC_TOPOLOGICAL_ORDER_H
@@ -1,20 +1,48 @@
 #ifndef EXIT_READINESS_DASHBOARD_H
 #define EXIT_READINESS_DASHBOARD_H
 
+#include <cstdint>
 #include <string>
 #include <vector>
 #include <memory>
+#include "ScoreQuery.h"
+#include "ScoringModel.h"
+#include "ScoreSketch.h"
 
 // Forward declarations
 class VendorAVLTree;
 class ExitReadinessGraph;
+class ReadinessMetricsTable;
+struct VendorReadinessMetrics;
+
+/**
+ * Shortest exit paths of every state towards one target state.
+ * nextHop/cost are indexed like states; nextHop is -1 for the target
+ * itself and for states that cannot reach it (cost is +infinity then).
+ */
+struct ExitPathTree {
+    std::string target;
+    std::vector<std::string> states;
+    std::vector<int> nextHop;
+    std::vector<double> cost;
+};
+
+/**
+ * One exit plan: states from the vendor to the target and the total transition cost
+ */
+struct ExitPlan {
+    std::vector<std::string> states;
+    double cost;
+
+    ExitPlan() : cost(0) {}
+};
 
 /**
  * Module 3: Exit Readiness Dashboard
  * 
  * DSA Implementation:
  * - Level-1: AVL Tree - Sorted vendor data by readiness score
- * - Level-2: Graph with Dijkstra - Optimal exit path calculation
+ * - Level-2: Graph with Dijkstra - Optimal exit path calculation (reverse shortest-path tree)
  */
 class ExitReadinessDashboard {
 public:
@@ -29,16 +57,67 @@ public:
                          int contractFlexibility,  // 0-100
                          int technicalComplexity); // 0-100
 
+    // Replace the lock-in score and migration difficulty of known vendors (NaN keeps the
+    // current value), rescore them and re-price their exit transitions; unknown vendors
+    // are skipped. Fills readiness with each vendor's new exit readiness (NaN if skipped)
+    // and returns the number of vendors updated.
+    int updateScores(const std::vector<std::string>& vendorIds,
+                     const std::vector<double>& lockInScores,
+                     const std::vector<double>& migrationDifficulties,
+                     std::vector<double>& readiness);
+
     // Calculate exit readiness score (0-100, higher = more ready to exit)
     double calculateExitReadiness(const std::string& vendorId);
 
-    // Get optimal exit path (using Dijkstra's algorithm)
+    // Replace the readiness scoring model: rescores every vendor in parallel and
+    // re-prices the exit transitions that depend on readiness
+    void setScoringModel(const ScoringModel& model);
+    const ScoringModel& getScoringModel() const;
+
+    // Distribution of all exit readiness scores, updated on every change
+    const ScoreSketch& getScoreSketch() const;
+
+    // Get optimal exit path (read from the cached shortest-path tree)
     std::vector<std::string> getOptimalExitPath(const std::string& startVendorId,
                                                 const std::string& targetState = "exited");
 
+    // Total transition cost of the optimal exit path (+infinity if the target is unreachable)
+    double getExitPathCost(const std::string& startVendorId, const std::string& targetState = "exited");
+
+    // The k cheapest alternative exit plans (Yen's algorithm), cheapest first
+    std::vector<ExitPlan> getTopExitPlans(const std::string& vendorId, int k,
+                                          const std::string& targetState = "exited");
+
+    // Top-k exit plans for many vendors, computed in parallel; results follow vendorIds
+    std::vector<std::vector<ExitPlan>> getTopExitPlans(const std::vector<std::string>& vendorIds, int k,
+                                                       const std::string& targetState = "exited");
+
+    // Exit paths of all vendors at once: one reverse Dijkstra from the target,
+    // rebuilt only after addVendorMetrics changes an edge
+    const ExitPathTree& getExitPathTree(const std::string& targetState = "exited");
+
     // Get all vendors sorted by readiness (using AVL tree)
     std::vector<std::pair<std::string, double>> getVendorsSortedByReadiness();
 
+    // Get one page of the readiness ranking (rank-based AVL traversal)
+    std::vector<std::pair<std::string, double>> getVendorsPageByReadiness(int offset, int limit);
+
+    // Number of vendors in the ranking
+    int getVendorCount();
+
+    // Incremented on every change so cursors can detect concurrent modification
+    long long getVersion();
+
+    // Filter/sort/limit over readiness metrics; returns (vendorId, exitReadiness) of matching rows
+    std::vector<std::pair<std::string, double>> query(const ScoreQuery& q);
+
+    // Bulk export in slot order: vendor ids plus one column per query field code
+    // (nullptr for fields this module does not hold); valid until the next addVendorMetrics.
+    // ids cover slots [offset, offset + limit); columns are whole, indexed by slot
+    void exportColumns(const std::vector<int>& fields, std::vector<std::string>& ids,
+                       std::vector<const std::vector<double>*>& columns,
+                       int offset = 0, int limit = INT32_MAX);
+
     // Get readiness breakdown
     struct ReadinessBreakdown {
         double overallScore;
@@ -53,8 +132,14 @@ public:
 private:
     std::unique_ptr<VendorAVLTree> vendorTree;
     std::unique_ptr<ExitReadinessGraph> readinessGraph;
+    std::unique_ptr<ReadinessMetricsTable> metricsTable;
+    long long version;
+    ScoringModel scoringModel;
+    ScoreSketch scoreSketch;
     
-    double calculateReadinessFactors(const std::string& vendorId);
+    double calculateReadinessFactors(int slot);
+    static double planningCost(const VendorReadinessMetrics& metrics);
+    static double buyOutCost(const VendorReadinessMetrics& metrics);
 };
 
 #endif // EXIT_READINESS_DASHBOARD_H
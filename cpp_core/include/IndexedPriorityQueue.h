@@ -0,0 +1,43 @@
+#ifndef INDEXED_PRIORITY_QUEUE_H
+#define INDEXED_PRIORITY_QUEUE_H
+
+#include <vector>
+
+/**
+ * Indexed binary min-heap over items 0..capacity-1
+ * Each item's position is tracked, so its key can be changed in O(log n)
+ * (decrease-key) without searching the heap. Equal keys pop in index order.
+ */
+class IndexedPriorityQueue {
+public:
+    explicit IndexedPriorityQueue(int capacity);
+
+    // Insert an item that is not in the queue yet
+    void push(int item, long long key);
+
+    // Item with the smallest key
+    int top() const;
+    long long topKey() const;
+
+    // Remove and return the item with the smallest key
+    int pop();
+
+    // Lower the key of a queued item
+    void decreaseKey(int item, long long key);
+
+    bool contains(int item) const;
+    bool empty() const;
+    int size() const;
+
+private:
+    std::vector<int> heap;       // heap slot -> item
+    std::vector<int> position;   // item -> heap slot, -1 if not queued
+    std::vector<long long> keys; // item -> key
+
+    bool less(int a, int b) const;
+    void swapSlots(int i, int j);
+    void siftUp(int slot);
+    void siftDown(int slot);
+};
+
+#endif // INDEXED_PRIORITY_QUEUE_H
@@ -0,0 +1,76 @@
+#ifndef KNN_INDEX_H
+#define KNN_INDEX_H
+
+#include <vector>
+
+/**
+ * k-nearest-neighbour index over fixed-size feature vectors
+ * Points live in static KD-trees (median split on the widest dimension,
+ * stored implicitly in one array, no node objects) arranged as a
+ * logarithmic set of levels: level i holds at most BLOCK * 2^i points.
+ * An insert that fills the buffer merges it with the full levels below
+ * the first one it fits in, like a binary counter carrying, so every
+ * tree stays balanced and inserts cost O(log^2 n) amortized. Queries
+ * search the buffer and every level with one bounded heap.
+ *
+ * Re-inserting an id replaces its point; the old copy is skipped by
+ * queries and dropped at the next merge that touches its level.
+ */
+class KnnIndex {
+public:
+    static const int DIMENSIONS = 6;
+
+    struct Neighbor {
+        int id;
+        double distance; // Euclidean
+
+        Neighbor() : id(-1), distance(0) {}
+        Neighbor(int i, double d) : id(i), distance(d) {}
+    };
+
+    KnnIndex();
+
+    // Add or replace the point for id (ids are small non-negative integers)
+    void insert(int id, const double* point);
+
+    // Add or replace many points at once; a large batch becomes one tree
+    void insertAll(const std::vector<int>& ids, const std::vector<double>& points);
+
+    // k nearest points, closest first; excludeId (if >= 0) is never returned
+    std::vector<Neighbor> nearest(const double* point, int k, int excludeId = -1) const;
+
+    int size() const;
+
+private:
+    static const int BLOCK = 256;
+
+    struct Entry {
+        int id;
+        int stamp; // Matches stamps[id] only for the live copy
+        double point[DIMENSIONS];
+    };
+
+    struct Tree {
+        std::vector<Entry> entries;        // In-order KD layout: the root of [lo, hi) is at (lo + hi) / 2
+        std::vector<unsigned char> split;  // Split dimension of each node
+
+        bool empty() const { return entries.empty(); }
+    };
+
+    std::vector<Tree> levels;
+    std::vector<Entry> buffer;
+    std::vector<int> stamps; // id -> stamp of its live copy, -1 if absent
+    int nextStamp;
+    int liveCount;
+
+    bool isLive(const Entry& entry) const;
+    void stage(int id, const double* point, std::vector<Entry>& out);
+    void carry(std::vector<Entry>& pending);
+    void build(Tree& tree, std::vector<Entry>& entries);
+    void buildRange(Tree& tree, int lo, int hi);
+
+    struct Search;
+    void searchTree(const Tree& tree, int lo, int hi, Search& search) const;
+};
+
+#endif // KNN_INDEX_H
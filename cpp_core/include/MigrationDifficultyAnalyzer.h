@@ -1,36 +1,78 @@
 #ifndef MIGRATION_DIFFICULTY_ANALYZER_H
 #define MIGRATION_DIFFICULTY_ANALYZER_H
 
+#include <cstdint>
 #include <string>
 #include <vector>
 #include <memory>
 #include <queue>
+#include <functional>
+#include <unordered_map>
 
 // Forward declarations
 class MigrationGraph;
 struct MigrationTask;
 
+/**
+ * Distribution of simulated completion times (days)
+ */
+struct CompletionForecast {
+    int trials;
+    double mean;
+    double p50;
+    double p90;
+    double p99;
+    double minDays;
+    double maxDays;
+
+    CompletionForecast() : trials(0), mean(0), p50(0), p90(0), p99(0), minDays(0), maxDays(0) {}
+};
+
+/**
+ * One task placed by the resource-constrained scheduler
+ */
+struct TaskAssignment {
+    std::string taskId;
+    int startDay;
+    int finishDay;
+    int assignee; // Lowest-numbered engineer working on the task
+
+    TaskAssignment() : startDay(0), finishDay(0), assignee(-1) {}
+};
+
+/**
+ * Team schedule for a migration plan
+ */
+struct MigrationSchedule {
+    std::vector<TaskAssignment> assignments; // In topological order
+    int makespan;
+    int engineers;
+
+    MigrationSchedule() : makespan(0), engineers(0) {}
+};
+
 /**
  * Module 2: Migration Difficulty Analyzer
  * 
  * DSA Implementation:
  * - Level-1: Priority Queue - Task prioritization
  * - Level-2: Graph with BFS/DFS - Dependency traversal
+ * - Online topological order (Pearce-Kelly) - Task sequencing
  */
 class MigrationDifficultyAnalyzer {
 public:
     MigrationDifficultyAnalyzer();
     ~MigrationDifficultyAnalyzer();
 
-    // Add migration task
-    void addTask(const std::string& taskId, const std::string& taskName,
+    // Add migration task; returns false (task rejected) if a dependency would create a cycle
+    bool addTask(const std::string& taskId, const std::string& taskName,
                  int difficulty, int estimatedDays, 
                  const std::vector<std::string>& dependencies);
 
     // Calculate migration difficulty score
     double calculateMigrationDifficulty(const std::string& vendorId);
 
-    // Get optimal migration sequence (using topological sort via BFS)
+    // Get optimal migration sequence (topological order maintained on every addTask)
     std::vector<std::string> getOptimalMigrationSequence(const std::string& vendorId);
 
     // Get critical path (longest dependency chain using DFS)
@@ -39,21 +81,40 @@ public:
     // Get total migration time estimate
     int getTotalMigrationDays(const std::string& vendorId);
 
+    // Monte Carlo completion forecast: each task's duration is drawn from a
+    // triangular (0) or PERT (1) distribution around estimatedDays, scaled by difficulty
+    CompletionForecast simulateCompletion(const std::string& vendorId, int trials,
+                                          int distribution, unsigned long long seed);
+
+    // Resource-constrained schedule for a team of `engineers`; demands gives the
+    // engineers a task needs (default 1), priority overrides calculateTaskPriority
+    MigrationSchedule scheduleTasks(const std::string& vendorId, int engineers,
+                                    const std::unordered_map<std::string, int>& demands =
+                                        std::unordered_map<std::string, int>(),
+                                    const std::function<int(const MigrationTask&)>& priority = nullptr);
+
+    // Default scheduling priority: harder tasks with more dependencies go first
+    int calculateTaskPriority(const MigrationTask& task);
+
+    // Tasks in execution order, so adding them again in this order succeeds;
+    // positions [offset, offset + limit) of that order. The order holds added tasks
+    // only (no placeholders or rejected tasks), so consecutive pages never overlap.
+    std::vector<MigrationTask> getTasks(int offset = 0, int limit = INT32_MAX);
+
 private:
     std::unique_ptr<MigrationGraph> taskGraph;
     
     // Priority queue for task prioritization
     struct TaskPriority {
         std::string taskId;
-        int priority; // Lower = higher priority
+        int priority; // Higher = scheduled first
         
-        bool operator>(const TaskPriority& other) const {
-            return priority > other.priority;
+        bool operator<(const TaskPriority& other) const {
+            return priority < other.priority;
         }
     };
     
     std::vector<TaskPriority> prioritizeTasks(const std::string& vendorId);
-    int calculateTaskPriority(const MigrationTask& task);
 };
 
 /**
@@ -0,0 +1,85 @@
+#ifndef REACHABILITY_INDEX_H
+#define REACHABILITY_INDEX_H
+
+#include <vector>
+#include <cstdint>
+
+/**
+ * Transitive reachability over a directed graph that only grows
+ * Strongly connected components are condensed into a DAG, and every
+ * component keeps the set of components it reaches and the set that
+ * reaches it, so reaches() is a single membership test.
+ *
+ * Edges added after the first query are folded into the closure
+ * incrementally (descendants of the head are merged into every ancestor
+ * of the tail). Only an edge that closes a new cycle, and so merges
+ * components, schedules a full rebuild before the next query.
+ */
+class ReachabilityIndex {
+public:
+    ReachabilityIndex();
+
+    // Add a vertex and return its id
+    int addVertex();
+
+    // Add edge from -> to; returns false if the edge was already present
+    bool addEdge(int from, int to);
+
+    // True if a path of at least one edge leads from -> to
+    bool reaches(int from, int to);
+
+    // Vertices reachable from / reaching the vertex, excluding the vertex itself
+    std::vector<int> descendants(int vertex);
+    std::vector<int> ancestors(int vertex);
+
+    int size() const;
+    int componentCount();
+
+    // Direct edges out of / into a vertex
+    const std::vector<int>& successors(int vertex) const;
+    const std::vector<int>& predecessors(int vertex) const;
+
+private:
+    /**
+     * Set of component ids: a sorted array while small, a bitset once the
+     * array would take more memory than the bits (and back again when a
+     * large id leaves the bitset mostly empty)
+     */
+    class ComponentSet {
+    public:
+        ComponentSet() : dense(false), count(0) {}
+
+        bool contains(int c) const;
+        void insert(int c);
+        void unionWith(const ComponentSet& other);
+        void appendTo(std::vector<int>& out) const;
+
+    private:
+        std::vector<int> sparse;
+        std::vector<uint64_t> bits;
+        bool dense;
+        int count;
+
+        void makeDense(int maxElement);
+        void makeSparse();
+        void setBit(int c);
+        void checkDensity();
+    };
+
+    std::vector<std::vector<int>> outEdges;
+    std::vector<std::vector<int>> inEdges;
+
+    // Condensation: vertex -> component, component -> member vertices
+    std::vector<int> component;
+    std::vector<std::vector<int>> members;
+    std::vector<char> cyclic; // Component has a cycle (several members or a self-loop)
+    std::vector<ComponentSet> descendantSets; // Components reachable from c, including c
+    std::vector<ComponentSet> ancestorSets;   // Components reaching c, including c
+    bool dirty;
+
+    void ensureBuilt();
+    void rebuild();
+    std::vector<int> expand(const ComponentSet& set, int vertex) const;
+};
+
+#endif // REACHABILITY_INDEX_H
@@ -0,0 +1,77 @@
+#ifndef SCORE_QUERY_H
+#define SCORE_QUERY_H
+
+#include <vector>
+#include <functional>
+
+/**
+ * Filter/sort/limit query pushed down from Java to the scoring engines.
+ * Field and operator codes must match com.prodly.ScoreQuery.
+ */
+enum QueryField {
+    // Module 1 (vendor lock-in) columns
+    FIELD_LOCK_IN_SCORE = 0,
+    FIELD_CONTRACT_VALUE = 1,
+    FIELD_CONTRACT_MONTHS = 2,
+    FIELD_DATA_VOLUME_GB = 3,
+    FIELD_API_DEPENDENCIES = 4,
+    FIELD_CUSTOM_INTEGRATION = 5,
+    FIELD_SWITCHING_COST = 6,
+    // Module 3 (exit readiness) columns; FIELD_LOCK_IN_SCORE is shared
+    FIELD_EXIT_READINESS = 7,
+    FIELD_MIGRATION_DIFFICULTY = 8,
+    FIELD_DATA_EXPORT = 9,
+    FIELD_CONTRACT_FLEXIBILITY = 10,
+    FIELD_TECHNICAL_COMPLEXITY = 11
+};
+
+enum QueryOp {
+    OP_LT = 0,
+    OP_LE = 1,
+    OP_GT = 2,
+    OP_GE = 3,
+    OP_EQ = 4,
+    OP_NE = 5
+};
+
+struct QueryPredicate {
+    int field;
+    int op;
+    double value;
+};
+
+struct ScoreQuery {
+    std::vector<QueryPredicate> predicates;
+    int sortField;   // -1 = no ordering
+    bool descending;
+    int limit;       // -1 = unlimited
+
+    ScoreQuery() : sortField(-1), descending(true), limit(-1) {}
+};
+
+namespace query {
+
+// Column lookup by field code; returns nullptr for fields the engine does not hold
+typedef std::function<const std::vector<double>*(int)> ColumnLookup;
+
+bool matches(double value, int op, double operand);
+
+// True if every predicate holds for the row at slot
+bool matchesAll(const std::vector<QueryPredicate>& predicates, const ColumnLookup& columns, int slot);
+
+// Inclusive [low, high] bounds implied by the predicates on field; false if none restrict it
+bool rangeFor(const std::vector<QueryPredicate>& predicates, int field, double& low, double& high);
+
+// Column-at-a-time scan: first predicate builds the selection, later ones narrow it.
+// With stopAfter >= 0 (unordered queries with a limit) rows are checked one at a
+// time instead, so the scan can end as soon as enough rows match.
+std::vector<int> scanColumns(int rowCount, const std::vector<QueryPredicate>& predicates,
+                             const ColumnLookup& columns, int stopAfter = -1);
+
+// Order selected slots by the sort column and keep at most limit (partial sort when limited)
+void sortAndLimit(std::vector<int>& slots, const std::vector<double>* sortColumn,
+                  bool descending, int limit);
+
+}
+
+#endif // SCORE_QUERY_H
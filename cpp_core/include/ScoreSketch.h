@@ -0,0 +1,63 @@
+#ifndef SCORE_SKETCH_H
+#define SCORE_SKETCH_H
+
+#include <vector>
+
+/**
+ * Streaming summary of a score distribution (HDR-style fixed-width histogram)
+ * Scores in [low, high] fall into equal-width buckets (scores outside are
+ * clamped into the end buckets); a Fenwick tree over the bucket counts gives
+ * rank and quantile queries in O(log buckets), independent of the number of
+ * vendors. Scores can be removed, so an update is replace(old, new). Sketches
+ * with the same layout merge by adding counts, e.g. per-thread partials.
+ * Count, mean and standard deviation are exact; quantiles, min and max are
+ * accurate to one bucket width.
+ */
+class ScoreSketch {
+public:
+    explicit ScoreSketch(double low = 0.0, double high = 100.0, int buckets = 10000);
+
+    // Sketch of many scores, merged from per-thread partial sketches
+    // (threads <= 0 uses all hardware threads)
+    static ScoreSketch fromScores(const std::vector<double>& scores, int threads = 0);
+
+    void add(double score);
+    void remove(double score);
+    void replace(double before, double after);
+
+    // Add the other sketch's scores; false (nothing merged) if the layouts differ
+    bool merge(const ScoreSketch& other);
+    void clear();
+
+    long long count() const;
+    double mean() const;
+    double standardDeviation() const;
+    double min() const;
+    double max() const;
+
+    // Score at quantile q in [0, 1] (midpoint of the bucket holding that rank); 0 when empty
+    double quantile(double q) const;
+
+    double getLow() const { return low; }
+    double getHigh() const { return high; }
+    double getSum() const { return sum; }
+    double getSumOfSquares() const { return sumOfSquares; }
+    const std::vector<long long>& getBucketCounts() const { return counts; }
+
+private:
+    double low;
+    double high;
+    double width;
+    std::vector<long long> counts;
+    std::vector<long long> tree; // Fenwick tree over counts, 1-based
+    long long total;
+    double sum;
+    double sumOfSquares;
+
+    int bucketOf(double score) const;
+    void update(int bucket, long long delta);
+    int bucketAtRank(long long rank) const; // First bucket whose prefix count exceeds rank
+    double midpoint(int bucket) const;
+};
+
+#endif // SCORE_SKETCH_H
@@ -0,0 +1,63 @@
+#ifndef SCORING_MODEL_H
+#define SCORING_MODEL_H
+
+#include <vector>
+#include "ScoreQuery.h"
+
+/**
+ * One compiled scoring factor: points = min(cap, intercept + slope * input),
+ * where input is the field's value, divided by perField's value if given.
+ * A ratio with a zero divisor scores no points.
+ */
+struct ScoringFactor {
+    int field;        // Query field code of the input
+    int perField;     // Query field code of the divisor, -1 = none
+    double intercept;
+    double slope;
+    double cap;
+
+    ScoringFactor(int field, int perField, double intercept, double slope, double cap)
+        : field(field), perField(perField), intercept(intercept), slope(slope), cap(cap) {}
+};
+
+/**
+ * Weighted scoring formula compiled to a flat coefficient table.
+ * A score is the sum of factor points clamped to 0-100. Factors read the
+ * engines' columns by query field code, so the same table scores one row or
+ * the whole portfolio column-at-a-time on a thread pool.
+ * Field codes and coefficients match com.prodly.ScoringModel.
+ */
+class ScoringModel {
+public:
+    ScoringModel();
+    explicit ScoringModel(const std::vector<ScoringFactor>& factors);
+
+    // Built-in lock-in (25/20/15/15/10/15) and readiness (30/25/20/15/10) models
+    static ScoringModel defaultLockIn();
+    static ScoringModel defaultReadiness();
+
+    const std::vector<ScoringFactor>& getFactors() const;
+
+    // Score of the row at slot
+    double score(const query::ColumnLookup& columns, int slot) const;
+
+    // Points contributed by the factors reading field, unclamped (score breakdowns)
+    double points(const query::ColumnLookup& columns, int slot, int field) const;
+
+    // Scores of rows [first, last) written to scores[first, last), on the calling thread
+    void scoreRows(const query::ColumnLookup& columns, int first, int last, std::vector<double>& scores) const;
+
+    // Scores of rows [0, rowCount), computed in parallel (threads <= 0 uses all hardware threads)
+    std::vector<double> scoreAll(const query::ColumnLookup& columns, int rowCount, int threads = 0) const;
+
+private:
+    std::vector<ScoringFactor> factors;
+
+    static double factorPoints(const ScoringFactor& factor, const std::vector<double>* input,
+                               const std::vector<double>* per, int slot);
+    void scoreRange(const std::vector<const std::vector<double>*>& inputs,
+                    const std::vector<const std::vector<double>*>& divisors,
+                    int first, int last, std::vector<double>& scores) const;
+};
+
+#endif // SCORING_MODEL_H
@@ -0,0 +1,78 @@
+#ifndef SCORING_PIPELINE_H
+#define SCORING_PIPELINE_H
+
+#include <vector>
+#include "ScoreQuery.h"
+#include "ScoringModel.h"
+
+/**
+ * Column-oriented input of one pipeline run: n vendors with their lock-in and
+ * readiness inputs, plus migration tasks grouped by vendor.
+ * columns is indexed by query field code; an empty column is not provided.
+ * Tasks of vendor v are [taskOffsets[v], taskOffsets[v + 1]); the tasks task t
+ * depends on are dependencies[dependencyOffsets[t] .. dependencyOffsets[t + 1]),
+ * given as task indices within the same vendor's range.
+ */
+struct PipelineBatch {
+    int vendorCount;
+    std::vector<std::vector<double>> columns;
+    std::vector<int> taskOffsets;
+    std::vector<int> taskDays;
+    std::vector<int> taskDifficulty;
+    std::vector<int> dependencyOffsets;
+    std::vector<int> dependencies;
+
+    PipelineBatch() : vendorCount(0), columns(FIELD_TECHNICAL_COMPLEXITY + 1) {}
+};
+
+/**
+ * Scores of every vendor in a batch, indexed like the batch
+ */
+struct PipelineScores {
+    std::vector<double> lockIn;
+    std::vector<double> migrationDifficulty;
+    std::vector<double> exitReadiness;
+};
+
+/**
+ * Cross-module scoring pipeline: lock-in score (module 1), migration difficulty
+ * from the vendor's task DAG (module 2) and exit readiness fed by both (module 3).
+ *
+ * Vendors are split into partitions, one per worker thread, and each worker
+ * runs all three stages over its partition, so a portfolio is scored in one
+ * call with no shared state between workers.
+ */
+class ScoringPipeline {
+public:
+    ScoringPipeline();
+
+    void setLockInModel(const ScoringModel& model);
+    void setReadinessModel(const ScoringModel& model);
+
+    // Score every vendor of the batch (threads <= 0 uses all hardware threads)
+    PipelineScores run(const PipelineBatch& batch, int threads = 0) const;
+
+    // Migration difficulty (0-100) of vendor v's tasks: total days (40 points at
+    // 180 days), task count (30 at 20 tasks) and the longest dependency chain
+    // (30 at 15 tasks). Vendors without tasks keep the MIGRATION_DIFFICULTY column, or 0.
+    static double migrationDifficulty(const PipelineBatch& batch, int vendor);
+
+private:
+    ScoringModel lockInModel;
+    ScoringModel readinessModel;
+
+    // Per-worker buffers for the task DAG walk, reused across vendors
+    struct DagScratch {
+        std::vector<int> indegree;
+        std::vector<int> chain;
+        std::vector<int> successorOffsets;
+        std::vector<int> successors;
+        std::vector<int> ready;
+    };
+
+    static double migrationDifficulty(const PipelineBatch& batch, int vendor, DagScratch& scratch);
+
+    void runPartition(const PipelineBatch& batch, int first, int last, PipelineScores& scores) const;
+};
+
+#endif // SCORING_PIPELINE_H
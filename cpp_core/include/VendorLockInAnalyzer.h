@@ -1,14 +1,22 @@
 #ifndef VENDOR_LOCKIN_ANALYZER_H
 #define VENDOR_LOCKIN_ANALYZER_H
 
+#include <cstdint>
 #include <string>
 #include <unordered_map>
 #include <vector>
 #include <memory>
+#include "ScoreQuery.h"
+#include "ScoringModel.h"
+#include "ScoreSketch.h"
 
 // Forward declarations
 class VendorGraph;
 class VendorHashTable;
+class AVLTree;
+class LockInPropagation;
+class KnnIndex;
+class DiskVendorStore;
 
 /**
  * Vendor data structure
@@ -34,13 +42,30 @@ struct VendorData {
  * 
  * DSA Implementation:
  * - Level-1: Hash Table (VendorHashTable) - O(1) vendor lookup
- * - Level-2: Graph (VendorGraph) - Dependency analysis with DFS
+ * - Level-2: Graph (VendorGraph) - Dependency analysis with a reachability index
+ *   (SCC condensation + per-component closure sets)
+ *
+ * A disk-backed analyzer keeps vendors and the score index in disk B+trees behind a
+ * fixed-size page cache instead (DiskVendorStore), for portfolios larger than RAM.
+ * It supports adding, scoring, lookups and ordered paging; dependency propagation,
+ * queries, column export and similar-vendor search need the in-memory columns and
+ * return empty results.
  */
 class VendorLockInAnalyzer {
 public:
     VendorLockInAnalyzer();
+
+    // Disk-backed analyzer over <storagePath>.vendors and <storagePath>.scores, created
+    // if missing; at most cachePages 4 KB pages are held in memory. Check isDiskBacked()
+    // afterwards: it is false if the files could not be opened
+    VendorLockInAnalyzer(const std::string& storagePath, int cachePages);
     ~VendorLockInAnalyzer();
 
+    bool isDiskBacked() const;
+
+    // Write cached changes of a disk-backed analyzer to its files
+    void flush();
+
     // Add vendor data
     void addVendor(const std::string& vendorId, const std::string& vendorName,
                    double contractValue, int contractMonths, 
@@ -50,20 +75,96 @@ public:
     // Calculate lock-in score (0-100, higher = more locked in)
     double calculateLockInScore(const std::string& vendorId);
 
-    // Get vendor dependencies (using graph traversal)
+    // Replace the lock-in scoring model and rescore every vendor in parallel
+    void setScoringModel(const ScoringModel& model);
+    const ScoringModel& getScoringModel() const;
+
+    // Distribution of all lock-in scores, updated on every add and model change
+    const ScoreSketch& getScoreSketch() const;
+
+    // Record that vendorId depends on dependencyId (unknown vendors are added to the graph)
+    void addDependency(const std::string& vendorId, const std::string& dependencyId);
+
+    // Vendors vendorId transitively depends on (reachability index, no traversal)
     std::vector<std::string> getVendorDependencies(const std::string& vendorId);
 
+    // Blast radius: vendors that transitively depend on vendorId
+    std::vector<std::string> getVendorDependents(const std::string& vendorId);
+
+    // True if vendorId depends on dependencyId directly or transitively
+    bool dependsOn(const std::string& vendorId, const std::string& dependencyId);
+
+    // Direct dependency edges as (vendor, dependency) pairs, e.g. to save the graph
+    std::vector<std::pair<std::string, std::string>> getDependencyEdges();
+
     // Get all vendors with scores
     std::vector<std::pair<std::string, double>> getAllScores();
 
+    // Lock-in propagated over dependency edges: each vendor passes `damping` of its
+    // score on to the vendors it depends on. One score per vendor in slot order
+    // (as getScoresPage), clamped to 100; iterates until scores move by <= tolerance
+    std::vector<double> getPropagatedScores(double damping = 0.5, double tolerance = 1e-3);
+
+    // Get a page of vendors in insertion order (stable while vendors are appended);
+    // disk-backed analyzers page in vendor id order. Valid until the next call
+    std::vector<VendorData*> getScoresPage(int offset, int limit);
+
+    // Vendors by descending lock-in score, starting at rank offset
+    std::vector<std::pair<std::string, double>> getTopScores(long long offset, int limit);
+
+    // Number of vendors held by the analyzer
+    int getVendorCount();
+
+    // Position of a vendor in getScoresPage's insertion order; -1 if unknown or disk-backed
+    int getSlot(const std::string& vendorId);
+
+    // Incremented on every change so cursors can detect concurrent modification
+    long long getVersion();
+
+    // Filter/sort/limit over vendor fields; returns matching vendors
+    std::vector<VendorData*> query(const ScoreQuery& q);
+
+    // Bulk export in slot order: vendor ids plus one column per query field code
+    // (nullptr for fields this module does not hold); valid until the next addVendor.
+    // ids cover slots [offset, offset + limit); columns are whole, indexed by slot
+    void exportColumns(const std::vector<int>& fields, std::vector<std::string>& ids,
+                       std::vector<const std::vector<double>*>& columns,
+                       int offset = 0, int limit = INT32_MAX);
+
     // Get vendor details
     VendorData* getVendorData(const std::string& vendorId);
 
+    // k vendors closest to vendorId in normalized feature space (contract value, duration,
+    // data volume, API dependencies, custom integration, switching cost), closest first
+    std::vector<std::pair<VendorData*, double>> findSimilarVendors(const std::string& vendorId, int k);
+
 private:
     std::unique_ptr<VendorHashTable> vendorTable;
     std::unique_ptr<VendorGraph> dependencyGraph;
+    std::unique_ptr<AVLTree> scoreIndex; // Lock-in score index (ordered by score)
+    ScoreSketch scoreSketch;
+    long long version;
+    ScoringModel scoringModel;
+    
+    // Propagated scores: solver with its last solution, and the graph/vendor state it was built for
+    std::unique_ptr<LockInPropagation> propagation;
+    long long propagationGraphVersion;
+    int propagationVendorCount;
+    std::vector<int> vertexSlots; // Dependency vertex -> vendor slot, -1 if not a vendor
+    
+    // Similar-vendor search: KD-tree index keyed by slot; slots added or updated
+    // since the last query are indexed in one batch
+    std::unique_ptr<KnnIndex> similarityIndex;
+    std::vector<int> similarityPending;
+    
+    // Disk-backed mode: records and score index on disk; the buffers hold decoded
+    // records handed out by getVendorData and getScoresPage
+    std::unique_ptr<DiskVendorStore> diskStore;
+    VendorData diskRecord;
+    std::vector<VendorData> diskPage;
     
-    double calculateRiskFactors(const VendorData& vendor);
+    double calculateRiskFactors(int slot);
+    double scoreRecord(const VendorData& data) const;
 };
 
 #endif // VENDOR_LOCKIN_ANALYZER_H
@@ -17,11 +17,27 @@ void AVLTree::deleteTree(AVLNode* node) {
     }
 }
 
+bool AVLTree::less(double v1, const std::string& k1, double v2, const std::string& k2) {
+    // Order by value first, key breaks ties so every node has a unique position
+    if (v1 != v2) return v1 < v2;
+    return k1 < k2;
+}
+
 int AVLTree::getHeight(AVLNode* node) {
     if (node == nullptr) return 0;
     return node->height;
 }
 
+int AVLTree::getCount(AVLNode* node) {
+    if (node == nullptr) return 0;
+    return node->count;
+}
+
+void AVLTree::update(AVLNode* node) {
+    node->height = std::max(getHeight(node->left), getHeight(node->right)) + 1;
+    node->count = getCount(node->left) + getCount(node->right) + 1;
+}
+
 int AVLTree::getBalance(AVLNode* node) {
     if (node == nullptr) return 0;
     return getHeight(node->left) - getHeight(node->right);
@@ -30,100 +46,184 @@ int AVLTree::getBalance(AVLNode* node) {
 AVLTree::AVLNode* AVLTree::rightRotate(AVLNode* y) {
     AVLNode* x = y->left;
     AVLNode* T2 = x->right;
-    
+
     x->right = y;
     y->left = T2;
-    
-    y->height = std::max(getHeight(y->left), getHeight(y->right)) + 1;
-    x->height = std::max(getHeight(x->left), getHeight(x->right)) + 1;
-    
+
+    update(y);
+    update(x);
+
     return x;
 }
 
 AVLTree::AVLNode* AVLTree::leftRotate(AVLNode* x) {
     AVLNode* y = x->right;
     AVLNode* T2 = y->left;
-    
+
     y->left = x;
     x->right = T2;
-    
-    x->height = std::max(getHeight(x->left), getHeight(x->right)) + 1;
-    y->height = std::max(getHeight(y->left), getHeight(y->right)) + 1;
-    
+
+    update(x);
+    update(y);
+
     return y;
 }
 
+AVLTree::AVLNode* AVLTree::rebalance(AVLNode* node) {
+    update(node);
+
+    int balance = getBalance(node);
+
+    // Left Left / Left Right Case
+    if (balance > 1) {
+        if (getBalance(node->left) < 0) {
+            node->left = leftRotate(node->left);
+        }
+        return rightRotate(node);
+    }
+
+    // Right Right / Right Left Case
+    if (balance < -1) {
+        if (getBalance(node->right) > 0) {
+            node->right = rightRotate(node->right);
+        }
+        return leftRotate(node);
+    }
+
+    return node;
+}
+
 AVLTree::AVLNode* AVLTree::insertHelper(AVLNode* node, const std::string& key, double value) {
     if (node == nullptr) {
         treeSize++;
         return new AVLNode(key, value);
     }
-    
-    if (key < node->key) {
+
+    if (less(value, key, node->value, node->key)) {
         node->left = insertHelper(node->left, key, value);
-    } else if (key > node->key) {
-        node->right = insertHelper(node->right, key, value);
     } else {
-        // Key already exists, update value
-        node->value = value;
-        return node;
-    }
-    
-    node->height = std::max(getHeight(node->left), getHeight(node->right)) + 1;
-    
-    int balance = getBalance(node);
-    
-    // Left Left Case
-    if (balance > 1 && key < node->left->key) {
-        return rightRotate(node);
-    }
-    
-    // Right Right Case
-    if (balance < -1 && key > node->right->key) {
-        return leftRotate(node);
+        node->right = insertHelper(node->right, key, value);
     }
-    
-    // Left Right Case
-    if (balance > 1 && key > node->left->key) {
-        node->left = leftRotate(node->left);
-        return rightRotate(node);
+
+    return rebalance(node);
+}
+
+AVLTree::AVLNode* AVLTree::removeHelper(AVLNode* node, const std::string& key, double value) {
+    if (node == nullptr) {
+        return nullptr;
     }
-    
-    // Right Left Case
-    if (balance < -1 && key < node->right->key) {
-        node->right = rightRotate(node->right);
-        return leftRotate(node);
+
+    if (node->key == key && node->value == value) {
+        if (node->left == nullptr || node->right == nullptr) {
+            AVLNode* child = node->left != nullptr ? node->left : node->right;
+            delete node;
+            treeSize--;
+            return child;
+        }
+
+        // Two children: replace with in-order successor
+        AVLNode* successor = node->right;
+        while (successor->left != nullptr) {
+            successor = successor->left;
+        }
+        node->key = successor->key;
+        node->value = successor->value;
+        node->right = removeHelper(node->right, successor->key, successor->value);
+    } else if (less(value, key, node->value, node->key)) {
+        node->left = removeHelper(node->left, key, value);
+    } else {
+        node->right = removeHelper(node->right, key, value);
     }
-    
-    return node;
+
+    return rebalance(node);
 }
 
 void AVLTree::insert(const std::string& key, double value) {
+    auto existing = keyIndex.find(key);
+    if (existing != keyIndex.end()) {
+        // Key already exists, move it to the position of its new value
+        if (existing->second == value) {
+            return;
+        }
+        root = removeHelper(root, key, existing->second);
+    }
+
+    keyIndex[key] = value;
     root = insertHelper(root, key, value);
 }
 
-AVLTree::AVLNode* AVLTree::searchHelper(AVLNode* node, const std::string& key) {
-    if (node == nullptr || node->key == key) {
-        return node;
+void AVLTree::assign(std::vector<std::pair<std::string, double>> entries) {
+    // Re-scoring keeps the key set: update the hash index in place instead of rebuilding it
+    bool sameKeys = keyIndex.size() == entries.size();
+    for (size_t i = 0; sameKeys && i < entries.size(); i++) {
+        auto existing = keyIndex.find(entries[i].first);
+        if (existing == keyIndex.end()) {
+            sameKeys = false;
+        } else {
+            existing->second = entries[i].second;
+        }
     }
-    
-    if (key < node->key) {
-        return searchHelper(node->left, key);
+    if (!sameKeys) {
+        keyIndex.clear();
+        keyIndex.reserve(entries.size());
+        for (const auto& entry : entries) {
+            keyIndex[entry.first] = entry.second;
+        }
     }
-    
-    return searchHelper(node->right, key);
+
+    std::sort(entries.begin(), entries.end(),
+              [](const std::pair<std::string, double>& a, const std::pair<std::string, double>& b) {
+                  return less(a.second, a.first, b.second, b.first);
+              });
+
+    // Recycle the old nodes when there are exactly enough
+    std::vector<AVLNode*> nodes;
+    nodes.reserve(treeSize);
+    collectNodes(root, nodes);
+    if (nodes.size() != entries.size()) {
+        deleteTree(root);
+        nodes.clear();
+    }
+    treeSize = static_cast<int>(entries.size());
+    root = buildBalanced(entries, nodes, 0, treeSize);
 }
 
-double AVLTree::get(const std::string& key) {
-    AVLNode* node = searchHelper(root, key);
+void AVLTree::collectNodes(AVLNode* node, std::vector<AVLNode*>& nodes) {
     if (node != nullptr) {
-        return node->value;
+        collectNodes(node->left, nodes);
+        nodes.push_back(node);
+        collectNodes(node->right, nodes);
+    }
+}
+
+AVLTree::AVLNode* AVLTree::buildBalanced(const std::vector<std::pair<std::string, double>>& sorted,
+                                         const std::vector<AVLNode*>& nodes, int lo, int hi) {
+    if (lo >= hi) return nullptr;
+    int mid = lo + (hi - lo) / 2;
+    AVLNode* node;
+    if (nodes.empty()) {
+        node = new AVLNode(sorted[mid].first, sorted[mid].second);
+    } else {
+        node = nodes[mid];
+        node->key = sorted[mid].first;
+        node->value = sorted[mid].second;
+    }
+    node->left = buildBalanced(sorted, nodes, lo, mid);
+    node->right = buildBalanced(sorted, nodes, mid + 1, hi);
+    update(node);
+    return node;
+}
+
+double AVLTree::get(const std::string& key) {
+    auto it = keyIndex.find(key);
+    if (it != keyIndex.end()) {
+        return it->second;
     }
     return 0.0;
 }
 
 bool AVLTree::contains(const std::string& key) {
-    return searchHelper(root, key) != nullptr;
+    return keyIndex.find(key) != keyIndex.end();
 }
 
 void AVLTree::inOrderTraversal(AVLNode* node, std::vector<std::pair<std::string, double>>& result) {
@@ -142,19 +242,116 @@ void AVLTree::inOrderTraversalReverse(AVLNode* node, std::vector<std::pair<std::
     }
 }
 
+void AVLTree::pageReverse(AVLNode* node, int& skip, int& remaining,
+                          std::vector<std::pair<std::string, double>>& result) {
+    if (node == nullptr || remaining <= 0) {
+        return;
+    }
+
+    // Skip whole right subtrees using their counts instead of visiting them
+    int rightCount = getCount(node->right);
+    if (skip >= rightCount) {
+        skip -= rightCount;
+    } else {
+        pageReverse(node->right, skip, remaining, result);
+    }
+
+    if (remaining <= 0) {
+        return;
+    }
+
+    if (skip > 0) {
+        skip--;
+    } else {
+        result.push_back(std::make_pair(node->key, node->value));
+        remaining--;
+    }
+
+    pageReverse(node->left, skip, remaining, result);
+}
+
 std::vector<std::pair<std::string, double>> AVLTree::getAllSorted() {
     std::vector<std::pair<std::string, double>> result;
+    result.reserve(treeSize);
     inOrderTraversal(root, result);
     return result;
 }
 
 std::vector<std::pair<std::string, double>> AVLTree::getAllSortedReverse() {
     std::vector<std::pair<std::string, double>> result;
+    result.reserve(treeSize);
     inOrderTraversalReverse(root, result);
     return result;
 }
 
+std::vector<std::pair<std::string, double>> AVLTree::getPageReverse(int offset, int limit) {
+    std::vector<std::pair<std::string, double>> result;
+    if (offset < 0 || limit <= 0 || offset >= treeSize) {
+        return result;
+    }
+
+    int skip = offset;
+    int remaining = limit;
+    result.reserve(std::min(limit, treeSize - offset));
+    pageReverse(root, skip, remaining, result);
+    return result;
+}
+
+bool AVLTree::rangeHelper(AVLNode* node, double low, double high, bool descending,
+                          const std::function<bool(const std::string&, double)>& visit) {
+    if (node == nullptr) {
+        return true;
+    }
+
+    // Only descend into subtrees that can hold values inside the range
+    bool goLeft = node->value >= low;
+    bool goRight = node->value <= high;
+    bool inRange = goLeft && goRight;
+
+    AVLNode* first = descending ? node->right : node->left;
+    AVLNode* second = descending ? node->left : node->right;
+    bool visitFirst = descending ? goRight : goLeft;
+    bool visitSecond = descending ? goLeft : goRight;
+
+    if (visitFirst && !rangeHelper(first, low, high, descending, visit)) {
+        return false;
+    }
+    if (inRange && !visit(node->key, node->value)) {
+        return false;
+    }
+    if (visitSecond && !rangeHelper(second, low, high, descending, visit)) {
+        return false;
+    }
+    return true;
+}
+
+void AVLTree::forEachInRange(double low, double high, bool descending,
+                             const std::function<bool(const std::string&, double)>& visit) {
+    rangeHelper(root, low, high, descending, visit);
+}
+
+int AVLTree::countBelow(double bound, bool inclusive) {
+    int count = 0;
+    AVLNode* node = root;
+    while (node != nullptr) {
+        bool below = inclusive ? node->value <= bound : node->value < bound;
+        if (below) {
+            count += getCount(node->left) + 1;
+            node = node->right;
+        } else {
+            node = node->left;
+        }
+    }
+    return count;
+}
+
+int AVLTree::countInRange(double low, double high) {
+    if (low > high) {
+        return 0;
+    }
+    return countBelow(high, true) - countBelow(low, false);
+}
+
 int AVLTree::size() {
     return treeSize;
 }
-
@@ -0,0 +1,639 @@
+#include "../include/BPlusTree.h"
+#include <algorithm>
+#include <climits>
+#include <cstring>
+
+namespace {
+    const uint32_t TREE_MAGIC = 0x42505431; // "BPT1"
+    const int NODE_HEADER = 16;             // leaf flag, entry count, previous and next leaf
+    const int START_OF_LEAF = INT_MIN;      // Scan position: first (or last) entry of the leaf
+
+    // Helper function to read an unaligned integer from a page
+    template <typename T>
+    T load(const char* at) {
+        T value;
+        std::memcpy(&value, at, sizeof(T));
+        return value;
+    }
+
+    // Helper function to write an unaligned integer into a page
+    template <typename T>
+    void store(char* at, T value) {
+        std::memcpy(at, &value, sizeof(T));
+    }
+}
+
+// ---- PageCache ----
+
+PageCache::PageCache(const std::string& path, int pageSize, int capacity)
+    : open(false), pageSize(pageSize), capacity(std::max(8, capacity)), pageCount(0),
+      hits(0), misses(0), evictions(0) {
+    file.open(path, std::ios::in | std::ios::out | std::ios::binary);
+    if (!file.is_open()) {
+        // Create the file, then reopen it for reading and writing
+        std::ofstream create(path, std::ios::binary);
+        create.close();
+        file.open(path, std::ios::in | std::ios::out | std::ios::binary);
+    }
+    if (file.is_open()) {
+        file.seekg(0, std::ios::end);
+        pageCount = static_cast<uint32_t>(static_cast<long long>(file.tellg()) / pageSize);
+        open = true;
+    }
+}
+
+PageCache::~PageCache() {
+    if (open) {
+        flush();
+    }
+}
+
+bool PageCache::isOpen() const {
+    return open;
+}
+
+PageCache::Frame* PageCache::frameFor(uint32_t page) {
+    std::unique_ptr<Frame> frame;
+    if (static_cast<int>(frames.size()) >= capacity) {
+        // Evict the least recently used unpinned page
+        for (auto it = lru.rbegin(); it != lru.rend(); ++it) {
+            Frame* victim = *it;
+            if (victim->pins == 0) {
+                if (victim->dirty) {
+                    write(victim);
+                }
+                lru.erase(victim->position);
+                auto entry = frames.find(victim->page);
+                frame = std::move(entry->second);
+                frames.erase(entry);
+                evictions++;
+                break;
+            }
+        }
+    }
+    if (!frame) {
+        frame = std::make_unique<Frame>();
+        frame->data.resize(pageSize);
+    }
+    frame->page = page;
+    frame->pins = 0;
+    frame->dirty = false;
+    lru.push_front(frame.get());
+    frame->position = lru.begin();
+    Frame* result = frame.get();
+    frames[page] = std::move(frame);
+    return result;
+}
+
+char* PageCache::pin(uint32_t page) {
+    auto it = frames.find(page);
+    Frame* frame;
+    if (it != frames.end()) {
+        hits++;
+        frame = it->second.get();
+        lru.splice(lru.begin(), lru, frame->position);
+    } else {
+        misses++;
+        frame = frameFor(page);
+        file.seekg(static_cast<std::streamoff>(page) * pageSize);
+        file.read(frame->data.data(), pageSize);
+        std::streamsize read = file.gcount();
+        if (read < pageSize) {
+            std::fill(frame->data.begin() + read, frame->data.end(), 0);
+            file.clear();
+        }
+    }
+    frame->pins++;
+    return frame->data.data();
+}
+
+void PageCache::unpin(uint32_t page, bool dirty) {
+    Frame* frame = frames[page].get();
+    frame->pins--;
+    frame->dirty = frame->dirty || dirty;
+}
+
+uint32_t PageCache::allocate(char*& data) {
+    uint32_t page = pageCount++;
+    Frame* frame = frameFor(page);
+    std::fill(frame->data.begin(), frame->data.end(), 0);
+    frame->dirty = true;
+    frame->pins = 1;
+    data = frame->data.data();
+    return page;
+}
+
+void PageCache::write(Frame* frame) {
+    file.seekp(static_cast<std::streamoff>(frame->page) * pageSize);
+    file.write(frame->data.data(), pageSize);
+    frame->dirty = false;
+}
+
+void PageCache::flush() {
+    for (auto& entry : frames) {
+        if (entry.second->dirty) {
+            write(entry.second.get());
+        }
+    }
+    file.flush();
+}
+
+// ---- BPlusTree ----
+
+BPlusTree::BPlusTree(const std::string& path, int keySize, int valueSize, int cachePages, int pageSize)
+    : open(false), keySize(keySize), valueSize(valueSize), pageSize(pageSize),
+      root(0), height(0), count(0), headerDirty(false) {
+    leafCapacity = (pageSize - NODE_HEADER) / (keySize + valueSize);
+    internalCapacity = (pageSize - NODE_HEADER) / (keySize + 12);
+    while (internalCapacity > 2 &&
+           internalCountsOffset() + (internalCapacity + 1) * 8 + internalCapacity * keySize > pageSize) {
+        internalCapacity--;
+    }
+    if (leafCapacity < 2 || internalCapacity < 2) {
+        return; // Entries too large for the page size
+    }
+
+    cache = std::make_unique<PageCache>(path, pageSize, cachePages);
+    if (!cache->isOpen()) {
+        return;
+    }
+    if (cache->getPageCount() == 0) {
+        // New file: header page, then an empty root leaf
+        char* header;
+        cache->allocate(header);
+        cache->unpin(0, true);
+        char* leaf;
+        root = newNode(true, leaf);
+        cache->unpin(root, true);
+        headerDirty = true;
+        writeHeader();
+    } else {
+        char* header = cache->pin(0);
+        bool compatible = load<uint32_t>(header) == TREE_MAGIC &&
+                          load<uint32_t>(header + 4) == static_cast<uint32_t>(keySize) &&
+                          load<uint32_t>(header + 8) == static_cast<uint32_t>(valueSize) &&
+                          load<uint32_t>(header + 12) == static_cast<uint32_t>(pageSize);
+        root = load<uint32_t>(header + 16);
+        height = static_cast<int>(load<uint32_t>(header + 20));
+        count = load<long long>(header + 24);
+        cache->unpin(0, false);
+        if (!compatible) {
+            return;
+        }
+    }
+    open = true;
+}
+
+BPlusTree::~BPlusTree() {
+    if (open) {
+        flush();
+    }
+}
+
+bool BPlusTree::isOpen() const {
+    return open;
+}
+
+long long BPlusTree::size() const {
+    return count;
+}
+
+int BPlusTree::getHeight() const {
+    return height;
+}
+
+const PageCache& BPlusTree::getCache() const {
+    return *cache;
+}
+
+void BPlusTree::writeHeader() {
+    char* header = cache->pin(0);
+    store<uint32_t>(header, TREE_MAGIC);
+    store<uint32_t>(header + 4, keySize);
+    store<uint32_t>(header + 8, valueSize);
+    store<uint32_t>(header + 12, pageSize);
+    store<uint32_t>(header + 16, root);
+    store<uint32_t>(header + 20, height);
+    store<long long>(header + 24, count);
+    cache->unpin(0, true);
+    headerDirty = false;
+}
+
+void BPlusTree::flush() {
+    if (headerDirty) {
+        writeHeader();
+    }
+    cache->flush();
+}
+
+// Node layout: [leaf flag][unused][entry count u16][previous leaf u32][next leaf u32][unused u32]
+// Leaf: keys[leafCapacity], values[leafCapacity]
+// Internal: children u32[capacity + 1], counts i64[capacity + 1] (8-aligned), keys[capacity]
+
+bool BPlusTree::isLeaf(const char* node) {
+    return node[0] != 0;
+}
+
+int BPlusTree::entryCount(const char* node) {
+    return load<uint16_t>(node + 2);
+}
+
+void BPlusTree::setEntryCount(char* node, int n) {
+    store<uint16_t>(node + 2, static_cast<uint16_t>(n));
+}
+
+uint32_t BPlusTree::previousLeaf(const char* node) {
+    return load<uint32_t>(node + 4);
+}
+
+uint32_t BPlusTree::nextLeaf(const char* node) {
+    return load<uint32_t>(node + 8);
+}
+
+void BPlusTree::setPreviousLeaf(char* node, uint32_t page) {
+    store<uint32_t>(node + 4, page);
+}
+
+void BPlusTree::setNextLeaf(char* node, uint32_t page) {
+    store<uint32_t>(node + 8, page);
+}
+
+char* BPlusTree::leafKey(char* node, int i) const {
+    return node + NODE_HEADER + i * keySize;
+}
+
+char* BPlusTree::leafValue(char* node, int i) const {
+    return node + NODE_HEADER + leafCapacity * keySize + i * valueSize;
+}
+
+int BPlusTree::internalCountsOffset() const {
+    return (NODE_HEADER + (internalCapacity + 1) * 4 + 7) & ~7;
+}
+
+uint32_t* BPlusTree::children(char* node) const {
+    return reinterpret_cast<uint32_t*>(node + NODE_HEADER);
+}
+
+long long* BPlusTree::childCounts(char* node) const {
+    return reinterpret_cast<long long*>(node + internalCountsOffset());
+}
+
+char* BPlusTree::internalKey(char* node, int i) const {
+    return node + internalCountsOffset() + (internalCapacity + 1) * 8 + i * keySize;
+}
+
+int BPlusTree::compare(const char* a, const char* b) const {
+    return std::memcmp(a, b, keySize);
+}
+
+int BPlusTree::lowerBound(char* leaf, const char* key) const {
+    int lo = 0;
+    int hi = entryCount(leaf);
+    while (lo < hi) {
+        int mid = (lo + hi) / 2;
+        if (compare(leafKey(leaf, mid), key) < 0) {
+            lo = mid + 1;
+        } else {
+            hi = mid;
+        }
+    }
+    return lo;
+}
+
+int BPlusTree::childIndex(char* node, const char* key) const {
+    // Child i holds keys below separator i, so take the first separator above key
+    int lo = 0;
+    int hi = entryCount(node);
+    while (lo < hi) {
+        int mid = (lo + hi) / 2;
+        if (compare(internalKey(node, mid), key) <= 0) {
+            lo = mid + 1;
+        } else {
+            hi = mid;
+        }
+    }
+    return lo;
+}
+
+uint32_t BPlusTree::newNode(bool leaf, char*& data) {
+    uint32_t page = cache->allocate(data);
+    data[0] = leaf ? 1 : 0;
+    return page;
+}
+
+bool BPlusTree::find(const char* key, char* value) {
+    uint32_t page = root;
+    for (int level = 0; level < height; level++) {
+        char* node = cache->pin(page);
+        uint32_t child = children(node)[childIndex(node, key)];
+        cache->unpin(page, false);
+        page = child;
+    }
+    char* leaf = cache->pin(page);
+    int pos = lowerBound(leaf, key);
+    bool found = pos < entryCount(leaf) && compare(leafKey(leaf, pos), key) == 0;
+    if (found && value != nullptr) {
+        std::memcpy(value, leafValue(leaf, pos), valueSize);
+    }
+    cache->unpin(page, false);
+    return found;
+}
+
+bool BPlusTree::insert(const char* key, const char* value) {
+    // Descend with the path pinned, remembering which child was taken
+    std::vector<uint32_t> pathPages;
+    std::vector<char*> pathNodes;
+    std::vector<int> pathSlots;
+    bool rightmost = true;
+    uint32_t page = root;
+    for (int level = 0; level < height; level++) {
+        char* node = cache->pin(page);
+        int slot = childIndex(node, key);
+        rightmost = rightmost && slot == entryCount(node);
+        pathPages.push_back(page);
+        pathNodes.push_back(node);
+        pathSlots.push_back(slot);
+        page = children(node)[slot];
+    }
+
+    char* leaf = cache->pin(page);
+    int n = entryCount(leaf);
+    int pos = lowerBound(leaf, key);
+    if (pos < n && compare(leafKey(leaf, pos), key) == 0) {
+        std::memcpy(leafValue(leaf, pos), value, valueSize);
+        cache->unpin(page, true);
+        for (uint32_t pinned : pathPages) {
+            cache->unpin(pinned, false);
+        }
+        return false;
+    }
+
+    Split split;
+    split.happened = false;
+    if (n < leafCapacity) {
+        std::memmove(leafKey(leaf, pos + 1), leafKey(leaf, pos), (n - pos) * keySize);
+        std::memmove(leafValue(leaf, pos + 1), leafValue(leaf, pos), (n - pos) * valueSize);
+        std::memcpy(leafKey(leaf, pos), key, keySize);
+        std::memcpy(leafValue(leaf, pos), value, valueSize);
+        setEntryCount(leaf, n + 1);
+    } else {
+        // Split the full leaf; appending at the right edge leaves the left leaf
+        // full, so sequential loads pack pages completely
+        int total = n + 1;
+        int leftCount = (pos == n && nextLeaf(leaf) == 0) ? n : total / 2;
+        std::vector<char> keys(static_cast<size_t>(total) * keySize);
+        std::vector<char> values(static_cast<size_t>(total) * valueSize);
+        std::memcpy(keys.data(), leafKey(leaf, 0), pos * keySize);
+        std::memcpy(keys.data() + pos * keySize, key, keySize);
+        std::memcpy(keys.data() + (pos + 1) * keySize, leafKey(leaf, pos), (n - pos) * keySize);
+        std::memcpy(values.data(), leafValue(leaf, 0), pos * valueSize);
+        std::memcpy(values.data() + pos * valueSize, value, valueSize);
+        std::memcpy(values.data() + (pos + 1) * valueSize, leafValue(leaf, pos), (n - pos) * valueSize);
+
+        char* right;
+        uint32_t rightPage = newNode(true, right);
+        int rightCount = total - leftCount;
+        std::memcpy(leafKey(leaf, 0), keys.data(), leftCount * keySize);
+        std::memcpy(leafValue(leaf, 0), values.data(), leftCount * valueSize);
+        setEntryCount(leaf, leftCount);
+        std::memcpy(leafKey(right, 0), keys.data() + leftCount * keySize, rightCount * keySize);
+        std::memcpy(leafValue(right, 0), values.data() + leftCount * valueSize, rightCount * valueSize);
+        setEntryCount(right, rightCount);
+
+        uint32_t following = nextLeaf(leaf);
+        setPreviousLeaf(right, page);
+        setNextLeaf(right, following);
+        setNextLeaf(leaf, rightPage);
+        if (following != 0) {
+            char* next = cache->pin(following);
+            setPreviousLeaf(next, rightPage);
+            cache->unpin(following, true);
+        }
+
+        split.happened = true;
+        split.separator.assign(leafKey(right, 0), leafKey(right, 0) + keySize);
+        split.rightPage = rightPage;
+        split.leftCount = leftCount;
+        split.rightCount = rightCount;
+        cache->unpin(rightPage, true);
+    }
+    cache->unpin(page, true);
+
+    // Back up the path: add the split's separator, or count the new entry
+    for (int level = height - 1; level >= 0; level--) {
+        char* node = pathNodes[level];
+        int slot = pathSlots[level];
+        if (split.happened) {
+            Split above;
+            insertIntoInternal(node, slot, split, above, rightmost);
+            split = above;
+        } else {
+            childCounts(node)[slot]++;
+        }
+        cache->unpin(pathPages[level], true);
+    }
+    if (split.happened) {
+        char* node;
+        uint32_t newRoot = newNode(false, node);
+        setEntryCount(node, 1);
+        children(node)[0] = root;
+        children(node)[1] = split.rightPage;
+        childCounts(node)[0] = split.leftCount;
+        childCounts(node)[1] = split.rightCount;
+        std::memcpy(internalKey(node, 0), split.separator.data(), keySize);
+        cache->unpin(newRoot, true);
+        root = newRoot;
+        height++;
+    }
+    count++;
+    headerDirty = true;
+    return true;
+}
+
+void BPlusTree::insertIntoInternal(char* node, int slot, const Split& split, Split& result, bool rightmost) {
+    int n = entryCount(node);
+    uint32_t* childPages = children(node);
+    long long* counts = childCounts(node);
+    result.happened = false;
+    if (n < internalCapacity) {
+        std::memmove(internalKey(node, slot + 1), internalKey(node, slot), (n - slot) * keySize);
+        std::memmove(childPages + slot + 2, childPages + slot + 1, (n - slot) * sizeof(uint32_t));
+        std::memmove(counts + slot + 2, counts + slot + 1, (n - slot) * sizeof(long long));
+        std::memcpy(internalKey(node, slot), split.separator.data(), keySize);
+        childPages[slot + 1] = split.rightPage;
+        counts[slot] = split.leftCount;
+        counts[slot + 1] = split.rightCount;
+        setEntryCount(node, n + 1);
+        return;
+    }
+
+    // Full: lay out n + 1 keys and n + 2 children, then move the middle key up
+    int total = n + 1;
+    std::vector<char> keys(static_cast<size_t>(total) * keySize);
+    std::vector<uint32_t> pages(total + 1);
+    std::vector<long long> sizes(total + 1);
+    std::memcpy(keys.data(), internalKey(node, 0), slot * keySize);
+    std::memcpy(keys.data() + slot * keySize, split.separator.data(), keySize);
+    std::memcpy(keys.data() + (slot + 1) * keySize, internalKey(node, slot), (n - slot) * keySize);
+    for (int i = 0, j = 0; i <= total; i++) {
+        if (i == slot + 1) {
+            pages[i] = split.rightPage;
+            sizes[i] = split.rightCount;
+        } else {
+            pages[i] = childPages[j];
+            sizes[i] = (i == slot) ? split.leftCount : counts[j];
+            j++;
+        }
+    }
+
+    int middle = rightmost && slot == n ? total - 1 : total / 2;
+    char* right;
+    uint32_t rightPage = newNode(false, right);
+    result.happened = true;
+    result.separator.assign(keys.data() + middle * keySize, keys.data() + (middle + 1) * keySize);
+    result.rightPage = rightPage;
+    result.leftCount = 0;
+    result.rightCount = 0;
+
+    std::memcpy(internalKey(node, 0), keys.data(), middle * keySize);
+    for (int i = 0; i <= middle; i++) {
+        childPages[i] = pages[i];
+        counts[i] = sizes[i];
+        result.leftCount += sizes[i];
+    }
+    setEntryCount(node, middle);
+
+    int rightKeys = total - middle - 1;
+    std::memcpy(internalKey(right, 0), keys.data() + (middle + 1) * keySize, rightKeys * keySize);
+    for (int i = 0; i <= rightKeys; i++) {
+        children(right)[i] = pages[middle + 1 + i];
+        childCounts(right)[i] = sizes[middle + 1 + i];
+        result.rightCount += sizes[middle + 1 + i];
+    }
+    setEntryCount(right, rightKeys);
+    cache->unpin(rightPage, true);
+}
+
+bool BPlusTree::erase(const char* key) {
+    std::vector<uint32_t> pathPages;
+    std::vector<char*> pathNodes;
+    std::vector<int> pathSlots;
+    uint32_t page = root;
+    for (int level = 0; level < height; level++) {
+        char* node = cache->pin(page);
+        int slot = childIndex(node, key);
+        pathPages.push_back(page);
+        pathNodes.push_back(node);
+        pathSlots.push_back(slot);
+        page = children(node)[slot];
+    }
+
+    char* leaf = cache->pin(page);
+    int n = entryCount(leaf);
+    int pos = lowerBound(leaf, key);
+    bool found = pos < n && compare(leafKey(leaf, pos), key) == 0;
+    if (found) {
+        std::memmove(leafKey(leaf, pos), leafKey(leaf, pos + 1), (n - pos - 1) * keySize);
+        std::memmove(leafValue(leaf, pos), leafValue(leaf, pos + 1), (n - pos - 1) * valueSize);
+        setEntryCount(leaf, n - 1);
+        count--;
+        headerDirty = true;
+    }
+    cache->unpin(page, found);
+    for (int level = height - 1; level >= 0; level--) {
+        if (found) {
+            childCounts(pathNodes[level])[pathSlots[level]]--;
+        }
+        cache->unpin(pathPages[level], found);
+    }
+    return found;
+}
+
+uint32_t BPlusTree::edgeLeaf(bool last) {
+    uint32_t page = root;
+    for (int level = 0; level < height; level++) {
+        char* node = cache->pin(page);
+        uint32_t child = children(node)[last ? entryCount(node) : 0];
+        cache->unpin(page, false);
+        page = child;
+    }
+    return page;
+}
+
+void BPlusTree::scan(const char* from, bool descending,
+                     const std::function<bool(const char* key, const char* value)>& visit) {
+    uint32_t page;
+    int pos = START_OF_LEAF;
+    if (from == nullptr) {
+        page = edgeLeaf(descending);
+    } else {
+        page = root;
+        for (int level = 0; level < height; level++) {
+            char* node = cache->pin(page);
+            uint32_t child = children(node)[childIndex(node, from)];
+            cache->unpin(page, false);
+            page = child;
+        }
+        char* leaf = cache->pin(page);
+        pos = lowerBound(leaf, from);
+        if (descending && !(pos < entryCount(leaf) && compare(leafKey(leaf, pos), from) == 0)) {
+            pos--; // Last key below from
+        }
+        cache->unpin(page, false);
+    }
+
+    walkLeaves(page, pos, descending, visit);
+}
+
+void BPlusTree::scanFromRank(long long rank, bool descending,
+                             const std::function<bool(const char* key, const char* value)>& visit) {
+    if (rank < 0 || rank >= count) {
+        return;
+    }
+    // Descend by child counts to the entry with this ascending rank
+    long long remaining = descending ? count - 1 - rank : rank;
+    uint32_t page = root;
+    for (int level = 0; level < height; level++) {
+        char* node = cache->pin(page);
+        int n = entryCount(node);
+        int slot = 0;
+        while (slot < n && remaining >= childCounts(node)[slot]) {
+            remaining -= childCounts(node)[slot];
+            slot++;
+        }
+        uint32_t child = children(node)[slot];
+        cache->unpin(page, false);
+        page = child;
+    }
+
+    walkLeaves(page, static_cast<int>(remaining), descending, visit);
+}
+
+void BPlusTree::walkLeaves(uint32_t page, int pos, bool descending,
+                           const std::function<bool(const char* key, const char* value)>& visit) {
+    // Follow the leaf chain from pos; empty leaves are skipped
+    while (page != 0) {
+        char* leaf = cache->pin(page);
+        int n = entryCount(leaf);
+        if (pos == START_OF_LEAF) {
+            pos = descending ? n - 1 : 0;
+        }
+        bool more = true;
+        if (descending) {
+            for (; pos >= 0 && more; pos--) {
+                more = visit(leafKey(leaf, pos), leafValue(leaf, pos));
+            }
+        } else {
+            for (; pos < n && more; pos++) {
+                more = visit(leafKey(leaf, pos), leafValue(leaf, pos));
+            }
+        }
+        uint32_t following = descending ? previousLeaf(leaf) : nextLeaf(leaf);
+        cache->unpin(page, false);
+        if (!more) {
+            return;
+        }
+        page = following;
+        pos = START_OF_LEAF;
+    }
+}
@@ -0,0 +1,171 @@
+#include "DiskVendorStore.h"
+#include <algorithm>
+#include <cstring>
+
+namespace {
+    // Record layout: contract value, data volume, switching cost, lock-in score (doubles),
+    // contract months, API dependencies (int32), custom integration (byte), then the name
+    const int RECORD_BYTES = 48 + DiskVendorStore::NAME_BYTES;
+    const int SCORE_KEY_BYTES = 8 + DiskVendorStore::ID_BYTES;
+}
+
+DiskVendorStore::DiskVendorStore(const std::string& path, int cachePages) {
+    // Records are larger and looked up by id, so they get most of the cache
+    int recordPages = std::max(8, cachePages * 2 / 3);
+    int scorePages = std::max(8, cachePages - recordPages);
+    records = std::make_unique<BPlusTree>(path + ".vendors", ID_BYTES, RECORD_BYTES, recordPages);
+    scores = std::make_unique<BPlusTree>(path + ".scores", SCORE_KEY_BYTES, 0, scorePages);
+}
+
+bool DiskVendorStore::isOpen() const {
+    return records->isOpen() && scores->isOpen();
+}
+
+void DiskVendorStore::encodeId(const std::string& vendorId, char* key) {
+    std::memset(key, 0, ID_BYTES);
+    std::memcpy(key, vendorId.data(), std::min(vendorId.size(), static_cast<size_t>(ID_BYTES)));
+}
+
+std::string DiskVendorStore::decodeId(const char* key) {
+    return std::string(key, strnlen(key, ID_BYTES));
+}
+
+void DiskVendorStore::encodeScore(double score, const std::string& vendorId, char* key) {
+    // Flip the bits of a double so that its big-endian bytes sort like the number
+    uint64_t bits;
+    std::memcpy(&bits, &score, sizeof(bits));
+    bits = (bits & 0x8000000000000000ULL) ? ~bits : bits | 0x8000000000000000ULL;
+    for (int i = 0; i < 8; i++) {
+        key[i] = static_cast<char>(bits >> (56 - 8 * i));
+    }
+    encodeId(vendorId, key + 8);
+}
+
+double DiskVendorStore::decodeScore(const char* key) {
+    uint64_t bits = 0;
+    for (int i = 0; i < 8; i++) {
+        bits = (bits << 8) | static_cast<unsigned char>(key[i]);
+    }
+    bits = (bits & 0x8000000000000000ULL) ? bits & ~0x8000000000000000ULL : ~bits;
+    double score;
+    std::memcpy(&score, &bits, sizeof(score));
+    return score;
+}
+
+void DiskVendorStore::encodeRecord(const VendorData& data, char* value) {
+    std::memset(value, 0, RECORD_BYTES);
+    std::memcpy(value, &data.contractValue, 8);
+    std::memcpy(value + 8, &data.dataVolumeGB, 8);
+    std::memcpy(value + 16, &data.switchingCost, 8);
+    std::memcpy(value + 24, &data.lockInScore, 8);
+    int32_t months = data.contractMonths;
+    int32_t dependencies = data.apiDependencies;
+    std::memcpy(value + 32, &months, 4);
+    std::memcpy(value + 36, &dependencies, 4);
+    value[40] = data.hasCustomIntegration ? 1 : 0;
+
+    // Cut the name before a UTF-8 continuation byte so it stays valid
+    size_t length = std::min(data.vendorName.size(), static_cast<size_t>(NAME_BYTES));
+    while (length > 0 && length < data.vendorName.size() &&
+           (static_cast<unsigned char>(data.vendorName[length]) & 0xC0) == 0x80) {
+        length--;
+    }
+    std::memcpy(value + 48, data.vendorName.data(), length);
+}
+
+void DiskVendorStore::decodeRecord(const char* key, const char* value, VendorData& data) {
+    data.vendorId = decodeId(key);
+    std::memcpy(&data.contractValue, value, 8);
+    std::memcpy(&data.dataVolumeGB, value + 8, 8);
+    std::memcpy(&data.switchingCost, value + 16, 8);
+    std::memcpy(&data.lockInScore, value + 24, 8);
+    int32_t months;
+    int32_t dependencies;
+    std::memcpy(&months, value + 32, 4);
+    std::memcpy(&dependencies, value + 36, 4);
+    data.contractMonths = months;
+    data.apiDependencies = dependencies;
+    data.hasCustomIntegration = value[40] != 0;
+    data.vendorName.assign(value + 48, strnlen(value + 48, NAME_BYTES));
+}
+
+bool DiskVendorStore::put(const VendorData& data, double& previousScore) {
+    char key[ID_BYTES];
+    char value[RECORD_BYTES];
+    char scoreKey[SCORE_KEY_BYTES];
+    encodeId(data.vendorId, key);
+
+    bool replacing = records->find(key, value);
+    if (replacing) {
+        std::memcpy(&previousScore, value + 24, 8);
+        if (previousScore != data.lockInScore) {
+            encodeScore(previousScore, data.vendorId, scoreKey);
+            scores->erase(scoreKey);
+        }
+    }
+    encodeRecord(data, value);
+    records->insert(key, value);
+    if (!replacing || previousScore != data.lockInScore) {
+        encodeScore(data.lockInScore, data.vendorId, scoreKey);
+        scores->insert(scoreKey, scoreKey); // No value bytes
+    }
+    return replacing;
+}
+
+bool DiskVendorStore::get(const std::string& vendorId, VendorData& data) {
+    char key[ID_BYTES];
+    char value[RECORD_BYTES];
+    encodeId(vendorId, key);
+    if (!records->find(key, value)) {
+        return false;
+    }
+    decodeRecord(key, value, data);
+    return true;
+}
+
+long long DiskVendorStore::size() const {
+    return records->size();
+}
+
+void DiskVendorStore::page(long long offset, int limit, std::vector<VendorData>& out) {
+    out.clear();
+    if (limit <= 0) {
+        return;
+    }
+    records->scanFromRank(offset, false, [&](const char* key, const char* value) {
+        out.emplace_back();
+        decodeRecord(key, value, out.back());
+        return static_cast<int>(out.size()) < limit;
+    });
+}
+
+void DiskVendorStore::topScores(long long offset, int limit, std::vector<std::pair<std::string, double>>& out) {
+    out.clear();
+    if (limit <= 0) {
+        return;
+    }
+    scores->scanFromRank(offset, true, [&](const char* key, const char*) {
+        out.push_back(std::make_pair(decodeId(key + 8), decodeScore(key)));
+        return static_cast<int>(out.size()) < limit;
+    });
+}
+
+void DiskVendorStore::forEachScore(const std::function<void(double)>& visit) {
+    scores->scan(nullptr, false, [&](const char* key, const char*) {
+        visit(decodeScore(key));
+        return true;
+    });
+}
+
+void DiskVendorStore::flush() {
+    records->flush();
+    scores->flush();
+}
+
+long long DiskVendorStore::getCacheHits() const {
+    return records->getCache().getHits() + scores->getCache().getHits();
+}
+
+long long DiskVendorStore::getCacheMisses() const {
+    return records->getCache().getMisses() + scores->getCache().getMisses();
+}
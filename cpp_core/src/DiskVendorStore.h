@@ -0,0 +1,54 @@
+#ifndef DISK_VENDOR_STORE_H
+#define DISK_VENDOR_STORE_H
+
+#include "../include/VendorLockInAnalyzer.h"
+#include "../include/BPlusTree.h"
+#include <functional>
+
+/**
+ * Vendor records and the lock-in score index kept in two disk B+trees
+ * (<path>.vendors keyed by vendor id, <path>.scores keyed by score then id),
+ * read through bounded page caches. Vendor ids are limited to ID_BYTES bytes;
+ * names are cut to NAME_BYTES bytes on a character boundary.
+ */
+class DiskVendorStore {
+public:
+    static const int ID_BYTES = 32;
+    static const int NAME_BYTES = 48;
+
+    // cachePages is shared between the two trees (4 KB pages)
+    DiskVendorStore(const std::string& path, int cachePages);
+
+    bool isOpen() const;
+
+    // Store the vendor with its lock-in score; true (and previousScore set) if it replaced one
+    bool put(const VendorData& data, double& previousScore);
+    bool get(const std::string& vendorId, VendorData& data);
+    long long size() const;
+
+    // Vendors in id order, starting at rank offset
+    void page(long long offset, int limit, std::vector<VendorData>& out);
+
+    // Vendors by descending lock-in score, starting at rank offset
+    void topScores(long long offset, int limit, std::vector<std::pair<std::string, double>>& out);
+
+    // Visit every lock-in score in ascending order
+    void forEachScore(const std::function<void(double)>& visit);
+
+    void flush();
+    long long getCacheHits() const;
+    long long getCacheMisses() const;
+
+private:
+    std::unique_ptr<BPlusTree> records;
+    std::unique_ptr<BPlusTree> scores;
+
+    static void encodeId(const std::string& vendorId, char* key);
+    static std::string decodeId(const char* key);
+    static void encodeScore(double score, const std::string& vendorId, char* key);
+    static double decodeScore(const char* key);
+    static void encodeRecord(const VendorData& data, char* value);
+    static void decodeRecord(const char* key, const char* value, VendorData& data);
+};
+
+#endif // DISK_VENDOR_STORE_H
@@ -0,0 +1,156 @@
+#include "../include/DynamicTopologicalOrder.h"
+#include <algorithm>
+
+DynamicTopologicalOrder::DynamicTopologicalOrder() {
+}
+
+int DynamicTopologicalOrder::addVertex() {
+    int vertex = static_cast<int>(position.size());
+    outEdges.emplace_back();
+    inEdges.emplace_back();
+    position.push_back(static_cast<int>(order.size()));
+    order.push_back(vertex);
+    visited.push_back(0);
+    return vertex;
+}
+
+bool DynamicTopologicalOrder::hasEdge(int from, int to) const {
+    const std::vector<int>& edges = outEdges[from];
+    return std::find(edges.begin(), edges.end(), to) != edges.end();
+}
+
+bool DynamicTopologicalOrder::addEdge(int from, int to) {
+    moved.clear();
+    if (from == to) {
+        return false;
+    }
+    if (hasEdge(from, to)) {
+        return true;
+    }
+
+    int lowerBound = position[to];
+    int upperBound = position[from];
+    if (lowerBound > upperBound) {
+        // Already consistent with the current order
+        outEdges[from].push_back(to);
+        inEdges[to].push_back(from);
+        return true;
+    }
+
+    // Affected region is [position[to], position[from]]
+    deltaForward.clear();
+    deltaBackward.clear();
+    bool acyclic = searchForward(to, from, upperBound);
+    if (acyclic) {
+        searchBackward(from, lowerBound);
+    }
+
+    for (int vertex : deltaForward) visited[vertex] = 0;
+    for (int vertex : deltaBackward) visited[vertex] = 0;
+
+    if (!acyclic) {
+        return false;
+    }
+
+    reorder();
+    outEdges[from].push_back(to);
+    inEdges[to].push_back(from);
+    return true;
+}
+
+bool DynamicTopologicalOrder::searchForward(int start, int target, int upperBound) {
+    // Vertices reachable from `to` that currently sit before `from`
+    stack.clear();
+    stack.push_back(start);
+    visited[start] = 1;
+    deltaForward.push_back(start);
+
+    while (!stack.empty()) {
+        int vertex = stack.back();
+        stack.pop_back();
+        for (int next : outEdges[vertex]) {
+            if (next == target) {
+                return false; // from is reachable from to: the edge would close a cycle
+            }
+            if (!visited[next] && position[next] < upperBound) {
+                visited[next] = 1;
+                deltaForward.push_back(next);
+                stack.push_back(next);
+            }
+        }
+    }
+    return true;
+}
+
+void DynamicTopologicalOrder::searchBackward(int start, int lowerBound) {
+    // Vertices that reach `from` and currently sit after `to`
+    stack.clear();
+    stack.push_back(start);
+    visited[start] = 1;
+    deltaBackward.push_back(start);
+
+    while (!stack.empty()) {
+        int vertex = stack.back();
+        stack.pop_back();
+        for (int prev : inEdges[vertex]) {
+            if (!visited[prev] && position[prev] > lowerBound) {
+                visited[prev] = 1;
+                deltaBackward.push_back(prev);
+                stack.push_back(prev);
+            }
+        }
+    }
+}
+
+void DynamicTopologicalOrder::reorder() {
+    auto byPosition = [this](int a, int b) { return position[a] < position[b]; };
+    std::sort(deltaBackward.begin(), deltaBackward.end(), byPosition);
+    std::sort(deltaForward.begin(), deltaForward.end(), byPosition);
+
+    // Reuse the same set of positions: ancestors of `from` first, then descendants of `to`
+    moved.reserve(deltaBackward.size() + deltaForward.size());
+    for (int vertex : deltaBackward) moved.push_back(position[vertex]);
+    for (int vertex : deltaForward) moved.push_back(position[vertex]);
+    std::sort(moved.begin(), moved.end());
+
+    size_t slot = 0;
+    for (int vertex : deltaBackward) {
+        position[vertex] = moved[slot];
+        order[moved[slot++]] = vertex;
+    }
+    for (int vertex : deltaForward) {
+        position[vertex] = moved[slot];
+        order[moved[slot++]] = vertex;
+    }
+}
+
+void DynamicTopologicalOrder::removeEdge(int from, int to) {
+    std::vector<int>& out = outEdges[from];
+    auto it = std::find(out.begin(), out.end(), to);
+    if (it == out.end()) {
+        return;
+    }
+    out.erase(it);
+    std::vector<int>& in = inEdges[to];
+    in.erase(std::find(in.begin(), in.end(), from));
+}
+
+int DynamicTopologicalOrder::size() const {
+    return static_cast<int>(order.size());
+}
+
+int DynamicTopologicalOrder::positionOf(int vertex) const {
+    return position[vertex];
+}
+
+int DynamicTopologicalOrder::vertexAt(int pos) const {
+    return order[pos];
+}
+
+const std::vector<int>& DynamicTopologicalOrder::predecessors(int vertex) const {
+    return inEdges[vertex];
+}
+
+const std::vector<int>& DynamicTopologicalOrder::lastMovedPositions() const {
+    return moved;
+}
@@ -1,26 +1,16 @@
 #include "../include/ExitReadinessDashboard.h"
 #include "VendorAVLTree.h"
 #include "ExitReadinessGraph.h"
+#include "ReadinessMetricsTable.h"
 #include <unordered_map>
 #include <algorithm>
 #include <cmath>
 
-struct VendorReadinessMetrics {
-    std::string vendorId;
-    double lockInScore;
-    double migrationDifficulty;
-    int dataExportCapability;
-    int contractFlexibility;
-    int technicalComplexity;
-    double exitReadiness;
-};
-
-// Private implementation - store metrics separately since header uses forward declarations
-static std::unordered_map<std::string, VendorReadinessMetrics> g_vendorMetrics;
-
-ExitReadinessDashboard::ExitReadinessDashboard() {
+ExitReadinessDashboard::ExitReadinessDashboard()
+    : version(0), scoringModel(ScoringModel::defaultReadiness()) {
     vendorTree = std::make_unique<VendorAVLTree>();
     readinessGraph = std::make_unique<ExitReadinessGraph>();
+    metricsTable = std::make_unique<ReadinessMetricsTable>();
 }
 
 ExitReadinessDashboard::~ExitReadinessDashboard() {
@@ -40,67 +30,135 @@ void ExitReadinessDashboard::addVendorMetrics(const std::string& vendorId,
     metrics.contractFlexibility = contractFlexibility;
     metrics.technicalComplexity = technicalComplexity;
     
+    VendorReadinessMetrics* previous = metricsTable->get(vendorId);
+    bool replacing = previous != nullptr;
+    double previousReadiness = replacing ? previous->exitReadiness : 0.0;
+    
     // Store metrics first
-    g_vendorMetrics[vendorId] = metrics;
+    int slot = metricsTable->insert(metrics);
     
     // Calculate exit readiness score
-    metrics.exitReadiness = calculateReadinessFactors(vendorId);
-    g_vendorMetrics[vendorId].exitReadiness = metrics.exitReadiness;
+    metrics.exitReadiness = calculateReadinessFactors(slot);
+    metricsTable->setExitReadiness(slot, metrics.exitReadiness);
+    if (replacing) {
+        scoreSketch.replace(previousReadiness, metrics.exitReadiness);
+    } else {
+        scoreSketch.add(metrics.exitReadiness);
+    }
     
     vendorTree->insert(vendorId, metrics.exitReadiness);
+    version++;
     
-    // Add to graph for path calculation
-    std::vector<std::string> states = {"planning", "preparation", "migration", "exited"};
-    std::vector<double> costs = {
-        100.0 - metrics.exitReadiness,  // Cost to move from current to planning
-        metrics.migrationDifficulty,     // Cost to move from planning to preparation
-        metrics.migrationDifficulty * 0.7, // Cost to move from preparation to migration
-        metrics.lockInScore * 0.5        // Cost to move from migration to exited
+    // Staged exit graph: vendor -> planning -> preparation -> migration -> exited.
+    // Intermediate states are per vendor so every stage carries this vendor's costs.
+    std::string planning = vendorId + "::planning";
+    std::string preparation = vendorId + "::preparation";
+    std::string migration = vendorId + "::migration";
+    
+    auto transition = [this](const std::string& from, const std::string& to, double cost) {
+        readinessGraph->addVendorState(from, std::vector<std::string>{to}, std::vector<double>{cost});
     };
     
-    // For simplicity, create edges from vendor to each state
-    for (size_t i = 0; i < states.size() && i < costs.size(); ++i) {
-        std::vector<std::string> nextStates = {states[i]};
-        std::vector<double> nextCosts = {costs[i]};
-        readinessGraph->addVendorState(vendorId, nextStates, nextCosts);
+    transition(vendorId, planning, planningCost(metrics));
+    transition(planning, preparation, metrics.migrationDifficulty);
+    transition(preparation, migration, metrics.migrationDifficulty * 0.7);
+    transition(migration, "exited", metrics.lockInScore * 0.5);
+    
+    // Alternatives that skip a stage at a price
+    // Contract buy-out: pay down the contract and start preparing immediately
+    transition(vendorId, preparation, buyOutCost(metrics));
+    // Fast-track: move straight to migration, harder for complex systems
+    transition(planning, migration,
+               metrics.migrationDifficulty * (1.0 + metrics.technicalComplexity / 100.0));
+    // Lift-and-shift: exit without re-platforming, limited by data export capability
+    transition(preparation, "exited",
+               (100.0 - metrics.dataExportCapability) * 0.6 + metrics.lockInScore * 0.5);
+}
+
+int ExitReadinessDashboard::updateScores(const std::vector<std::string>& vendorIds,
+                                         const std::vector<double>& lockInScores,
+                                         const std::vector<double>& migrationDifficulties,
+                                         std::vector<double>& readiness) {
+    int updated = 0;
+    readiness.assign(vendorIds.size(), std::nan(""));
+    for (size_t i = 0; i < vendorIds.size(); i++) {
+        VendorReadinessMetrics* current = metricsTable->get(vendorIds[i]);
+        if (current == nullptr) {
+            continue;
+        }
+        VendorReadinessMetrics metrics = *current;
+        if (!std::isnan(lockInScores[i])) {
+            metrics.lockInScore = lockInScores[i];
+        }
+        if (!std::isnan(migrationDifficulties[i])) {
+            metrics.migrationDifficulty = migrationDifficulties[i];
+        }
+        addVendorMetrics(metrics.vendorId, metrics.lockInScore, metrics.migrationDifficulty,
+                         metrics.dataExportCapability, metrics.contractFlexibility,
+                         metrics.technicalComplexity);
+        readiness[i] = metricsTable->get(metrics.vendorId)->exitReadiness;
+        updated++;
     }
+    return updated;
+}
+
+double ExitReadinessDashboard::planningCost(const VendorReadinessMetrics& metrics) {
+    return 100.0 - metrics.exitReadiness;
+}
+
+double ExitReadinessDashboard::buyOutCost(const VendorReadinessMetrics& metrics) {
+    return metrics.lockInScore * (1.0 - metrics.contractFlexibility / 100.0) * 1.5 +
+           (100.0 - metrics.exitReadiness) * 0.5;
 }
 
 double ExitReadinessDashboard::calculateExitReadiness(const std::string& vendorId) {
-    if (g_vendorMetrics.find(vendorId) == g_vendorMetrics.end()) {
+    int slot = metricsTable->getSlot(vendorId);
+    if (slot < 0) {
         return 0.0;
     }
     
-    return calculateReadinessFactors(vendorId);
+    return calculateReadinessFactors(slot);
 }
 
-double ExitReadinessDashboard::calculateReadinessFactors(const std::string& vendorId) {
-    if (g_vendorMetrics.find(vendorId) == g_vendorMetrics.end()) {
-        return 0.0;
-    }
-    
-    const VendorReadinessMetrics& metrics = g_vendorMetrics[vendorId];
-    
-    double readiness = 0.0;
-    
-    // Lock-in factor (inverse: lower lock-in = higher readiness) (0-30 points)
-    double lockInFactor = (100.0 - metrics.lockInScore) * 0.3;
-    
-    // Migration difficulty factor (inverse: easier = higher readiness) (0-25 points)
-    double migrationFactor = (100.0 - metrics.migrationDifficulty) * 0.25;
-    
-    // Data export capability (0-20 points)
-    double dataFactor = metrics.dataExportCapability * 0.2;
-    
-    // Contract flexibility (0-15 points)
-    double contractFactor = metrics.contractFlexibility * 0.15;
-    
-    // Technical complexity (inverse: simpler = higher readiness) (0-10 points)
-    double techFactor = (100.0 - metrics.technicalComplexity) * 0.1;
+double ExitReadinessDashboard::calculateReadinessFactors(int slot) {
+    // Factors and weights come from the scoring model (default 30/25/20/15/10 points)
+    const ReadinessColumns& columns = metricsTable->getColumns();
+    return scoringModel.score([&columns](int field) { return columns.column(field); }, slot);
+}
+
+void ExitReadinessDashboard::setScoringModel(const ScoringModel& model) {
+    scoringModel = model;
     
-    readiness = lockInFactor + migrationFactor + dataFactor + contractFactor + techFactor;
+    const ReadinessColumns& columns = metricsTable->getColumns();
+    int count = metricsTable->size();
+    std::vector<double> scores = scoringModel.scoreAll([&columns](int field) { return columns.column(field); },
+                                                       count);
     
-    return std::min(100.0, std::max(0.0, readiness));
+    std::vector<std::pair<std::string, double>> entries;
+    entries.reserve(count);
+    for (int slot = 0; slot < count; slot++) {
+        VendorReadinessMetrics* metrics = metricsTable->getBySlot(slot);
+        if (metrics->exitReadiness != scores[slot]) {
+            metricsTable->setExitReadiness(slot, scores[slot]);
+            // Only the planning and buy-out transitions are priced by readiness
+            readinessGraph->setTransition(metrics->vendorId, metrics->vendorId + "::planning",
+                                          planningCost(*metrics));
+            readinessGraph->setTransition(metrics->vendorId, metrics->vendorId + "::preparation",
+                                          buyOutCost(*metrics));
+        }
+        entries.push_back(std::make_pair(metrics->vendorId, scores[slot]));
+    }
+    vendorTree->assign(std::move(entries));
+    scoreSketch = ScoreSketch::fromScores(scores);
+    version++;
+}
+
+const ScoringModel& ExitReadinessDashboard::getScoringModel() const {
+    return scoringModel;
+}
+
+const ScoreSketch& ExitReadinessDashboard::getScoreSketch() const {
+    return scoreSketch;
 }
 
 std::vector<std::string> ExitReadinessDashboard::getOptimalExitPath(const std::string& startVendorId,
@@ -108,28 +166,122 @@ std::vector<std::string> ExitReadinessDashboard::getOptimalExitPath(const std::s
     return readinessGraph->getOptimalPath(startVendorId, targetState);
 }
 
+double ExitReadinessDashboard::getExitPathCost(const std::string& startVendorId, const std::string& targetState) {
+    return readinessGraph->getPathCost(startVendorId, targetState);
+}
+
+std::vector<ExitPlan> ExitReadinessDashboard::getTopExitPlans(const std::string& vendorId, int k,
+                                                              const std::string& targetState) {
+    return readinessGraph->getKShortestPaths(vendorId, targetState, k);
+}
+
+std::vector<std::vector<ExitPlan>> ExitReadinessDashboard::getTopExitPlans(const std::vector<std::string>& vendorIds,
+                                                                           int k, const std::string& targetState) {
+    return readinessGraph->getKShortestPaths(vendorIds, targetState, k);
+}
+
+const ExitPathTree& ExitReadinessDashboard::getExitPathTree(const std::string& targetState) {
+    return readinessGraph->getPathTree(targetState);
+}
+
 std::vector<std::pair<std::string, double>> ExitReadinessDashboard::getVendorsSortedByReadiness() {
     return vendorTree->getAllSortedByReadiness();
 }
 
+std::vector<std::pair<std::string, double>> ExitReadinessDashboard::getVendorsPageByReadiness(int offset, int limit) {
+    return vendorTree->getPageByReadiness(offset, limit);
+}
+
+int ExitReadinessDashboard::getVendorCount() {
+    return vendorTree->size();
+}
+
+long long ExitReadinessDashboard::getVersion() {
+    return version;
+}
+
+void ExitReadinessDashboard::exportColumns(const std::vector<int>& fields, std::vector<std::string>& ids,
+                                           std::vector<const std::vector<double>*>& columns,
+                                           int offset, int limit) {
+    int first = std::max(0, offset);
+    int end = static_cast<int>(std::min<long long>(metricsTable->size(), static_cast<long long>(first) + std::max(0, limit)));
+    ids.resize(std::max(0, end - first));
+    for (int slot = first; slot < end; slot++) {
+        ids[slot - first] = metricsTable->getBySlot(slot)->vendorId;
+    }
+    
+    const ReadinessColumns& readinessColumns = metricsTable->getColumns();
+    columns.clear();
+    for (int field : fields) {
+        columns.push_back(readinessColumns.column(field));
+    }
+}
+
+std::vector<std::pair<std::string, double>> ExitReadinessDashboard::query(const ScoreQuery& q) {
+    const ReadinessColumns& columns = metricsTable->getColumns();
+    query::ColumnLookup lookup = [&columns](int field) { return columns.column(field); };
+    int rowCount = metricsTable->size();
+    std::vector<int> slots;
+    
+    double low, high;
+    bool ranged = query::rangeFor(q.predicates, FIELD_EXIT_READINESS, low, high);
+    bool sortedByIndex = q.sortField == FIELD_EXIT_READINESS;
+    bool topK = sortedByIndex && q.limit >= 0;
+    
+    // Use the readiness AVL tree when the range is selective or when it yields the
+    // requested order directly; otherwise scan the columns
+    if (topK || (ranged && vendorTree->countInRange(low, high) < rowCount / 8)) {
+        bool descending = sortedByIndex ? q.descending : true;
+        vendorTree->forEachInRange(low, high, descending, [&](const std::string& id, double) {
+            int slot = metricsTable->getSlot(id);
+            // Checked before keeping a match too, so limit 0 keeps none
+            if (topK && static_cast<int>(slots.size()) >= q.limit) {
+                return false;
+            }
+            if (query::matchesAll(q.predicates, lookup, slot)) {
+                slots.push_back(slot);
+            }
+            return !(topK && static_cast<int>(slots.size()) >= q.limit);
+        });
+        if (!sortedByIndex) {
+            query::sortAndLimit(slots, q.sortField >= 0 ? columns.column(q.sortField) : nullptr,
+                                q.descending, q.limit);
+        }
+    } else {
+        slots = query::scanColumns(rowCount, q.predicates, lookup, q.sortField < 0 ? q.limit : -1);
+        query::sortAndLimit(slots, q.sortField >= 0 ? columns.column(q.sortField) : nullptr,
+                            q.descending, q.limit);
+    }
+    
+    std::vector<std::pair<std::string, double>> result;
+    result.reserve(slots.size());
+    for (int slot : slots) {
+        const VendorReadinessMetrics* metrics = metricsTable->getBySlot(slot);
+        result.push_back(std::make_pair(metrics->vendorId, metrics->exitReadiness));
+    }
+    return result;
+}
+
 ExitReadinessDashboard::ReadinessBreakdown ExitReadinessDashboard::getReadinessBreakdown(const std::string& vendorId) {
     ReadinessBreakdown breakdown;
     
-    if (g_vendorMetrics.find(vendorId) == g_vendorMetrics.end()) {
+    const VendorReadinessMetrics* stored = metricsTable->get(vendorId);
+    if (stored == nullptr) {
         return breakdown;
     }
     
-    const VendorReadinessMetrics& metrics = g_vendorMetrics[vendorId];
+    const VendorReadinessMetrics& metrics = *stored;
+    
+    const ReadinessColumns& columns = metricsTable->getColumns();
+    query::ColumnLookup lookup = [&columns](int field) { return columns.column(field); };
+    int slot = metricsTable->getSlot(vendorId);
     
     breakdown.overallScore = metrics.exitReadiness;
-    breakdown.lockInFactor = (100.0 - metrics.lockInScore) * 0.3;
-    breakdown.migrationFactor = (100.0 - metrics.migrationDifficulty) * 0.25;
-    breakdown.technicalFactor = (100.0 - metrics.technicalComplexity) * 0.1;
-    breakdown.contractFactor = metrics.contractFlexibility * 0.15;
+    breakdown.lockInFactor = scoringModel.points(lookup, slot, FIELD_LOCK_IN_SCORE);
+    breakdown.migrationFactor = scoringModel.points(lookup, slot, FIELD_MIGRATION_DIFFICULTY);
+    breakdown.technicalFactor = scoringModel.points(lookup, slot, FIELD_TECHNICAL_COMPLEXITY);
+    breakdown.contractFactor = scoringModel.points(lookup, slot, FIELD_CONTRACT_FLEXIBILITY);
     
     return breakdown;
 }
 
-// Fix: Need to add the pImpl member to the header
-// Actually, let me check the header again and fix it properly
-
@@ -1,25 +1,369 @@
 #include "ExitReadinessGraph.h"
+#include <algorithm>
+#include <functional>
+#include <limits>
+#include <queue>
+#include <set>
+#include <thread>
 
-ExitReadinessGraph::ExitReadinessGraph() {
-    graph = new Graph(true); // Directed graph
+ExitReadinessGraph::ExitReadinessGraph() : treeValid(false) {
 }
 
 ExitReadinessGraph::~ExitReadinessGraph() {
-    delete graph;
+}
+
+int ExitReadinessGraph::vertexFor(const std::string& state) {
+    auto it = vertexIds.find(state);
+    if (it != vertexIds.end()) {
+        return it->second;
+    }
+    int vertex = static_cast<int>(vertexNames.size());
+    vertexIds[state] = vertex;
+    vertexNames.push_back(state);
+    outEdges.emplace_back();
+    inEdges.emplace_back();
+    treeValid = false; // New state must appear in the tree
+    return vertex;
 }
 
 void ExitReadinessGraph::addVendorState(const std::string& vendorId, 
                                        const std::vector<std::string>& nextStates,
                                        const std::vector<double>& transitionCosts) {
-    graph->addVertex(vendorId);
-    
     for (size_t i = 0; i < nextStates.size() && i < transitionCosts.size(); ++i) {
-        graph->addEdge(vendorId, nextStates[i], transitionCosts[i]);
+        setTransition(vendorId, nextStates[i], transitionCosts[i]);
+    }
+}
+
+void ExitReadinessGraph::setTransition(const std::string& fromState, const std::string& toState, double cost) {
+    int from = vertexFor(fromState);
+    int to = vertexFor(toState);
+    cost = std::max(0.0, cost); // Dijkstra needs non-negative costs
+    
+    auto out = std::find_if(outEdges[from].begin(), outEdges[from].end(),
+                            [to](const Edge& edge) { return edge.vertex == to; });
+    if (out == outEdges[from].end()) {
+        outEdges[from].push_back(Edge{to, cost, static_cast<int>(inEdges[to].size())});
+        inEdges[to].push_back(Edge{from, cost, static_cast<int>(outEdges[from].size()) - 1});
+        treeValid = false;
+    } else if (out->cost != cost) {
+        // Edges are never removed, so the mirror index stays valid; "exited" has an
+        // in-edge per vendor, which a scan would make O(portfolio) per re-price
+        out->cost = cost;
+        inEdges[to][out->mirror].cost = cost;
+        treeValid = false;
+    }
+}
+
+void ExitReadinessGraph::buildTree(const std::string& target) {
+    int n = static_cast<int>(vertexNames.size());
+    cachedTree.target = target;
+    cachedTree.states = vertexNames;
+    cachedTree.nextHop.assign(n, -1);
+    cachedTree.cost.assign(n, std::numeric_limits<double>::infinity());
+    
+    auto it = vertexIds.find(target);
+    if (it == vertexIds.end()) {
+        return;
+    }
+    
+    // Dijkstra from the target over reversed edges (binary heap, lazy deletion)
+    typedef std::pair<double, int> Entry;
+    std::priority_queue<Entry, std::vector<Entry>, std::greater<Entry>> heap;
+    std::vector<double>& cost = cachedTree.cost;
+    cost[it->second] = 0.0;
+    heap.push(Entry(0.0, it->second));
+    
+    while (!heap.empty()) {
+        Entry top = heap.top();
+        heap.pop();
+        int vertex = top.second;
+        if (top.first > cost[vertex]) {
+            continue;
+        }
+        for (const Edge& edge : inEdges[vertex]) {
+            double candidate = top.first + edge.cost;
+            if (candidate < cost[edge.vertex]) {
+                cost[edge.vertex] = candidate;
+                cachedTree.nextHop[edge.vertex] = vertex;
+                heap.push(Entry(candidate, edge.vertex));
+            }
+        }
     }
 }
 
+const ExitPathTree& ExitReadinessGraph::getPathTree(const std::string& target) {
+    if (!treeValid || cachedTree.target != target) {
+        buildTree(target);
+        treeValid = true;
+    }
+    return cachedTree;
+}
+
 std::vector<std::string> ExitReadinessGraph::getOptimalPath(const std::string& start, const std::string& end) {
-    Graph::PathResult result = graph->dijkstra(start, end);
-    return result.path;
+    std::vector<std::string> path;
+    auto it = vertexIds.find(start);
+    if (it == vertexIds.end()) {
+        return path;
+    }
+    
+    // Follow next hops in the cached tree: O(path length)
+    const ExitPathTree& tree = getPathTree(end);
+    int vertex = it->second;
+    if (tree.cost[vertex] == std::numeric_limits<double>::infinity()) {
+        return path;
+    }
+    while (vertex >= 0) {
+        path.push_back(tree.states[vertex]);
+        vertex = tree.nextHop[vertex];
+    }
+    return path;
+}
+
+double ExitReadinessGraph::getPathCost(const std::string& start, const std::string& end) {
+    auto it = vertexIds.find(start);
+    if (it == vertexIds.end()) {
+        return std::numeric_limits<double>::infinity();
+    }
+    return getPathTree(end).cost[it->second];
+}
+
+ExitReadinessGraph::SearchScratch::SearchScratch(int vertexCount)
+    : dist(vertexCount, std::numeric_limits<double>::infinity()),
+      parent(vertexCount, -1), blocked(vertexCount, 0), searchId(0) {
+}
+
+double ExitReadinessGraph::edgeCost(int from, int to) const {
+    for (const Edge& edge : outEdges[from]) {
+        if (edge.vertex == to) return edge.cost;
+    }
+    return std::numeric_limits<double>::infinity();
 }
 
+bool ExitReadinessGraph::spurSearch(int source, int target, const std::vector<std::pair<int, int>>& blockedEdges,
+                                    SearchScratch& scratch, std::vector<int>& path, double& pathCost) const {
+    // A* towards target; remaining costs in the full graph are a consistent lower bound
+    const std::vector<double>& remaining = cachedTree.cost;
+    const double infinity = std::numeric_limits<double>::infinity();
+    
+    for (int vertex : scratch.touched) {
+        scratch.dist[vertex] = infinity;
+        scratch.parent[vertex] = -1;
+    }
+    scratch.touched.clear();
+    
+    struct Entry {
+        double estimate;
+        double cost;
+        int vertex;
+        bool operator>(const Entry& other) const { return estimate > other.estimate; }
+    };
+    std::priority_queue<Entry, std::vector<Entry>, std::greater<Entry>> heap;
+    scratch.dist[source] = 0.0;
+    scratch.touched.push_back(source);
+    heap.push(Entry{remaining[source], 0.0, source});
+    
+    while (!heap.empty()) {
+        Entry top = heap.top();
+        heap.pop();
+        if (top.cost > scratch.dist[top.vertex]) {
+            continue;
+        }
+        if (top.vertex == target) {
+            path.clear();
+            for (int vertex = target; vertex >= 0; vertex = scratch.parent[vertex]) {
+                path.push_back(vertex);
+            }
+            std::reverse(path.begin(), path.end());
+            pathCost = top.cost;
+            return true;
+        }
+        
+        for (const Edge& edge : outEdges[top.vertex]) {
+            int next = edge.vertex;
+            if (scratch.blocked[next] == scratch.searchId || remaining[next] == infinity) {
+                continue;
+            }
+            bool edgeBlocked = false;
+            for (const auto& blockedEdge : blockedEdges) {
+                if (blockedEdge.first == top.vertex && blockedEdge.second == next) {
+                    edgeBlocked = true;
+                    break;
+                }
+            }
+            if (edgeBlocked) {
+                continue;
+            }
+            
+            double candidate = top.cost + edge.cost;
+            if (candidate < scratch.dist[next]) {
+                if (scratch.dist[next] == infinity) {
+                    scratch.touched.push_back(next);
+                }
+                scratch.dist[next] = candidate;
+                scratch.parent[next] = top.vertex;
+                heap.push(Entry{candidate + remaining[next], candidate, next});
+            }
+        }
+    }
+    return false;
+}
+
+std::vector<ExitPlan> ExitReadinessGraph::yen(int start, int target, int k, SearchScratch& scratch) const {
+    struct Candidate {
+        double cost;
+        std::vector<int> path;
+        int deviation; // Index of the spur node this path was generated from
+        
+        bool operator<(const Candidate& other) const {
+            if (cost != other.cost) return cost < other.cost;
+            return path < other.path;
+        }
+    };
+    
+    std::vector<ExitPlan> plans;
+    if (k <= 0 || cachedTree.cost[start] == std::numeric_limits<double>::infinity()) {
+        return plans;
+    }
+    
+    // Shortest path comes straight from the tree
+    std::vector<Candidate> accepted;
+    Candidate first;
+    first.cost = cachedTree.cost[start];
+    first.deviation = 0;
+    for (int vertex = start; vertex >= 0; vertex = cachedTree.nextHop[vertex]) {
+        first.path.push_back(vertex);
+    }
+    accepted.push_back(first);
+    
+    std::set<Candidate> candidates;
+    std::set<std::vector<int>> seen;
+    seen.insert(first.path);
+    std::vector<std::pair<int, int>> blockedEdges;
+    std::vector<int> spurPath;
+    
+    while (static_cast<int>(accepted.size()) < k) {
+        const std::vector<int> previous = accepted.back().path;
+        int deviation = accepted.back().deviation;
+        int needed = k - static_cast<int>(accepted.size());
+        
+        double rootCost = 0.0;
+        for (int i = 0; i < deviation; i++) {
+            rootCost += edgeCost(previous[i], previous[i + 1]);
+        }
+        
+        // Lawler: spur nodes before the deviation point were already expanded by earlier paths
+        for (size_t i = deviation; i + 1 < previous.size(); i++) {
+            int spur = previous[i];
+            double nextRootCost = rootCost + edgeCost(spur, previous[i + 1]);
+            
+            // Prune: even the cheapest completion from here cannot beat the candidates kept
+            if (static_cast<int>(candidates.size()) >= needed &&
+                rootCost + cachedTree.cost[spur] >= std::prev(candidates.end())->cost) {
+                rootCost = nextRootCost;
+                continue;
+            }
+            
+            // Block the next edge of every accepted path sharing this root
+            blockedEdges.clear();
+            for (const Candidate& path : accepted) {
+                if (path.path.size() > i + 1 &&
+                    std::equal(previous.begin(), previous.begin() + i + 1, path.path.begin())) {
+                    blockedEdges.push_back(std::make_pair(path.path[i], path.path[i + 1]));
+                }
+            }
+            
+            // Root vertices (except the spur) may not be revisited
+            scratch.searchId++;
+            for (size_t r = 0; r < i; r++) {
+                scratch.blocked[previous[r]] = scratch.searchId;
+            }
+            
+            double spurCost = 0.0;
+            if (spurSearch(spur, target, blockedEdges, scratch, spurPath, spurCost)) {
+                Candidate candidate;
+                candidate.path.assign(previous.begin(), previous.begin() + i);
+                candidate.path.insert(candidate.path.end(), spurPath.begin(), spurPath.end());
+                candidate.cost = rootCost + spurCost;
+                candidate.deviation = static_cast<int>(i);
+                if (seen.insert(candidate.path).second) {
+                    candidates.insert(candidate);
+                    // Only the `needed` cheapest candidates can still make the top k
+                    if (static_cast<int>(candidates.size()) > needed) {
+                        candidates.erase(std::prev(candidates.end()));
+                    }
+                }
+            }
+            rootCost = nextRootCost;
+        }
+        
+        if (candidates.empty()) {
+            break;
+        }
+        accepted.push_back(*candidates.begin());
+        candidates.erase(candidates.begin());
+    }
+    
+    plans.reserve(accepted.size());
+    for (const Candidate& path : accepted) {
+        ExitPlan plan;
+        plan.cost = path.cost;
+        for (int vertex : path.path) {
+            plan.states.push_back(vertexNames[vertex]);
+        }
+        plans.push_back(plan);
+    }
+    return plans;
+}
+
+std::vector<ExitPlan> ExitReadinessGraph::getKShortestPaths(const std::string& start, const std::string& end, int k) {
+    auto startIt = vertexIds.find(start);
+    auto endIt = vertexIds.find(end);
+    if (startIt == vertexIds.end() || endIt == vertexIds.end()) {
+        return std::vector<ExitPlan>();
+    }
+    getPathTree(end);
+    SearchScratch scratch(static_cast<int>(vertexNames.size()));
+    return yen(startIt->second, endIt->second, k, scratch);
+}
+
+std::vector<std::vector<ExitPlan>> ExitReadinessGraph::getKShortestPaths(const std::vector<std::string>& starts,
+                                                                         const std::string& end, int k, int threads) {
+    std::vector<std::vector<ExitPlan>> results(starts.size());
+    auto endIt = vertexIds.find(end);
+    if (endIt == vertexIds.end() || starts.empty()) {
+        return results;
+    }
+    
+    // Build the tree up front; workers only read the graph
+    getPathTree(end);
+    int target = endIt->second;
+    
+    if (threads <= 0) {
+        threads = static_cast<int>(std::max(1u, std::thread::hardware_concurrency()));
+    }
+    int count = static_cast<int>(starts.size());
+    threads = std::min(threads, count);
+    
+    auto work = [&](int first, int last) {
+        SearchScratch scratch(static_cast<int>(vertexNames.size()));
+        for (int i = first; i < last; i++) {
+            auto it = vertexIds.find(starts[i]);
+            if (it != vertexIds.end()) {
+                results[i] = yen(it->second, target, k, scratch);
+            }
+        }
+    };
+    
+    std::vector<std::thread> workers;
+    int chunk = (count + threads - 1) / threads;
+    for (int t = 0; t < threads; t++) {
+        int first = t * chunk;
+        int last = std::min(count, first + chunk);
+        if (first >= last) break;
+        workers.emplace_back(work, first, last);
+    }
+    for (auto& worker : workers) {
+        worker.join();
+    }
+    return results;
+}
@@ -1,7 +1,7 @@
 #ifndef EXIT_READINESS_GRAPH_H
 #define EXIT_READINESS_GRAPH_H
 
-#include "../include/Graph.h"
+#include "../include/ExitReadinessDashboard.h"
 #include <string>
 #include <vector>
 #include <unordered_map>
@@ -9,19 +9,68 @@
 /**
  * Graph wrapper for exit path calculation
  * Level-2 DSA: Graph with Dijkstra's algorithm for optimal exit path
+ * All vendors share the same target, so one heap-based Dijkstra over the
+ * reversed edges yields a shortest-path tree for the whole portfolio. The
+ * tree is cached until an edge is added or its cost changes.
+ * Alternative plans use Yen's algorithm; its spur searches are A* guided
+ * by the tree's exact remaining costs, and spur nodes that cannot beat the
+ * candidates already held are skipped.
  */
 class ExitReadinessGraph {
 public:
     ExitReadinessGraph();
     ~ExitReadinessGraph();
 
+    // Adds edges vendorId -> nextStates[i]; an existing edge has its cost replaced
     void addVendorState(const std::string& vendorId, const std::vector<std::string>& nextStates, 
                        const std::vector<double>& transitionCosts);
+    // Adds or re-prices the single edge fromState -> toState
+    void setTransition(const std::string& fromState, const std::string& toState, double cost);
     std::vector<std::string> getOptimalPath(const std::string& start, const std::string& end);
+    double getPathCost(const std::string& start, const std::string& end);
+
+    // Reverse shortest-path tree towards target (built on demand, then cached)
+    const ExitPathTree& getPathTree(const std::string& target);
+
+    // k cheapest loopless paths from start to end, cheapest first
+    std::vector<ExitPlan> getKShortestPaths(const std::string& start, const std::string& end, int k);
+
+    // Same for many starts on a thread pool (threads <= 0 uses all hardware threads)
+    std::vector<std::vector<ExitPlan>> getKShortestPaths(const std::vector<std::string>& starts,
+                                                         const std::string& end, int k, int threads = 0);
 
 private:
-    Graph* graph;
+    struct Edge {
+        int vertex;
+        double cost;
+        int mirror; // Index of the same edge in the opposite adjacency list
+    };
+
+    std::unordered_map<std::string, int> vertexIds;
+    std::vector<std::string> vertexNames;
+    std::vector<std::vector<Edge>> outEdges;
+    std::vector<std::vector<Edge>> inEdges;
+
+    ExitPathTree cachedTree;
+    bool treeValid;
+
+    // Per-thread buffers for spur searches, reset through the touched list
+    struct SearchScratch {
+        std::vector<double> dist;
+        std::vector<int> parent;
+        std::vector<int> blocked; // Vertex is excluded when blocked[v] == searchId
+        std::vector<int> touched;
+        int searchId;
+
+        explicit SearchScratch(int vertexCount);
+    };
+
+    int vertexFor(const std::string& state);
+    void buildTree(const std::string& target);
+    double edgeCost(int from, int to) const;
+    bool spurSearch(int source, int target, const std::vector<std::pair<int, int>>& blockedEdges,
+                    SearchScratch& scratch, std::vector<int>& path, double& pathCost) const;
+    std::vector<ExitPlan> yen(int start, int target, int k, SearchScratch& scratch) const;
 };
 
 #endif // EXIT_READINESS_GRAPH_H
-
@@ -175,6 +175,8 @@ std::vector<std::string> Graph::topologicalSort() {
     std::vector<std::string> result;
     std::unordered_set<std::string> visited;
     std::unordered_set<std::string> recStack;
+    result.reserve(adjacencyList.size());
+    visited.reserve(adjacencyList.size());
     
     for (const auto& vertex : adjacencyList) {
         if (visited.find(vertex.first) == visited.end()) {
@@ -193,9 +195,10 @@ void Graph::topologicalSortHelper(const std::string& vertex,
     visited.insert(vertex);
     recStack.insert(vertex);
     
-    for (const auto& neighbor : getNeighbors(vertex)) {
-        if (visited.find(neighbor) == visited.end()) {
-            topologicalSortHelper(neighbor, visited, recStack, result);
+    // Walk the adjacency list in place rather than copying it via getNeighbors
+    for (const auto& edge : adjacencyList[vertex]) {
+        if (visited.find(edge.first) == visited.end()) {
+            topologicalSortHelper(edge.first, visited, recStack, result);
         }
     }
     
@@ -0,0 +1,87 @@
+#include "../include/IndexedPriorityQueue.h"
+
+IndexedPriorityQueue::IndexedPriorityQueue(int capacity)
+    : position(capacity, -1), keys(capacity, 0) {
+    heap.reserve(capacity);
+}
+
+bool IndexedPriorityQueue::less(int a, int b) const {
+    if (keys[a] != keys[b]) return keys[a] < keys[b];
+    return a < b;
+}
+
+void IndexedPriorityQueue::swapSlots(int i, int j) {
+    int a = heap[i];
+    int b = heap[j];
+    heap[i] = b;
+    heap[j] = a;
+    position[b] = i;
+    position[a] = j;
+}
+
+void IndexedPriorityQueue::siftUp(int slot) {
+    while (slot > 0) {
+        int parent = (slot - 1) / 2;
+        if (!less(heap[slot], heap[parent])) break;
+        swapSlots(slot, parent);
+        slot = parent;
+    }
+}
+
+void IndexedPriorityQueue::siftDown(int slot) {
+    int n = static_cast<int>(heap.size());
+    while (true) {
+        int smallest = slot;
+        int left = 2 * slot + 1;
+        int right = left + 1;
+        if (left < n && less(heap[left], heap[smallest])) smallest = left;
+        if (right < n && less(heap[right], heap[smallest])) smallest = right;
+        if (smallest == slot) break;
+        swapSlots(slot, smallest);
+        slot = smallest;
+    }
+}
+
+void IndexedPriorityQueue::push(int item, long long key) {
+    keys[item] = key;
+    position[item] = static_cast<int>(heap.size());
+    heap.push_back(item);
+    siftUp(position[item]);
+}
+
+int IndexedPriorityQueue::top() const {
+    return heap.front();
+}
+
+long long IndexedPriorityQueue::topKey() const {
+    return keys[heap.front()];
+}
+
+int IndexedPriorityQueue::pop() {
+    int item = heap.front();
+    swapSlots(0, static_cast<int>(heap.size()) - 1);
+    heap.pop_back();
+    position[item] = -1;
+    if (!heap.empty()) {
+        siftDown(0);
+    }
+    return item;
+}
+
+void IndexedPriorityQueue::decreaseKey(int item, long long key) {
+    if (position[item] < 0 || key >= keys[item]) return;
+    keys[item] = key;
+    siftUp(position[item]);
+}
+
+bool IndexedPriorityQueue::contains(int item) const {
+    return position[item] >= 0;
+}
+
+bool IndexedPriorityQueue::empty() const {
+    return heap.empty();
+}
+
+int IndexedPriorityQueue::size() const {
+    return static_cast<int>(heap.size());
+}
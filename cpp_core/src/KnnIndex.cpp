@@ -0,0 +1,191 @@
+#include "../include/KnnIndex.h"
+#include <algorithm>
+#include <cmath>
+#include <iterator>
+#include <limits>
+
+struct KnnIndex::Search {
+    const double* query;
+    int k;
+    int excludeId;
+    std::vector<std::pair<double, int>> heap; // Max-heap on squared distance
+
+    double worst() const {
+        return static_cast<int>(heap.size()) < k ? std::numeric_limits<double>::infinity() : heap.front().first;
+    }
+
+    void offer(const Entry& entry) {
+        if (entry.id == excludeId) return;
+        double d2 = 0.0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double diff = query[d] - entry.point[d];
+            d2 += diff * diff;
+        }
+        if (static_cast<int>(heap.size()) < k) {
+            heap.push_back(std::make_pair(d2, entry.id));
+            std::push_heap(heap.begin(), heap.end());
+        } else if (d2 < heap.front().first) {
+            std::pop_heap(heap.begin(), heap.end());
+            heap.back() = std::make_pair(d2, entry.id);
+            std::push_heap(heap.begin(), heap.end());
+        }
+    }
+};
+
+KnnIndex::KnnIndex() : nextStamp(0), liveCount(0) {
+}
+
+int KnnIndex::size() const {
+    return liveCount;
+}
+
+bool KnnIndex::isLive(const Entry& entry) const {
+    return stamps[entry.id] == entry.stamp;
+}
+
+void KnnIndex::stage(int id, const double* point, std::vector<Entry>& out) {
+    if (id >= static_cast<int>(stamps.size())) {
+        stamps.resize(id + 1, -1);
+    }
+    if (stamps[id] < 0) {
+        liveCount++;
+    }
+    stamps[id] = nextStamp++;
+
+    Entry entry;
+    entry.id = id;
+    entry.stamp = stamps[id];
+    std::copy(point, point + DIMENSIONS, entry.point);
+    out.push_back(entry);
+}
+
+void KnnIndex::insert(int id, const double* point) {
+    if (id < 0) return;
+    stage(id, point, buffer);
+    if (buffer.size() >= static_cast<size_t>(BLOCK)) {
+        std::vector<Entry> pending;
+        pending.swap(buffer);
+        carry(pending);
+    }
+}
+
+void KnnIndex::insertAll(const std::vector<int>& ids, const std::vector<double>& points) {
+    std::vector<Entry> pending;
+    pending.swap(buffer);
+    pending.reserve(pending.size() + ids.size());
+    for (size_t i = 0; i < ids.size(); i++) {
+        if (ids[i] >= 0) {
+            stage(ids[i], &points[i * DIMENSIONS], pending);
+        }
+    }
+    if (pending.size() < static_cast<size_t>(BLOCK)) {
+        buffer.swap(pending);
+        return;
+    }
+    carry(pending);
+}
+
+void KnnIndex::carry(std::vector<Entry>& pending) {
+    auto stale = [this](const Entry& entry) { return !isLive(entry); };
+    pending.erase(std::remove_if(pending.begin(), pending.end(), stale), pending.end());
+
+    // Absorb full levels until the merged points fit the level's capacity
+    for (size_t i = 0; ; i++) {
+        if (i == levels.size()) {
+            levels.emplace_back();
+        }
+        if (!levels[i].empty()) {
+            std::vector<Entry>& absorbed = levels[i].entries;
+            std::remove_copy_if(absorbed.begin(), absorbed.end(), std::back_inserter(pending), stale);
+            levels[i] = Tree();
+        }
+        if (pending.size() <= (static_cast<size_t>(BLOCK) << i)) {
+            build(levels[i], pending);
+            return;
+        }
+    }
+}
+
+void KnnIndex::build(Tree& tree, std::vector<Entry>& entries) {
+    tree.entries.swap(entries);
+    tree.split.assign(tree.entries.size(), 0);
+    buildRange(tree, 0, static_cast<int>(tree.entries.size()));
+}
+
+void KnnIndex::buildRange(Tree& tree, int lo, int hi) {
+    if (hi - lo <= 1) return;
+
+    // Split on the dimension with the widest spread
+    double low[DIMENSIONS];
+    double high[DIMENSIONS];
+    std::fill(low, low + DIMENSIONS, std::numeric_limits<double>::infinity());
+    std::fill(high, high + DIMENSIONS, -std::numeric_limits<double>::infinity());
+    for (int i = lo; i < hi; i++) {
+        const double* point = tree.entries[i].point;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            low[d] = std::min(low[d], point[d]);
+            high[d] = std::max(high[d], point[d]);
+        }
+    }
+    int dim = 0;
+    for (int d = 1; d < DIMENSIONS; d++) {
+        if (high[d] - low[d] > high[dim] - low[dim]) dim = d;
+    }
+
+    int mid = lo + (hi - lo) / 2;
+    std::nth_element(tree.entries.begin() + lo, tree.entries.begin() + mid, tree.entries.begin() + hi,
+                     [dim](const Entry& a, const Entry& b) { return a.point[dim] < b.point[dim]; });
+    tree.split[mid] = static_cast<unsigned char>(dim);
+    buildRange(tree, lo, mid);
+    buildRange(tree, mid + 1, hi);
+}
+
+void KnnIndex::searchTree(const Tree& tree, int lo, int hi, Search& search) const {
+    while (lo < hi) {
+        int mid = lo + (hi - lo) / 2;
+        const Entry& entry = tree.entries[mid];
+        if (isLive(entry)) {
+            search.offer(entry);
+        }
+
+        // Descend the query's side first; the other side only if the splitting plane is closer than the k-th best
+        int dim = tree.split[mid];
+        double diff = search.query[dim] - entry.point[dim];
+        if (diff < 0) {
+            searchTree(tree, lo, mid, search);
+            if (diff * diff >= search.worst()) return;
+            lo = mid + 1;
+        } else {
+            searchTree(tree, mid + 1, hi, search);
+            if (diff * diff >= search.worst()) return;
+            hi = mid;
+        }
+    }
+}
+
+std::vector<KnnIndex::Neighbor> KnnIndex::nearest(const double* point, int k, int excludeId) const {
+    std::vector<Neighbor> result;
+    if (k <= 0) return result;
+
+    Search search;
+    search.query = point;
+    search.k = k;
+    search.excludeId = excludeId;
+    search.heap.reserve(k + 1);
+
+    for (const Entry& entry : buffer) {
+        if (isLive(entry)) {
+            search.offer(entry);
+        }
+    }
+    for (const Tree& tree : levels) {
+        searchTree(tree, 0, static_cast<int>(tree.entries.size()), search);
+    }
+
+    std::sort_heap(search.heap.begin(), search.heap.end());
+    result.reserve(search.heap.size());
+    for (const auto& candidate : search.heap) {
+        result.push_back(Neighbor(candidate.second, std::sqrt(candidate.first)));
+    }
+    return result;
+}
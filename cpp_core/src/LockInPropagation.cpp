@@ -0,0 +1,104 @@
+#include "LockInPropagation.h"
+#include <algorithm>
+#include <cmath>
+#include <thread>
+#include <utility>
+
+LockInPropagation::LockInPropagation() {
+}
+
+void LockInPropagation::setGraph(DependencyCsr graph) {
+    csr = std::move(graph);
+}
+
+const std::vector<double>& LockInPropagation::getScores() const {
+    return current;
+}
+
+double LockInPropagation::iterateRange(int first, int last, const std::vector<double>& base, double damping) {
+    const int* offsets = csr.offsets.data();
+    const int* dependents = csr.dependents.data();
+    const double* share = csr.share.data();
+    const double* inflow = outflow.data();
+    double maxDelta = 0.0;
+
+    for (int v = first; v < last; v++) {
+        double sum = 0.0;
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+            sum += inflow[dependents[e]];
+        }
+        double score = base[v] + damping * sum;
+        maxDelta = std::max(maxDelta, std::fabs(score - current[v]));
+        next[v] = score;
+        nextOutflow[v] = score * share[v];
+    }
+    return maxDelta;
+}
+
+int LockInPropagation::run(const std::vector<double>& base, double damping, double tolerance,
+                           int maxIterations, int threads) {
+    int n = csr.size();
+    // Damping below 1 keeps the iteration a contraction
+    damping = std::min(0.99, std::max(0.0, damping));
+
+    // Warm start: vertices seen by an earlier run keep their score, new ones start from their own
+    size_t known = std::min(current.size(), static_cast<size_t>(n));
+    current.resize(n);
+    for (int v = static_cast<int>(known); v < n; v++) {
+        current[v] = base[v];
+    }
+    next.resize(n);
+    outflow.resize(n);
+    nextOutflow.resize(n);
+    for (int v = 0; v < n; v++) {
+        outflow[v] = current[v] * csr.share[v];
+    }
+    if (n == 0) {
+        return 0;
+    }
+
+    if (threads <= 0) {
+        threads = static_cast<int>(std::max(1u, std::thread::hardware_concurrency()));
+    }
+    threads = std::min(threads, n);
+
+    // Split so each range has about the same vertices + edges to read
+    std::vector<int> bounds(1, 0);
+    long long work = static_cast<long long>(n) + csr.offsets[n];
+    for (int t = 1; t < threads; t++) {
+        long long target = work * t / threads;
+        int lo = bounds.back();
+        int hi = n;
+        while (lo < hi) {
+            int mid = lo + (hi - lo) / 2;
+            if (static_cast<long long>(mid) + csr.offsets[mid] < target) lo = mid + 1;
+            else hi = mid;
+        }
+        bounds.push_back(lo);
+    }
+    bounds.push_back(n);
+
+    std::vector<double> deltas(threads, 0.0);
+    for (int iteration = 1; iteration <= maxIterations; iteration++) {
+        if (threads == 1) {
+            deltas[0] = iterateRange(0, n, base, damping);
+        } else {
+            std::vector<std::thread> workers;
+            for (int t = 0; t < threads; t++) {
+                workers.emplace_back([this, t, &bounds, &base, damping, &deltas]() {
+                    deltas[t] = iterateRange(bounds[t], bounds[t + 1], base, damping);
+                });
+            }
+            for (auto& worker : workers) {
+                worker.join();
+            }
+        }
+
+        current.swap(next);
+        outflow.swap(nextOutflow);
+        if (*std::max_element(deltas.begin(), deltas.end()) <= tolerance) {
+            return iteration;
+        }
+    }
+    return maxIterations;
+}
@@ -0,0 +1,42 @@
+#ifndef LOCKIN_PROPAGATION_H
+#define LOCKIN_PROPAGATION_H
+
+#include "VendorGraph.h"
+#include <vector>
+
+/**
+ * Dependency-propagated lock-in score
+ * A vendor that locked-in vendors depend on is harder to leave than its own
+ * factors suggest. Every vendor passes `damping` of its propagated score on
+ * to the vendors it depends on, split evenly between them:
+ *     p[v] = base[v] + damping * sum over dependents u of p[u] * share[u]
+ * The system is solved by Jacobi power iteration over the dependents CSR,
+ * with vertices split into edge-balanced ranges, one per thread. The last
+ * solution is kept and used as the starting point of the next run.
+ */
+class LockInPropagation {
+public:
+    LockInPropagation();
+
+    // Replace the graph; vertex ids must be stable so earlier scores stay valid
+    void setGraph(DependencyCsr graph);
+
+    // Iterate until no score moves by more than tolerance; returns the iterations run.
+    // threads <= 0 uses all hardware threads
+    int run(const std::vector<double>& base, double damping, double tolerance,
+            int maxIterations = 1000, int threads = 0);
+
+    // Propagated score per vertex (unclamped)
+    const std::vector<double>& getScores() const;
+
+private:
+    DependencyCsr csr;
+    std::vector<double> current;
+    std::vector<double> next;
+    std::vector<double> outflow;     // current[u] * share[u]
+    std::vector<double> nextOutflow;
+
+    double iterateRange(int first, int last, const std::vector<double>& base, double damping);
+};
+
+#endif // LOCKIN_PROPAGATION_H
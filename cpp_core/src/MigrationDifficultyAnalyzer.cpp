@@ -1,5 +1,7 @@
 #include "../include/MigrationDifficultyAnalyzer.h"
 #include "MigrationGraph.h"
+#include "ScheduleSimulator.h"
+#include "ResourceScheduler.h"
 #include <algorithm>
 #include <queue>
 #include <cmath>
@@ -11,7 +13,7 @@ MigrationDifficultyAnalyzer::MigrationDifficultyAnalyzer() {
 MigrationDifficultyAnalyzer::~MigrationDifficultyAnalyzer() {
 }
 
-void MigrationDifficultyAnalyzer::addTask(const std::string& taskId, const std::string& taskName,
+bool MigrationDifficultyAnalyzer::addTask(const std::string& taskId, const std::string& taskName,
                                           int difficulty, int estimatedDays,
                                           const std::vector<std::string>& dependencies) {
     MigrationTask task;
@@ -21,7 +23,7 @@ void MigrationDifficultyAnalyzer::addTask(const std::string& taskId, const std::
     task.estimatedDays = estimatedDays;
     task.dependencies = dependencies;
     
-    taskGraph->addTask(task);
+    return taskGraph->addTask(task);
 }
 
 double MigrationDifficultyAnalyzer::calculateMigrationDifficulty(const std::string& vendorId) {
@@ -47,13 +49,27 @@ double MigrationDifficultyAnalyzer::calculateMigrationDifficulty(const std::stri
 }
 
 std::vector<std::string> MigrationDifficultyAnalyzer::getOptimalMigrationSequence(const std::string& vendorId) {
-    // Use topological sort (implemented via BFS in graph)
+    // Read the order the graph maintains as tasks are added
     return taskGraph->getTopologicalOrder();
 }
 
+std::vector<MigrationTask> MigrationDifficultyAnalyzer::getTasks(int offset, int limit) {
+    std::vector<MigrationTask> result;
+    const auto& order = taskGraph->getTopologicalOrder();
+    size_t first = std::min(order.size(), static_cast<size_t>(std::max(0, offset)));
+    size_t end = std::min(order.size(), first + static_cast<size_t>(std::max(0, limit)));
+    for (size_t i = first; i < end; i++) {
+        const MigrationTask* task = taskGraph->getTask(order[i]);
+        if (task != nullptr) {
+            result.push_back(*task);
+        }
+    }
+    return result;
+}
+
 std::vector<std::string> MigrationDifficultyAnalyzer::getCriticalPath(const std::string& vendorId) {
     // Get longest dependency chain using graph traversal
-    auto sequence = taskGraph->getTopologicalOrder();
+    const auto& sequence = taskGraph->getTopologicalOrder();
     if (!sequence.empty()) {
         return taskGraph->getCriticalPath(sequence[0]);
     }
@@ -61,17 +77,64 @@ std::vector<std::string> MigrationDifficultyAnalyzer::getCriticalPath(const std:
 }
 
 int MigrationDifficultyAnalyzer::getTotalMigrationDays(const std::string& vendorId) {
-    auto sequence = taskGraph->getTopologicalOrder();
+    const auto& sequence = taskGraph->getTopologicalOrder();
     if (!sequence.empty()) {
         return taskGraph->getTotalDays(sequence[0]);
     }
     return 0;
 }
 
+CompletionForecast MigrationDifficultyAnalyzer::simulateCompletion(const std::string& vendorId, int trials,
+                                                                  int distribution, unsigned long long seed) {
+    // Compile once; every trial then runs over flat arrays
+    CompiledTaskGraph compiled = taskGraph->compile();
+    ScheduleSimulator simulator(compiled);
+    return simulator.run(trials, distribution, seed);
+}
+
+MigrationSchedule MigrationDifficultyAnalyzer::scheduleTasks(const std::string& vendorId, int engineers,
+                                                             const std::unordered_map<std::string, int>& demands,
+                                                             const std::function<int(const MigrationTask&)>& priority) {
+    CompiledTaskGraph compiled = taskGraph->compile();
+    
+    // Priorities are looked up per compiled task; prioritizeTasks gives the same ranking as a list
+    std::vector<int> priorities(compiled.size(), 0);
+    for (int i = 0; i < compiled.size(); i++) {
+        const MigrationTask& task = *taskGraph->getTask(compiled.taskIds[i]);
+        priorities[i] = priority ? priority(task) : calculateTaskPriority(task);
+    }
+    
+    std::vector<int> taskDemands(compiled.size(), 1);
+    if (!demands.empty()) {
+        for (int i = 0; i < compiled.size(); i++) {
+            auto it = demands.find(compiled.taskIds[i]);
+            if (it != demands.end()) {
+                taskDemands[i] = it->second;
+            }
+        }
+    }
+    
+    ResourceScheduler scheduler(compiled, priorities, taskDemands, engineers);
+    return scheduler.run();
+}
+
 std::vector<MigrationDifficultyAnalyzer::TaskPriority> MigrationDifficultyAnalyzer::prioritizeTasks(const std::string& vendorId) {
-    // This would use a priority queue internally
-    // For now, return empty vector as it's a helper method
-    return std::vector<TaskPriority>();
+    // Pop tasks from a max-heap so the most urgent come first
+    std::priority_queue<TaskPriority> queue;
+    for (const MigrationTask* task : taskGraph->getTasks()) {
+        TaskPriority entry;
+        entry.taskId = task->taskId;
+        entry.priority = calculateTaskPriority(*task);
+        queue.push(entry);
+    }
+    
+    std::vector<TaskPriority> result;
+    result.reserve(queue.size());
+    while (!queue.empty()) {
+        result.push_back(queue.top());
+        queue.pop();
+    }
+    return result;
 }
 
 int MigrationDifficultyAnalyzer::calculateTaskPriority(const MigrationTask& task) {
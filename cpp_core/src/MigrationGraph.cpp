@@ -9,17 +9,71 @@ MigrationGraph::~MigrationGraph() {
     delete graph;
 }
 
-void MigrationGraph::addTask(const MigrationTask& task) {
+int MigrationGraph::vertexFor(const std::string& taskId) {
+    auto it = vertexIds.find(taskId);
+    if (it != vertexIds.end()) {
+        return it->second;
+    }
+    int vertex = order.addVertex();
+    vertexIds[taskId] = vertex;
+    vertexNames.push_back(taskId);
+    sequence.push_back(taskId); // New vertices start at the end of the order
+    return vertex;
+}
+
+void MigrationGraph::syncMovedPositions() {
+    // Only positions touched by the last reorder need their id updated
+    for (int position : order.lastMovedPositions()) {
+        sequence[position] = vertexNames[order.vertexAt(position)];
+    }
+    if (!order.lastMovedPositions().empty()) {
+        taskSequenceStale = true;
+    }
+}
+
+bool MigrationGraph::addTask(const MigrationTask& task) {
+    int vertex = vertexFor(task.taskId);
+    
+    std::vector<int> added;
+    for (const auto& dep : task.dependencies) {
+        int from = vertexFor(dep);
+        if (order.hasEdge(from, vertex)) {
+            continue;
+        }
+        if (!order.addEdge(from, vertex)) {
+            // Cycle: undo this task's new edges (removal keeps the order valid)
+            for (int edge : added) {
+                order.removeEdge(edge, vertex);
+            }
+            return false;
+        }
+        syncMovedPositions();
+        added.push_back(from);
+    }
+    
     tasks[task.taskId] = task;
+    taskSequenceStale = true;
     graph->addVertex(task.taskId);
     
-    for (const auto& dep : task.dependencies) {
-        graph->addEdge(dep, task.taskId); // Dependency edge
+    for (int from : added) {
+        graph->addEdge(vertexNames[from], task.taskId); // Dependency edge
     }
+    return true;
 }
 
-std::vector<std::string> MigrationGraph::getTopologicalOrder() {
-    return graph->topologicalSort(); // Returns tasks in execution order
+const std::vector<std::string>& MigrationGraph::getTopologicalOrder() const {
+    // Filter placeholders out of the maintained order; no re-sort is needed
+    if (taskSequenceStale) {
+        taskSequence.clear();
+        taskSequence.reserve(tasks.size());
+        for (const auto& id : sequence) {
+            if (tasks.find(id) != tasks.end()) {
+                taskSequence.push_back(id);
+            }
+        }
+        taskSequenceStale = false;
+    }
+    return taskSequence; // Returns tasks in execution order
 }
 
 std::vector<std::string> MigrationGraph::getCriticalPath(const std::string& startTask) {
@@ -38,10 +92,9 @@ std::vector<std::string> MigrationGraph::getCriticalPath(const std::string& star
 }
 
 int MigrationGraph::getTotalDays(const std::string& startTask) {
-    std::vector<std::string> sequence = getTopologicalOrder();
     int totalDays = 0;
     
-    for (const auto& taskId : sequence) {
+    for (const auto& taskId : getTopologicalOrder()) {
         if (tasks.find(taskId) != tasks.end()) {
             totalDays += tasks[taskId].estimatedDays;
         }
@@ -50,3 +103,44 @@ int MigrationGraph::getTotalDays(const std::string& startTask) {
     return totalDays;
 }
 
+CompiledTaskGraph MigrationGraph::compile() {
+    CompiledTaskGraph compiled;
+    
+    // Walk the maintained order; dependencies that were never added as tasks are skipped
+    std::vector<int> compiledIndex(order.size(), -1);
+    compiled.taskIds.reserve(tasks.size());
+    compiled.predOffsets.reserve(tasks.size() + 1);
+    compiled.predOffsets.push_back(0);
+    for (int position = 0; position < order.size(); position++) {
+        int vertex = order.vertexAt(position);
+        auto it = tasks.find(vertexNames[vertex]);
+        if (it == tasks.end()) continue;
+        
+        compiledIndex[vertex] = compiled.size();
+        compiled.taskIds.push_back(it->first);
+        compiled.estimatedDays.push_back(it->second.estimatedDays);
+        compiled.difficulty.push_back(it->second.difficulty);
+        for (int pred : order.predecessors(vertex)) {
+            if (compiledIndex[pred] >= 0) {
+                compiled.preds.push_back(compiledIndex[pred]);
+            }
+        }
+        compiled.predOffsets.push_back(static_cast<int>(compiled.preds.size()));
+    }
+    
+    return compiled;
+}
+
+const MigrationTask* MigrationGraph::getTask(const std::string& taskId) const {
+    auto it = tasks.find(taskId);
+    return it != tasks.end() ? &it->second : nullptr;
+}
+
+std::vector<const MigrationTask*> MigrationGraph::getTasks() const {
+    std::vector<const MigrationTask*> result;
+    result.reserve(tasks.size());
+    for (const auto& entry : tasks) {
+        result.push_back(&entry.second);
+    }
+    return result;
+}
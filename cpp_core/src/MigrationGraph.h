@@ -3,27 +3,64 @@
 
 #include "../include/Graph.h"
 #include "../include/MigrationDifficultyAnalyzer.h"
+#include "../include/DynamicTopologicalOrder.h"
 #include <string>
 #include <vector>
 #include <unordered_map>
 
+/**
+ * Task DAG flattened into arrays for repeated evaluation.
+ * Tasks are stored in topological order; predecessors use CSR layout,
+ * so evaluating a schedule needs no lookups or allocations.
+ */
+struct CompiledTaskGraph {
+    std::vector<std::string> taskIds;
+    std::vector<int> estimatedDays;
+    std::vector<int> difficulty;
+    std::vector<int> predOffsets; // predecessors of task i are preds[predOffsets[i] .. predOffsets[i + 1])
+    std::vector<int> preds;
+
+    int size() const { return static_cast<int>(taskIds.size()); }
+};
+
 /**
  * Graph wrapper for migration task dependencies
  * Level-2 DSA: Graph with BFS for task sequencing
+ * The execution order is maintained incrementally as tasks are added,
+ * so reading it never re-sorts the graph.
  */
 class MigrationGraph {
 public:
     MigrationGraph();
     ~MigrationGraph();
 
-    void addTask(const MigrationTask& task);
-    std::vector<std::string> getTopologicalOrder(); // BFS-based topological sort
+    // Returns false (task not added) if its dependencies would create a cycle
+    bool addTask(const MigrationTask& task);
+    const std::vector<std::string>& getTopologicalOrder() const; // Execution order of accepted tasks
     std::vector<std::string> getCriticalPath(const std::string& startTask);
     int getTotalDays(const std::string& startTask);
+    CompiledTaskGraph compile();
+    const MigrationTask* getTask(const std::string& taskId) const;
+    std::vector<const MigrationTask*> getTasks() const;
 
 private:
     Graph* graph;
     std::unordered_map<std::string, MigrationTask> tasks;
+    
+    // Dependency DAG with an online topological order; dependencies that are
+    // not tasks (yet) get vertices too, as in the Graph above
+    DynamicTopologicalOrder order;
+    std::unordered_map<std::string, int> vertexIds;
+    std::vector<std::string> vertexNames;
+    std::vector<std::string> sequence; // Position -> vertex id, mirrors the order
+    
+    // The order without placeholder vertices (dependencies never added, ids of
+    // rejected tasks); rebuilt on the next read after the order changes
+    mutable std::vector<std::string> taskSequence;
+    mutable bool taskSequenceStale = false;
+    
+    int vertexFor(const std::string& taskId);
+    void syncMovedPositions();
 };
 
 #endif // MIGRATION_GRAPH_H
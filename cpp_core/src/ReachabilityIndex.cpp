@@ -0,0 +1,370 @@
+#include "../include/ReachabilityIndex.h"
+#include <algorithm>
+#include <iterator>
+#include <utility>
+
+// New vertices grow many sets by one word at a time; cap the slack at 1/8
+// instead of letting the vector double every set's capacity
+static void growWords(std::vector<uint64_t>& bits, size_t words) {
+    if (words > bits.capacity()) {
+        bits.reserve(words + words / 8);
+    }
+    bits.resize(words, 0);
+}
+
+static int popcount64(uint64_t x) {
+    x = x - ((x >> 1) & 0x5555555555555555ULL);
+    x = (x & 0x3333333333333333ULL) + ((x >> 2) & 0x3333333333333333ULL);
+    x = (x + (x >> 4)) & 0x0F0F0F0F0F0F0F0FULL;
+    return static_cast<int>((x * 0x0101010101010101ULL) >> 56);
+}
+
+bool ReachabilityIndex::ComponentSet::contains(int c) const {
+    if (dense) {
+        size_t word = static_cast<size_t>(c) >> 6;
+        return word < bits.size() && ((bits[word] >> (c & 63)) & 1) != 0;
+    }
+    return std::binary_search(sparse.begin(), sparse.end(), c);
+}
+
+void ReachabilityIndex::ComponentSet::setBit(int c) {
+    size_t word = static_cast<size_t>(c) >> 6;
+    if (word >= bits.size()) {
+        growWords(bits, word + 1);
+    }
+    uint64_t mask = uint64_t(1) << (c & 63);
+    if ((bits[word] & mask) == 0) {
+        bits[word] |= mask;
+        count++;
+    }
+}
+
+void ReachabilityIndex::ComponentSet::makeDense(int maxElement) {
+    bits.assign(static_cast<size_t>(maxElement >> 6) + 1, 0);
+    for (int c : sparse) {
+        bits[c >> 6] |= uint64_t(1) << (c & 63);
+    }
+    std::vector<int>().swap(sparse);
+    dense = true;
+}
+
+void ReachabilityIndex::ComponentSet::makeSparse() {
+    std::vector<int> members;
+    members.reserve(count);
+    appendTo(members);
+    std::vector<uint64_t>().swap(bits);
+    sparse.swap(members);
+    dense = false;
+}
+
+void ReachabilityIndex::ComponentSet::checkDensity() {
+    // 4 bytes per member against 1 bit per possible member, with a factor of
+    // two between the thresholds so sets do not flip back and forth
+    if (!dense) {
+        if (count >= 32 && static_cast<size_t>(count) * 32 > static_cast<size_t>(sparse.back())) {
+            makeDense(sparse.back());
+        }
+    } else if (static_cast<size_t>(count) < bits.size()) {
+        makeSparse(); // Fewer members than words: the array is under half the size
+    }
+}
+
+void ReachabilityIndex::ComponentSet::insert(int c) {
+    if (dense) {
+        setBit(c);
+    } else {
+        auto it = std::lower_bound(sparse.begin(), sparse.end(), c);
+        if (it != sparse.end() && *it == c) return;
+        sparse.insert(it, c);
+        count++;
+    }
+    checkDensity();
+}
+
+void ReachabilityIndex::ComponentSet::unionWith(const ComponentSet& other) {
+    if (other.count == 0) return;
+
+    if (!dense && !other.dense) {
+        std::vector<int> merged;
+        merged.reserve(sparse.size() + other.sparse.size());
+        std::set_union(sparse.begin(), sparse.end(), other.sparse.begin(), other.sparse.end(),
+                       std::back_inserter(merged));
+        sparse.swap(merged);
+        count = static_cast<int>(sparse.size());
+    } else if (!dense) {
+        // Sparse into a copy of the other's bits
+        std::vector<int> members;
+        members.swap(sparse);
+        bits = other.bits;
+        count = other.count;
+        dense = true;
+        for (int c : members) {
+            setBit(c);
+        }
+    } else if (other.dense) {
+        if (bits.size() < other.bits.size()) {
+            growWords(bits, other.bits.size());
+        }
+        for (size_t w = 0; w < other.bits.size(); w++) {
+            count += popcount64(other.bits[w] & ~bits[w]);
+            bits[w] |= other.bits[w];
+        }
+    } else {
+        for (int c : other.sparse) {
+            setBit(c);
+        }
+    }
+    checkDensity();
+}
+
+void ReachabilityIndex::ComponentSet::appendTo(std::vector<int>& out) const {
+    if (!dense) {
+        out.insert(out.end(), sparse.begin(), sparse.end());
+        return;
+    }
+    for (size_t w = 0; w < bits.size(); w++) {
+        uint64_t word = bits[w];
+        for (int b = 0; word != 0; b++, word >>= 1) {
+            if (word & 1) {
+                out.push_back(static_cast<int>(w * 64) + b);
+            }
+        }
+    }
+}
+
+ReachabilityIndex::ReachabilityIndex() : dirty(true) {
+    // Nothing is maintained until the first query, so bulk loads cost one build
+}
+
+int ReachabilityIndex::addVertex() {
+    int vertex = size();
+    outEdges.emplace_back();
+    inEdges.emplace_back();
+
+    if (dirty) {
+        component.push_back(-1);
+        return vertex;
+    }
+
+    // A new vertex is its own component and reaches only itself
+    int c = static_cast<int>(members.size());
+    component.push_back(c);
+    members.push_back(std::vector<int>(1, vertex));
+    cyclic.push_back(0);
+    descendantSets.emplace_back();
+    descendantSets.back().insert(c);
+    ancestorSets.emplace_back();
+    ancestorSets.back().insert(c);
+    return vertex;
+}
+
+bool ReachabilityIndex::addEdge(int from, int to) {
+    if (from < 0 || to < 0 || from >= size() || to >= size()) return false;
+    auto& out = outEdges[from];
+    if (std::find(out.begin(), out.end(), to) != out.end()) {
+        return false;
+    }
+    out.push_back(to);
+    inEdges[to].push_back(from);
+
+    if (dirty) return true;
+
+    int cu = component[from];
+    int cv = component[to];
+    if (cu == cv) {
+        if (from == to) cyclic[cu] = 1;
+        return true;
+    }
+    if (descendantSets[cu].contains(cv)) {
+        return true; // Already implied by the closure
+    }
+    if (descendantSets[cv].contains(cu)) {
+        dirty = true; // Closes a cycle: components merge, so rebuild the condensation
+        return true;
+    }
+
+    // Everything reaching cu now reaches everything cv reaches, and vice versa
+    std::vector<int> sources;
+    std::vector<int> targets;
+    ancestorSets[cu].appendTo(sources);
+    descendantSets[cv].appendTo(targets);
+    for (int a : sources) {
+        descendantSets[a].unionWith(descendantSets[cv]);
+    }
+    for (int d : targets) {
+        ancestorSets[d].unionWith(ancestorSets[cu]);
+    }
+    return true;
+}
+
+bool ReachabilityIndex::reaches(int from, int to) {
+    if (from < 0 || to < 0 || from >= size() || to >= size()) return false;
+    ensureBuilt();
+
+    int cu = component[from];
+    int cv = component[to];
+    if (cu == cv) {
+        return from != to || cyclic[cu];
+    }
+    return descendantSets[cu].contains(cv);
+}
+
+std::vector<int> ReachabilityIndex::descendants(int vertex) {
+    if (vertex < 0 || vertex >= size()) return std::vector<int>();
+    ensureBuilt();
+    return expand(descendantSets[component[vertex]], vertex);
+}
+
+std::vector<int> ReachabilityIndex::ancestors(int vertex) {
+    if (vertex < 0 || vertex >= size()) return std::vector<int>();
+    ensureBuilt();
+    return expand(ancestorSets[component[vertex]], vertex);
+}
+
+int ReachabilityIndex::size() const {
+    return static_cast<int>(outEdges.size());
+}
+
+const std::vector<int>& ReachabilityIndex::successors(int vertex) const {
+    return outEdges[vertex];
+}
+
+const std::vector<int>& ReachabilityIndex::predecessors(int vertex) const {
+    return inEdges[vertex];
+}
+
+int ReachabilityIndex::componentCount() {
+    ensureBuilt();
+    return static_cast<int>(members.size());
+}
+
+std::vector<int> ReachabilityIndex::expand(const ComponentSet& set, int vertex) const {
+    std::vector<int> components;
+    set.appendTo(components);
+
+    std::vector<int> result;
+    for (int c : components) {
+        for (int member : members[c]) {
+            if (member != vertex) {
+                result.push_back(member);
+            }
+        }
+    }
+    return result;
+}
+
+void ReachabilityIndex::ensureBuilt() {
+    if (dirty) {
+        rebuild();
+        dirty = false;
+    }
+}
+
+void ReachabilityIndex::rebuild() {
+    int n = size();
+    component.assign(n, -1);
+    members.clear();
+
+    // Iterative Tarjan: components are numbered in completion order, so every
+    // component's successors have smaller numbers (reverse topological order)
+    std::vector<int> index(n, -1);
+    std::vector<int> low(n, 0);
+    std::vector<char> onStack(n, 0);
+    std::vector<int> stack;
+    std::vector<std::pair<int, size_t>> callStack; // (vertex, next out-edge)
+    int counter = 0;
+
+    for (int root = 0; root < n; root++) {
+        if (index[root] >= 0) continue;
+        index[root] = low[root] = counter++;
+        stack.push_back(root);
+        onStack[root] = 1;
+        callStack.push_back(std::make_pair(root, size_t(0)));
+
+        while (!callStack.empty()) {
+            int v = callStack.back().first;
+            size_t next = callStack.back().second;
+
+            if (next < outEdges[v].size()) {
+                callStack.back().second++;
+                int w = outEdges[v][next];
+                if (index[w] < 0) {
+                    index[w] = low[w] = counter++;
+                    stack.push_back(w);
+                    onStack[w] = 1;
+                    callStack.push_back(std::make_pair(w, size_t(0)));
+                } else if (onStack[w]) {
+                    low[v] = std::min(low[v], index[w]);
+                }
+                continue;
+            }
+
+            callStack.pop_back();
+            if (!callStack.empty()) {
+                int parent = callStack.back().first;
+                low[parent] = std::min(low[parent], low[v]);
+            }
+            if (low[v] == index[v]) {
+                int c = static_cast<int>(members.size());
+                members.emplace_back();
+                int w;
+                do {
+                    w = stack.back();
+                    stack.pop_back();
+                    onStack[w] = 0;
+                    component[w] = c;
+                    members[c].push_back(w);
+                } while (w != v);
+            }
+        }
+    }
+
+    int count = static_cast<int>(members.size());
+    cyclic.assign(count, 0);
+    descendantSets.assign(count, ComponentSet());
+    ancestorSets.assign(count, ComponentSet());
+
+    // Neighbouring components of c, deduplicated and ordered so the largest
+    // closures are merged first and later neighbours are usually already covered
+    std::vector<int> neighbours;
+    auto collect = [&](int c, const std::vector<std::vector<int>>& edges) {
+        neighbours.clear();
+        for (int u : members[c]) {
+            for (int v : edges[u]) {
+                int cv = component[v];
+                if (cv != c) {
+                    neighbours.push_back(cv);
+                } else if (v == u) {
+                    cyclic[c] = 1; // Self-loop
+                }
+            }
+        }
+        std::sort(neighbours.begin(), neighbours.end());
+        neighbours.erase(std::unique(neighbours.begin(), neighbours.end()), neighbours.end());
+    };
+
+    // Descendants: successors are numbered lower, so they are complete first
+    for (int c = 0; c < count; c++) {
+        collect(c, outEdges);
+        if (members[c].size() > 1) cyclic[c] = 1;
+        ComponentSet& set = descendantSets[c];
+        set.insert(c);
+        for (auto it = neighbours.rbegin(); it != neighbours.rend(); ++it) {
+            if (!set.contains(*it)) {
+                set.unionWith(descendantSets[*it]);
+            }
+        }
+    }
+
+    // Ancestors: predecessors are numbered higher
+    for (int c = count - 1; c >= 0; c--) {
+        collect(c, inEdges);
+        ComponentSet& set = ancestorSets[c];
+        set.insert(c);
+        for (int p : neighbours) {
+            if (!set.contains(p)) {
+                set.unionWith(ancestorSets[p]);
+            }
+        }
+    }
+}
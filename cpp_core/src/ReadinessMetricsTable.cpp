@@ -0,0 +1,84 @@
+#include "ReadinessMetricsTable.h"
+#include "../include/ScoreQuery.h"
+
+const std::vector<double>* ReadinessColumns::column(int field) const {
+    switch (field) {
+        case FIELD_LOCK_IN_SCORE: return &lockInScore;
+        case FIELD_MIGRATION_DIFFICULTY: return &migrationDifficulty;
+        case FIELD_DATA_EXPORT: return &dataExportCapability;
+        case FIELD_CONTRACT_FLEXIBILITY: return &contractFlexibility;
+        case FIELD_TECHNICAL_COMPLEXITY: return &technicalComplexity;
+        case FIELD_EXIT_READINESS: return &exitReadiness;
+        default: return nullptr;
+    }
+}
+
+ReadinessMetricsTable::ReadinessMetricsTable() {
+}
+
+ReadinessMetricsTable::~ReadinessMetricsTable() {
+}
+
+int ReadinessMetricsTable::insert(const VendorReadinessMetrics& metrics) {
+    int slot;
+    auto existing = slotIndex.find(metrics.vendorId);
+    if (existing != slotIndex.end()) {
+        slot = existing->second;
+        rows[slot] = metrics;
+    } else {
+        slot = static_cast<int>(rows.size());
+        slotIndex[metrics.vendorId] = slot;
+        rows.push_back(metrics);
+        columns.lockInScore.push_back(0.0);
+        columns.migrationDifficulty.push_back(0.0);
+        columns.dataExportCapability.push_back(0.0);
+        columns.contractFlexibility.push_back(0.0);
+        columns.technicalComplexity.push_back(0.0);
+        columns.exitReadiness.push_back(0.0);
+    }
+
+    columns.lockInScore[slot] = metrics.lockInScore;
+    columns.migrationDifficulty[slot] = metrics.migrationDifficulty;
+    columns.dataExportCapability[slot] = metrics.dataExportCapability;
+    columns.contractFlexibility[slot] = metrics.contractFlexibility;
+    columns.technicalComplexity[slot] = metrics.technicalComplexity;
+    columns.exitReadiness[slot] = metrics.exitReadiness;
+    return slot;
+}
+
+VendorReadinessMetrics* ReadinessMetricsTable::get(const std::string& vendorId) {
+    auto it = slotIndex.find(vendorId);
+    if (it != slotIndex.end()) {
+        return &rows[it->second];
+    }
+    return nullptr;
+}
+
+bool ReadinessMetricsTable::contains(const std::string& vendorId) {
+    return slotIndex.find(vendorId) != slotIndex.end();
+}
+
+int ReadinessMetricsTable::getSlot(const std::string& vendorId) {
+    auto it = slotIndex.find(vendorId);
+    return it != slotIndex.end() ? it->second : -1;
+}
+
+VendorReadinessMetrics* ReadinessMetricsTable::getBySlot(int slot) {
+    if (slot < 0 || slot >= static_cast<int>(rows.size())) {
+        return nullptr;
+    }
+    return &rows[slot];
+}
+
+void ReadinessMetricsTable::setExitReadiness(int slot, double readiness) {
+    rows[slot].exitReadiness = readiness;
+    columns.exitReadiness[slot] = readiness;
+}
+
+const ReadinessColumns& ReadinessMetricsTable::getColumns() const {
+    return columns;
+}
+
+int ReadinessMetricsTable::size() {
+    return static_cast<int>(rows.size());
+}
@@ -0,0 +1,62 @@
+#ifndef READINESS_METRICS_TABLE_H
+#define READINESS_METRICS_TABLE_H
+
+#include <string>
+#include <vector>
+#include <unordered_map>
+
+struct VendorReadinessMetrics {
+    std::string vendorId;
+    double lockInScore;
+    double migrationDifficulty;
+    int dataExportCapability;
+    int contractFlexibility;
+    int technicalComplexity;
+    double exitReadiness;
+
+    VendorReadinessMetrics() : lockInScore(0), migrationDifficulty(0), dataExportCapability(0),
+                               contractFlexibility(0), technicalComplexity(0), exitReadiness(0) {}
+};
+
+/**
+ * Column-oriented copy of the readiness inputs and score, indexed by slot
+ */
+struct ReadinessColumns {
+    std::vector<double> lockInScore;
+    std::vector<double> migrationDifficulty;
+    std::vector<double> dataExportCapability;
+    std::vector<double> contractFlexibility;
+    std::vector<double> technicalComplexity;
+    std::vector<double> exitReadiness;
+
+    // Column for a query field code, nullptr if the field is not a readiness column
+    const std::vector<double>* column(int field) const;
+};
+
+/**
+ * Per-dashboard storage for vendor readiness metrics
+ * Hash index for O(1) lookup plus slot-aligned columns for scans
+ */
+class ReadinessMetricsTable {
+public:
+    ReadinessMetricsTable();
+    ~ReadinessMetricsTable();
+
+    // Insert or replace metrics; returns the vendor's slot
+    int insert(const VendorReadinessMetrics& metrics);
+    VendorReadinessMetrics* get(const std::string& vendorId);
+    bool contains(const std::string& vendorId);
+
+    int getSlot(const std::string& vendorId);
+    VendorReadinessMetrics* getBySlot(int slot);
+    void setExitReadiness(int slot, double readiness);
+    const ReadinessColumns& getColumns() const;
+    int size();
+
+private:
+    std::unordered_map<std::string, int> slotIndex;
+    std::vector<VendorReadinessMetrics> rows;
+    ReadinessColumns columns;
+};
+
+#endif // READINESS_METRICS_TABLE_H
@@ -0,0 +1,109 @@
+#include "ResourceScheduler.h"
+#include "../include/IndexedPriorityQueue.h"
+#include <algorithm>
+#include <functional>
+#include <queue>
+
+ResourceScheduler::ResourceScheduler(const CompiledTaskGraph& compiled, const std::vector<int>& taskPriorities,
+                                     const std::vector<int>& taskDemands, int engineerCount)
+    : graph(compiled), priorities(taskPriorities), demands(taskDemands),
+      engineers(std::max(1, engineerCount)) {
+}
+
+long long ResourceScheduler::queueKey(int task, int unfinished) const {
+    // Ready tasks (no unfinished predecessors) sort first, then by descending priority
+    return (static_cast<long long>(unfinished) << 32) + (0x7fffffffLL - priorities[task]);
+}
+
+MigrationSchedule ResourceScheduler::run() {
+    int n = graph.size();
+    MigrationSchedule schedule;
+    schedule.engineers = engineers;
+    schedule.makespan = 0;
+    schedule.assignments.resize(n);
+
+    // Successor lists in CSR layout (the compiled graph stores predecessors)
+    std::vector<int> succOffsets(n + 1, 0);
+    for (int p : graph.preds) {
+        succOffsets[p + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+        succOffsets[i + 1] += succOffsets[i];
+    }
+    std::vector<int> succs(graph.preds.size());
+    std::vector<int> fill(succOffsets.begin(), succOffsets.end() - 1);
+    for (int i = 0; i < n; i++) {
+        for (int p = graph.predOffsets[i]; p < graph.predOffsets[i + 1]; p++) {
+            succs[fill[graph.preds[p]]++] = i;
+        }
+    }
+
+    std::vector<int> unfinished(n);
+    IndexedPriorityQueue queue(n);
+    for (int i = 0; i < n; i++) {
+        unfinished[i] = graph.predOffsets[i + 1] - graph.predOffsets[i];
+        queue.push(i, queueKey(i, unfinished[i]));
+    }
+
+    // Lowest-numbered free engineer is assigned first
+    std::priority_queue<int, std::vector<int>, std::greater<int>> freeEngineers;
+    for (int e = 0; e < engineers; e++) {
+        freeEngineers.push(e);
+    }
+
+    // Engineers held by each running task, CSR-style by start order
+    std::vector<int> heldOffsets(n + 1, 0);
+    std::vector<int> held;
+    std::vector<int> startSlot(n, 0);
+    held.reserve(n);
+
+    typedef std::pair<int, int> Event; // (finish day, task)
+    std::priority_queue<Event, std::vector<Event>, std::greater<Event>> running;
+
+    int day = 0;
+    int started = 0;
+    while (started < n) {
+        // Start ready tasks in priority order while their demand fits
+        while (!queue.empty() && unfinished[queue.top()] == 0) {
+            int task = queue.top();
+            int demand = std::min(engineers, std::max(1, demands[task]));
+            if (static_cast<int>(freeEngineers.size()) < demand) break;
+            queue.pop();
+
+            startSlot[task] = started;
+            TaskAssignment& assignment = schedule.assignments[task];
+            assignment.taskId = graph.taskIds[task];
+            assignment.startDay = day;
+            assignment.finishDay = day + std::max(0, graph.estimatedDays[task]);
+            assignment.assignee = freeEngineers.top();
+            for (int k = 0; k < demand; k++) {
+                held.push_back(freeEngineers.top());
+                freeEngineers.pop();
+            }
+            heldOffsets[started + 1] = static_cast<int>(held.size());
+            started++;
+
+            running.push(Event(assignment.finishDay, task));
+            schedule.makespan = std::max(schedule.makespan, assignment.finishDay);
+        }
+
+        if (running.empty()) break; // Unreachable for a DAG
+
+        // Advance to the next completion and release everything finishing then
+        day = running.top().first;
+        while (!running.empty() && running.top().first == day) {
+            int task = running.top().second;
+            running.pop();
+            for (int h = heldOffsets[startSlot[task]]; h < heldOffsets[startSlot[task] + 1]; h++) {
+                freeEngineers.push(held[h]);
+            }
+            for (int s = succOffsets[task]; s < succOffsets[task + 1]; s++) {
+                int next = succs[s];
+                unfinished[next]--;
+                queue.decreaseKey(next, queueKey(next, unfinished[next]));
+            }
+        }
+    }
+
+    return schedule;
+}
@@ -0,0 +1,32 @@
+#ifndef RESOURCE_SCHEDULER_H
+#define RESOURCE_SCHEDULER_H
+
+#include "MigrationGraph.h"
+#include <vector>
+
+/**
+ * Resource-constrained list scheduler for the compiled task DAG
+ * Every task sits in an indexed priority queue keyed by
+ * (unfinished predecessors, priority); finishing a task decrease-keys its
+ * successors, so the queue head is always the most urgent ready task.
+ * Tasks start strictly in priority order (no backfilling), which keeps
+ * tasks needing several engineers from being starved by narrow ones.
+ */
+class ResourceScheduler {
+public:
+    // priorities: higher starts first; demands: engineers needed per task (clamped to 1..engineers)
+    ResourceScheduler(const CompiledTaskGraph& graph, const std::vector<int>& priorities,
+                      const std::vector<int>& demands, int engineers);
+
+    MigrationSchedule run();
+
+private:
+    const CompiledTaskGraph& graph;
+    const std::vector<int>& priorities;
+    const std::vector<int>& demands;
+    int engineers;
+
+    long long queueKey(int task, int unfinished) const;
+};
+
+#endif // RESOURCE_SCHEDULER_H
@@ -0,0 +1,121 @@
+#include "ScheduleSimulator.h"
+#include <algorithm>
+#include <random>
+#include <cmath>
+#include <thread>
+
+ScheduleSimulator::ScheduleSimulator(const CompiledTaskGraph& compiled) : graph(compiled) {
+    int n = graph.size();
+    optimistic.resize(n);
+    mostLikely.resize(n);
+    pessimistic.resize(n);
+    alpha.resize(n);
+    beta.resize(n);
+
+    // Three-point estimate around estimatedDays: harder tasks have a longer right tail
+    for (int i = 0; i < n; i++) {
+        double days = std::max(0, graph.estimatedDays[i]);
+        double difficulty = std::min(10, std::max(1, graph.difficulty[i]));
+        optimistic[i] = days * 0.8;
+        mostLikely[i] = days;
+        pessimistic[i] = days * (1.0 + 0.15 * difficulty);
+
+        double range = pessimistic[i] - optimistic[i];
+        alpha[i] = range > 0 ? 1.0 + 4.0 * (mostLikely[i] - optimistic[i]) / range : 1.0;
+        beta[i] = range > 0 ? 1.0 + 4.0 * (pessimistic[i] - mostLikely[i]) / range : 1.0;
+    }
+}
+
+void ScheduleSimulator::runRange(int first, int last, int distribution, unsigned long long seed,
+                                 std::vector<double>& completion) {
+    std::mt19937_64 rng(seed);
+    std::uniform_real_distribution<double> uniform(0.0, 1.0);
+    std::gamma_distribution<double> gamma;
+    std::vector<double> finish(graph.size()); // Reused by every trial of this thread
+
+    const int* predOffsets = graph.predOffsets.data();
+    const int* preds = graph.preds.data();
+    int n = graph.size();
+
+    for (int trial = first; trial < last; trial++) {
+        double end = 0.0;
+        for (int i = 0; i < n; i++) {
+            double a = optimistic[i];
+            double c = mostLikely[i];
+            double b = pessimistic[i];
+            double duration = c;
+
+            if (b > a) {
+                if (distribution == PERT) {
+                    double x = gamma(rng, std::gamma_distribution<double>::param_type(alpha[i], 1.0));
+                    double y = gamma(rng, std::gamma_distribution<double>::param_type(beta[i], 1.0));
+                    duration = a + (b - a) * (x / (x + y));
+                } else {
+                    // Inverse CDF of the triangular distribution
+                    double u = uniform(rng);
+                    double split = (c - a) / (b - a);
+                    duration = u < split
+                        ? a + std::sqrt(u * (b - a) * (c - a))
+                        : b - std::sqrt((1.0 - u) * (b - a) * (b - c));
+                }
+            }
+
+            // Tasks are in topological order, so predecessors are already final
+            double start = 0.0;
+            for (int p = predOffsets[i]; p < predOffsets[i + 1]; p++) {
+                start = std::max(start, finish[preds[p]]);
+            }
+            finish[i] = start + duration;
+            end = std::max(end, finish[i]);
+        }
+        completion[trial] = end;
+    }
+}
+
+CompletionForecast ScheduleSimulator::run(int trials, int distribution, unsigned long long seed, int threads) {
+    CompletionForecast forecast;
+    if (trials <= 0) {
+        return forecast;
+    }
+
+    if (threads <= 0) {
+        threads = static_cast<int>(std::max(1u, std::thread::hardware_concurrency()));
+    }
+    threads = std::min(threads, trials);
+
+    std::vector<double> completion(trials);
+    std::vector<std::thread> workers;
+    int chunk = (trials + threads - 1) / threads;
+    for (int t = 0; t < threads; t++) {
+        int first = t * chunk;
+        int last = std::min(trials, first + chunk);
+        if (first >= last) break;
+        // Independent stream per thread derived from the caller's seed
+        unsigned long long threadSeed = seed + 0x9E3779B97F4A7C15ULL * (t + 1);
+        workers.emplace_back(&ScheduleSimulator::runRange, this, first, last, distribution,
+                             threadSeed, std::ref(completion));
+    }
+    for (auto& worker : workers) {
+        worker.join();
+    }
+
+    double sum = 0.0;
+    for (double days : completion) {
+        sum += days;
+    }
+
+    auto percentile = [&completion, trials](double q) {
+        size_t k = std::min(static_cast<size_t>(trials - 1), static_cast<size_t>(q * trials));
+        std::nth_element(completion.begin(), completion.begin() + k, completion.end());
+        return completion[k];
+    };
+
+    forecast.trials = trials;
+    forecast.mean = sum / trials;
+    forecast.p50 = percentile(0.50);
+    forecast.p90 = percentile(0.90);
+    forecast.p99 = percentile(0.99);
+    forecast.minDays = *std::min_element(completion.begin(), completion.end());
+    forecast.maxDays = *std::max_element(completion.begin(), completion.end());
+    return forecast;
+}
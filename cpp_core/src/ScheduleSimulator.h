@@ -0,0 +1,36 @@
+#ifndef SCHEDULE_SIMULATOR_H
+#define SCHEDULE_SIMULATOR_H
+
+#include "MigrationGraph.h"
+
+/**
+ * Monte Carlo evaluation of migration completion time
+ * Each trial samples a duration per task and computes the critical-path
+ * finish time over the compiled DAG. Trials run on a native thread pool
+ * with one RNG and one scratch buffer per thread.
+ */
+class ScheduleSimulator {
+public:
+    enum Distribution {
+        TRIANGULAR = 0,
+        PERT = 1
+    };
+
+    explicit ScheduleSimulator(const CompiledTaskGraph& graph);
+
+    // threads <= 0 uses all hardware threads
+    CompletionForecast run(int trials, int distribution, unsigned long long seed, int threads = 0);
+
+private:
+    const CompiledTaskGraph& graph;
+    std::vector<double> optimistic;
+    std::vector<double> mostLikely;
+    std::vector<double> pessimistic;
+    std::vector<double> alpha; // PERT beta shape parameters
+    std::vector<double> beta;
+
+    void runRange(int first, int last, int distribution, unsigned long long seed,
+                  std::vector<double>& completion);
+};
+
+#endif // SCHEDULE_SIMULATOR_H
@@ -0,0 +1,141 @@
+#include "../include/ScoreQuery.h"
+#include <algorithm>
+#include <limits>
+
+namespace query {
+
+bool matches(double value, int op, double operand) {
+    switch (op) {
+        case OP_LT: return value < operand;
+        case OP_LE: return value <= operand;
+        case OP_GT: return value > operand;
+        case OP_GE: return value >= operand;
+        case OP_EQ: return value == operand;
+        case OP_NE: return value != operand;
+        default: return false;
+    }
+}
+
+bool matchesAll(const std::vector<QueryPredicate>& predicates, const ColumnLookup& columns, int slot) {
+    for (const auto& predicate : predicates) {
+        const std::vector<double>* column = columns(predicate.field);
+        if (column == nullptr || !matches((*column)[slot], predicate.op, predicate.value)) {
+            return false;
+        }
+    }
+    return true;
+}
+
+bool rangeFor(const std::vector<QueryPredicate>& predicates, int field, double& low, double& high) {
+    bool restricted = false;
+    low = -std::numeric_limits<double>::infinity();
+    high = std::numeric_limits<double>::infinity();
+
+    // Strict bounds are widened to inclusive ones; callers re-check every predicate
+    for (const auto& predicate : predicates) {
+        if (predicate.field != field) continue;
+        switch (predicate.op) {
+            case OP_LT:
+            case OP_LE:
+                high = std::min(high, predicate.value);
+                restricted = true;
+                break;
+            case OP_GT:
+            case OP_GE:
+                low = std::max(low, predicate.value);
+                restricted = true;
+                break;
+            case OP_EQ:
+                low = std::max(low, predicate.value);
+                high = std::min(high, predicate.value);
+                restricted = true;
+                break;
+            default:
+                break;
+        }
+    }
+    return restricted;
+}
+
+std::vector<int> scanColumns(int rowCount, const std::vector<QueryPredicate>& predicates,
+                             const ColumnLookup& columns, int stopAfter) {
+    std::vector<int> selection;
+    int end = (stopAfter >= 0 && predicates.empty()) ? std::min(rowCount, stopAfter) : rowCount;
+
+    if (predicates.empty()) {
+        selection.resize(end);
+        for (int i = 0; i < end; i++) {
+            selection[i] = i;
+        }
+        return selection;
+    }
+
+    // Unknown fields match nothing
+    std::vector<const double*> data;
+    for (const auto& predicate : predicates) {
+        const std::vector<double>* column = columns(predicate.field);
+        if (column == nullptr) {
+            return selection;
+        }
+        data.push_back(column->data());
+    }
+
+    if (stopAfter >= 0) {
+        for (int i = 0; i < rowCount && static_cast<int>(selection.size()) < stopAfter; i++) {
+            bool keep = true;
+            for (size_t p = 0; p < predicates.size() && keep; p++) {
+                keep = matches(data[p][i], predicates[p].op, predicates[p].value);
+            }
+            if (keep) {
+                selection.push_back(i);
+            }
+        }
+        return selection;
+    }
+
+    const QueryPredicate& first = predicates[0];
+    const double* values = columns(first.field)->data();
+    for (int i = 0; i < rowCount; i++) {
+        if (matches(values[i], first.op, first.value)) {
+            selection.push_back(i);
+        }
+    }
+
+    for (size_t p = 1; p < predicates.size() && !selection.empty(); p++) {
+        const QueryPredicate& predicate = predicates[p];
+        const double* column = columns(predicate.field)->data();
+        size_t kept = 0;
+        for (size_t i = 0; i < selection.size(); i++) {
+            if (matches(column[selection[i]], predicate.op, predicate.value)) {
+                selection[kept++] = selection[i];
+            }
+        }
+        selection.resize(kept);
+    }
+
+    return selection;
+}
+
+void sortAndLimit(std::vector<int>& slots, const std::vector<double>* sortColumn,
+                  bool descending, int limit) {
+    size_t keep = (limit >= 0) ? std::min(slots.size(), static_cast<size_t>(limit)) : slots.size();
+
+    if (sortColumn != nullptr) {
+        const std::vector<double>& values = *sortColumn;
+        auto order = [&values, descending](int a, int b) {
+            if (values[a] != values[b]) {
+                return descending ? values[a] > values[b] : values[a] < values[b];
+            }
+            return a < b;
+        };
+        if (keep < slots.size()) {
+            std::partial_sort(slots.begin(), slots.begin() + keep, slots.end(), order);
+        } else {
+            std::sort(slots.begin(), slots.end(), order);
+        }
+    }
+
+    slots.resize(keep);
+}
+
+}
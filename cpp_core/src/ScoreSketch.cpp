@@ -0,0 +1,168 @@
+#include "../include/ScoreSketch.h"
+#include <algorithm>
+#include <cmath>
+#include <thread>
+
+ScoreSketch::ScoreSketch(double low, double high, int buckets)
+    : low(low), high(high), width((high - low) / std::max(1, buckets)),
+      counts(std::max(1, buckets), 0), tree(std::max(1, buckets) + 1, 0),
+      total(0), sum(0.0), sumOfSquares(0.0) {
+}
+
+ScoreSketch ScoreSketch::fromScores(const std::vector<double>& scores, int threads) {
+    int n = static_cast<int>(scores.size());
+    if (threads <= 0) {
+        threads = static_cast<int>(std::max(1u, std::thread::hardware_concurrency()));
+    }
+    threads = std::min(threads, std::max(1, n / 4096));
+
+    ScoreSketch sketch;
+    if (threads == 1) {
+        for (double score : scores) {
+            sketch.add(score);
+        }
+        return sketch;
+    }
+    // Each worker sketches its own range, then the partials are merged
+    std::vector<ScoreSketch> partials(threads);
+    std::vector<std::thread> workers;
+    for (int t = 0; t < threads; t++) {
+        int first = static_cast<int>(static_cast<long long>(n) * t / threads);
+        int last = static_cast<int>(static_cast<long long>(n) * (t + 1) / threads);
+        workers.emplace_back([&scores, &partials, t, first, last]() {
+            for (int i = first; i < last; i++) {
+                partials[t].add(scores[i]);
+            }
+        });
+    }
+    for (std::thread& worker : workers) {
+        worker.join();
+    }
+    for (const ScoreSketch& partial : partials) {
+        sketch.merge(partial);
+    }
+    return sketch;
+}
+
+int ScoreSketch::bucketOf(double score) const {
+    if (!(score > low)) {
+        return 0; // Also NaN
+    }
+    int bucket = static_cast<int>((score - low) / width);
+    return std::min(bucket, static_cast<int>(counts.size()) - 1);
+}
+
+void ScoreSketch::update(int bucket, long long delta) {
+    counts[bucket] += delta;
+    for (int i = bucket + 1; i < static_cast<int>(tree.size()); i += i & -i) {
+        tree[i] += delta;
+    }
+}
+
+void ScoreSketch::add(double score) {
+    update(bucketOf(score), 1);
+    total++;
+    sum += score;
+    sumOfSquares += score * score;
+}
+
+void ScoreSketch::remove(double score) {
+    int bucket = bucketOf(score);
+    if (counts[bucket] == 0) {
+        return; // Never added
+    }
+    update(bucket, -1);
+    total--;
+    sum -= score;
+    sumOfSquares -= score * score;
+}
+
+void ScoreSketch::replace(double before, double after) {
+    remove(before);
+    add(after);
+}
+
+bool ScoreSketch::merge(const ScoreSketch& other) {
+    if (other.low != low || other.high != high || other.counts.size() != counts.size()) {
+        return false;
+    }
+    // Add counts, then rebuild the Fenwick tree in O(buckets)
+    int n = static_cast<int>(counts.size());
+    for (int b = 0; b < n; b++) {
+        counts[b] += other.counts[b];
+        tree[b + 1] = counts[b];
+    }
+    for (int i = 1; i <= n; i++) {
+        int parent = i + (i & -i);
+        if (parent <= n) {
+            tree[parent] += tree[i];
+        }
+    }
+    total += other.total;
+    sum += other.sum;
+    sumOfSquares += other.sumOfSquares;
+    return true;
+}
+
+void ScoreSketch::clear() {
+    std::fill(counts.begin(), counts.end(), 0);
+    std::fill(tree.begin(), tree.end(), 0);
+    total = 0;
+    sum = 0.0;
+    sumOfSquares = 0.0;
+}
+
+long long ScoreSketch::count() const {
+    return total;
+}
+
+double ScoreSketch::mean() const {
+    return total > 0 ? sum / total : 0.0;
+}
+
+double ScoreSketch::standardDeviation() const {
+    if (total == 0) {
+        return 0.0;
+    }
+    double m = mean();
+    return std::sqrt(std::max(0.0, sumOfSquares / total - m * m));
+}
+
+int ScoreSketch::bucketAtRank(long long rank) const {
+    // Binary lifting down the Fenwick tree: O(log buckets)
+    int n = static_cast<int>(counts.size());
+    int position = 0;
+    int step = 1;
+    while (step * 2 <= n) {
+        step *= 2;
+    }
+    for (; step > 0; step /= 2) {
+        int next = position + step;
+        if (next <= n && tree[next] <= rank) {
+            position = next;
+            rank -= tree[next];
+        }
+    }
+    return std::min(position, n - 1);
+}
+
+double ScoreSketch::midpoint(int bucket) const {
+    return low + (bucket + 0.5) * width;
+}
+
+double ScoreSketch::min() const {
+    return total > 0 ? midpoint(bucketAtRank(0)) : 0.0;
+}
+
+double ScoreSketch::max() const {
+    return total > 0 ? midpoint(bucketAtRank(total - 1)) : 0.0;
+}
+
+double ScoreSketch::quantile(double q) const {
+    if (total == 0) {
+        return 0.0;
+    }
+    q = std::min(1.0, std::max(0.0, q));
+    long long rank = std::min(total - 1, static_cast<long long>(std::ceil(q * total)) - 1);
+    return midpoint(bucketAtRank(std::max(0LL, rank)));
+}
@@ -0,0 +1,152 @@
+#include "../include/ScoringModel.h"
+#include <algorithm>
+#include <limits>
+#include <thread>
+
+namespace {
+
+const double NO_CAP = std::numeric_limits<double>::infinity();
+
+// weight points at input == scale, capped at cap; inverted factors score weight at input == 0
+ScoringFactor factor(int field, int perField, double weight, double scale, double cap, bool invert) {
+    double slope = weight / scale;
+    return invert ? ScoringFactor(field, perField, weight, -slope, cap)
+                  : ScoringFactor(field, perField, 0.0, slope, cap);
+}
+
+}
+
+ScoringModel::ScoringModel() {
+}
+
+ScoringModel::ScoringModel(const std::vector<ScoringFactor>& factors) : factors(factors) {
+}
+
+ScoringModel ScoringModel::defaultLockIn() {
+    return ScoringModel(std::vector<ScoringFactor>{
+        factor(FIELD_CONTRACT_VALUE, -1, 25.0, 5000000.0, 25.0, false),
+        factor(FIELD_CONTRACT_MONTHS, -1, 20.0, 36.0, 20.0, false),
+        factor(FIELD_DATA_VOLUME_GB, -1, 15.0, 1000.0, 15.0, false),
+        factor(FIELD_API_DEPENDENCIES, -1, 15.0, 10.0, 15.0, false),
+        factor(FIELD_CUSTOM_INTEGRATION, -1, 10.0, 1.0, 10.0, false),
+        factor(FIELD_SWITCHING_COST, FIELD_CONTRACT_VALUE, 15.0, 1.0, 15.0, false)
+    });
+}
+
+ScoringModel ScoringModel::defaultReadiness() {
+    return ScoringModel(std::vector<ScoringFactor>{
+        factor(FIELD_LOCK_IN_SCORE, -1, 30.0, 100.0, NO_CAP, true),
+        factor(FIELD_MIGRATION_DIFFICULTY, -1, 25.0, 100.0, NO_CAP, true),
+        factor(FIELD_DATA_EXPORT, -1, 20.0, 100.0, NO_CAP, false),
+        factor(FIELD_CONTRACT_FLEXIBILITY, -1, 15.0, 100.0, NO_CAP, false),
+        factor(FIELD_TECHNICAL_COMPLEXITY, -1, 10.0, 100.0, NO_CAP, true)
+    });
+}
+
+const std::vector<ScoringFactor>& ScoringModel::getFactors() const {
+    return factors;
+}
+
+double ScoringModel::factorPoints(const ScoringFactor& factor, const std::vector<double>* input,
+                                  const std::vector<double>* per, int slot) {
+    double value = input != nullptr ? (*input)[slot] : 0.0;
+    if (factor.perField >= 0) {
+        double divisor = per != nullptr ? (*per)[slot] : 0.0;
+        if (divisor == 0.0) return 0.0;
+        value /= divisor;
+    }
+    return std::min(factor.cap, factor.intercept + factor.slope * value);
+}
+
+double ScoringModel::score(const query::ColumnLookup& columns, int slot) const {
+    double total = 0.0;
+    for (const ScoringFactor& factor : factors) {
+        const std::vector<double>* per = factor.perField >= 0 ? columns(factor.perField) : nullptr;
+        total += factorPoints(factor, columns(factor.field), per, slot);
+    }
+    return std::min(100.0, std::max(0.0, total));
+}
+
+double ScoringModel::points(const query::ColumnLookup& columns, int slot, int field) const {
+    double total = 0.0;
+    for (const ScoringFactor& factor : factors) {
+        if (factor.field != field) continue;
+        const std::vector<double>* per = factor.perField >= 0 ? columns(factor.perField) : nullptr;
+        total += factorPoints(factor, columns(factor.field), per, slot);
+    }
+    return total;
+}
+
+void ScoringModel::scoreRange(const std::vector<const std::vector<double>*>& inputs,
+                              const std::vector<const std::vector<double>*>& divisors,
+                              int first, int last, std::vector<double>& scores) const {
+    std::fill(scores.begin() + first, scores.begin() + last, 0.0);
+
+    // One factor at a time over contiguous columns
+    for (size_t f = 0; f < factors.size(); f++) {
+        const ScoringFactor& factor = factors[f];
+        if (inputs[f] == nullptr) {
+            for (int slot = first; slot < last; slot++) {
+                scores[slot] += factorPoints(factor, nullptr, divisors[f], slot);
+            }
+        } else if (factor.perField < 0) {
+            const double* input = inputs[f]->data();
+            for (int slot = first; slot < last; slot++) {
+                scores[slot] += std::min(factor.cap, factor.intercept + factor.slope * input[slot]);
+            }
+        } else {
+            for (int slot = first; slot < last; slot++) {
+                scores[slot] += factorPoints(factor, inputs[f], divisors[f], slot);
+            }
+        }
+    }
+    for (int slot = first; slot < last; slot++) {
+        scores[slot] = std::min(100.0, std::max(0.0, scores[slot]));
+    }
+}
+
+void ScoringModel::scoreRows(const query::ColumnLookup& columns, int first, int last,
+                             std::vector<double>& scores) const {
+    std::vector<const std::vector<double>*> inputs;
+    std::vector<const std::vector<double>*> divisors;
+    for (const ScoringFactor& factor : factors) {
+        inputs.push_back(columns(factor.field));
+        divisors.push_back(factor.perField >= 0 ? columns(factor.perField) : nullptr);
+    }
+    scoreRange(inputs, divisors, first, last, scores);
+}
+
+std::vector<double> ScoringModel::scoreAll(const query::ColumnLookup& columns, int rowCount, int threads) const {
+    std::vector<double> scores(rowCount, 0.0);
+    if (rowCount <= 0) return scores;
+
+    // Resolve the columns once; workers only read them
+    std::vector<const std::vector<double>*> inputs;
+    std::vector<const std::vector<double>*> divisors;
+    for (const ScoringFactor& factor : factors) {
+        inputs.push_back(columns(factor.field));
+        divisors.push_back(factor.perField >= 0 ? columns(factor.perField) : nullptr);
+    }
+
+    if (threads <= 0) {
+        threads = static_cast<int>(std::max(1u, std::thread::hardware_concurrency()));
+    }
+    threads = std::min(threads, std::max(1, rowCount / 4096));
+
+    if (threads == 1) {
+        scoreRange(inputs, divisors, 0, rowCount, scores);
+        return scores;
+    }
+    std::vector<std::thread> workers;
+    for (int t = 0; t < threads; t++) {
+        int first = static_cast<int>(static_cast<long long>(rowCount) * t / threads);
+        int last = static_cast<int>(static_cast<long long>(rowCount) * (t + 1) / threads);
+        workers.emplace_back([this, &inputs, &divisors, first, last, &scores]() {
+            scoreRange(inputs, divisors, first, last, scores);
+        });
+    }
+    for (auto& worker : workers) {
+        worker.join();
+    }
+    return scores;
+}
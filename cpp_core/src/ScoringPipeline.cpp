@@ -0,0 +1,138 @@
+#include "../include/ScoringPipeline.h"
+#include <algorithm>
+#include <thread>
+
+ScoringPipeline::ScoringPipeline()
+    : lockInModel(ScoringModel::defaultLockIn()), readinessModel(ScoringModel::defaultReadiness()) {
+}
+
+void ScoringPipeline::setLockInModel(const ScoringModel& model) {
+    lockInModel = model;
+}
+
+void ScoringPipeline::setReadinessModel(const ScoringModel& model) {
+    readinessModel = model;
+}
+
+PipelineScores ScoringPipeline::run(const PipelineBatch& batch, int threads) const {
+    PipelineScores scores;
+    int n = batch.vendorCount;
+    scores.lockIn.assign(n, 0.0);
+    scores.migrationDifficulty.assign(n, 0.0);
+    scores.exitReadiness.assign(n, 0.0);
+    if (n <= 0) return scores;
+
+    if (threads <= 0) {
+        threads = static_cast<int>(std::max(1u, std::thread::hardware_concurrency()));
+    }
+    threads = std::min(threads, std::max(1, n / 4096));
+
+    if (threads == 1) {
+        runPartition(batch, 0, n, scores);
+        return scores;
+    }
+    // Workers write disjoint ranges of the pre-sized score vectors
+    std::vector<std::thread> workers;
+    for (int t = 0; t < threads; t++) {
+        int first = static_cast<int>(static_cast<long long>(n) * t / threads);
+        int last = static_cast<int>(static_cast<long long>(n) * (t + 1) / threads);
+        workers.emplace_back([this, &batch, first, last, &scores]() {
+            runPartition(batch, first, last, scores);
+        });
+    }
+    for (auto& worker : workers) {
+        worker.join();
+    }
+    return scores;
+}
+
+void ScoringPipeline::runPartition(const PipelineBatch& batch, int first, int last, PipelineScores& scores) const {
+    auto inputs = [&batch](int field) -> const std::vector<double>* {
+        if (field < 0 || field >= static_cast<int>(batch.columns.size())) return nullptr;
+        const std::vector<double>& column = batch.columns[field];
+        return column.empty() ? nullptr : &column;
+    };
+
+    // Stage 1: lock-in from the vendor inputs
+    lockInModel.scoreRows(inputs, first, last, scores.lockIn);
+
+    // Stage 2: migration difficulty from each vendor's task DAG
+    DagScratch scratch;
+    for (int vendor = first; vendor < last; vendor++) {
+        scores.migrationDifficulty[vendor] = migrationDifficulty(batch, vendor, scratch);
+    }
+
+    // Stage 3: readiness reads the two computed scores in place of the typed-in ones
+    auto chained = [&inputs, &scores](int field) -> const std::vector<double>* {
+        if (field == FIELD_LOCK_IN_SCORE) return &scores.lockIn;
+        if (field == FIELD_MIGRATION_DIFFICULTY) return &scores.migrationDifficulty;
+        return inputs(field);
+    };
+    readinessModel.scoreRows(chained, first, last, scores.exitReadiness);
+}
+
+double ScoringPipeline::migrationDifficulty(const PipelineBatch& batch, int vendor) {
+    DagScratch scratch;
+    return migrationDifficulty(batch, vendor, scratch);
+}
+
+double ScoringPipeline::migrationDifficulty(const PipelineBatch& batch, int vendor, DagScratch& scratch) {
+    int first = batch.taskOffsets[vendor];
+    int last = batch.taskOffsets[vendor + 1];
+    int count = last - first;
+    if (count == 0) {
+        const std::vector<double>& typed = batch.columns[FIELD_MIGRATION_DIFFICULTY];
+        return typed.empty() ? 0.0 : typed[vendor];
+    }
+
+    // Successor lists (CSR) of the vendor's tasks; dependencies outside the vendor are ignored
+    int totalDays = 0;
+    scratch.indegree.assign(count, 0);
+    scratch.successorOffsets.assign(count + 1, 0);
+    for (int task = first; task < last; task++) {
+        totalDays += batch.taskDays[task];
+        for (int d = batch.dependencyOffsets[task]; d < batch.dependencyOffsets[task + 1]; d++) {
+            int dependency = batch.dependencies[d];
+            if (dependency < first || dependency >= last || dependency == task) continue;
+            scratch.successorOffsets[dependency - first + 1]++;
+            scratch.indegree[task - first]++;
+        }
+    }
+    for (int i = 0; i < count; i++) {
+        scratch.successorOffsets[i + 1] += scratch.successorOffsets[i];
+    }
+    scratch.successors.resize(scratch.successorOffsets[count]);
+    scratch.chain.assign(scratch.successorOffsets.begin(), scratch.successorOffsets.end() - 1); // Write cursors
+    for (int task = first; task < last; task++) {
+        for (int d = batch.dependencyOffsets[task]; d < batch.dependencyOffsets[task + 1]; d++) {
+            int dependency = batch.dependencies[d];
+            if (dependency < first || dependency >= last || dependency == task) continue;
+            scratch.successors[scratch.chain[dependency - first]++] = task - first;
+        }
+    }
+
+    // Kahn's order; chain[i] = tasks on the longest dependency chain ending at i.
+    // Tasks on a cycle are never released and do not count towards the chain.
+    scratch.chain.assign(count, 1);
+    scratch.ready.clear();
+    for (int i = 0; i < count; i++) {
+        if (scratch.indegree[i] == 0) scratch.ready.push_back(i);
+    }
+    int longest = 0;
+    for (size_t head = 0; head < scratch.ready.size(); head++) {
+        int task = scratch.ready[head];
+        longest = std::max(longest, scratch.chain[task]);
+        for (int s = scratch.successorOffsets[task]; s < scratch.successorOffsets[task + 1]; s++) {
+            int successor = scratch.successors[s];
+            scratch.chain[successor] = std::max(scratch.chain[successor], scratch.chain[task] + 1);
+            if (--scratch.indegree[successor] == 0) {
+                scratch.ready.push_back(successor);
+            }
+        }
+    }
+
+    double score = std::min(40.0, (totalDays / 180.0) * 40.0)
+                 + std::min(30.0, (count / 20.0) * 30.0)
+                 + std::min(30.0, (longest / 15.0) * 30.0);
+    return std::min(100.0, std::max(0.0, score));
+}
@@ -12,6 +12,10 @@ void VendorAVLTree::insert(const std::string& vendorId, double readinessScore) {
     tree->insert(vendorId, readinessScore);
 }
 
+void VendorAVLTree::assign(std::vector<std::pair<std::string, double>> entries) {
+    tree->assign(std::move(entries));
+}
+
 double VendorAVLTree::get(const std::string& vendorId) {
     return tree->get(vendorId);
 }
@@ -21,3 +25,20 @@ std::vector<std::pair<std::string, double>> VendorAVLTree::getAllSortedByReadine
     return tree->getAllSortedReverse();
 }
 
+std::vector<std::pair<std::string, double>> VendorAVLTree::getPageByReadiness(int offset, int limit) {
+    // Same descending order as getAllSortedByReadiness, one page at a time
+    return tree->getPageReverse(offset, limit);
+}
+
+int VendorAVLTree::size() {
+    return tree->size();
+}
+
+void VendorAVLTree::forEachInRange(double low, double high, bool descending,
+                                   const std::function<bool(const std::string&, double)>& visit) {
+    tree->forEachInRange(low, high, descending, visit);
+}
+
+int VendorAVLTree::countInRange(double low, double high) {
+    return tree->countInRange(low, high);
+}
@@ -15,8 +15,16 @@ public:
     ~VendorAVLTree();
 
     void insert(const std::string& vendorId, double readinessScore);
+    void assign(std::vector<std::pair<std::string, double>> entries);
     double get(const std::string& vendorId);
     std::vector<std::pair<std::string, double>> getAllSortedByReadiness();
+    std::vector<std::pair<std::string, double>> getPageByReadiness(int offset, int limit);
+    int size();
+
+    // Range access for query pushdown on the readiness score
+    void forEachInRange(double low, double high, bool descending,
+                        const std::function<bool(const std::string&, double)>& visit);
+    int countInRange(double low, double high);
 
 private:
     AVLTree* tree;
@@ -1,22 +1,111 @@
 #include "VendorGraph.h"
 
-VendorGraph::VendorGraph() {
-    graph = new Graph(true); // Directed graph
+VendorGraph::VendorGraph() : version(0) {
 }
 
 VendorGraph::~VendorGraph() {
-    delete graph;
+}
+
+int VendorGraph::vertexFor(const std::string& vendorId) {
+    auto it = vertexIds.find(vendorId);
+    if (it != vertexIds.end()) {
+        return it->second;
+    }
+    int vertex = index.addVertex();
+    vertexIds[vendorId] = vertex;
+    vertexNames.push_back(vendorId);
+    version++;
+    return vertex;
+}
+
+int VendorGraph::find(const std::string& vendorId) const {
+    auto it = vertexIds.find(vendorId);
+    return it != vertexIds.end() ? it->second : -1;
+}
+
+std::vector<std::string> VendorGraph::toNames(const std::vector<int>& vertices) const {
+    std::vector<std::string> names;
+    names.reserve(vertices.size());
+    for (int vertex : vertices) {
+        names.push_back(vertexNames[vertex]);
+    }
+    return names;
 }
 
 void VendorGraph::addVendor(const std::string& vendorId) {
-    graph->addVertex(vendorId);
+    vertexFor(vendorId);
 }
 
 void VendorGraph::addDependency(const std::string& from, const std::string& to) {
-    graph->addEdge(from, to);
+    int fromVertex = vertexFor(from);
+    int toVertex = vertexFor(to);
+    if (index.addEdge(fromVertex, toVertex)) {
+        version++;
+    }
 }
 
 std::vector<std::string> VendorGraph::getDependencies(const std::string& vendorId) {
-    return graph->DFS(vendorId); // Use DFS to find all dependencies
+    int vertex = find(vendorId);
+    if (vertex < 0) return std::vector<std::string>();
+    return toNames(index.descendants(vertex));
+}
+
+std::vector<std::string> VendorGraph::getDependents(const std::string& vendorId) {
+    int vertex = find(vendorId);
+    if (vertex < 0) return std::vector<std::string>();
+    return toNames(index.ancestors(vertex));
+}
+
+bool VendorGraph::dependsOn(const std::string& vendorId, const std::string& dependencyId) {
+    int from = find(vendorId);
+    int to = find(dependencyId);
+    if (from < 0 || to < 0) return false;
+    return index.reaches(from, to);
 }
 
+int VendorGraph::vertexCount() const {
+    return index.size();
+}
+
+const std::string& VendorGraph::vertexName(int vertex) const {
+    return vertexNames[vertex];
+}
+
+long long VendorGraph::getVersion() const {
+    return version;
+}
+
+std::vector<std::pair<std::string, std::string>> VendorGraph::getEdges() const {
+    std::vector<std::pair<std::string, std::string>> edges;
+    for (int v = 0; v < index.size(); v++) {
+        for (int dependency : index.successors(v)) {
+            edges.push_back(std::make_pair(vertexNames[v], vertexNames[dependency]));
+        }
+    }
+    return edges;
+}
+
+DependencyCsr VendorGraph::compileDependents() const {
+    DependencyCsr csr;
+    int n = index.size();
+    size_t edges = 0;
+    for (int v = 0; v < n; v++) {
+        edges += index.predecessors(v).size();
+    }
+    csr.offsets.reserve(n + 1);
+    csr.dependents.reserve(edges);
+    csr.share.resize(n, 0.0);
+    csr.offsets.push_back(0);
+    for (int v = 0; v < n; v++) {
+        // Edges point from a vendor to what it depends on, so dependents are in-edges
+        const std::vector<int>& dependents = index.predecessors(v);
+        csr.dependents.insert(csr.dependents.end(), dependents.begin(), dependents.end());
+        csr.offsets.push_back(static_cast<int>(csr.dependents.size()));
+
+        size_t dependencies = index.successors(v).size();
+        if (dependencies > 0) {
+            csr.share[v] = 1.0 / static_cast<double>(dependencies);
+        }
+    }
+    return csr;
+}
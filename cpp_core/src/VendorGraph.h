@@ -1,13 +1,28 @@
 #ifndef VENDOR_GRAPH_H
 #define VENDOR_GRAPH_H
 
-#include "../include/Graph.h"
+#include "../include/ReachabilityIndex.h"
 #include <string>
 #include <vector>
+#include <unordered_map>
+
+/**
+ * Dependency edges flattened for bulk computation: the dependents of
+ * vertex v are dependents[offsets[v] .. offsets[v + 1]), and share[u] is
+ * 1 / (number of vendors u depends on), 0 for vendors without dependencies.
+ */
+struct DependencyCsr {
+    std::vector<int> offsets;
+    std::vector<int> dependents;
+    std::vector<double> share;
+
+    int size() const { return static_cast<int>(share.size()); }
+};
 
 /**
  * Graph wrapper for vendor dependency analysis
- * Level-2 DSA: Graph with DFS for dependency traversal
+ * Level-2 DSA: Graph with a transitive reachability index, so dependency
+ * and blast-radius queries do not traverse the graph
  */
 class VendorGraph {
 public:
@@ -15,12 +30,32 @@ public:
     ~VendorGraph();
 
     void addVendor(const std::string& vendorId);
+    // `from` depends on `to`; unknown vendors are added
     void addDependency(const std::string& from, const std::string& to);
+    // Vendors `vendorId` transitively depends on
     std::vector<std::string> getDependencies(const std::string& vendorId);
+    // Vendors that transitively depend on `vendorId` (affected if it is removed)
+    std::vector<std::string> getDependents(const std::string& vendorId);
+    bool dependsOn(const std::string& vendorId, const std::string& dependencyId);
+
+    // Vertices are numbered in the order vendors first appear
+    int vertexCount() const;
+    const std::string& vertexName(int vertex) const;
+    // Incremented whenever a vendor or edge is added
+    long long getVersion() const;
+    DependencyCsr compileDependents() const;
+    // Direct dependency edges as (vendor, dependency) pairs
+    std::vector<std::pair<std::string, std::string>> getEdges() const;
 
 private:
-    Graph* graph;
+    ReachabilityIndex index;
+    std::unordered_map<std::string, int> vertexIds;
+    std::vector<std::string> vertexNames;
+    long long version;
+
+    int vertexFor(const std::string& vendorId);
+    int find(const std::string& vendorId) const;
+    std::vector<std::string> toNames(const std::vector<int>& vertices) const;
 };
 
 #endif // VENDOR_GRAPH_H
-
@@ -1,4 +1,19 @@
 #include "VendorHashTable.h"
+#include "../include/ScoreQuery.h"
+#include <algorithm>
+
+const std::vector<double>* VendorColumns::column(int field) const {
+    switch (field) {
+        case FIELD_LOCK_IN_SCORE: return &lockInScore;
+        case FIELD_CONTRACT_VALUE: return &contractValue;
+        case FIELD_CONTRACT_MONTHS: return &contractMonths;
+        case FIELD_DATA_VOLUME_GB: return &dataVolumeGB;
+        case FIELD_API_DEPENDENCIES: return &apiDependencies;
+        case FIELD_CUSTOM_INTEGRATION: return &customIntegration;
+        case FIELD_SWITCHING_COST: return &switchingCost;
+        default: return nullptr;
+    }
+}
 
 VendorHashTable::VendorHashTable() {
 }
@@ -8,26 +23,97 @@ VendorHashTable::~VendorHashTable() {
 
 void VendorHashTable::insert(const std::string& vendorId, VendorData* data) {
     if (data != nullptr) {
-        table[vendorId] = std::unique_ptr<VendorData>(new VendorData(*data));
+        auto existing = slotIndex.find(vendorId);
+        int slot;
+        if (existing != slotIndex.end()) {
+            // Update in place so the slot stays the same
+            slot = existing->second;
+            *rows[slot] = *data;
+        } else {
+            slot = static_cast<int>(rows.size());
+            slotIndex[vendorId] = slot;
+            rows.push_back(std::unique_ptr<VendorData>(new VendorData(*data)));
+        }
+        writeColumns(slot, *data);
+    }
+}
+
+void VendorHashTable::writeColumns(int slot, const VendorData& data) {
+    if (slot == static_cast<int>(columns.lockInScore.size())) {
+        columns.contractValue.push_back(0.0);
+        columns.contractMonths.push_back(0.0);
+        columns.dataVolumeGB.push_back(0.0);
+        columns.apiDependencies.push_back(0.0);
+        columns.customIntegration.push_back(0.0);
+        columns.switchingCost.push_back(0.0);
+        columns.lockInScore.push_back(0.0);
     }
+    columns.contractValue[slot] = data.contractValue;
+    columns.contractMonths[slot] = data.contractMonths;
+    columns.dataVolumeGB[slot] = data.dataVolumeGB;
+    columns.apiDependencies[slot] = data.apiDependencies;
+    columns.customIntegration[slot] = data.hasCustomIntegration ? 1.0 : 0.0;
+    columns.switchingCost[slot] = data.switchingCost;
+    columns.lockInScore[slot] = data.lockInScore;
 }
 
 VendorData* VendorHashTable::get(const std::string& vendorId) {
-    if (table.find(vendorId) != table.end()) {
-        return table[vendorId].get();
+    auto it = slotIndex.find(vendorId);
+    if (it != slotIndex.end()) {
+        return rows[it->second].get();
     }
     return nullptr;
 }
 
 bool VendorHashTable::contains(const std::string& vendorId) {
-    return table.find(vendorId) != table.end();
+    return slotIndex.find(vendorId) != slotIndex.end();
 }
 
 std::vector<std::pair<std::string, VendorData*>> VendorHashTable::getAllEntries() {
     std::vector<std::pair<std::string, VendorData*>> result;
-    for (auto& pair : table) {
-        result.push_back(std::make_pair(pair.first, pair.second.get()));
+    result.reserve(rows.size());
+    for (auto& row : rows) {
+        result.push_back(std::make_pair(row->vendorId, row.get()));
     }
     return result; //
 }
 
+std::vector<VendorData*> VendorHashTable::getPage(int offset, int limit) {
+    std::vector<VendorData*> result;
+    if (offset < 0 || limit <= 0 || offset >= static_cast<int>(rows.size())) {
+        return result;
+    }
+
+    size_t end = std::min(rows.size(), static_cast<size_t>(offset) + static_cast<size_t>(limit));
+    result.reserve(end - offset);
+    for (size_t i = offset; i < end; i++) {
+        result.push_back(rows[i].get());
+    }
+    return result;
+}
+
+int VendorHashTable::size() {
+    return static_cast<int>(rows.size());
+}
+
+int VendorHashTable::getSlot(const std::string& vendorId) {
+    auto it = slotIndex.find(vendorId);
+    return it != slotIndex.end() ? it->second : -1;
+}
+
+VendorData* VendorHashTable::getBySlot(int slot) {
+    if (slot < 0 || slot >= static_cast<int>(rows.size())) {
+        return nullptr;
+    }
+    return rows[slot].get();
+}
+
+void VendorHashTable::setLockInScore(int slot, double score) {
+    rows[slot]->lockInScore = score;
+    columns.lockInScore[slot] = score;
+}
+
+const VendorColumns& VendorHashTable::getColumns() const {
+    return columns;
+}
+
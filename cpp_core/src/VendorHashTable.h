@@ -4,9 +4,27 @@
 #include "../include/VendorLockInAnalyzer.h"
 #include <unordered_map>
 
+/**
+ * Column-oriented copy of the numeric vendor fields, indexed by slot.
+ * Lets filters and bulk computations scan one contiguous array per field.
+ */
+struct VendorColumns {
+    std::vector<double> contractValue;
+    std::vector<double> contractMonths;
+    std::vector<double> dataVolumeGB;
+    std::vector<double> apiDependencies;
+    std::vector<double> customIntegration; // 1.0 = has custom integration
+    std::vector<double> switchingCost;
+    std::vector<double> lockInScore;
+
+    // Column for a query field code, nullptr if the field is not a vendor column
+    const std::vector<double>* column(int field) const;
+};
+
 /**
  * Hash Table implementation for vendor data storage
  * Level-1 DSA: Hash Table with O(1) average case lookup
+ * Entries also keep their insertion slot so they can be paged in a stable order.
  */
 class VendorHashTable {
 public:
@@ -18,9 +36,22 @@ public:
     bool contains(const std::string& vendorId);
     std::vector<std::pair<std::string, VendorData*>> getAllEntries();
 
+    // Entries in insertion order; re-inserting a vendor keeps its slot
+    std::vector<VendorData*> getPage(int offset, int limit);
+    int size();
+
+    // Slot access for column scans
+    int getSlot(const std::string& vendorId);
+    VendorData* getBySlot(int slot);
+    void setLockInScore(int slot, double score);
+    const VendorColumns& getColumns() const;
+
 private:
-    std::unordered_map<std::string, std::unique_ptr<VendorData>> table;
+    std::unordered_map<std::string, int> slotIndex;
+    std::vector<std::unique_ptr<VendorData>> rows;
+    VendorColumns columns;
+
+    void writeColumns(int slot, const VendorData& data);
 };
 
 #endif // VENDOR_HASH_TABLE_H
-
@@ -1,84 +1,213 @@
 #include "../include/VendorLockInAnalyzer.h"
 #include "VendorHashTable.h"
 #include "VendorGraph.h"
+#include "LockInPropagation.h"
+#include "../include/AVLTree.h"
+#include "../include/KnnIndex.h"
+#include "DiskVendorStore.h"
 #include <algorithm>
 #include <cmath>
 
-VendorLockInAnalyzer::VendorLockInAnalyzer() {
+VendorLockInAnalyzer::VendorLockInAnalyzer()
+    : version(0), scoringModel(ScoringModel::defaultLockIn()),
+      propagationGraphVersion(-1), propagationVendorCount(-1) {
     vendorTable = std::make_unique<VendorHashTable>();
     dependencyGraph = std::make_unique<VendorGraph>();
+    scoreIndex = std::make_unique<AVLTree>();
+    propagation = std::make_unique<LockInPropagation>();
+    similarityIndex = std::make_unique<KnnIndex>();
+}
+
+VendorLockInAnalyzer::VendorLockInAnalyzer(const std::string& storagePath, int cachePages)
+    : VendorLockInAnalyzer() {
+    diskStore = std::make_unique<DiskVendorStore>(storagePath, cachePages);
+    if (!diskStore->isOpen()) {
+        diskStore.reset();
+        return;
+    }
+    
+    // The sketch lives in memory, so rebuild it from the score index
+    diskStore->forEachScore([this](double score) { scoreSketch.add(score); });
 }
 
 VendorLockInAnalyzer::~VendorLockInAnalyzer() {
+    if (diskStore) {
+        diskStore->flush();
+    }
+}
+
+bool VendorLockInAnalyzer::isDiskBacked() const {
+    return diskStore != nullptr;
+}
+
+void VendorLockInAnalyzer::flush() {
+    if (diskStore) {
+        diskStore->flush();
+    }
+}
+
+// Helper function to lay out decoded records as scoring columns
+static void toColumns(const std::vector<VendorData>& records, VendorColumns& columns) {
+    columns = VendorColumns();
+    for (const VendorData& data : records) {
+        columns.contractValue.push_back(data.contractValue);
+        columns.contractMonths.push_back(data.contractMonths);
+        columns.dataVolumeGB.push_back(data.dataVolumeGB);
+        columns.apiDependencies.push_back(data.apiDependencies);
+        columns.customIntegration.push_back(data.hasCustomIntegration ? 1.0 : 0.0);
+        columns.switchingCost.push_back(data.switchingCost);
+        columns.lockInScore.push_back(data.lockInScore);
+    }
+}
+
+double VendorLockInAnalyzer::scoreRecord(const VendorData& data) const {
+    VendorColumns columns;
+    toColumns(std::vector<VendorData>(1, data), columns);
+    return scoringModel.score([&columns](int field) { return columns.column(field); }, 0);
 }
 
 void VendorLockInAnalyzer::addVendor(const std::string& vendorId, const std::string& vendorName,
                                      double contractValue, int contractMonths,
                                      double dataVolumeGB, int apiDependencies,
                                      bool hasCustomIntegration, double switchingCost) {
-    VendorData* data = new VendorData();
-    data->vendorId = vendorId;
-    data->vendorName = vendorName;
-    data->contractValue = contractValue;
-    data->contractMonths = contractMonths;
-    data->dataVolumeGB = dataVolumeGB;
-    data->apiDependencies = apiDependencies;
-    data->hasCustomIntegration = hasCustomIntegration;
-    data->switchingCost = switchingCost;
-    
-    vendorTable->insert(vendorId, data);
+    VendorData data;
+    data.vendorId = vendorId;
+    data.vendorName = vendorName;
+    data.contractValue = contractValue;
+    data.contractMonths = contractMonths;
+    data.dataVolumeGB = dataVolumeGB;
+    data.apiDependencies = apiDependencies;
+    data.hasCustomIntegration = hasCustomIntegration;
+    data.switchingCost = switchingCost;
+    
+    if (diskStore) {
+        data.lockInScore = scoreRecord(data);
+        double previousScore = 0.0;
+        if (diskStore->put(data, previousScore)) {
+            scoreSketch.replace(previousScore, data.lockInScore);
+        } else {
+            scoreSketch.add(data.lockInScore);
+        }
+        version++;
+        return;
+    }
+    
+    int previousSlot = vendorTable->getSlot(vendorId);
+    double previousScore = previousSlot >= 0 ? vendorTable->getBySlot(previousSlot)->lockInScore : 0.0;
+    
+    vendorTable->insert(vendorId, &data);
     dependencyGraph->addVendor(vendorId);
     
-    // Calculate and store lock-in score
-    data->lockInScore = calculateLockInScore(vendorId);
+    // Calculate and store lock-in score on the stored copy
+    int slot = vendorTable->getSlot(vendorId);
+    double score = calculateRiskFactors(slot);
+    vendorTable->setLockInScore(slot, score);
+    scoreIndex->insert(vendorId, score);
+    if (previousSlot >= 0) {
+        scoreSketch.replace(previousScore, score);
+    } else {
+        scoreSketch.add(score);
+    }
+    similarityPending.push_back(slot);
+    version++;
 }
 
 double VendorLockInAnalyzer::calculateLockInScore(const std::string& vendorId) {
-    VendorData* vendor = vendorTable->get(vendorId);
-    if (vendor == nullptr) return 0.0;
+    if (diskStore) {
+        return diskStore->get(vendorId, diskRecord) ? scoreRecord(diskRecord) : 0.0;
+    }
+    int slot = vendorTable->getSlot(vendorId);
+    if (slot < 0) return 0.0;
     
-    return calculateRiskFactors(*vendor);
+    return calculateRiskFactors(slot);
 }
 
-double VendorLockInAnalyzer::calculateRiskFactors(const VendorData& vendor) {
-    double score = 0.0;
-    
-    // Contract value factor (0-25 points)
-    // Higher contract value = higher lock-in
-    double contractFactor = std::min(25.0, (vendor.contractValue / 1000000.0) * 5.0);
-    
-    // Contract duration factor (0-20 points)
-    // Longer contracts = higher lock-in
-    double durationFactor = std::min(20.0, (vendor.contractMonths / 36.0) * 20.0);
-    
-    // Data volume factor (0-15 points)
-    // More data = harder to migrate
-    double dataFactor = std::min(15.0, (vendor.dataVolumeGB / 1000.0) * 15.0);
-    
-    // API dependencies factor (0-15 points)
-    // More dependencies = tighter coupling
-    double apiFactor = std::min(15.0, (vendor.apiDependencies / 10.0) * 15.0);
-    
-    // Custom integration factor (0-10 points)
-    // Custom integrations increase lock-in significantly
-    double integrationFactor = vendor.hasCustomIntegration ? 10.0 : 0.0;
+double VendorLockInAnalyzer::calculateRiskFactors(int slot) {
+    // Factors and weights come from the scoring model (default 25/20/15/15/10/15 points)
+    const VendorColumns& columns = vendorTable->getColumns();
+    return scoringModel.score([&columns](int field) { return columns.column(field); }, slot);
+}
+
+void VendorLockInAnalyzer::setScoringModel(const ScoringModel& model) {
+    scoringModel = model;
     
-    // Switching cost factor (0-15 points)
-    // Direct switching cost impact
-    double switchingFactor = std::min(15.0, (vendor.switchingCost / vendor.contractValue) * 15.0);
+    if (diskStore) {
+        // Rescore page by page so only one batch of records is decoded at a time
+        const int batchSize = 4096;
+        std::vector<VendorData> batch;
+        std::vector<double> scores;
+        VendorColumns columns;
+        ScoreSketch sketch;
+        long long count = diskStore->size();
+        for (long long offset = 0; offset < count; offset += batchSize) {
+            diskStore->page(offset, batchSize, batch);
+            toColumns(batch, columns);
+            scores.resize(batch.size());
+            scoringModel.scoreRows([&columns](int field) { return columns.column(field); },
+                                   0, static_cast<int>(batch.size()), scores);
+            for (size_t i = 0; i < batch.size(); i++) {
+                double previousScore;
+                batch[i].lockInScore = scores[i];
+                diskStore->put(batch[i], previousScore);
+                sketch.add(scores[i]);
+            }
+        }
+        scoreSketch = sketch;
+        version++;
+        return;
+    }
     
-    score = contractFactor + durationFactor + dataFactor + apiFactor + integrationFactor + switchingFactor;
+    const VendorColumns& columns = vendorTable->getColumns();
+    int count = vendorTable->size();
+    std::vector<double> scores = scoringModel.scoreAll([&columns](int field) { return columns.column(field); },
+                                                       count);
     
-    // Normalize to 0-100 range
-    return std::min(100.0, std::max(0.0, score));
+    // Rebuild the score index in one pass instead of re-positioning every vendor
+    std::vector<std::pair<std::string, double>> entries;
+    entries.reserve(count);
+    for (int slot = 0; slot < count; slot++) {
+        vendorTable->setLockInScore(slot, scores[slot]);
+        entries.push_back(std::make_pair(vendorTable->getBySlot(slot)->vendorId, scores[slot]));
+    }
+    scoreIndex->assign(std::move(entries));
+    scoreSketch = ScoreSketch::fromScores(scores);
+    version++;
+}
+
+const ScoringModel& VendorLockInAnalyzer::getScoringModel() const {
+    return scoringModel;
+}
+
+const ScoreSketch& VendorLockInAnalyzer::getScoreSketch() const {
+    return scoreSketch;
+}
+
+void VendorLockInAnalyzer::addDependency(const std::string& vendorId, const std::string& dependencyId) {
+    dependencyGraph->addDependency(vendorId, dependencyId);
 }
 
 std::vector<std::string> VendorLockInAnalyzer::getVendorDependencies(const std::string& vendorId) {
     return dependencyGraph->getDependencies(vendorId);
 }
 
+std::vector<std::string> VendorLockInAnalyzer::getVendorDependents(const std::string& vendorId) {
+    return dependencyGraph->getDependents(vendorId);
+}
+
+bool VendorLockInAnalyzer::dependsOn(const std::string& vendorId, const std::string& dependencyId) {
+    return dependencyGraph->dependsOn(vendorId, dependencyId);
+}
+
+std::vector<std::pair<std::string, std::string>> VendorLockInAnalyzer::getDependencyEdges() {
+    return dependencyGraph->getEdges();
+}
+
 std::vector<std::pair<std::string, double>> VendorLockInAnalyzer::getAllScores() {
     std::vector<std::pair<std::string, double>> result;
+    if (diskStore) {
+        diskStore->topScores(0, static_cast<int>(std::min<long long>(diskStore->size(), INT32_MAX)), result);
+        return result;
+    }
     auto entries = vendorTable->getAllEntries();
     
     for (const auto& entry : entries) {
@@ -90,7 +219,192 @@ std::vector<std::pair<std::string, double>> VendorLockInAnalyzer::getAllScores()
     return result;
 }
 
+std::vector<double> VendorLockInAnalyzer::getPropagatedScores(double damping, double tolerance) {
+    if (diskStore) return std::vector<double>();
+    int vendorCount = vendorTable->size();
+    int vertexCount = dependencyGraph->vertexCount();
+    
+    // Recompile the edges only when the graph changed; vertex ids are stable, so
+    // the previous solution still warm-starts the iteration
+    if (propagationGraphVersion != dependencyGraph->getVersion()) {
+        propagation->setGraph(dependencyGraph->compileDependents());
+        propagationGraphVersion = dependencyGraph->getVersion();
+        propagationVendorCount = -1; // New vertices need slots
+    }
+    if (propagationVendorCount != vendorCount) {
+        // Slots never move, so only vertices without a vendor need another lookup
+        vertexSlots.resize(vertexCount, -1);
+        for (int v = 0; v < vertexCount; v++) {
+            if (vertexSlots[v] < 0) {
+                vertexSlots[v] = vendorTable->getSlot(dependencyGraph->vertexName(v));
+            }
+        }
+        propagationVendorCount = vendorCount;
+    }
+    
+    // Dependencies that are not vendors (yet) contribute nothing of their own
+    const std::vector<double>& lockInScores = vendorTable->getColumns().lockInScore;
+    std::vector<double> base(vertexCount, 0.0);
+    for (int v = 0; v < vertexCount; v++) {
+        if (vertexSlots[v] >= 0) {
+            base[v] = lockInScores[vertexSlots[v]];
+        }
+    }
+    
+    propagation->run(base, damping, tolerance);
+    
+    const std::vector<double>& propagated = propagation->getScores();
+    std::vector<double> result(vendorCount, 0.0);
+    for (int v = 0; v < vertexCount; v++) {
+        if (vertexSlots[v] >= 0) {
+            result[vertexSlots[v]] = std::min(100.0, propagated[v]);
+        }
+    }
+    return result;
+}
+
+std::vector<VendorData*> VendorLockInAnalyzer::getScoresPage(int offset, int limit) {
+    if (diskStore) {
+        std::vector<VendorData*> result;
+        diskStore->page(std::max(0, offset), limit, diskPage);
+        for (VendorData& data : diskPage) {
+            result.push_back(&data);
+        }
+        return result;
+    }
+    return vendorTable->getPage(offset, limit);
+}
+
+std::vector<std::pair<std::string, double>> VendorLockInAnalyzer::getTopScores(long long offset, int limit) {
+    std::vector<std::pair<std::string, double>> result;
+    if (diskStore) {
+        diskStore->topScores(std::max(0LL, offset), limit, result);
+        return result;
+    }
+    return scoreIndex->getPageReverse(static_cast<int>(std::min<long long>(offset, INT32_MAX)), limit);
+}
+
+int VendorLockInAnalyzer::getVendorCount() {
+    if (diskStore) {
+        return static_cast<int>(std::min<long long>(diskStore->size(), INT32_MAX));
+    }
+    return vendorTable->size();
+}
+
+int VendorLockInAnalyzer::getSlot(const std::string& vendorId) {
+    return diskStore ? -1 : vendorTable->getSlot(vendorId);
+}
+
+long long VendorLockInAnalyzer::getVersion() {
+    return version;
+}
+
+std::vector<VendorData*> VendorLockInAnalyzer::query(const ScoreQuery& q) {
+    if (diskStore) return std::vector<VendorData*>();
+    const VendorColumns& columns = vendorTable->getColumns();
+    query::ColumnLookup lookup = [&columns](int field) { return columns.column(field); };
+    int rowCount = vendorTable->size();
+    std::vector<int> slots;
+    
+    double low, high;
+    bool ranged = query::rangeFor(q.predicates, FIELD_LOCK_IN_SCORE, low, high);
+    bool sortedByIndex = q.sortField == FIELD_LOCK_IN_SCORE;
+    bool topK = sortedByIndex && q.limit >= 0;
+    
+    // Use the score index when the range is selective or when it yields the
+    // requested order directly; otherwise scan the columns
+    if (topK || (ranged && scoreIndex->countInRange(low, high) < rowCount / 8)) {
+        bool descending = sortedByIndex ? q.descending : true;
+        scoreIndex->forEachInRange(low, high, descending, [&](const std::string& id, double) {
+            int slot = vendorTable->getSlot(id);
+            // Checked before keeping a match too, so limit 0 keeps none
+            if (topK && static_cast<int>(slots.size()) >= q.limit) {
+                return false;
+            }
+            if (query::matchesAll(q.predicates, lookup, slot)) {
+                slots.push_back(slot);
+            }
+            return !(topK && static_cast<int>(slots.size()) >= q.limit);
+        });
+        if (!sortedByIndex) {
+            query::sortAndLimit(slots, q.sortField >= 0 ? columns.column(q.sortField) : nullptr,
+                                q.descending, q.limit);
+        }
+    } else {
+        slots = query::scanColumns(rowCount, q.predicates, lookup, q.sortField < 0 ? q.limit : -1);
+        query::sortAndLimit(slots, q.sortField >= 0 ? columns.column(q.sortField) : nullptr,
+                            q.descending, q.limit);
+    }
+    
+    std::vector<VendorData*> result;
+    result.reserve(slots.size());
+    for (int slot : slots) {
+        result.push_back(vendorTable->getBySlot(slot));
+    }
+    return result;
+}
+
+void VendorLockInAnalyzer::exportColumns(const std::vector<int>& fields, std::vector<std::string>& ids,
+                                         std::vector<const std::vector<double>*>& columns,
+                                         int offset, int limit) {
+    if (diskStore) {
+        ids.clear();
+        columns.clear();
+        return;
+    }
+    int first = std::max(0, offset);
+    int end = static_cast<int>(std::min<long long>(vendorTable->size(), static_cast<long long>(first) + std::max(0, limit)));
+    ids.resize(std::max(0, end - first));
+    for (int slot = first; slot < end; slot++) {
+        ids[slot - first] = vendorTable->getBySlot(slot)->vendorId;
+    }
+    
+    const VendorColumns& vendorColumns = vendorTable->getColumns();
+    columns.clear();
+    for (int field : fields) {
+        columns.push_back(vendorColumns.column(field));
+    }
+}
+
 VendorData* VendorLockInAnalyzer::getVendorData(const std::string& vendorId) {
+    if (diskStore) {
+        return diskStore->get(vendorId, diskRecord) ? &diskRecord : nullptr;
+    }
     return vendorTable->get(vendorId);
 }
 
+
+// Features scaled by the value at which their lock-in factor saturates, so a
+// unit step means the same share of the score in every dimension
+static void similarityFeatures(const VendorData& vendor, double* features) {
+    features[0] = vendor.contractValue / 5000000.0;
+    features[1] = vendor.contractMonths / 36.0;
+    features[2] = vendor.dataVolumeGB / 1000.0;
+    features[3] = vendor.apiDependencies / 10.0;
+    features[4] = vendor.hasCustomIntegration ? 1.0 : 0.0;
+    features[5] = vendor.contractValue > 0 ? vendor.switchingCost / vendor.contractValue : 0.0;
+}
+
+std::vector<std::pair<VendorData*, double>> VendorLockInAnalyzer::findSimilarVendors(const std::string& vendorId, int k) {
+    std::vector<std::pair<VendorData*, double>> result;
+    if (diskStore) return result;
+    int slot = vendorTable->getSlot(vendorId);
+    if (slot < 0 || k <= 0) return result;
+    
+    if (!similarityPending.empty()) {
+        // The first query indexes every vendor as one balanced tree
+        std::vector<double> points(similarityPending.size() * KnnIndex::DIMENSIONS);
+        for (size_t i = 0; i < similarityPending.size(); i++) {
+            similarityFeatures(*vendorTable->getBySlot(similarityPending[i]), &points[i * KnnIndex::DIMENSIONS]);
+        }
+        similarityIndex->insertAll(similarityPending, points);
+        similarityPending.clear();
+    }
+    
+    double features[KnnIndex::DIMENSIONS];
+    similarityFeatures(*vendorTable->getBySlot(slot), features);
+    for (const KnnIndex::Neighbor& neighbor : similarityIndex->nearest(features, k, slot)) {
+        result.push_back(std::make_pair(vendorTable->getBySlot(neighbor.id), neighbor.distance));
+    }
+    return result;
+}
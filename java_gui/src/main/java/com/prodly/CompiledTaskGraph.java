@@ -0,0 +1,97 @@
+package com.prodly;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Demo-mode task DAG flattened into arrays (mirrors CompiledTaskGraph in the native core).
+ * Tasks are kept in topological order and predecessors use CSR layout:
+ * the predecessors of task i are preds[predOffsets[i] .. predOffsets[i + 1]).
+ * Tasks on a cycle and dependencies on unknown tasks are left out.
+ */
+class CompiledTaskGraph {
+    final MigrationDifficultyAnalyzerJNI.TaskData[] tasks;
+    final int[] predOffsets;
+    final int[] preds;
+
+    CompiledTaskGraph(List<MigrationDifficultyAnalyzerJNI.TaskData> taskList) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            index.put(taskList.get(i).taskId, i);
+        }
+        int n = taskList.size();
+
+        // Successor lists for Kahn's algorithm
+        int[] inDegree = new int[n];
+        int[] succOffsets = new int[n + 1];
+        for (MigrationDifficultyAnalyzerJNI.TaskData task : taskList) {
+            for (String dep : task.dependencies) {
+                Integer from = index.get(dep);
+                if (from != null) {
+                    succOffsets[from + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            succOffsets[i + 1] += succOffsets[i];
+        }
+        int[] succs = new int[succOffsets[n]];
+        int[] fill = Arrays.copyOf(succOffsets, n);
+        for (int i = 0; i < n; i++) {
+            for (String dep : taskList.get(i).dependencies) {
+                Integer from = index.get(dep);
+                if (from != null) {
+                    succs[fill[from]++] = i;
+                    inDegree[i]++;
+                }
+            }
+        }
+
+        int[] order = new int[n];
+        int ordered = 0;
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+        while (!ready.isEmpty()) {
+            int task = ready.poll();
+            order[ordered++] = task;
+            for (int s = succOffsets[task]; s < succOffsets[task + 1]; s++) {
+                if (--inDegree[succs[s]] == 0) {
+                    ready.add(succs[s]);
+                }
+            }
+        }
+
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < ordered; i++) {
+            position[order[i]] = i;
+        }
+
+        tasks = new MigrationDifficultyAnalyzerJNI.TaskData[ordered];
+        predOffsets = new int[ordered + 1];
+        int[] predBuffer = new int[succs.length];
+        int edges = 0;
+        for (int i = 0; i < ordered; i++) {
+            tasks[i] = taskList.get(order[i]);
+            for (String dep : tasks[i].dependencies) {
+                Integer from = index.get(dep);
+                if (from != null && position[from] >= 0) {
+                    predBuffer[edges++] = position[from];
+                }
+            }
+            predOffsets[i + 1] = edges;
+        }
+        preds = Arrays.copyOf(predBuffer, edges);
+    }
+
+    int size() {
+        return tasks.length;
+    }
+}
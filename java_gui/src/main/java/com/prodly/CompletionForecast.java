@@ -0,0 +1,45 @@
+package com.prodly;
+
+/**
+ * Distribution of simulated migration completion times, in days
+ */
+public class CompletionForecast {
+    private final int trials;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double minDays;
+    private final double maxDays;
+
+    public CompletionForecast(int trials, double mean, double p50, double p90, double p99,
+                              double minDays, double maxDays) {
+        this.trials = trials;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.minDays = minDays;
+        this.maxDays = maxDays;
+    }
+
+    // Decode the native layout: trials, mean, p50, p90, p99, min, max
+    static CompletionForecast fromArray(double[] values) {
+        return new CompletionForecast((int) values[0], values[1], values[2], values[3],
+                                      values[4], values[5], values[6]);
+    }
+
+    public int getTrials() { return trials; }
+    public double getMean() { return mean; }
+    public double getP50() { return p50; }
+    public double getP90() { return p90; }
+    public double getP99() { return p99; }
+    public double getMinDays() { return minDays; }
+    public double getMaxDays() { return maxDays; }
+
+    @Override
+    public String toString() {
+        return String.format("P50 %.1f / P90 %.1f / P99 %.1f days (mean %.1f, %d trials)",
+                             p50, p90, p99, mean, trials);
+    }
+}
@@ -0,0 +1,175 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Optimal exit paths of every vendor towards one target state, from a single
+ * reverse shortest-path tree. Paths are read by following next hops, so each
+ * lookup costs O(path length) with no further engine calls.
+ */
+public class ExitPathTree {
+    private final String target;
+    private final String[] states;
+    private final int[] nextHop;  // -1 for the target and for states that cannot reach it
+    private final double[] cost;  // Remaining cost to the target, +infinity if unreachable
+    private final Map<String, Integer> index;
+
+    public ExitPathTree(String target, String[] states, int[] nextHop, double[] cost) {
+        this.target = target;
+        this.states = states;
+        this.nextHop = nextHop;
+        this.cost = cost;
+        this.index = new HashMap<>(states.length * 2);
+        for (int i = 0; i < states.length; i++) {
+            index.put(states[i], i);
+        }
+    }
+
+    // Decode the native layout: Object[] { String[] states, int[] nextHop, double[] cost }
+    static ExitPathTree fromNative(String target, Object[] result) {
+        return new ExitPathTree(target, (String[]) result[0], (int[]) result[1], (double[]) result[2]);
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public boolean canExit(String vendorId) {
+        Integer i = index.get(vendorId);
+        return i != null && cost[i] != Double.POSITIVE_INFINITY;
+    }
+
+    // Total transition cost of the optimal path; +infinity if the vendor cannot reach the target
+    public double getCost(String vendorId) {
+        Integer i = index.get(vendorId);
+        return i != null ? cost[i] : Double.POSITIVE_INFINITY;
+    }
+
+    // States from the vendor to the target (inclusive); empty if there is no path
+    public List<String> getPath(String vendorId) {
+        Integer i = index.get(vendorId);
+        if (i == null || cost[i] == Double.POSITIVE_INFINITY) {
+            return Collections.emptyList();
+        }
+        List<String> path = new ArrayList<>();
+        for (int state = i; state >= 0; state = nextHop[state]) {
+            path.add(states[state]);
+        }
+        return path;
+    }
+
+    public int size() {
+        return states.length;
+    }
+
+    public String getState(int i) {
+        return states[i];
+    }
+
+    /**
+     * Builds the tree in Java (demo mode) with the same rules as the native
+     * ExitReadinessGraph: re-adding an edge replaces its cost, negative costs count as 0.
+     */
+    static class Builder {
+        private final Map<String, Integer> ids = new LinkedHashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Map<Integer, Double>> outEdges = new ArrayList<>();
+        private final List<Map<Integer, Double>> inEdges = new ArrayList<>();
+
+        private int idFor(String state) {
+            Integer id = ids.get(state);
+            if (id == null) {
+                id = ids.size();
+                ids.put(state, id);
+                names.add(state);
+                outEdges.add(new LinkedHashMap<Integer, Double>());
+                inEdges.add(new LinkedHashMap<Integer, Double>());
+            }
+            return id;
+        }
+
+        Builder addEdge(String from, String to, double transitionCost) {
+            int fromId = idFor(from);
+            int toId = idFor(to);
+            outEdges.get(fromId).put(toId, Math.max(0.0, transitionCost));
+            inEdges.get(toId).put(fromId, Math.max(0.0, transitionCost));
+            return this;
+        }
+
+        // k cheapest loopless paths; demo graphs are tiny, so all of them are enumerated
+        List<ExitPlan> topPlans(String start, String target, int k) {
+            Integer from = ids.get(start);
+            Integer to = ids.get(target);
+            List<ExitPlan> plans = new ArrayList<>();
+            if (from == null || to == null || k <= 0) {
+                return plans;
+            }
+            enumerate(from, to, 0.0, new ArrayList<Integer>(), new boolean[ids.size()], plans);
+            plans.sort((a, b) -> Double.compare(a.getCost(), b.getCost()));
+            return plans.size() > k ? new ArrayList<>(plans.subList(0, k)) : plans;
+        }
+
+        private void enumerate(int state, int target, double cost, List<Integer> path,
+                               boolean[] onPath, List<ExitPlan> plans) {
+            path.add(state);
+            if (state == target) {
+                List<String> states = new ArrayList<>();
+                for (int s : path) {
+                    states.add(names.get(s));
+                }
+                plans.add(new ExitPlan(states, cost));
+            } else {
+                onPath[state] = true;
+                for (Map.Entry<Integer, Double> edge : outEdges.get(state).entrySet()) {
+                    if (!onPath[edge.getKey()]) {
+                        enumerate(edge.getKey(), target, cost + edge.getValue(), path, onPath, plans);
+                    }
+                }
+                onPath[state] = false;
+            }
+            path.remove(path.size() - 1);
+        }
+
+        ExitPathTree build(String target) {
+            int n = ids.size();
+            String[] states = ids.keySet().toArray(new String[0]);
+            int[] nextHop = new int[n];
+            final double[] cost = new double[n];
+            Arrays.fill(nextHop, -1);
+            Arrays.fill(cost, Double.POSITIVE_INFINITY);
+
+            Integer start = ids.get(target);
+            if (start != null) {
+                // Dijkstra from the target over reversed edges, lazy deletion
+                PriorityQueue<double[]> heap = new PriorityQueue<>(
+                    (a, b) -> Double.compare(a[0], b[0]));
+                cost[start] = 0.0;
+                heap.add(new double[]{0.0, start});
+                while (!heap.isEmpty()) {
+                    double[] top = heap.poll();
+                    int state = (int) top[1];
+                    if (top[0] > cost[state]) {
+                        continue;
+                    }
+                    for (Map.Entry<Integer, Double> edge : inEdges.get(state).entrySet()) {
+                        double candidate = top[0] + edge.getValue();
+                        int from = edge.getKey();
+                        if (candidate < cost[from]) {
+                            cost[from] = candidate;
+                            nextHop[from] = state;
+                            heap.add(new double[]{candidate, from});
+                        }
+                    }
+                }
+            }
+            return new ExitPathTree(target, states, nextHop, cost);
+        }
+    }
+}
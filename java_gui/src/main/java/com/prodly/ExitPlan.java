@@ -0,0 +1,30 @@
+package com.prodly;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One alternative exit plan: states from the vendor to "exited" and the total transition cost
+ */
+public class ExitPlan {
+    private final List<String> states;
+    private final double cost;
+
+    public ExitPlan(List<String> states, double cost) {
+        this.states = Collections.unmodifiableList(states);
+        this.cost = cost;
+    }
+
+    public List<String> getStates() {
+        return states;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.1f)", String.join(" -> ", states), cost);
+    }
+}
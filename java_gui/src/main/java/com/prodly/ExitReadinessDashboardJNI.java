@@ -1,16 +1,25 @@
 package com.prodly;
 
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 
 /**
  * JNI wrapper for ExitReadinessDashboard C++ class
+ * Each instance owns its engine (or demo storage); close() releases it.
  */
-public class ExitReadinessDashboardJNI {
+public class ExitReadinessDashboardJNI implements AutoCloseable {
     private static boolean libraryLoaded = false;
     
     // In-memory storage for demo mode
@@ -31,33 +40,40 @@ public class ExitReadinessDashboardJNI {
             this.dataExportCapability = dataExport;
             this.contractFlexibility = contractFlex;
             this.technicalComplexity = techComplexity;
-            this.exitReadiness = calculateReadiness();
-        }
-        
-        private double calculateReadiness() {
-            // Calculate exit readiness (inverse factors)
-            double readiness = 0.0;
-            
-            // Lock-in factor (inverse: lower lock-in = higher readiness) (0-30 points)
-            readiness += (100.0 - lockInScore) * 0.3;
-            
-            // Migration difficulty factor (inverse: easier = higher readiness) (0-25 points)
-            readiness += (100.0 - migrationDifficulty) * 0.25;
-            
-            // Data export capability (0-20 points)
-            readiness += dataExportCapability * 0.2;
-            
-            // Contract flexibility (0-15 points)
-            readiness += contractFlexibility * 0.15;
-            
-            // Technical complexity (inverse: simpler = higher readiness) (0-10 points)
-            readiness += (100.0 - technicalComplexity) * 0.1;
-            
-            return Math.min(100.0, Math.max(0.0, readiness));
         }
     }
     
-    private static Map<String, VendorReadinessData> demoReadinessStorage = new HashMap<>();
+    // Query fields held by this module
+    private static final List<ScoreQuery.Field> QUERY_FIELDS = Arrays.asList(
+        ScoreQuery.Field.EXIT_READINESS, ScoreQuery.Field.LOCK_IN_SCORE,
+        ScoreQuery.Field.MIGRATION_DIFFICULTY, ScoreQuery.Field.DATA_EXPORT_CAPABILITY,
+        ScoreQuery.Field.CONTRACT_FLEXIBILITY, ScoreQuery.Field.TECHNICAL_COMPLEXITY);
+    
+    // Fields a readiness scoring model may read
+    private static final List<ScoreQuery.Field> SCORING_INPUTS = QUERY_FIELDS.subList(1, QUERY_FIELDS.size());
+    
+    // Approximate footprint per vendor: engine RSS growth over 1M vendors,
+    // demo-mode heap growth over 200k
+    private static final long NATIVE_BYTES_PER_VENDOR = 1630;
+    private static final long DEMO_BYTES_PER_VENDOR = 200;
+    
+    // Demo ranking ordered like the native AVL tree: readiness descending, ties by vendor ID descending
+    private static final Comparator<VendorReadinessData> DEMO_RANKING_ORDER = new Comparator<VendorReadinessData>() {
+        @Override
+        public int compare(VendorReadinessData a, VendorReadinessData b) {
+            int byScore = Double.compare(b.exitReadiness, a.exitReadiness);
+            return byScore != 0 ? byScore : b.vendorId.compareTo(a.vendorId);
+        }
+    };
+    
+    private ScoringModel demoScoringModel = ScoringModel.defaultReadiness();
+    private ToDoubleFunction<VendorReadinessData> demoScorer =
+        demoScoringModel.compile(ExitReadinessDashboardJNI::demoAccessor);
+    // Insertion order, like the engine's slots; re-adding a vendor keeps its position
+    private Map<String, VendorReadinessData> demoReadinessStorage = new LinkedHashMap<>();
+    private TreeSet<VendorReadinessData> demoReadinessRanking = new TreeSet<>(DEMO_RANKING_ORDER);
+    private long demoVersion = 0;
+    private ScoreSketch demoScoreSketch = libraryLoaded ? null : new ScoreSketch(); // About 160 KB
     
     static {
         try {
@@ -69,28 +85,62 @@ public class ExitReadinessDashboardJNI {
     }
 
     private native long createNativeObject();
-    private native void addVendorMetrics(long nativePtr, String vendorId,
-                                        double lockInScore, double migrationDifficulty,
-                                        int dataExportCapability, int contractFlexibility,
-                                        int technicalComplexity);
+    private native double addVendorMetrics(long nativePtr, String vendorId,
+                                           double lockInScore, double migrationDifficulty,
+                                           int dataExportCapability, int contractFlexibility,
+                                           int technicalComplexity);
+    private native double[] updateScores(long nativePtr, String[] vendorIds, double[] lockInScores,
+                                         double[] migrationDifficulties);
     private native double calculateExitReadiness(long nativePtr, String vendorId);
+    private native Object[] getScoreSketch(long nativePtr);
+    private native void setScoringModel(long nativePtr, int[] fields, int[] perFields,
+                                        double[] intercepts, double[] slopes, double[] caps);
     private native String[][] getVendorsSortedByReadiness(long nativePtr);
+    private native int getReadinessPage(long nativePtr, int offset, String[] idsOut, double[] scoresOut);
+    private native int getVendorCount(long nativePtr);
+    private native long getVersion(long nativePtr);
+    private native Object[] query(long nativePtr, int[] fields, int[] ops, double[] values,
+                                  int sortField, boolean descending, int limit);
+    private native Object[] exportColumns(long nativePtr, int[] fields);
+    private native Object[] exportColumnsRange(long nativePtr, int[] fields, int offset, int limit);
+    private native Object[] getExitPathTree(long nativePtr, String targetState);
+    private native Object[] getTopExitPlans(long nativePtr, String[] vendorIds, int k, String targetState);
     private native void deleteNativeObject(long nativePtr);
 
     private long nativePtr;
+    private boolean closed;
+    private ScoringModel scoringModel = ScoringModel.defaultReadiness();
+    private volatile ScoreAlertPublisher scoreAlerts; // Created on first use
+    
+    // Last exit path tree fetched, reused while the version is unchanged
+    private ExitPathTree cachedExitPaths;
+    private long cachedExitPathsVersion = -1;
 
     public ExitReadinessDashboardJNI() {
+        this(true);
+    }
+
+    // Demo mode starts with sample metrics only when sampleData is set
+    ExitReadinessDashboardJNI(boolean sampleData) {
         if (libraryLoaded) {
             nativePtr = createNativeObject();
         } else {
             nativePtr = 0;
-            // Initialize with sample data for demo mode
-            initializeSampleData();
+            if (sampleData) {
+                initializeSampleData();
+            }
+        }
+    }
+
+    // Native handle; fails instead of handing a deleted engine to native code
+    private long ptr() {
+        if (closed) {
+            throw new IllegalStateException("Dashboard is closed");
         }
+        return nativePtr;
     }
     
     private void initializeSampleData() {
-        // Only add sample data if storage is empty (first instance)
         if (demoReadinessStorage.isEmpty()) {
             // Sample data based on Module 1 vendors
             // AWS-001: High lock-in (85), High migration difficulty (75), Low export (30), Low flexibility (20), High complexity (80)
@@ -112,17 +162,80 @@ public class ExitReadinessDashboardJNI {
     public void addVendorMetrics(String vendorId, double lockInScore,
                                 double migrationDifficulty, int dataExportCapability,
                                 int contractFlexibility, int technicalComplexity) {
+        double readiness;
         if (!libraryLoaded) {
-            // Store in demo mode
-            VendorReadinessData data = new VendorReadinessData(vendorId, lockInScore,
-                                                              migrationDifficulty, dataExportCapability,
-                                                              contractFlexibility, technicalComplexity);
-            demoReadinessStorage.put(vendorId, data);
+            readiness = storeDemoMetrics(new VendorReadinessData(vendorId, lockInScore,
+                                                                 migrationDifficulty, dataExportCapability,
+                                                                 contractFlexibility, technicalComplexity));
             System.out.println("Demo mode: Readiness metrics stored for: " + vendorId);
         } else {
-            addVendorMetrics(nativePtr, vendorId, lockInScore, migrationDifficulty,
-                            dataExportCapability, contractFlexibility, technicalComplexity);
+            readiness = addVendorMetrics(ptr(), vendorId, lockInScore, migrationDifficulty,
+                                         dataExportCapability, contractFlexibility, technicalComplexity);
+        }
+        if (scoreAlerts != null) {
+            scoreAlerts.publish(vendorId, readiness);
+        }
+    }
+
+    private double storeDemoMetrics(VendorReadinessData data) {
+        data.exitReadiness = demoScorer.applyAsDouble(data);
+        VendorReadinessData previous = demoReadinessStorage.put(data.vendorId, data);
+        if (previous != null) {
+            demoReadinessRanking.remove(previous);
+            demoScoreSketch.replace(previous.exitReadiness, data.exitReadiness);
+        } else {
+            demoScoreSketch.add(data.exitReadiness);
+        }
+        demoReadinessRanking.add(data);
+        demoVersion++;
+        return data.exitReadiness;
+    }
+
+    /**
+     * Replace the lock-in score and migration difficulty of known vendors in one
+     * call (NaN keeps the current value) and rescore them; other metrics are kept
+     * and unknown vendors are skipped. Returns the number of vendors updated.
+     */
+    public int updateScores(String[] vendorIds, double[] lockInScores, double[] migrationDifficulties) {
+        if (lockInScores.length != vendorIds.length || migrationDifficulties.length != vendorIds.length) {
+            throw new IllegalArgumentException("Expected " + vendorIds.length + " lock-in scores and migration difficulties");
+        }
+        int updated = 0;
+        // New readiness per vendor, NaN for vendors skipped
+        double[] readiness;
+        if (!libraryLoaded) {
+            readiness = new double[vendorIds.length];
+            Arrays.fill(readiness, Double.NaN);
+            for (int i = 0; i < vendorIds.length; i++) {
+                VendorReadinessData previous = demoReadinessStorage.get(vendorIds[i]);
+                if (previous == null) {
+                    continue;
+                }
+                VendorReadinessData data = new VendorReadinessData(previous.vendorId,
+                    Double.isNaN(lockInScores[i]) ? previous.lockInScore : lockInScores[i],
+                    Double.isNaN(migrationDifficulties[i]) ? previous.migrationDifficulty : migrationDifficulties[i],
+                    previous.dataExportCapability, previous.contractFlexibility, previous.technicalComplexity);
+                data.exitReadiness = demoScorer.applyAsDouble(data);
+                demoReadinessStorage.put(data.vendorId, data);
+                demoReadinessRanking.remove(previous);
+                demoReadinessRanking.add(data);
+                demoScoreSketch.replace(previous.exitReadiness, data.exitReadiness);
+                readiness[i] = data.exitReadiness;
+                updated++;
+            }
+            demoVersion++;
+        } else {
+            readiness = updateScores(ptr(), vendorIds, lockInScores, migrationDifficulties);
+            for (double score : readiness) {
+                if (!Double.isNaN(score)) {
+                    updated++;
+                }
+            }
+        }
+        if (scoreAlerts != null) {
+            scoreAlerts.publishKnown(vendorIds, readiness);
         }
+        return updated;
     }
 
     public double calculateExitReadiness(String vendorId) {
@@ -133,21 +246,78 @@ public class ExitReadinessDashboardJNI {
             }
             return 50.0; // Default value
         }
-        return calculateExitReadiness(nativePtr, vendorId);
+        return calculateExitReadiness(ptr(), vendorId);
+    }
+
+    /**
+     * Replace the readiness scoring model (e.g. a business unit's profile) and
+     * rescore every vendor in parallel; exit transitions priced by readiness
+     * follow. Factors may read lock-in score, migration difficulty, data export
+     * capability, contract flexibility and technical complexity.
+     */
+    public void setScoringModel(ScoringModel model) {
+        model.requireInputs(SCORING_INPUTS);
+        if (!libraryLoaded) {
+            demoScoringModel = model;
+            demoScorer = model.compile(ExitReadinessDashboardJNI::demoAccessor);
+            List<VendorReadinessData> vendors = new ArrayList<>(demoReadinessRanking);
+            double[] scores = vendors.parallelStream().mapToDouble(demoScorer).toArray();
+            demoReadinessRanking.clear();
+            ScoreSketch sketch = new ScoreSketch();
+            for (int i = 0; i < scores.length; i++) {
+                vendors.get(i).exitReadiness = scores[i];
+                sketch.add(scores[i]);
+            }
+            demoReadinessRanking.addAll(vendors);
+            demoScoreSketch = sketch;
+            demoVersion++;
+            publishAllScores();
+            return;
+        }
+        setScoringModel(ptr(), model.fieldCodes(), model.perFieldCodes(),
+                        model.intercepts(), model.slopes(), model.caps());
+        scoringModel = model;
+        publishAllScores();
+    }
+
+    /**
+     * Alerts on exit readiness crossing into watched ranges, e.g.
+     * getScoreAlerts().below(30).subscribe(subscriber)
+     */
+    public synchronized ScoreAlertPublisher getScoreAlerts() {
+        if (scoreAlerts == null) {
+            scoreAlerts = new ScoreAlertPublisher(ScoreQuery.Field.EXIT_READINESS);
+            publishAllScores(); // Current scores, so only later moves raise alerts
+        }
+        return scoreAlerts;
+    }
+
+    private void publishAllScores() {
+        if (scoreAlerts != null) {
+            FeatureColumns scores = exportColumns(ScoreQuery.Field.EXIT_READINESS);
+            scoreAlerts.publishAll(scores.getIds(), scores.column(0), scores.size());
+        }
+    }
+
+    public ScoringModel getScoringModel() {
+        return libraryLoaded ? scoringModel : demoScoringModel;
+    }
+
+    /**
+     * Distribution of exit readiness across the portfolio, kept current by the
+     * engine on every metrics update and rescore
+     */
+    public ScoreSketch getScoreSketch() {
+        if (!libraryLoaded) {
+            return demoScoreSketch.copy();
+        }
+        return ScoreSketch.fromNative(getScoreSketch(ptr()));
     }
 
     public String[][] getVendorsSortedByReadiness() {
         if (!libraryLoaded) {
-            // Return vendors sorted by readiness (highest first) - using AVL tree logic (sorted map)
-            List<VendorReadinessData> vendors = new ArrayList<>(demoReadinessStorage.values());
-            
-            // Sort by exit readiness descending (highest readiness first)
-            Collections.sort(vendors, new Comparator<VendorReadinessData>() {
-                @Override
-                public int compare(VendorReadinessData a, VendorReadinessData b) {
-                    return Double.compare(b.exitReadiness, a.exitReadiness); // Descending
-                }
-            });
+            // Return vendors sorted by readiness (highest first) - using AVL tree logic (sorted set)
+            List<VendorReadinessData> vendors = new ArrayList<>(demoReadinessRanking);
             
             List<String[]> result = new ArrayList<>();
             for (VendorReadinessData vendor : vendors) {
@@ -158,15 +328,352 @@ public class ExitReadinessDashboardJNI {
             }
             return result.toArray(new String[result.size()][]);
         }
-        return getVendorsSortedByReadiness(nativePtr);
+        return getVendorsSortedByReadiness(ptr());
+    }
+
+    /**
+     * Get one page of the readiness ranking (highest readiness first), starting at rank offset
+     */
+    public ScorePage getReadinessPage(int offset, int limit) {
+        String[] ids = new String[limit];
+        double[] scores = new double[limit];
+        int count = 0;
+        long version;
+        
+        if (!libraryLoaded) {
+            Iterator<VendorReadinessData> it = demoReadinessRanking.iterator();
+            for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+                it.next();
+            }
+            while (count < limit && it.hasNext()) {
+                VendorReadinessData data = it.next();
+                ids[count] = data.vendorId;
+                scores[count] = data.exitReadiness;
+                count++;
+            }
+            version = demoVersion;
+        } else {
+            version = getVersion(ptr());
+            count = getReadinessPage(ptr(), offset, ids, scores);
+        }
+        return new ScorePage(ids, null, scores, offset, count, version);
+    }
+
+    public int getVendorCount() {
+        if (!libraryLoaded) {
+            return demoReadinessStorage.size();
+        }
+        return getVendorCount(ptr());
+    }
+
+    public long getVersion() {
+        if (!libraryLoaded) {
+            return demoVersion;
+        }
+        return getVersion(ptr());
+    }
+
+    /**
+     * Open a cursor over the readiness ranking. With snapshot set, paging fails
+     * fast if metrics change, since any update can shift ranks.
+     */
+    public ScoreCursor openReadinessCursor(int pageSize, boolean snapshot) {
+        return new ScoreCursor(readinessPages(), pageSize, snapshot);
+    }
+
+    // Pages of the ranking, for cursors and paged table models
+    ScoreCursor.PageSource readinessPages() {
+        return new ScoreCursor.PageSource() {
+            @Override
+            public ScorePage fetchPage(int offset, int limit) {
+                return getReadinessPage(offset, limit);
+            }
+
+            @Override
+            public long currentVersion() {
+                return getVersion();
+            }
+        };
     }
 
+    // Lazy page stream over the ranking; peak memory depends on pageSize
+    public Stream<ScorePage> streamReadiness(int pageSize) {
+        return openReadinessCursor(pageSize, true).stream();
+    }
+
+    /**
+     * Run a filter/sort/limit query inside the engine. Readiness predicates and
+     * ordering use the AVL ranking; other fields are scanned column-wise.
+     */
+    public ScorePage query(ScoreQuery q) {
+        q.checkFields(QUERY_FIELDS);
+        
+        if (!libraryLoaded) {
+            List<VendorReadinessData> rows = q.apply(demoReadinessRanking,
+                new ScoreQuery.FieldValues<VendorReadinessData>() {
+                    @Override
+                    public double get(VendorReadinessData data, ScoreQuery.Field field) {
+                        return demoFieldValue(data, field);
+                    }
+                });
+            String[] ids = new String[rows.size()];
+            double[] scores = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = rows.get(i).vendorId;
+                scores[i] = rows.get(i).exitReadiness;
+            }
+            return new ScorePage(ids, null, scores, 0, ids.length, demoVersion);
+        }
+        
+        long version = getVersion(ptr());
+        Object[] result = query(ptr(), q.fieldCodes(), q.opCodes(), q.operands(),
+                                q.sortFieldCode(), q.isDescending(), q.getLimit());
+        String[] ids = (String[]) result[0];
+        return new ScorePage(ids, null, (double[]) result[2], 0, ids.length, version);
+    }
+
+    private static double demoFieldValue(VendorReadinessData data, ScoreQuery.Field field) {
+        return demoAccessor(field).applyAsDouble(data);
+    }
+
+    private static ToDoubleFunction<VendorReadinessData> demoAccessor(ScoreQuery.Field field) {
+        switch (field) {
+            case LOCK_IN_SCORE: return data -> data.lockInScore;
+            case MIGRATION_DIFFICULTY: return data -> data.migrationDifficulty;
+            case DATA_EXPORT_CAPABILITY: return data -> data.dataExportCapability;
+            case CONTRACT_FLEXIBILITY: return data -> data.contractFlexibility;
+            case TECHNICAL_COMPLEXITY: return data -> data.technicalComplexity;
+            default: return data -> data.exitReadiness;
+        }
+    }
+
+    /**
+     * Export readiness fields as primitive columns in slot order, in one engine call
+     */
+    public FeatureColumns exportColumns(ScoreQuery.Field... fields) {
+        List<ScoreQuery.Field> requested = Arrays.asList(fields);
+        int[] codes = fieldCodes(fields);
+        
+        if (!libraryLoaded) {
+            String[] ids = new String[demoReadinessStorage.size()];
+            double[][] columns = new double[fields.length][ids.length];
+            int row = 0;
+            for (VendorReadinessData data : demoReadinessStorage.values()) {
+                ids[row] = data.vendorId;
+                for (int c = 0; c < fields.length; c++) {
+                    columns[c][row] = demoFieldValue(data, fields[c]);
+                }
+                row++;
+            }
+            return new FeatureColumns(ids, requested, columns);
+        }
+        return FeatureColumns.fromNative(requested, exportColumns(ptr(), codes));
+    }
+
+    /**
+     * Export readiness fields for rows [offset, offset + limit) of the order
+     * exportColumns(fields) uses, so a caller can stream them in bounded pages
+     */
+    public FeatureColumns exportColumns(int offset, int limit, ScoreQuery.Field... fields) {
+        List<ScoreQuery.Field> requested = Arrays.asList(fields);
+        int[] codes = fieldCodes(fields);
+        
+        if (!libraryLoaded) {
+            int start = Math.min(Math.max(0, offset), demoReadinessStorage.size());
+            int count = (int) Math.min(demoReadinessStorage.size() - start, (long) Math.max(0, limit));
+            String[] ids = new String[count];
+            double[][] columns = new double[fields.length][count];
+            Iterator<VendorReadinessData> it = demoReadinessStorage.values().iterator();
+            for (int skipped = 0; skipped < start; skipped++) {
+                it.next();
+            }
+            for (int row = 0; row < count; row++) {
+                VendorReadinessData data = it.next();
+                ids[row] = data.vendorId;
+                for (int c = 0; c < fields.length; c++) {
+                    columns[c][row] = demoFieldValue(data, fields[c]);
+                }
+            }
+            return new FeatureColumns(ids, requested, columns);
+        }
+        return FeatureColumns.fromNative(requested, exportColumnsRange(ptr(), codes, offset, limit));
+    }
+
+    private static int[] fieldCodes(ScoreQuery.Field[] fields) {
+        int[] codes = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            if (!QUERY_FIELDS.contains(fields[i])) {
+                throw new IllegalArgumentException("Field not available in this module: " + fields[i]);
+            }
+            codes[i] = fields[i].code;
+        }
+        return codes;
+    }
+
+    /**
+     * Optimal exit paths of all vendors to the "exited" state, from one
+     * reverse shortest-path tree (a single engine call for the portfolio)
+     */
+    public ExitPathTree getExitPaths() {
+        return getExitPaths("exited");
+    }
+
+    public ExitPathTree getExitPaths(String targetState) {
+        long version = getVersion();
+        if (cachedExitPaths != null && cachedExitPathsVersion == version
+                && cachedExitPaths.getTarget().equals(targetState)) {
+            return cachedExitPaths;
+        }
+        
+        ExitPathTree tree;
+        if (!libraryLoaded) {
+            tree = buildDemoExitGraph().build(targetState);
+        } else {
+            tree = ExitPathTree.fromNative(targetState, getExitPathTree(ptr(), targetState));
+        }
+        
+        cachedExitPaths = tree;
+        cachedExitPathsVersion = version;
+        return tree;
+    }
+
+    // Optimal exit path for one vendor (vendor first, "exited" last); empty if none
+    public List<String> getOptimalExitPath(String vendorId) {
+        return getExitPaths().getPath(vendorId);
+    }
+
+    /**
+     * The k cheapest alternative exit plans for a vendor, cheapest first
+     */
+    public List<ExitPlan> getTopExitPlans(String vendorId, int k) {
+        return getTopExitPlans(Collections.singletonList(vendorId), k).get(vendorId);
+    }
+
+    /**
+     * Top-k exit plans for many vendors in one engine call (computed in parallel natively)
+     */
+    public Map<String, List<ExitPlan>> getTopExitPlans(List<String> vendorIds, int k) {
+        Map<String, List<ExitPlan>> result = new LinkedHashMap<>();
+        
+        if (!libraryLoaded) {
+            ExitPathTree.Builder graph = buildDemoExitGraph();
+            for (String vendorId : vendorIds) {
+                result.put(vendorId, graph.topPlans(vendorId, "exited", k));
+            }
+            return result;
+        }
+        
+        Object[] encoded = getTopExitPlans(ptr(), vendorIds.toArray(new String[0]), k, "exited");
+        int[] planOffsets = (int[]) encoded[0];
+        int[] stateOffsets = (int[]) encoded[1];
+        String[] states = (String[]) encoded[2];
+        double[] costs = (double[]) encoded[3];
+        for (int v = 0; v < vendorIds.size(); v++) {
+            List<ExitPlan> plans = new ArrayList<>();
+            for (int p = planOffsets[v]; p < planOffsets[v + 1]; p++) {
+                plans.add(new ExitPlan(Arrays.asList(states).subList(stateOffsets[p], stateOffsets[p + 1]), costs[p]));
+            }
+            result.put(vendorIds.get(v), plans);
+        }
+        return result;
+    }
+
+    // Demo mode: same staged graph and transition costs as ExitReadinessDashboard::addVendorMetrics
+    private ExitPathTree.Builder buildDemoExitGraph() {
+        ExitPathTree.Builder builder = new ExitPathTree.Builder();
+        for (VendorReadinessData data : demoReadinessStorage.values()) {
+            String planning = data.vendorId + "::planning";
+            String preparation = data.vendorId + "::preparation";
+            String migration = data.vendorId + "::migration";
+            
+            builder.addEdge(data.vendorId, planning, 100.0 - data.exitReadiness);
+            builder.addEdge(planning, preparation, data.migrationDifficulty);
+            builder.addEdge(preparation, migration, data.migrationDifficulty * 0.7);
+            builder.addEdge(migration, "exited", data.lockInScore * 0.5);
+            
+            // Contract buy-out, fast-track and lift-and-shift alternatives
+            builder.addEdge(data.vendorId, preparation,
+                            data.lockInScore * (1.0 - data.contractFlexibility / 100.0) * 1.5
+                            + (100.0 - data.exitReadiness) * 0.5);
+            builder.addEdge(planning, migration,
+                            data.migrationDifficulty * (1.0 + data.technicalComplexity / 100.0));
+            builder.addEdge(preparation, "exited",
+                            (100.0 - data.dataExportCapability) * 0.6 + data.lockInScore * 0.5);
+        }
+        return builder;
+    }
+
+    /**
+     * Approximate memory held for this dashboard's vendors, in the engine or in
+     * the demo storage
+     */
+    public long estimateMemoryBytes() {
+        return getVendorCount() * (libraryLoaded ? NATIVE_BYTES_PER_VENDOR : DEMO_BYTES_PER_VENDOR);
+    }
+
+    // Grows with every change a snapshot would capture
+    long changeCount() {
+        return getVersion();
+    }
+
+    /**
+     * Write the scoring model and every vendor's metrics; readSnapshot rebuilds
+     * an equal dashboard (readiness is recomputed). Score alert watches are not
+     * part of the snapshot.
+     */
+    void writeSnapshot(DataOutput out) throws IOException {
+        getScoringModel().write(out);
+        FeatureColumns columns = exportColumns(QUERY_FIELDS.toArray(new ScoreQuery.Field[0]));
+        out.writeInt(columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            out.writeUTF(columns.getIds()[row]);
+            out.writeDouble(columns.column(1)[row]); // Lock-in score
+            out.writeDouble(columns.column(2)[row]); // Migration difficulty
+            out.writeInt((int) columns.column(3)[row]); // Data export capability
+            out.writeInt((int) columns.column(4)[row]); // Contract flexibility
+            out.writeInt((int) columns.column(5)[row]); // Technical complexity
+        }
+    }
+
+    // Restore a snapshot into this (empty) dashboard
+    void readSnapshot(DataInput in) throws IOException {
+        setScoringModel(ScoringModel.read(in));
+        int vendors = in.readInt();
+        for (int i = 0; i < vendors; i++) {
+            VendorReadinessData data = new VendorReadinessData(in.readUTF(), in.readDouble(), in.readDouble(),
+                                                               in.readInt(), in.readInt(), in.readInt());
+            if (!libraryLoaded) {
+                storeDemoMetrics(data);
+            } else {
+                addVendorMetrics(ptr(), data.vendorId, data.lockInScore, data.migrationDifficulty,
+                                 data.dataExportCapability, data.contractFlexibility, data.technicalComplexity);
+            }
+        }
+    }
+
+    /**
+     * Release the engine (or the demo storage). Later calls into the engine
+     * throw IllegalStateException.
+     */
     @Override
-    protected void finalize() throws Throwable {
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         if (libraryLoaded && nativePtr != 0) {
             deleteNativeObject(nativePtr);
             nativePtr = 0;
         }
+        demoReadinessStorage = new LinkedHashMap<>();
+        demoReadinessRanking = new TreeSet<>(DEMO_RANKING_ORDER);
+        demoScoreSketch = libraryLoaded ? null : new ScoreSketch();
+        cachedExitPaths = null;
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
         super.finalize();
     }
 }
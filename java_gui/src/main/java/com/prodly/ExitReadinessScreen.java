@@ -5,7 +5,6 @@ import javafx.geometry.Pos;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
 import java.text.DecimalFormat;
 
 /**
@@ -17,10 +16,16 @@ public class ExitReadinessScreen {
     private VBox root;
     private ExitReadinessDashboardJNI dashboard;
     private TableView<VendorReadiness> readinessTable;
+    private PagedScoreList<VendorReadiness> readinessRows;
+    private ScoreDistributionPane distributionPane;
+    private final ScoringPipelineJNI pipeline = new ScoringPipelineJNI();
+    
+    private static final int TABLE_PAGE_SIZE = 256;
+    private static final int TABLE_CACHED_PAGES = 8;
     
     public ExitReadinessScreen(ProdlyApplication app) {
         this.app = app;
-        this.dashboard = new ExitReadinessDashboardJNI();
+        this.dashboard = app.getReadinessDashboard();
         createUI();
     }
     
@@ -74,8 +79,8 @@ public class ExitReadinessScreen {
         sectionTitle.getStyleClass().add("section-title");
         
         TextField vendorIdField = createTextField("Vendor ID");
-        TextField lockInScoreField = createTextField("Lock-In Score (0-100)");
-        TextField migrationDifficultyField = createTextField("Migration Difficulty (0-100)");
+        TextField lockInScoreField = createTextField("Lock-In Score (0-100, blank = from modules)");
+        TextField migrationDifficultyField = createTextField("Migration Difficulty (0-100, blank = from modules)");
         TextField dataExportField = createTextField("Data Export Capability (0-100)");
         TextField contractFlexibilityField = createTextField("Contract Flexibility (0-100)");
         TextField technicalComplexityField = createTextField("Technical Complexity (0-100)");
@@ -88,6 +93,11 @@ public class ExitReadinessScreen {
                           dataExportField, contractFlexibilityField, technicalComplexityField);
         });
         
+        Button pipelineButton = new Button("Score All From Modules");
+        pipelineButton.getStyleClass().add("secondary-button");
+        pipelineButton.setPrefWidth(Double.MAX_VALUE);
+        pipelineButton.setOnAction(e -> handleScoreAll());
+        
         Button refreshButton = new Button("Refresh Rankings");
         refreshButton.getStyleClass().add("secondary-button");
         refreshButton.setPrefWidth(Double.MAX_VALUE);
@@ -96,7 +106,7 @@ public class ExitReadinessScreen {
         panel.getChildren().addAll(sectionTitle, vendorIdField, lockInScoreField,
                                   migrationDifficultyField, dataExportField,
                                   contractFlexibilityField, technicalComplexityField,
-                                  calculateButton, refreshButton);
+                                  calculateButton, pipelineButton, refreshButton);
         
         return panel;
     }
@@ -112,7 +122,9 @@ public class ExitReadinessScreen {
         // Readiness table (sorted by AVL tree)
         readinessTable = createReadinessTable();
         
-        panel.getChildren().addAll(sectionTitle, readinessTable);
+        distributionPane = new ScoreDistributionPane("Exit Readiness Distribution");
+        
+        panel.getChildren().addAll(sectionTitle, readinessTable, distributionPane);
         VBox.setVgrow(readinessTable, Priority.ALWAYS);
         
         return panel;
@@ -143,50 +155,21 @@ public class ExitReadinessScreen {
         // Exit Readiness Score column with progress bar
         javafx.scene.control.TableColumn<VendorReadiness, Double> scoreCol = new javafx.scene.control.TableColumn<>("Exit Readiness");
         scoreCol.setCellValueFactory(data -> data.getValue().readinessScoreProperty().asObject());
-        scoreCol.setCellFactory(col -> new javafx.scene.control.TableCell<VendorReadiness, Double>() {
-            private final StackPane stackPane = new StackPane();
-            private final javafx.scene.shape.Rectangle bar = new javafx.scene.shape.Rectangle();
-            private final Label label = new Label();
-            
-            {
-                bar.setHeight(20);
-                bar.setArcWidth(10);
-                bar.setArcHeight(10);
-                stackPane.getChildren().addAll(bar, label);
-                stackPane.setAlignment(Pos.CENTER_LEFT);
-                stackPane.setPadding(new Insets(5));
-            }
-            
-            @Override
-            protected void updateItem(Double score, boolean empty) {
-                super.updateItem(score, empty);
-                if (empty || score == null) {
-                    setGraphic(null);
-                } else {
-                    double width = (score / 100.0) * 250;
-                    bar.setWidth(width);
-                    
-                    // Color: red (low readiness) -> yellow -> green (high readiness)
-                    if (score < 33) {
-                        bar.setFill(Color.rgb(244, 67, 54)); // Red
-                    } else if (score < 66) {
-                        bar.setFill(Color.rgb(255, 193, 7)); // Amber
-                    } else {
-                        bar.setFill(Color.rgb(76, 175, 80)); // Green
-                    }
-                    
-                    DecimalFormat df = new DecimalFormat("#.##");
-                    label.setText(df.format(score));
-                    label.setTextFill(Color.WHITE);
-                    
-                    setGraphic(stackPane);
-                }
-            }
-        });
+        scoreCol.setCellFactory(col -> new ScoreBarCell<>(250, true));
         scoreCol.setPrefWidth(300);
         
         table.getColumns().addAll(rankCol, idCol, scoreCol);
         
+        // The ranking is read from the engine a page at a time as the table scrolls
+        rankCol.setSortable(false);
+        idCol.setSortable(false);
+        scoreCol.setSortable(false);
+        readinessRows = new PagedScoreList<>(dashboard.readinessPages(), dashboard::getVendorCount,
+                                             app.getScoreDataflow(), TABLE_PAGE_SIZE, TABLE_CACHED_PAGES,
+                                             (page, i) -> new VendorReadiness(page.getOffset() + i + 1,
+                                                                              page.getVendorId(i), page.getScore(i)));
+        table.setItems(readinessRows);
+        
         return table;
     }
     
@@ -198,14 +181,46 @@ public class ExitReadinessScreen {
                 return;
             }
             
-            double lockInScore = Double.parseDouble(lockIn.getText());
-            double migrationDifficulty = Double.parseDouble(migration.getText());
+            boolean lockInFromModules = lockIn.getText().trim().isEmpty();
+            boolean migrationFromModules = migration.getText().trim().isEmpty();
+            double lockInScore = lockInFromModules ? 0.0 : Double.parseDouble(lockIn.getText());
+            double migrationDifficulty = migrationFromModules ? 0.0 : Double.parseDouble(migration.getText());
             int dataExportCap = Integer.parseInt(dataExport.getText());
             int contractFlex = Integer.parseInt(contract.getText());
             int techComplexity = Integer.parseInt(technical.getText());
             
-            dashboard.addVendorMetrics(vendorId.getText(), lockInScore, migrationDifficulty,
-                                      dataExportCap, contractFlex, techComplexity);
+            MigrationDifficultyAnalyzerJNI migrationAnalyzer = app.getMigrationAnalyzer();
+            if (migrationFromModules && (!migrationAnalyzer.canListTasks()
+                                         || migrationAnalyzer.getTasksForVendor(vendorId.getText()).isEmpty())) {
+                showError("No migration tasks available for " + vendorId.getText()
+                          + "; enter its migration difficulty");
+                return;
+            }
+            
+            // Blank scores come from the lock-in analyzer and the vendor's migration tasks;
+            // nothing is stored until they are known
+            if (lockInFromModules || migrationFromModules) {
+                PipelineBatch batch;
+                synchronized (app.getScoreDataflow()) {
+                    batch = PipelineBatch.forVendor(app.getVendorAnalyzer(), migrationAnalyzer,
+                                                    vendorId.getText(), dataExportCap, contractFlex,
+                                                    techComplexity, migrationDifficulty);
+                }
+                if (batch == null) {
+                    showError("Vendor " + vendorId.getText() + " has no lock-in data; add it on the "
+                              + "Vendor Lock-In screen or enter its scores");
+                    return;
+                }
+                PipelineScores scores = scoreFromModules(batch);
+                if (lockInFromModules) {
+                    lockInScore = scores.getLockInScore(0);
+                }
+                if (migrationFromModules) {
+                    migrationDifficulty = scores.getMigrationDifficulty(0);
+                }
+            }
+            app.getScoreDataflow().updateMetrics(vendorId.getText(), lockInScore, migrationDifficulty,
+                                                 dataExportCap, contractFlex, techComplexity);
             
             double readiness = dashboard.calculateExitReadiness(vendorId.getText());
             
@@ -229,19 +244,36 @@ public class ExitReadinessScreen {
         }
     }
     
-    private void refreshTable() {
-        readinessTable.getItems().clear();
-        
+    // Re-score every vendor known to all modules in one pipeline run and store the results
+    private void handleScoreAll() {
         try {
-            String[][] vendors = dashboard.getVendorsSortedByReadiness();
-            int rank = 1;
-            for (String[] entry : vendors) {
-                if (entry.length >= 2) {
-                    VendorReadiness vr = new VendorReadiness(rank++, entry[0],
-                                                           Double.parseDouble(entry[1]));
-                    readinessTable.getItems().add(vr);
-                }
+            ScoreDataflow dataflow = app.getScoreDataflow();
+            PipelineBatch batch;
+            synchronized (dataflow) {
+                batch = PipelineBatch.fromEngines(app.getVendorAnalyzer(), app.getMigrationAnalyzer(), dashboard);
             }
+            PipelineScores scores = scoreFromModules(batch);
+            dataflow.applyScores(scores, batch);
+            refreshTable();
+            showSuccess("Scored " + scores.size() + " vendors from lock-in, migration and readiness data");
+        } catch (Exception e) {
+            showError("Error: " + e.getMessage());
+        }
+    }
+    
+    // Pipeline run with the models the lock-in analyzer and the dashboard currently use
+    private PipelineScores scoreFromModules(PipelineBatch batch) {
+        pipeline.setLockInModel(app.getVendorAnalyzer().getScoringModel());
+        pipeline.setReadinessModel(dashboard.getScoringModel());
+        return pipeline.run(batch);
+    }
+    
+    private void refreshTable() {
+        try {
+            // Rescore vendors whose lock-in or migration inputs changed since the last refresh
+            app.getScoreDataflow().flush();
+            readinessRows.refresh();
+            distributionPane.show(dashboard.getScoreSketch());
         } catch (Exception e) {
             showError("Error loading readiness data: " + e.getMessage());
         }
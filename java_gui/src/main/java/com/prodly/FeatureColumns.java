@@ -0,0 +1,120 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vendor fields exported column by column: one primitive array per field, rows
+ * aligned with the vendor ids. The engines fill it in a single JNI call, so bulk
+ * analysis never walks vendors one object at a time.
+ */
+public class FeatureColumns {
+    private final String[] ids;
+    private final List<ScoreQuery.Field> fields;
+    private final double[][] columns;
+
+    public FeatureColumns(String[] ids, List<ScoreQuery.Field> fields, double[][] columns) {
+        if (fields.size() != columns.length) {
+            throw new IllegalArgumentException("Expected one column per field");
+        }
+        for (double[] column : columns) {
+            if (column.length != ids.length) {
+                throw new IllegalArgumentException("Columns must have one value per vendor");
+            }
+        }
+        this.ids = ids;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.columns = columns;
+    }
+
+    // Decode Object[] { String[] ids, double[][] columns }
+    static FeatureColumns fromNative(List<ScoreQuery.Field> fields, Object[] result) {
+        return new FeatureColumns((String[]) result[0], fields, (double[][]) result[1]);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int dimensions() {
+        return columns.length;
+    }
+
+    public List<ScoreQuery.Field> getFields() {
+        return fields;
+    }
+
+    public String getId(int row) {
+        return ids[row];
+    }
+
+    // Backing arrays, shared rather than copied; do not modify
+    public String[] getIds() {
+        return ids;
+    }
+
+    public double[] column(int index) {
+        return columns[index];
+    }
+
+    public double[] column(ScoreQuery.Field field) {
+        int index = fields.indexOf(field);
+        if (index < 0) {
+            throw new IllegalArgumentException("Field not exported: " + field);
+        }
+        return columns[index];
+    }
+
+    /**
+     * Inner join on vendor id: rows of this export that also appear in other, in
+     * this export's order, with other's columns appended. Fields present in both
+     * are taken from this export.
+     */
+    public FeatureColumns join(FeatureColumns other) {
+        Map<String, Integer> otherRows = new HashMap<>(other.size() * 2);
+        for (int row = 0; row < other.size(); row++) {
+            otherRows.put(other.ids[row], row);
+        }
+
+        int[] matchedThis = new int[size()];
+        int[] matchedOther = new int[size()];
+        int matched = 0;
+        for (int row = 0; row < size(); row++) {
+            Integer otherRow = otherRows.get(ids[row]);
+            if (otherRow != null) {
+                matchedThis[matched] = row;
+                matchedOther[matched] = otherRow;
+                matched++;
+            }
+        }
+
+        List<ScoreQuery.Field> joinedFields = new ArrayList<>(fields);
+        List<double[]> joinedColumns = new ArrayList<>();
+        for (double[] column : columns) {
+            joinedColumns.add(gather(column, matchedThis, matched));
+        }
+        for (int c = 0; c < other.dimensions(); c++) {
+            if (!fields.contains(other.fields.get(c))) {
+                joinedFields.add(other.fields.get(c));
+                joinedColumns.add(gather(other.columns[c], matchedOther, matched));
+            }
+        }
+
+        String[] joinedIds = new String[matched];
+        for (int i = 0; i < matched; i++) {
+            joinedIds[i] = ids[matchedThis[i]];
+        }
+        return new FeatureColumns(joinedIds, joinedFields, joinedColumns.toArray(new double[0][]));
+    }
+
+    private static double[] gather(double[] column, int[] rows, int count) {
+        double[] result = new double[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = column[rows[i]];
+        }
+        return result;
+    }
+}
@@ -1,18 +1,29 @@
 package com.prodly;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.ToIntFunction;
 
 /**
  * JNI wrapper for MigrationDifficultyAnalyzer C++ class
+ * Each instance owns its engine (or demo storage); close() releases it.
  */
-public class MigrationDifficultyAnalyzerJNI {
+public class MigrationDifficultyAnalyzerJNI implements AutoCloseable {
     private static boolean libraryLoaded = false;
     
     // In-memory storage for demo mode
     public static class TaskData {
+        public String vendorId; // Task ids are only unique within a vendor
         public String taskId;
         public String taskName;
         public int difficulty;
@@ -20,6 +31,11 @@ public class MigrationDifficultyAnalyzerJNI {
         public List<String> dependencies;
         
         public TaskData(String id, String name, int diff, int days, String[] deps) {
+            this(null, id, name, diff, days, deps);
+        }
+        
+        public TaskData(String vendorId, String id, String name, int diff, int days, String[] deps) {
+            this.vendorId = vendorId;
             this.taskId = id;
             this.taskName = name;
             this.difficulty = diff;
@@ -35,8 +51,13 @@ public class MigrationDifficultyAnalyzerJNI {
         }
     }
     
-    // Storage: vendorId -> list of tasks
-    private static Map<String, List<TaskData>> demoTaskStorage = new HashMap<>();
+    // Approximate footprint per task: engine RSS growth over 1M tasks, demo-mode
+    // heap growth over 200k
+    private static final long NATIVE_BYTES_PER_TASK = 650;
+    private static final long DEMO_BYTES_PER_TASK = 290;
+    
+    // Storage: vendorId -> list of tasks, in the order they were added
+    private Map<String, List<TaskData>> demoTaskStorage = new LinkedHashMap<>();
     
     static {
         try {
@@ -48,27 +69,48 @@ public class MigrationDifficultyAnalyzerJNI {
     }
 
     private native long createNativeObject();
-    private native void addTask(long nativePtr, String taskId, String taskName,
+    private native boolean addTask(long nativePtr, String taskId, String taskName,
                                int difficulty, int estimatedDays, String[] dependencies);
     private native double calculateMigrationDifficulty(long nativePtr, String vendorId);
     private native String[] getOptimalMigrationSequence(long nativePtr, String vendorId);
     private native int getTotalMigrationDays(long nativePtr, String vendorId);
+    private native double[] simulateCompletion(long nativePtr, String vendorId, int trials,
+                                               int distribution, long seed);
+    private native Object[] scheduleTasks(long nativePtr, String vendorId, int engineers,
+                                          String[] demandIds, int[] demands,
+                                          String[] priorityIds, int[] priorities);
+    private native Object[] exportTasks(long nativePtr, int offset, int limit);
     private native void deleteNativeObject(long nativePtr);
 
     private long nativePtr;
+    private boolean closed;
+    private long taskCount; // Tasks accepted, for the memory estimate
 
     public MigrationDifficultyAnalyzerJNI() {
+        this(true);
+    }
+
+    // Demo mode starts with sample tasks only when sampleData is set
+    MigrationDifficultyAnalyzerJNI(boolean sampleData) {
         if (libraryLoaded) {
             nativePtr = createNativeObject();
         } else {
             nativePtr = 0;
-            // Initialize with sample data for demo mode
-            initializeSampleData();
+            if (sampleData) {
+                initializeSampleData();
+            }
         }
     }
+
+    // Native handle; fails instead of handing a deleted engine to native code
+    private long ptr() {
+        if (closed) {
+            throw new IllegalStateException("Analyzer is closed");
+        }
+        return nativePtr;
+    }
     
     private void initializeSampleData() {
-        // Only add sample data if storage is empty (first instance)
         if (demoTaskStorage.isEmpty()) {
             String vendorId = "AWS-001";
             
@@ -86,11 +128,11 @@ public class MigrationDifficultyAnalyzerJNI {
     }
 
     // Store current vendor ID for tasks added without explicit vendor ID
-    private static String currentVendorId = "default";
+    private String currentVendorId = "default";
     
-    public void addTask(String taskId, String taskName, int difficulty,
-                       int estimatedDays, String[] dependencies) {
-        addTaskForVendor(currentVendorId, taskId, taskName, difficulty, estimatedDays, dependencies);
+    public boolean addTask(String taskId, String taskName, int difficulty,
+                           int estimatedDays, String[] dependencies) {
+        return addTaskForVendor(currentVendorId, taskId, taskName, difficulty, estimatedDays, dependencies);
     }
     
     public void setCurrentVendorId(String vendorId) {
@@ -98,8 +140,18 @@ public class MigrationDifficultyAnalyzerJNI {
     }
     
     // Helper method to add task with vendor ID
-    public void addTaskForVendor(String vendorId, String taskId, String taskName, 
-                                 int difficulty, int estimatedDays, String[] dependencies) {
+    // Returns false (task not added) if its dependencies would create a cycle
+    public boolean addTaskForVendor(String vendorId, String taskId, String taskName, 
+                                    int difficulty, int estimatedDays, String[] dependencies) {
+        boolean added = storeTask(vendorId, taskId, taskName, difficulty, estimatedDays, dependencies, true);
+        if (added) {
+            taskCount++;
+        }
+        return added;
+    }
+
+    private boolean storeTask(String vendorId, String taskId, String taskName, int difficulty,
+                              int estimatedDays, String[] dependencies, boolean verbose) {
         if (!libraryLoaded) {
             if (vendorId == null || vendorId.isEmpty()) {
                 vendorId = "default";
@@ -107,12 +159,39 @@ public class MigrationDifficultyAnalyzerJNI {
             if (!demoTaskStorage.containsKey(vendorId)) {
                 demoTaskStorage.put(vendorId, new ArrayList<>());
             }
-            TaskData task = new TaskData(taskId, taskName, difficulty, estimatedDays, dependencies);
+            TaskData task = new TaskData(vendorId, taskId, taskName, difficulty, estimatedDays, dependencies);
+            if (createsCycle(demoTaskStorage.get(vendorId), task)) {
+                System.out.println("Demo mode: Task rejected (dependency cycle) for " + vendorId + ": " + taskId);
+                return false;
+            }
             demoTaskStorage.get(vendorId).add(task);
-            System.out.println("Demo mode: Task stored for " + vendorId + ": " + taskId);
-        } else {
-            addTask(nativePtr, taskId, taskName, difficulty, estimatedDays, dependencies);
+            if (verbose) {
+                System.out.println("Demo mode: Task stored for " + vendorId + ": " + taskId);
+            }
+            return true;
+        }
+        return addTask(ptr(), taskId, taskName, difficulty, estimatedDays, dependencies);
+    }
+    
+    // Demo mode: the new task closes a cycle if it can reach itself through its dependencies
+    private static boolean createsCycle(List<TaskData> tasks, TaskData task) {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (TaskData existing : tasks) {
+            dependencies.computeIfAbsent(existing.taskId, k -> new ArrayList<>()).addAll(existing.dependencies);
+        }
+        
+        ArrayDeque<String> pending = new ArrayDeque<>(task.dependencies);
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (current.equals(task.taskId)) {
+                return true;
+            }
+            if (visited.add(current)) {
+                pending.addAll(dependencies.getOrDefault(current, new ArrayList<>()));
+            }
         }
+        return false;
     }
 
     public double calculateMigrationDifficulty(String vendorId) {
@@ -138,40 +217,27 @@ public class MigrationDifficultyAnalyzerJNI {
             
             return Math.min(100.0, timeFactor + taskCountFactor + complexityFactor);
         }
-        return calculateMigrationDifficulty(nativePtr, vendorId);
+        return calculateMigrationDifficulty(ptr(), vendorId);
     }
 
     public String[] getOptimalMigrationSequence(String vendorId) {
         if (!libraryLoaded) {
-            // Return sequence based on dependencies (topological sort simulation)
+            // Return sequence based on dependencies
             List<TaskData> tasks = demoTaskStorage.get(vendorId);
             if (tasks == null || tasks.isEmpty()) {
                 return new String[0];
             }
             
-            // Simple topological sort: tasks without dependencies first
+            // Dependency order (Kahn); cycles are rejected when tasks are added
+            CompiledTaskGraph graph = new CompiledTaskGraph(tasks);
             List<String> sequence = new ArrayList<>();
-            List<String> processed = new ArrayList<>();
-            
-            // Process tasks without dependencies first
-            for (TaskData task : tasks) {
-                if (task.dependencies.isEmpty()) {
-                    sequence.add(task.taskId);
-                    processed.add(task.taskId);
-                }
-            }
-            
-            // Process remaining tasks (simplified - real implementation would be more complex)
-            for (TaskData task : tasks) {
-                if (!processed.contains(task.taskId)) {
-                    sequence.add(task.taskId);
-                    processed.add(task.taskId);
-                }
+            for (TaskData task : graph.tasks) {
+                sequence.add(task.taskId);
             }
             
             return sequence.toArray(new String[0]);
         }
-        return getOptimalMigrationSequence(nativePtr, vendorId);
+        return getOptimalMigrationSequence(ptr(), vendorId);
     }
 
     public int getTotalMigrationDays(String vendorId) {
@@ -187,7 +253,77 @@ public class MigrationDifficultyAnalyzerJNI {
             }
             return totalDays;
         }
-        return getTotalMigrationDays(nativePtr, vendorId);
+        return getTotalMigrationDays(ptr(), vendorId);
+    }
+    
+    /**
+     * Monte Carlo completion forecast. Each task's duration is drawn around
+     * estimatedDays (longer tail for harder tasks) and the critical path is
+     * evaluated per trial, in parallel across all cores.
+     */
+    public CompletionForecast simulateCompletion(String vendorId, int trials,
+                                                 ScheduleSimulator.Distribution distribution, long seed) {
+        if (!libraryLoaded) {
+            List<TaskData> tasks = demoTaskStorage.getOrDefault(vendorId, new ArrayList<>());
+            return new ScheduleSimulator(tasks).run(trials, distribution, seed);
+        }
+        return CompletionForecast.fromArray(
+            simulateCompletion(ptr(), vendorId, trials, distribution.code, seed));
+    }
+    
+    /**
+     * Schedule the vendor's tasks for a team of the given size, using the
+     * default task priority and one engineer per task.
+     */
+    public MigrationSchedule scheduleTasks(String vendorId, int engineers) {
+        return scheduleTasks(vendorId, engineers, null, null);
+    }
+    
+    /**
+     * Schedule the vendor's tasks for a team of the given size.
+     * demands maps taskId -> engineers needed (default 1); priorities maps
+     * taskId -> priority (higher starts first, default calculateTaskPriority).
+     * Either map may be null.
+     */
+    public MigrationSchedule scheduleTasks(String vendorId, int engineers,
+                                           final Map<String, Integer> demands,
+                                           final Map<String, Integer> priorities) {
+        if (!libraryLoaded) {
+            List<TaskData> tasks = demoTaskStorage.getOrDefault(vendorId, new ArrayList<>());
+            return ResourceScheduler.schedule(tasks, engineers,
+                new ToIntFunction<TaskData>() {
+                    @Override
+                    public int applyAsInt(TaskData task) {
+                        return demands != null ? demands.getOrDefault(task.taskId, 1) : 1;
+                    }
+                },
+                new ToIntFunction<TaskData>() {
+                    @Override
+                    public int applyAsInt(TaskData task) {
+                        Integer priority = priorities != null ? priorities.get(task.taskId) : null;
+                        // Same default as MigrationDifficultyAnalyzer::calculateTaskPriority
+                        return priority != null ? priority : task.difficulty * 10 + task.dependencies.size() * 5;
+                    }
+                });
+        }
+        
+        String[] demandIds = demands != null ? demands.keySet().toArray(new String[0]) : null;
+        String[] priorityIds = priorities != null ? priorities.keySet().toArray(new String[0]) : null;
+        Object[] result = scheduleTasks(ptr(), vendorId, engineers,
+                                        demandIds, toValues(demandIds, demands),
+                                        priorityIds, toValues(priorityIds, priorities));
+        return MigrationSchedule.fromNative(result, Math.max(1, engineers));
+    }
+    
+    private static int[] toValues(String[] keys, Map<String, Integer> map) {
+        if (keys == null) {
+            return null;
+        }
+        int[] values = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = map.get(keys[i]);
+        }
+        return values;
     }
     
     // Get all tasks for a vendor (for UI display)
@@ -198,12 +334,153 @@ public class MigrationDifficultyAnalyzerJNI {
         return new ArrayList<>(); // Not implemented for native mode
     }
 
+    // Whether getTasksForVendor lists the tasks added (demo mode only)
+    public boolean canListTasks() {
+        return !libraryLoaded;
+    }
+
+    /**
+     * Approximate memory held for this analyzer's tasks, in the engine or in
+     * the demo storage
+     */
+    public long estimateMemoryBytes() {
+        return taskCount * (libraryLoaded ? NATIVE_BYTES_PER_TASK : DEMO_BYTES_PER_TASK);
+    }
+
+    // Grows with every change a snapshot would capture
+    long changeCount() {
+        return taskCount;
+    }
+
+    /**
+     * Write every task, grouped by vendor, in an order that adds back without
+     * cycle rejections. The engine keeps one task graph, so its tasks form a
+     * single group under the current vendor.
+     */
+    void writeSnapshot(DataOutput out) throws IOException {
+        out.writeUTF(currentVendorId);
+        if (!libraryLoaded) {
+            out.writeInt(demoTaskStorage.size());
+            for (Map.Entry<String, List<TaskData>> entry : demoTaskStorage.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (TaskData task : entry.getValue()) {
+                    writeTask(out, task.taskId, task.taskName, task.difficulty, task.estimatedDays,
+                              task.dependencies.toArray(new String[0]));
+                }
+            }
+            return;
+        }
+        
+        List<TaskData> tasks = getTasksPage(0, Integer.MAX_VALUE);
+        out.writeInt(1);
+        out.writeUTF(currentVendorId);
+        out.writeInt(tasks.size());
+        for (TaskData task : tasks) {
+            writeTask(out, task.taskId, task.taskName, task.difficulty, task.estimatedDays,
+                      task.dependencies.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Tasks [offset, offset + limit) of the whole analyzer: in execution order
+     * for the engine, vendor by vendor in the order added for the demo storage.
+     * The engine holds a single task graph, so its tasks carry the current vendor.
+     */
+    public List<TaskData> getTasksPage(int offset, int limit) {
+        List<TaskData> page = new ArrayList<>();
+        if (!libraryLoaded) {
+            int skip = Math.max(0, offset);
+            for (List<TaskData> tasks : demoTaskStorage.values()) {
+                if (skip >= tasks.size()) {
+                    skip -= tasks.size();
+                    continue;
+                }
+                for (int i = skip; i < tasks.size() && page.size() < limit; i++) {
+                    page.add(tasks.get(i));
+                }
+                skip = 0;
+                if (page.size() >= limit) {
+                    break;
+                }
+            }
+            return page;
+        }
+        
+        Object[] tasks = exportTasks(ptr(), offset, limit);
+        String[] ids = (String[]) tasks[0];
+        String[] names = (String[]) tasks[1];
+        int[] difficulties = (int[]) tasks[2];
+        int[] days = (int[]) tasks[3];
+        int[] offsets = (int[]) tasks[4];
+        String[] dependencies = (String[]) tasks[5];
+        for (int i = 0; i < ids.length; i++) {
+            page.add(new TaskData(currentVendorId, ids[i], names[i], difficulties[i], days[i],
+                                  Arrays.copyOfRange(dependencies, offsets[i], offsets[i + 1])));
+        }
+        return page;
+    }
+
+    // Tasks accepted so far, across all vendors (a re-added task id counts again)
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    private static void writeTask(DataOutput out, String taskId, String taskName, int difficulty,
+                                  int estimatedDays, String[] dependencies) throws IOException {
+        out.writeUTF(taskId);
+        out.writeUTF(taskName);
+        out.writeInt(difficulty);
+        out.writeInt(estimatedDays);
+        out.writeInt(dependencies.length);
+        for (String dependency : dependencies) {
+            out.writeUTF(dependency);
+        }
+    }
+
+    // Restore a snapshot into this (empty) analyzer
+    void readSnapshot(DataInput in) throws IOException {
+        setCurrentVendorId(in.readUTF());
+        int vendors = in.readInt();
+        for (int v = 0; v < vendors; v++) {
+            String vendorId = in.readUTF();
+            int tasks = in.readInt();
+            for (int t = 0; t < tasks; t++) {
+                String taskId = in.readUTF();
+                String taskName = in.readUTF();
+                int difficulty = in.readInt();
+                int estimatedDays = in.readInt();
+                String[] dependencies = new String[in.readInt()];
+                for (int d = 0; d < dependencies.length; d++) {
+                    dependencies[d] = in.readUTF();
+                }
+                if (storeTask(vendorId, taskId, taskName, difficulty, estimatedDays, dependencies, false)) {
+                    taskCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the engine (or the demo storage). Later calls into the engine
+     * throw IllegalStateException.
+     */
     @Override
-    protected void finalize() throws Throwable {
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         if (libraryLoaded && nativePtr != 0) {
             deleteNativeObject(nativePtr);
             nativePtr = 0;
         }
+        demoTaskStorage = new LinkedHashMap<>();
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
         super.finalize();
     }
 }
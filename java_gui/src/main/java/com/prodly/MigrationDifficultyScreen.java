@@ -26,7 +26,7 @@ public class MigrationDifficultyScreen {
     
     public MigrationDifficultyScreen(ProdlyApplication app) {
         this.app = app;
-        this.analyzer = new MigrationDifficultyAnalyzerJNI();
+        this.analyzer = app.getMigrationAnalyzer();
         createUI();
     }
     
@@ -251,8 +251,11 @@ public class MigrationDifficultyScreen {
             
             // Set vendor ID and add task
             analyzer.setCurrentVendorId(currentVendorId);
-            analyzer.addTask(taskId.getText(), taskName.getText(), diff, days,
-                           depsList.toArray(new String[0]));
+            if (!app.getScoreDataflow().addTaskForVendor(currentVendorId, taskId.getText(), taskName.getText(),
+                                                         diff, days, depsList.toArray(new String[0]))) {
+                showError("Task not added: its dependencies would create a circular dependency");
+                return;
+            }
             
             // Add to table
             MigrationTask task = new MigrationTask(taskId.getText(), taskName.getText(),
@@ -281,9 +284,15 @@ public class MigrationDifficultyScreen {
                 vendorId = "default";
             }
             
-            double difficulty = analyzer.calculateMigrationDifficulty(vendorId);
-            int totalDays = analyzer.getTotalMigrationDays(vendorId);
-            String[] sequence = analyzer.getOptimalMigrationSequence(vendorId);
+            // The engine caches the execution order it rebuilds here, which an export may be reading
+            double difficulty;
+            int totalDays;
+            String[] sequence;
+            synchronized (app.getScoreDataflow()) {
+                difficulty = analyzer.calculateMigrationDifficulty(vendorId);
+                totalDays = analyzer.getTotalMigrationDays(vendorId);
+                sequence = analyzer.getOptimalMigrationSequence(vendorId);
+            }
             
             DecimalFormat df = new DecimalFormat("#.##");
             difficultyScoreLabel.setText("Difficulty Score: " + df.format(difficulty) + " / 100");
@@ -0,0 +1,42 @@
+package com.prodly;
+
+/**
+ * Resource-constrained migration schedule: start day and assignee per task
+ */
+public class MigrationSchedule {
+    private final String[] taskIds;
+    private final int[] startDays;
+    private final int[] finishDays;
+    private final int[] assignees;
+    private final int engineers;
+    private final int makespan;
+
+    public MigrationSchedule(String[] taskIds, int[] startDays, int[] finishDays,
+                             int[] assignees, int engineers) {
+        this.taskIds = taskIds;
+        this.startDays = startDays;
+        this.finishDays = finishDays;
+        this.assignees = assignees;
+        this.engineers = engineers;
+        int end = 0;
+        for (int finish : finishDays) {
+            end = Math.max(end, finish);
+        }
+        this.makespan = end;
+    }
+
+    // Decode the native layout: Object[] { String[] taskIds, int[] startDays, int[] finishDays, int[] assignees }
+    static MigrationSchedule fromNative(Object[] result, int engineers) {
+        return new MigrationSchedule((String[]) result[0], (int[]) result[1],
+                                     (int[]) result[2], (int[]) result[3], engineers);
+    }
+
+    public int size() { return taskIds.length; }
+    public String getTaskId(int i) { return taskIds[i]; }
+    public int getStartDay(int i) { return startDays[i]; }
+    public int getFinishDay(int i) { return finishDays[i]; }
+    // Lowest-numbered engineer (0-based) working on the task
+    public int getAssignee(int i) { return assignees[i]; }
+    public int getEngineers() { return engineers; }
+    public int getMakespan() { return makespan; }
+}
@@ -0,0 +1,118 @@
+package com.prodly;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only list of table rows backed by engine pages instead of a populated
+ * ObservableList. A TableView only asks for the rows it shows, so get() loads
+ * the page holding the row on demand and keeps the most recently used pages;
+ * memory and refresh time depend on the page size, not on the portfolio.
+ *
+ * The size is fixed between calls to refresh(). A page read at a newer engine
+ * version drops the cached ones, since rows may have moved (a ranking can
+ * shift on any update); rows past the end of the engine's data read as null.
+ * Sorting is not supported, so columns over this list should not be sortable.
+ */
+public class PagedScoreList<T> extends ObservableListBase<T> {
+
+    /**
+     * Builds the row shown for one entry of a page
+     */
+    public interface RowMapper<T> {
+        T row(ScorePage page, int index);
+    }
+
+    private final ScoreCursor.PageSource source;
+    private final IntSupplier counter;
+    private final Object lock;
+    private final int pageSize;
+    private final RowMapper<T> mapper;
+    private final LinkedHashMap<Integer, Object[]> pages;
+
+    private int size;
+    private long version = -1;
+
+    /**
+     * Rows come from source, size from counter; both are called while holding
+     * lock, which should be the ScoreDataflow the screens change engines through
+     */
+    PagedScoreList(ScoreCursor.PageSource source, IntSupplier counter, Object lock,
+                   int pageSize, int cachedPages, RowMapper<T> mapper) {
+        if (pageSize <= 0 || cachedPages <= 0) {
+            throw new IllegalArgumentException("Page size and cache must be positive: " + pageSize + ", " + cachedPages);
+        }
+        this.source = source;
+        this.counter = counter;
+        this.lock = lock;
+        this.pageSize = pageSize;
+        this.mapper = mapper;
+        this.pages = new LinkedHashMap<Integer, Object[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    /**
+     * Re-read the row count and drop cached pages; the table sees one change
+     * replacing every row and re-reads only the visible ones
+     */
+    public void refresh() {
+        int oldSize = size;
+        synchronized (lock) {
+            size = counter.getAsInt();
+        }
+        pages.clear();
+        version = -1;
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.<T>nCopies(oldSize, null));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+        }
+        int pageIndex = index / pageSize;
+        Object[] rows = pages.get(pageIndex);
+        if (rows == null) {
+            rows = load(pageIndex);
+        }
+        int row = index - pageIndex * pageSize;
+        return row < rows.length ? (T) rows[row] : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Object[] load(int pageIndex) {
+        ScorePage page;
+        synchronized (lock) {
+            page = source.fetchPage(pageIndex * pageSize, pageSize);
+        }
+        if (page.getVersion() != version) {
+            pages.clear();
+            version = page.getVersion();
+        }
+        Object[] rows = new Object[page.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = mapper.row(page, i);
+        }
+        pages.put(pageIndex, rows);
+        return rows;
+    }
+}
@@ -0,0 +1,445 @@
+package com.prodly;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map (compressed hash-array mapped trie). put and remove return
+ * a new map that shares every node off the path to the changed key, so a copy is
+ * free and an edit copies about log32(n) small nodes.
+ *
+ * Each node keeps inline entries and child nodes in one array, indexed by two
+ * 32-bit bitmaps over 5 hash bits per level; keys whose 32-bit hashes are equal
+ * end up in a collision node below the last level. Removal folds single-entry
+ * children back into their parent, so equal contents always have the same shape
+ * and {@link #diff} can skip any subtree two maps share by reference.
+ */
+final class PersistentMap<K, V> {
+
+    /**
+     * Receives one difference: before is null for an added key, after for a removed one
+     */
+    interface Differences<K, V> {
+        void visit(K key, V before, V after);
+    }
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int HASH_BITS = 32;
+
+    private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        return (V) root.get(key, hash(key), 0);
+    }
+
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Map with key bound to value; this map if it already was
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        boolean[] added = new boolean[1];
+        Node updated = root.put(key, value, hash(key), 0, added);
+        return updated == root ? this : new PersistentMap<>(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Map without key; this map if key was absent
+     */
+    PersistentMap<K, V> remove(Object key) {
+        Node updated = root.remove(key, hash(key), 0);
+        return updated == root ? this : new PersistentMap<>(updated, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    /**
+     * Visit every key whose value differs from this map to other (by equals).
+     * Shared subtrees are skipped, so the cost follows the number of edits since
+     * the two maps forked, not their size.
+     */
+    @SuppressWarnings("unchecked")
+    void diff(PersistentMap<K, V> other, Differences<K, V> out) {
+        diff(root, other.root, 0, (Differences<Object, Object>) out);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static void diff(Node a, Node b, int shift, Differences<Object, Object> out) {
+        if (a == b) {
+            return;
+        }
+        if (a instanceof CollisionNode || b instanceof CollisionNode) {
+            a.forEach((key, before) -> {
+                Object after = b.get(key, hash(key), shift);
+                if (!before.equals(after)) {
+                    out.visit(key, before, after);
+                }
+            });
+            b.forEach((key, after) -> {
+                if (a.get(key, hash(key), shift) == null) {
+                    out.visit(key, null, after);
+                }
+            });
+            return;
+        }
+
+        BitmapNode left = (BitmapNode) a;
+        BitmapNode right = (BitmapNode) b;
+        int positions = left.dataMap | left.nodeMap | right.dataMap | right.nodeMap;
+        while (positions != 0) {
+            int bit = Integer.lowestOneBit(positions);
+            positions &= positions - 1;
+            boolean leftData = (left.dataMap & bit) != 0;
+            boolean rightData = (right.dataMap & bit) != 0;
+            boolean leftNode = (left.nodeMap & bit) != 0;
+            boolean rightNode = (right.nodeMap & bit) != 0;
+
+            if (leftData && rightData) {
+                Object leftKey = left.key(bit);
+                Object rightKey = right.key(bit);
+                if (leftKey.equals(rightKey)) {
+                    if (!left.value(bit).equals(right.value(bit))) {
+                        out.visit(leftKey, left.value(bit), right.value(bit));
+                    }
+                } else {
+                    out.visit(leftKey, left.value(bit), null);
+                    out.visit(rightKey, null, right.value(bit));
+                }
+            } else if (leftNode && rightNode) {
+                diff(left.node(bit), right.node(bit), shift + BITS, out);
+            } else if (leftData && rightNode) {
+                diff(single(left.key(bit), left.value(bit), shift + BITS), right.node(bit), shift + BITS, out);
+            } else if (leftNode && rightData) {
+                diff(left.node(bit), single(right.key(bit), right.value(bit), shift + BITS), shift + BITS, out);
+            } else if (leftData) {
+                out.visit(left.key(bit), left.value(bit), null);
+            } else if (leftNode) {
+                left.node(bit).forEach((key, value) -> out.visit(key, value, null));
+            } else if (rightData) {
+                out.visit(right.key(bit), null, right.value(bit));
+            } else {
+                right.node(bit).forEach((key, value) -> out.visit(key, null, value));
+            }
+        }
+    }
+
+    // Node holding one entry at the given depth, to compare an inline entry with a child node
+    private static Node single(Object key, Object value, int shift) {
+        if (shift >= HASH_BITS) {
+            return new CollisionNode(hash(key), new Object[] { key, value });
+        }
+        return new BitmapNode(bit(hash(key), shift), 0, new Object[] { key, value });
+    }
+
+    private abstract static class Node {
+        abstract Object get(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, boolean[] added);
+
+        abstract Node remove(Object key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+
+        // Exactly one entry and no children: the parent keeps it inline instead
+        abstract boolean isSingleEntry();
+
+        abstract Object singleKey();
+
+        abstract Object singleValue();
+    }
+
+    // content = [key0, value0, key1, value1, ..., child(k-1), ..., child0]
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+        final int dataMap;
+        final int nodeMap;
+        final Object[] content;
+
+        BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        int nodeIndex(int bit) {
+            return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        Object key(int bit) {
+            return content[2 * dataIndex(bit)];
+        }
+
+        Object value(int bit) {
+            return content[2 * dataIndex(bit) + 1];
+        }
+
+        Node node(int bit) {
+            return (Node) content[nodeIndex(bit)];
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                return key.equals(content[index]) ? content[index + 1] : null;
+            }
+            if ((nodeMap & bit) != 0) {
+                return node(bit).get(key, hash, shift + BITS);
+            }
+            return null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                Object existing = content[index];
+                if (key.equals(existing)) {
+                    if (content[index + 1] == value) {
+                        return this;
+                    }
+                    Object[] copy = content.clone();
+                    copy[index + 1] = value;
+                    return new BitmapNode(dataMap, nodeMap, copy);
+                }
+                added[0] = true;
+                Node child = merge(existing, content[index + 1], hash(existing), key, value, hash, shift + BITS);
+                return dataToNode(bit, child);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node child = node(bit);
+                Node updated = child.put(key, value, hash, shift + BITS, added);
+                return updated == child ? this : withNode(bit, updated);
+            }
+            added[0] = true;
+            int index = 2 * dataIndex(bit);
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            copy[index] = key;
+            copy[index + 1] = value;
+            System.arraycopy(content, index, copy, index + 2, content.length - index);
+            return new BitmapNode(dataMap | bit, nodeMap, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                if (!key.equals(content[index])) {
+                    return this;
+                }
+                Object[] copy = new Object[content.length - 2];
+                System.arraycopy(content, 0, copy, 0, index);
+                System.arraycopy(content, index + 2, copy, index, content.length - index - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, copy);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node child = node(bit);
+                Node updated = child.remove(key, hash, shift + BITS);
+                if (updated == child) {
+                    return this;
+                }
+                return updated.isSingleEntry() ? nodeToData(bit, updated) : withNode(bit, updated);
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            int entries = Integer.bitCount(dataMap);
+            for (int i = 0; i < entries; i++) {
+                action.accept(content[2 * i], content[2 * i + 1]);
+            }
+            for (int i = 2 * entries; i < content.length; i++) {
+                ((Node) content[i]).forEach(action);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return nodeMap == 0 && Integer.bitCount(dataMap) == 1;
+        }
+
+        @Override
+        Object singleKey() {
+            return content[0];
+        }
+
+        @Override
+        Object singleValue() {
+            return content[1];
+        }
+
+        private Node withNode(int bit, Node child) {
+            Object[] copy = content.clone();
+            copy[nodeIndex(bit)] = child;
+            return new BitmapNode(dataMap, nodeMap, copy);
+        }
+
+        // Replace the inline entry at bit by a child node
+        private Node dataToNode(int bit, Node child) {
+            int dataIndex = 2 * dataIndex(bit);
+            int nodeIndex = content.length - 2 - Integer.bitCount(nodeMap & (bit - 1));
+            Object[] copy = new Object[content.length - 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            System.arraycopy(content, dataIndex + 2, copy, dataIndex, nodeIndex - dataIndex);
+            copy[nodeIndex] = child;
+            System.arraycopy(content, nodeIndex + 2, copy, nodeIndex + 1, content.length - nodeIndex - 2);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, copy);
+        }
+
+        // Replace the child node at bit by its only entry
+        private Node nodeToData(int bit, Node child) {
+            int oldNodeIndex = nodeIndex(bit);
+            int dataIndex = 2 * dataIndex(bit);
+            Object[] copy = new Object[content.length + 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            copy[dataIndex] = child.singleKey();
+            copy[dataIndex + 1] = child.singleValue();
+            System.arraycopy(content, dataIndex, copy, dataIndex + 2, oldNodeIndex - dataIndex);
+            System.arraycopy(content, oldNodeIndex + 1, copy, oldNodeIndex + 2, content.length - oldNodeIndex - 1);
+            return new BitmapNode(dataMap | bit, nodeMap ^ bit, copy);
+        }
+
+        private static Node merge(Object key1, Object value1, int hash1,
+                                  Object key2, Object value2, int hash2, int shift) {
+            if (shift >= HASH_BITS) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+            int bit1 = bit(hash1, shift);
+            int bit2 = bit(hash2, shift);
+            if (bit1 == bit2) {
+                return new BitmapNode(0, bit1, new Object[] {
+                    merge(key1, value1, hash1, key2, value2, hash2, shift + BITS) });
+            }
+            Object[] content = Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Object[] { key1, value1, key2, value2 }
+                : new Object[] { key2, value2, key1, value1 };
+            return new BitmapNode(bit1 | bit2, 0, content);
+        }
+    }
+
+    // Keys with equal 32-bit hashes, kept as [key0, value0, key1, value1, ...]
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Object[] content;
+
+        CollisionNode(int hash, Object[] content) {
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int index = indexOf(key);
+            return index >= 0 ? content[index + 1] : null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (content[index + 1] == value) {
+                    return this;
+                }
+                Object[] copy = content.clone();
+                copy[index + 1] = value;
+                return new CollisionNode(this.hash, copy);
+            }
+            added[0] = true;
+            Object[] copy = Arrays.copyOf(content, content.length + 2);
+            copy[content.length] = key;
+            copy[content.length + 1] = value;
+            return new CollisionNode(this.hash, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            Object[] copy = new Object[content.length - 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            System.arraycopy(content, index + 2, copy, index, content.length - index - 2);
+            return new CollisionNode(this.hash, copy);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < content.length; i += 2) {
+                action.accept(content[i], content[i + 1]);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return content.length == 2;
+        }
+
+        @Override
+        Object singleKey() {
+            return content[0];
+        }
+
+        @Override
+        Object singleValue() {
+            return content[1];
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.prodly;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Input of one ScoringPipelineJNI run: vendors with their lock-in and readiness
+ * inputs, plus each vendor's migration tasks. Values are kept column by column
+ * and tasks are grouped per vendor when the batch is run, so the whole portfolio
+ * crosses JNI as a handful of primitive arrays.
+ */
+public class PipelineBatch {
+
+    // Vendor input columns, in this order; MIGRATION_DIFFICULTY is only used for vendors without tasks
+    static final List<ScoreQuery.Field> FIELDS = Arrays.asList(
+        ScoreQuery.Field.CONTRACT_VALUE, ScoreQuery.Field.CONTRACT_MONTHS,
+        ScoreQuery.Field.DATA_VOLUME_GB, ScoreQuery.Field.API_DEPENDENCIES,
+        ScoreQuery.Field.CUSTOM_INTEGRATION, ScoreQuery.Field.SWITCHING_COST,
+        ScoreQuery.Field.DATA_EXPORT_CAPABILITY, ScoreQuery.Field.CONTRACT_FLEXIBILITY,
+        ScoreQuery.Field.TECHNICAL_COMPLEXITY, ScoreQuery.Field.MIGRATION_DIFFICULTY);
+
+    private static final int MIGRATION_COLUMN = FIELDS.indexOf(ScoreQuery.Field.MIGRATION_DIFFICULTY);
+
+    /**
+     * Batch flattened for a run: tasks of vendor v are [taskOffsets[v], taskOffsets[v + 1]),
+     * the tasks task t depends on are dependencies[dependencyOffsets[t] .. dependencyOffsets[t + 1])
+     */
+    static final class Layout {
+        final int vendorCount;
+        final double[][] columns; // Indexed like FIELDS, vendorCount values each
+        final int[] taskOffsets;
+        final int[] taskDays;
+        final int[] taskDifficulty;
+        final int[] dependencyOffsets;
+        final int[] dependencies;
+
+        Layout(int vendorCount, double[][] columns, int[] taskOffsets, int[] taskDays, int[] taskDifficulty,
+               int[] dependencyOffsets, int[] dependencies) {
+            this.vendorCount = vendorCount;
+            this.columns = columns;
+            this.taskOffsets = taskOffsets;
+            this.taskDays = taskDays;
+            this.taskDifficulty = taskDifficulty;
+            this.dependencyOffsets = dependencyOffsets;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final List<String> vendorIds = new ArrayList<>();
+    private final Map<String, Integer> vendorRows = new HashMap<>();
+    private double[][] columns = new double[FIELDS.size()][16];
+
+    // Tasks in insertion order; a task is keyed by vendor ID + '\0' + task ID
+    private final List<String> taskVendors = new ArrayList<>();
+    private final List<String> taskIds = new ArrayList<>();
+    private final List<String[]> taskDependencies = new ArrayList<>();
+    // Rows resolved when the task was added, -1 if the vendor or dependency did not exist yet
+    private final List<int[]> taskDependencyRows = new ArrayList<>();
+    private int[] taskVendorRows = new int[16];
+    private int[] taskDays = new int[16];
+    private int[] taskDifficulty = new int[16];
+    private final Map<String, Integer> taskRows = new HashMap<>();
+
+    public int size() {
+        return vendorIds.size();
+    }
+
+    public int getTaskCount() {
+        return taskIds.size();
+    }
+
+    public String getVendorId(int row) {
+        return vendorIds.get(row);
+    }
+
+    // Input value of a vendor (FIELDS only)
+    public double get(int row, ScoreQuery.Field field) {
+        int column = FIELDS.indexOf(field);
+        if (column < 0) {
+            throw new IllegalArgumentException("Not a pipeline input: " + field);
+        }
+        return columns[column][row];
+    }
+
+    /**
+     * Add or replace a vendor with the inputs of VendorLockInAnalyzerJNI.addVendor
+     * and the readiness inputs of ExitReadinessDashboardJNI.addVendorMetrics
+     */
+    public void addVendor(String vendorId, double contractValue, int contractMonths, double dataVolumeGB,
+                          int apiDependencies, boolean hasCustomIntegration, double switchingCost,
+                          int dataExportCapability, int contractFlexibility, int technicalComplexity) {
+        Integer existing = vendorRows.get(vendorId);
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            row = vendorIds.size();
+            if (row == columns[0].length) {
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] = Arrays.copyOf(columns[c], row * 2);
+                }
+            }
+            vendorIds.add(vendorId);
+            vendorRows.put(vendorId, row);
+        }
+        double[] values = { contractValue, contractMonths, dataVolumeGB, apiDependencies,
+                            hasCustomIntegration ? 1.0 : 0.0, switchingCost,
+                            dataExportCapability, contractFlexibility, technicalComplexity,
+                            existing != null ? columns[MIGRATION_COLUMN][row] : 0.0 };
+        for (int c = 0; c < values.length; c++) {
+            columns[c][row] = values[c];
+        }
+    }
+
+    /**
+     * Migration difficulty used for a vendor that has no tasks (default 0)
+     */
+    public void setMigrationDifficulty(String vendorId, double migrationDifficulty) {
+        Integer row = vendorRows.get(vendorId);
+        if (row == null) {
+            throw new IllegalArgumentException("Unknown vendor: " + vendorId);
+        }
+        columns[MIGRATION_COLUMN][row] = migrationDifficulty;
+    }
+
+    /**
+     * Add or replace a migration task of a vendor, as MigrationDifficultyAnalyzerJNI.addTaskForVendor.
+     * Returns false (task not added) if its dependencies would create a cycle. Dependencies on
+     * tasks the vendor never gets are ignored, and tasks of vendors never added are not scored.
+     */
+    public boolean addTask(String vendorId, String taskId, int difficulty, int estimatedDays,
+                           String... dependencies) {
+        List<String> dependencyIds = new ArrayList<>();
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                if (dependency != null && !dependency.trim().isEmpty()) {
+                    dependencyIds.add(dependency.trim());
+                }
+            }
+        }
+        if (createsCycle(vendorId, taskId, dependencyIds)) {
+            return false;
+        }
+
+        int[] dependencyRows = new int[dependencyIds.size()];
+        for (int d = 0; d < dependencyRows.length; d++) {
+            dependencyRows[d] = taskRows.getOrDefault(vendorId + '\0' + dependencyIds.get(d), -1);
+        }
+        String key = vendorId + '\0' + taskId;
+        Integer existing = taskRows.get(key);
+        int row;
+        if (existing != null) {
+            row = existing;
+            taskDependencies.set(row, dependencyIds.toArray(new String[0]));
+            taskDependencyRows.set(row, dependencyRows);
+        } else {
+            row = taskIds.size();
+            if (row == taskDays.length) {
+                taskVendorRows = Arrays.copyOf(taskVendorRows, row * 2);
+                taskDays = Arrays.copyOf(taskDays, row * 2);
+                taskDifficulty = Arrays.copyOf(taskDifficulty, row * 2);
+            }
+            taskVendors.add(vendorId);
+            taskIds.add(taskId);
+            taskDependencies.add(dependencyIds.toArray(new String[0]));
+            taskDependencyRows.add(dependencyRows);
+            taskRows.put(key, row);
+        }
+        taskVendorRows[row] = vendorRows.getOrDefault(vendorId, -1);
+        taskDays[row] = estimatedDays;
+        taskDifficulty[row] = difficulty;
+        return true;
+    }
+
+    // The task closes a cycle if it can reach itself through its dependencies
+    private boolean createsCycle(String vendorId, String taskId, List<String> dependencies) {
+        ArrayDeque<String> pending = new ArrayDeque<>(dependencies);
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (current.equals(taskId)) {
+                return true;
+            }
+            Integer row = taskRows.get(vendorId + '\0' + current);
+            if (visited.add(current) && row != null) {
+                pending.addAll(Arrays.asList(taskDependencies.get(row)));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Batch of the vendors held by both the lock-in analyzer and the readiness dashboard,
+     * with the tasks the migration analyzer lists for them (demo mode only lists tasks
+     * per vendor; vendors without tasks keep the dashboard's migration difficulty)
+     */
+    public static PipelineBatch fromEngines(VendorLockInAnalyzerJNI analyzer,
+                                            MigrationDifficultyAnalyzerJNI migration,
+                                            ExitReadinessDashboardJNI dashboard) {
+        FeatureColumns vendors = analyzer.exportColumns(FIELDS.subList(0, 6).toArray(new ScoreQuery.Field[0]))
+            .join(dashboard.exportColumns(FIELDS.subList(6, FIELDS.size()).toArray(new ScoreQuery.Field[0])));
+        PipelineBatch batch = new PipelineBatch();
+        for (int row = 0; row < vendors.size(); row++) {
+            String vendorId = vendors.getId(row);
+            batch.addRow(vendorId, vendors, row);
+            if (migration != null) {
+                for (MigrationDifficultyAnalyzerJNI.TaskData task : migration.getTasksForVendor(vendorId)) {
+                    batch.addTask(vendorId, task.taskId, task.difficulty, task.estimatedDays,
+                                  task.dependencies.toArray(new String[0]));
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Batch of one vendor: its lock-in inputs from the analyzer, the readiness inputs
+     * given, and its tasks; migrationDifficulty is used if it has none. Null if the
+     * analyzer does not hold vendorId.
+     */
+    public static PipelineBatch forVendor(VendorLockInAnalyzerJNI analyzer,
+                                          MigrationDifficultyAnalyzerJNI migration, String vendorId,
+                                          int dataExportCapability, int contractFlexibility,
+                                          int technicalComplexity, double migrationDifficulty) {
+        FeatureColumns vendor = analyzer.exportColumns(vendorId, FIELDS.subList(0, 6).toArray(new ScoreQuery.Field[0]));
+        if (vendor.size() == 0) {
+            return null;
+        }
+        PipelineBatch batch = new PipelineBatch();
+        batch.addVendor(vendorId, vendor.column(0)[0], (int) vendor.column(1)[0], vendor.column(2)[0],
+                        (int) vendor.column(3)[0], vendor.column(4)[0] != 0.0, vendor.column(5)[0],
+                        dataExportCapability, contractFlexibility, technicalComplexity);
+        batch.setMigrationDifficulty(vendorId, migrationDifficulty);
+        if (migration != null) {
+            for (MigrationDifficultyAnalyzerJNI.TaskData task : migration.getTasksForVendor(vendorId)) {
+                batch.addTask(vendorId, task.taskId, task.difficulty, task.estimatedDays,
+                              task.dependencies.toArray(new String[0]));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Batch of a scenario's vendors that also have readiness metrics, with their tasks;
+     * the metrics' migration difficulty is kept for vendors without tasks
+     */
+    public static PipelineBatch fromScenario(Scenario scenario) {
+        FeatureColumns vendors = scenario.exportColumns(FIELDS.toArray(new ScoreQuery.Field[0]));
+        PipelineBatch batch = new PipelineBatch();
+        for (int row = 0; row < vendors.size(); row++) {
+            String vendorId = vendors.getId(row);
+            batch.addRow(vendorId, vendors, row);
+            for (Scenario.Task task : scenario.getTasks(vendorId)) {
+                batch.addTask(vendorId, task.getTaskId(), task.getDifficulty(), task.getEstimatedDays(),
+                              task.getDependencies().toArray(new String[0]));
+            }
+        }
+        return batch;
+    }
+
+    // Columns are exported in FIELDS order
+    private void addRow(String vendorId, FeatureColumns values, int row) {
+        addVendor(vendorId, values.column(0)[row], (int) values.column(1)[row], values.column(2)[row],
+                  (int) values.column(3)[row], values.column(4)[row] != 0.0, values.column(5)[row],
+                  (int) values.column(6)[row], (int) values.column(7)[row], (int) values.column(8)[row]);
+        setMigrationDifficulty(vendorId, values.column(MIGRATION_COLUMN)[row]);
+    }
+
+    /**
+     * Group tasks by vendor (counting sort, insertion order within a vendor) and
+     * resolve dependency IDs to task indices. Rows resolved by addTask are reused;
+     * only vendors and dependencies added after their task are looked up by ID.
+     */
+    Layout layout() {
+        int vendorCount = vendorIds.size();
+        double[][] trimmed = new double[columns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            trimmed[c] = Arrays.copyOf(columns[c], vendorCount);
+        }
+
+        int tasks = taskIds.size();
+        int[] vendorOf = new int[tasks];
+        int[] taskOffsets = new int[vendorCount + 1];
+        for (int t = 0; t < tasks; t++) {
+            int vendor = taskVendorRows[t] >= 0 ? taskVendorRows[t]
+                                               : vendorRows.getOrDefault(taskVendors.get(t), -1);
+            vendorOf[t] = vendor;
+            if (vendor >= 0) {
+                taskOffsets[vendor + 1]++;
+            }
+        }
+        for (int v = 0; v < vendorCount; v++) {
+            taskOffsets[v + 1] += taskOffsets[v];
+        }
+        int[] position = new int[tasks];
+        int[] cursor = Arrays.copyOf(taskOffsets, vendorCount);
+        for (int t = 0; t < tasks; t++) {
+            position[t] = vendorOf[t] >= 0 ? cursor[vendorOf[t]]++ : -1;
+        }
+
+        int placed = taskOffsets[vendorCount];
+        int[] days = new int[placed];
+        int[] difficulty = new int[placed];
+        int[][] resolved = new int[placed][];
+        int dependencyCount = 0;
+        for (int t = 0; t < tasks; t++) {
+            if (position[t] < 0) continue;
+            days[position[t]] = taskDays[t];
+            difficulty[position[t]] = taskDifficulty[t];
+            int[] dependencyRows = taskDependencyRows.get(t);
+            int[] targets = new int[dependencyRows.length];
+            int count = 0;
+            for (int d = 0; d < dependencyRows.length; d++) {
+                int row = dependencyRows[d] >= 0 ? dependencyRows[d]
+                        : taskRows.getOrDefault(taskVendors.get(t) + '\0' + taskDependencies.get(t)[d], -1);
+                if (row >= 0) {
+                    targets[count++] = position[row];
+                }
+            }
+            resolved[position[t]] = Arrays.copyOf(targets, count);
+            dependencyCount += count;
+        }
+
+        int[] dependencyOffsets = new int[placed + 1];
+        int[] dependencies = new int[dependencyCount];
+        for (int p = 0; p < placed; p++) {
+            System.arraycopy(resolved[p], 0, dependencies, dependencyOffsets[p], resolved[p].length);
+            dependencyOffsets[p + 1] = dependencyOffsets[p] + resolved[p].length;
+        }
+        return new Layout(vendorCount, trimmed, taskOffsets, days, difficulty, dependencyOffsets, dependencies);
+    }
+}
@@ -0,0 +1,57 @@
+package com.prodly;
+
+/**
+ * Scores of one pipeline run, rows in batch order: lock-in, migration
+ * difficulty from the vendor's tasks, and the exit readiness both feed
+ */
+public class PipelineScores {
+    private final String[] vendorIds;
+    private final double[] lockIn;
+    private final double[] migrationDifficulty;
+    private final double[] exitReadiness;
+
+    PipelineScores(String[] vendorIds, double[] lockIn, double[] migrationDifficulty, double[] exitReadiness) {
+        this.vendorIds = vendorIds;
+        this.lockIn = lockIn;
+        this.migrationDifficulty = migrationDifficulty;
+        this.exitReadiness = exitReadiness;
+    }
+
+    // Decode double[][] { lockIn, migrationDifficulty, exitReadiness }
+    static PipelineScores fromNative(String[] vendorIds, double[][] result) {
+        return new PipelineScores(vendorIds, result[0], result[1], result[2]);
+    }
+
+    public int size() {
+        return vendorIds.length;
+    }
+
+    public String getVendorId(int row) {
+        return vendorIds[row];
+    }
+
+    public double getLockInScore(int row) {
+        return lockIn[row];
+    }
+
+    public double getMigrationDifficulty(int row) {
+        return migrationDifficulty[row];
+    }
+
+    public double getExitReadiness(int row) {
+        return exitReadiness[row];
+    }
+
+    /**
+     * Store the computed lock-in and migration scores in the dashboard together
+     * with the batch's readiness inputs, replacing hand-entered values
+     */
+    public void applyTo(ExitReadinessDashboardJNI dashboard, PipelineBatch batch) {
+        for (int row = 0; row < vendorIds.length; row++) {
+            dashboard.addVendorMetrics(vendorIds[row], lockIn[row], migrationDifficulty[row],
+                                       (int) batch.get(row, ScoreQuery.Field.DATA_EXPORT_CAPABILITY),
+                                       (int) batch.get(row, ScoreQuery.Field.CONTRACT_FLEXIBILITY),
+                                       (int) batch.get(row, ScoreQuery.Field.TECHNICAL_COMPLEXITY));
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.prodly;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.concurrent.Task;
+
+/**
+ * Background export of the whole portfolio: vendors with their lock-in inputs
+ * and score, migration tasks, and exit readiness. Rows are pulled from the
+ * engines one page at a time and written straight to a FileChannel, so the
+ * heap used stays the same whether the portfolio holds a hundred vendors or
+ * ten million. The result is the number of rows written.
+ *
+ * Task ids are only unique within a vendor, so the tasks table starts with a
+ * vendorId column; a task's dependencies (ids separated by ';') are tasks of
+ * the same vendor.
+ *
+ * CSV writes one file per table next to the chosen path (name.vendors.csv,
+ * name.tasks.csv, name.readiness.csv). COLUMNAR writes a single file:
+ * <pre>
+ * file   = "PCOL" version:int table* 0:int
+ * table  = nameLength:int name:utf8 columnCount:int (type:byte nameLength:int name:utf8)* group* 0:int
+ * group  = rows:int column*           one group per engine page
+ * column = double[rows] | int[rows] | byte[rows] | (length:int utf8)[rows]
+ * </pre>
+ * All numbers are big-endian. Files are written next to their target and
+ * moved into place at the end, so a failed or cancelled export leaves no
+ * partial file behind.
+ */
+public class PortfolioExport extends Task<Long> {
+    public enum Format { CSV, COLUMNAR }
+
+    static final int MAGIC = 0x50434F4C; // "PCOL"
+    static final int VERSION = 1;
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_INT = 3;
+    static final byte TYPE_BOOLEAN = 4;
+
+    private static final int PAGE_SIZE = 8192;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final ScoreQuery.Field[] VENDOR_INPUTS = {
+        ScoreQuery.Field.CONTRACT_VALUE, ScoreQuery.Field.CONTRACT_MONTHS, ScoreQuery.Field.DATA_VOLUME_GB,
+        ScoreQuery.Field.API_DEPENDENCIES, ScoreQuery.Field.CUSTOM_INTEGRATION, ScoreQuery.Field.SWITCHING_COST
+    };
+    private static final ScoreQuery.Field[] READINESS_FIELDS = {
+        ScoreQuery.Field.EXIT_READINESS, ScoreQuery.Field.LOCK_IN_SCORE, ScoreQuery.Field.MIGRATION_DIFFICULTY,
+        ScoreQuery.Field.DATA_EXPORT_CAPABILITY, ScoreQuery.Field.CONTRACT_FLEXIBILITY,
+        ScoreQuery.Field.TECHNICAL_COMPLEXITY
+    };
+
+    static final String[] VENDOR_COLUMNS = {
+        "vendorId", "vendorName", "lockInScore", "contractValue", "contractMonths",
+        "dataVolumeGB", "apiDependencies", "hasCustomIntegration", "switchingCost"
+    };
+    private static final byte[] VENDOR_TYPES = {
+        TYPE_STRING, TYPE_STRING, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_INT,
+        TYPE_DOUBLE, TYPE_INT, TYPE_BOOLEAN, TYPE_DOUBLE
+    };
+    static final String[] TASK_COLUMNS = {
+        "vendorId", "taskId", "taskName", "difficulty", "estimatedDays", "dependencies"
+    };
+    private static final byte[] TASK_TYPES = {
+        TYPE_STRING, TYPE_STRING, TYPE_STRING, TYPE_INT, TYPE_INT, TYPE_STRING
+    };
+    static final String[] READINESS_COLUMNS = {
+        "vendorId", "exitReadiness", "lockInScore", "migrationDifficulty",
+        "dataExportCapability", "contractFlexibility", "technicalComplexity"
+    };
+    private static final byte[] READINESS_TYPES = {
+        TYPE_STRING, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_INT, TYPE_INT, TYPE_INT
+    };
+
+    private final VendorLockInAnalyzerJNI vendorAnalyzer;
+    private final MigrationDifficultyAnalyzerJNI migrationAnalyzer;
+    private final ExitReadinessDashboardJNI readinessDashboard;
+    private final Object lock;
+    private final Path path;
+    private final Format format;
+
+    private final List<Path> written = new ArrayList<>();
+    private long rowsDone;
+    private long rowsTotal;
+
+    /**
+     * Export the three engines to path. Each page is read while holding lock,
+     * which should be the ScoreDataflow the screens change the engines through,
+     * and released before the page is written, so edits are not held up by the disk.
+     */
+    public PortfolioExport(VendorLockInAnalyzerJNI vendorAnalyzer,
+                           MigrationDifficultyAnalyzerJNI migrationAnalyzer,
+                           ExitReadinessDashboardJNI readinessDashboard,
+                           Object lock, Path path, Format format) {
+        this.vendorAnalyzer = vendorAnalyzer;
+        this.migrationAnalyzer = migrationAnalyzer;
+        this.readinessDashboard = readinessDashboard;
+        this.lock = lock;
+        this.path = path;
+        this.format = format;
+    }
+
+    // Files the export produced; complete once the task has succeeded
+    public List<Path> getWrittenFiles() {
+        return written;
+    }
+
+    @Override
+    protected Long call() throws IOException {
+        synchronized (lock) {
+            rowsTotal = (long) vendorAnalyzer.getVendorCount() + migrationAnalyzer.getTaskCount()
+                + readinessDashboard.getVendorCount();
+        }
+        updateProgress(0, Math.max(1, rowsTotal));
+
+        Table[] tables = {
+            new Table("vendors", VENDOR_COLUMNS, VENDOR_TYPES, this::vendorPage),
+            new Table("tasks", TASK_COLUMNS, TASK_TYPES, this::taskPage),
+            new Table("readiness", READINESS_COLUMNS, READINESS_TYPES, this::readinessPage)
+        };
+        List<Path> temporaries = new ArrayList<>();
+        List<Path> targets = new ArrayList<>();
+        boolean done = false;
+        try {
+            if (format == Format.COLUMNAR) {
+                temporaries.add(temporaryFor(path));
+                targets.add(path);
+                try (ChannelWriter out = new ChannelWriter(temporaries.get(0))) {
+                    out.putInt(MAGIC);
+                    out.putInt(VERSION);
+                    for (Table table : tables) {
+                        exportTable(out, table);
+                    }
+                    out.putInt(0);
+                }
+            } else {
+                for (Table table : tables) {
+                    Path target = csvPath(path, table.name);
+                    temporaries.add(temporaryFor(target));
+                    targets.add(target);
+                    try (ChannelWriter out = new ChannelWriter(temporaries.get(temporaries.size() - 1))) {
+                        exportTable(out, table);
+                    }
+                }
+            }
+            if (isCancelled()) {
+                return rowsDone;
+            }
+            for (int i = 0; i < temporaries.size(); i++) {
+                Files.move(temporaries.get(i), targets.get(i),
+                           StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                written.add(targets.get(i));
+            }
+            done = true;
+            updateMessage("Exported " + rowsDone + " rows");
+            return rowsDone;
+        } finally {
+            if (!done) {
+                for (Path temporary : temporaries) {
+                    Files.deleteIfExists(temporary);
+                }
+            }
+        }
+    }
+
+    // Stream one table page by page; stops early when the task is cancelled
+    private void exportTable(ChannelWriter out, Table table) throws IOException {
+        boolean columnar = format == Format.COLUMNAR;
+        if (columnar) {
+            writeColumnarHeader(out, table);
+        } else {
+            writeCsvHeader(out, table);
+        }
+        for (int offset = 0; !isCancelled(); ) {
+            Page page;
+            synchronized (lock) {
+                page = table.source.readPage(offset);
+            }
+            if (page.rows == 0) {
+                break;
+            }
+            if (columnar) {
+                writeColumnarPage(out, table, page);
+            } else {
+                writeCsvPage(out, table, page);
+            }
+            offset += page.rows;
+            rowsDone += page.rows;
+            updateProgress(Math.min(rowsDone, rowsTotal), Math.max(1, rowsTotal));
+            updateMessage("Exporting " + table.name + ": " + rowsDone + " of about " + rowsTotal + " rows");
+        }
+        if (columnar) {
+            out.putInt(0);
+        }
+    }
+
+    private Page vendorPage(int offset) {
+        ScorePage scores = vendorAnalyzer.getScoresPage(offset, PAGE_SIZE);
+        if (scores.isEmpty()) {
+            return Page.EMPTY;
+        }
+        // Same slots as the score page, read under the same lock hold
+        FeatureColumns inputs = vendorAnalyzer.exportColumns(offset, scores.size(), VENDOR_INPUTS);
+        int rows = Math.min(scores.size(), inputs.size());
+        String[] names = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            names[i] = scores.getVendorName(i);
+        }
+        return new Page(rows, inputs.getIds(), names, scores.getScores(),
+                        inputs.column(0), inputs.column(1), inputs.column(2),
+                        inputs.column(3), inputs.column(4), inputs.column(5));
+    }
+
+    private Page taskPage(int offset) {
+        List<MigrationDifficultyAnalyzerJNI.TaskData> tasks = migrationAnalyzer.getTasksPage(offset, PAGE_SIZE);
+        int rows = tasks.size();
+        String[] vendorIds = new String[rows];
+        String[] ids = new String[rows];
+        String[] names = new String[rows];
+        double[] difficulties = new double[rows];
+        double[] days = new double[rows];
+        String[] dependencies = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            MigrationDifficultyAnalyzerJNI.TaskData task = tasks.get(i);
+            vendorIds[i] = task.vendorId;
+            ids[i] = task.taskId;
+            names[i] = task.taskName;
+            difficulties[i] = task.difficulty;
+            days[i] = task.estimatedDays;
+            dependencies[i] = String.join(";", task.dependencies);
+        }
+        return new Page(rows, vendorIds, ids, names, difficulties, days, dependencies);
+    }
+
+    private Page readinessPage(int offset) {
+        FeatureColumns page = readinessDashboard.exportColumns(offset, PAGE_SIZE, READINESS_FIELDS);
+        Object[] columns = new Object[1 + READINESS_FIELDS.length];
+        columns[0] = page.getIds();
+        for (int c = 0; c < READINESS_FIELDS.length; c++) {
+            columns[1 + c] = page.column(c);
+        }
+        return new Page(page.size(), columns);
+    }
+
+    private static void writeColumnarHeader(ChannelWriter out, Table table) throws IOException {
+        out.putString(table.name);
+        out.putInt(table.columns.length);
+        for (int c = 0; c < table.columns.length; c++) {
+            out.putByte(table.types[c]);
+            out.putString(table.columns[c]);
+        }
+    }
+
+    // One group: each column as a run of its values
+    private static void writeColumnarPage(ChannelWriter out, Table table, Page page) throws IOException {
+        out.putInt(page.rows);
+        for (int c = 0; c < table.types.length; c++) {
+            if (table.types[c] == TYPE_STRING) {
+                String[] values = (String[]) page.columns[c];
+                for (int i = 0; i < page.rows; i++) {
+                    out.putString(values[i] != null ? values[i] : "");
+                }
+                continue;
+            }
+            double[] values = (double[]) page.columns[c];
+            for (int i = 0; i < page.rows; i++) {
+                switch (table.types[c]) {
+                    case TYPE_INT: out.putInt((int) values[i]); break;
+                    case TYPE_BOOLEAN: out.putByte((byte) (values[i] != 0.0 ? 1 : 0)); break;
+                    default: out.putDouble(values[i]);
+                }
+            }
+        }
+    }
+
+    private static void writeCsvHeader(ChannelWriter out, Table table) throws IOException {
+        for (int c = 0; c < table.columns.length; c++) {
+            if (c > 0) {
+                out.putByte((byte) ',');
+            }
+            out.putAscii(table.columns[c]);
+        }
+        out.putByte((byte) '\n');
+    }
+
+    private static void writeCsvPage(ChannelWriter out, Table table, Page page) throws IOException {
+        for (int i = 0; i < page.rows; i++) {
+            for (int c = 0; c < table.types.length; c++) {
+                if (c > 0) {
+                    out.putByte((byte) ',');
+                }
+                if (table.types[c] == TYPE_STRING) {
+                    putCsvString(out, ((String[]) page.columns[c])[i]);
+                    continue;
+                }
+                double value = ((double[]) page.columns[c])[i];
+                switch (table.types[c]) {
+                    case TYPE_INT: out.putAscii(Long.toString((long) value)); break;
+                    case TYPE_BOOLEAN: out.putAscii(value != 0.0 ? "true" : "false"); break;
+                    default:
+                        if (Double.isFinite(value)) { // Empty field for a missing value
+                            out.putAscii(Double.toString(value));
+                        }
+                }
+            }
+            out.putByte((byte) '\n');
+        }
+    }
+
+    // Quote only when needed: commas, quotes or line breaks (RFC 4180)
+    private static void putCsvString(ChannelWriter out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.putUtf8(value);
+            return;
+        }
+        out.putByte((byte) '"');
+        out.putUtf8(value.replace("\"", "\"\""));
+        out.putByte((byte) '"');
+    }
+
+    static Path csvPath(Path path, String table) {
+        String name = path.getFileName().toString();
+        String stem = name.toLowerCase().endsWith(".csv") ? name.substring(0, name.length() - 4) : name;
+        return path.resolveSibling(stem + "." + table + ".csv");
+    }
+
+    private static Path temporaryFor(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    // Reads the page of an engine starting at offset; called with the lock held
+    private interface PageSource {
+        Page readPage(int offset);
+    }
+
+    private static final class Table {
+        final String name;
+        final String[] columns;
+        final byte[] types;
+        final PageSource source;
+
+        Table(String name, String[] columns, byte[] types, PageSource source) {
+            this.name = name;
+            this.columns = columns;
+            this.types = types;
+            this.source = source;
+        }
+    }
+
+    // One engine page: a String[] or double[] per column, of which the first rows entries are valid
+    private static final class Page {
+        static final Page EMPTY = new Page(0);
+
+        final int rows;
+        final Object[] columns;
+
+        Page(int rows, Object... columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * Big-endian writer over a FileChannel with one large direct buffer, which
+     * is handed to the channel whenever it fills
+     */
+    private static final class ChannelWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ChannelWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        // Characters known to be ASCII: numbers and header names
+        void putAscii(String value) throws IOException {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        }
+
+        void putUtf8(String value) throws IOException {
+            putBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Length-prefixed UTF-8
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            for (int position = 0; position < bytes.length; ) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - position);
+                buffer.put(bytes, position, chunk);
+                position += chunk;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.prodly;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Risk-cohort segmentation of the vendor portfolio with mini-batch k-means.
+ * Features are standardized first so contract dollars do not drown out 0-100
+ * scores. Centers are seeded with k-means++ and refined by mini-batch updates:
+ * each random batch is assigned to its nearest centers in parallel, then every
+ * center moves toward its batch points with a learning rate of 1 / (points it
+ * has seen). A final parallel pass assigns every vendor. All passes run over
+ * primitive arrays exported from the engines, split into chunks on the
+ * fork-join pool; results depend only on the seed.
+ */
+public class PortfolioSegmenter {
+
+    // Lock-in terms held by VendorLockInAnalyzerJNI
+    public static final ScoreQuery.Field[] LOCK_IN_FEATURES = {
+        ScoreQuery.Field.LOCK_IN_SCORE, ScoreQuery.Field.CONTRACT_VALUE,
+        ScoreQuery.Field.CONTRACT_MONTHS, ScoreQuery.Field.DATA_VOLUME_GB,
+        ScoreQuery.Field.API_DEPENDENCIES, ScoreQuery.Field.CUSTOM_INTEGRATION,
+        ScoreQuery.Field.SWITCHING_COST
+    };
+
+    // Readiness inputs held by ExitReadinessDashboardJNI
+    public static final ScoreQuery.Field[] READINESS_FEATURES = {
+        ScoreQuery.Field.EXIT_READINESS, ScoreQuery.Field.MIGRATION_DIFFICULTY,
+        ScoreQuery.Field.DATA_EXPORT_CAPABILITY, ScoreQuery.Field.CONTRACT_FLEXIBILITY,
+        ScoreQuery.Field.TECHNICAL_COMPLEXITY
+    };
+
+    private final int k;
+    private int batchSize = 4096;
+    private int maxIterations = 300;
+    private double tolerance = 1e-3;
+    private long seed = 42L;
+
+    public PortfolioSegmenter(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+    }
+
+    public PortfolioSegmenter batchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public PortfolioSegmenter maxIterations(int maxIterations) {
+        this.maxIterations = Math.max(0, maxIterations);
+        return this;
+    }
+
+    // Stop once no center moves further than this (standardized units) in one batch
+    public PortfolioSegmenter tolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public PortfolioSegmenter seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Lock-in and readiness features of the vendors known to both engines
+     * (inner join on vendor id), two column exports in total
+     */
+    public static FeatureColumns portfolioFeatures(VendorLockInAnalyzerJNI analyzer,
+                                                   ExitReadinessDashboardJNI dashboard) {
+        return analyzer.exportColumns(LOCK_IN_FEATURES).join(dashboard.exportColumns(READINESS_FEATURES));
+    }
+
+    public PortfolioSegments fit(FeatureColumns data) {
+        int n = data.size();
+        int d = data.dimensions();
+        if (n == 0) {
+            throw new IllegalArgumentException("No vendors to segment");
+        }
+        int clusters = Math.min(k, n);
+
+        double[] mean = new double[d];
+        double[] scale = new double[d];
+        IntStream.range(0, d).parallel().forEach(j -> {
+            double[] column = data.column(j);
+            double sum = 0.0;
+            for (double value : column) {
+                sum += value;
+            }
+            double average = sum / n;
+            double squares = 0.0;
+            for (double value : column) {
+                squares += (value - average) * (value - average);
+            }
+            double deviation = Math.sqrt(squares / n);
+            mean[j] = average;
+            scale[j] = deviation > 0 ? 1.0 / deviation : 1.0; // Constant columns stay at 0
+        });
+        double[] points = PortfolioSegments.standardize(data, mean, scale);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] centers = seedCenters(points, n, d, clusters, random);
+        long[] counts = new long[clusters];
+        refine(points, n, d, clusters, centers, counts, random);
+
+        PortfolioSegments segments = new PortfolioSegments(data.getFields(), clusters, mean, scale, centers, counts);
+        segments.assignAll(data.getIds(), points, n);
+        return segments;
+    }
+
+    /**
+     * Greedy k-means++: each further center is the best of a few candidates drawn
+     * with probability proportional to squared distance from the chosen centers,
+     * judged by the total squared distance it would leave
+     */
+    private static double[] seedCenters(double[] points, int n, int d, int clusters, SplittableRandom random) {
+        double[] centers = new double[clusters * d];
+        System.arraycopy(points, random.nextInt(n) * d, centers, 0, d);
+
+        int chunks = PortfolioSegments.chunkCount(n);
+        int chunkSize = (n + chunks - 1) / chunks;
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        double[] chunkTotals = new double[chunks];
+        fold(points, n, d, centers, 0, nearest, chunkTotals, chunkSize, true);
+
+        int trials = 2 + (int) Math.log(clusters);
+        double[] candidateTotals = new double[chunks];
+        for (int c = 1; c < clusters; c++) {
+            int best = -1;
+            double bestPotential = Double.POSITIVE_INFINITY;
+            for (int trial = 0; trial < trials; trial++) {
+                int candidate = sample(nearest, chunkTotals, chunkSize, random);
+                double potential = fold(points, n, d, points, candidate * d, nearest, candidateTotals,
+                                        chunkSize, false);
+                if (potential < bestPotential) {
+                    bestPotential = potential;
+                    best = candidate;
+                }
+            }
+            System.arraycopy(points, best * d, centers, c * d, d);
+            fold(points, n, d, centers, c * d, nearest, chunkTotals, chunkSize, true);
+        }
+        return centers;
+    }
+
+    /**
+     * Total squared distance to the nearest center if center were added, summed
+     * per chunk; with update set, nearest and chunkTotals take the new values
+     */
+    private static double fold(double[] points, int n, int d, double[] center, int centerOffset,
+                               double[] nearest, double[] chunkTotals, int chunkSize, boolean update) {
+        IntStream.range(0, chunkTotals.length).parallel().forEach(chunk -> {
+            int first = chunk * chunkSize;
+            int last = Math.min(n, first + chunkSize);
+            double sum = 0.0;
+            for (int i = first; i < last; i++) {
+                double distance = Math.min(nearest[i],
+                                           PortfolioSegments.squaredDistance(points, i * d, center, centerOffset, d));
+                if (update) {
+                    nearest[i] = distance;
+                }
+                sum += distance;
+            }
+            chunkTotals[chunk] = sum;
+        });
+
+        double total = 0.0;
+        for (double sum : chunkTotals) {
+            total += sum;
+        }
+        return total;
+    }
+
+    // Draw a row with probability proportional to its nearest distance, locating the chunk first
+    private static int sample(double[] nearest, double[] chunkTotals, int chunkSize, SplittableRandom random) {
+        double total = 0.0;
+        for (double sum : chunkTotals) {
+            total += sum;
+        }
+        int n = nearest.length;
+        if (total <= 0) {
+            return random.nextInt(n); // Every row sits on a center: any choice is as good
+        }
+
+        double target = random.nextDouble() * total;
+        int chunk = 0;
+        while (chunk < chunkTotals.length - 1 && target >= chunkTotals[chunk]) {
+            target -= chunkTotals[chunk++];
+        }
+        int last = Math.min(n, (chunk + 1) * chunkSize);
+        for (int i = chunk * chunkSize; i < last; i++) {
+            target -= nearest[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return last - 1;
+    }
+
+    private void refine(double[] points, int n, int d, int clusters, double[] centers, long[] counts,
+                        SplittableRandom random) {
+        int batch = Math.min(batchSize, n);
+        int[] sample = new int[batch];
+        int[] assigned = new int[batch];
+        double[] previous = new double[centers.length];
+        int chunks = PortfolioSegments.chunkCount(batch);
+        int chunkSize = (batch + chunks - 1) / chunks;
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            for (int i = 0; i < batch; i++) {
+                sample[i] = random.nextInt(n);
+            }
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int first = chunk * chunkSize;
+                int last = Math.min(batch, first + chunkSize);
+                for (int i = first; i < last; i++) {
+                    assigned[i] = PortfolioSegments.nearestCenter(points, sample[i] * d, centers, clusters, d);
+                }
+            });
+
+            System.arraycopy(centers, 0, previous, 0, centers.length);
+            for (int i = 0; i < batch; i++) {
+                PortfolioSegments.moveCenter(centers, counts, assigned[i], points, sample[i] * d, d);
+            }
+
+            double movement = 0.0;
+            for (int c = 0; c < clusters; c++) {
+                movement = Math.max(movement, PortfolioSegments.squaredDistance(centers, c * d, previous, c * d, d));
+            }
+            if (Math.sqrt(movement) <= tolerance) {
+                break;
+            }
+        }
+    }
+}
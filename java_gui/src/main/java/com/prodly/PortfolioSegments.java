@@ -0,0 +1,207 @@
+package com.prodly;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Result of a portfolio segmentation: the cohort of every vendor and the cohort
+ * centroids. New vendors can be folded in with {@link #addVendors}, which assigns
+ * them to the nearest centroid and moves the centroids with the same mini-batch
+ * rule used while fitting, without re-clustering the portfolio.
+ */
+public class PortfolioSegments {
+    private final List<ScoreQuery.Field> fields;
+    private final int k;
+    private final int dimensions;
+    private final double[] mean;
+    private final double[] scale;   // 1 / standard deviation
+    private final double[] centers; // Standardized units, row-major k x dimensions
+    private final long[] counts;    // Points seen per center (mini-batch learning rate)
+    private final int[] sizes;
+    private String[] ids = new String[0];
+    private int[] assignments = new int[0];
+    private double[] distances = new double[0]; // Squared distance to the assigned center, per row
+    private final Map<String, Integer> rows = new HashMap<>();
+    private int size;
+    private double inertia;
+
+    PortfolioSegments(List<ScoreQuery.Field> fields, int k, double[] mean, double[] scale,
+                      double[] centers, long[] counts) {
+        this.fields = fields;
+        this.k = k;
+        this.dimensions = fields.size();
+        this.mean = mean;
+        this.scale = scale;
+        this.centers = centers;
+        this.counts = counts;
+        this.sizes = new int[k];
+    }
+
+    /**
+     * Assign new vendors to their nearest cohort and update the centroids.
+     * Vendors not in the batch keep their assignment; a vendor already held is
+     * reassigned in its row rather than added twice. Returns the cohort of each
+     * row of the batch.
+     */
+    public int[] addVendors(FeatureColumns vendors) {
+        if (!vendors.getFields().equals(fields)) {
+            throw new IllegalArgumentException("Expected features " + fields);
+        }
+        int n = vendors.size();
+        double[] points = standardize(vendors, mean, scale);
+        int[] assigned = new int[n];
+        double[] distance = new double[n];
+        assign(points, n, assigned, distance);
+
+        // Same per-center learning rate as the mini-batch iterations
+        for (int i = 0; i < n; i++) {
+            moveCenter(centers, counts, assigned[i], points, i * dimensions, dimensions);
+        }
+        store(vendors.getIds(), assigned, distance, n);
+        return assigned;
+    }
+
+    // Parallel nearest-center pass over all fitted vendors
+    void assignAll(String[] vendorIds, double[] points, int n) {
+        int[] assigned = new int[n];
+        double[] distance = new double[n];
+        assign(points, n, assigned, distance);
+        store(vendorIds, assigned, distance, n);
+    }
+
+    private void assign(double[] points, int n, int[] assigned, double[] distance) {
+        int chunks = chunkCount(n);
+        int chunkSize = (n + chunks - 1) / chunks;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int first = chunk * chunkSize;
+            int last = Math.min(n, first + chunkSize);
+            for (int i = first; i < last; i++) {
+                int center = nearestCenter(points, i * dimensions, centers, k, dimensions);
+                assigned[i] = center;
+                distance[i] = squaredDistance(points, i * dimensions, centers, center * dimensions, dimensions);
+            }
+        });
+    }
+
+    // Append new ids; an id already held (or repeated in the batch) replaces its row
+    private void store(String[] vendorIds, int[] assigned, double[] distance, int n) {
+        if (size + n > ids.length) {
+            int capacity = Math.max(size + n, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            assignments = Arrays.copyOf(assignments, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+        }
+        for (int i = 0; i < n; i++) {
+            Integer existing = rows.putIfAbsent(vendorIds[i], size);
+            int row = existing != null ? existing : size++;
+            if (existing != null) {
+                sizes[assignments[row]]--;
+                inertia -= distances[row];
+            }
+            ids[row] = vendorIds[i];
+            assignments[row] = assigned[i];
+            distances[row] = distance[i];
+            sizes[assigned[i]]++;
+            inertia += distance[i];
+        }
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<ScoreQuery.Field> getFields() {
+        return fields;
+    }
+
+    public String getId(int row) {
+        return ids[row];
+    }
+
+    public int getAssignment(int row) {
+        return assignments[row];
+    }
+
+    public int[] getAssignments() {
+        return Arrays.copyOf(assignments, size);
+    }
+
+    public int[] getSizes() {
+        return sizes.clone();
+    }
+
+    // Sum of squared standardized distances to the assigned centroid, at assignment time
+    public double getInertia() {
+        return inertia;
+    }
+
+    // Centroids in the original units of each field, one row per cohort
+    public double[][] getCentroids() {
+        double[][] result = new double[k][dimensions];
+        for (int c = 0; c < k; c++) {
+            for (int j = 0; j < dimensions; j++) {
+                result[c][j] = centers[c * dimensions + j] / scale[j] + mean[j];
+            }
+        }
+        return result;
+    }
+
+    // Shared with PortfolioSegmenter
+
+    static int chunkCount(int n) {
+        return Math.max(1, Math.min(n, Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    // Row-major copy of the columns as z-scores
+    static double[] standardize(FeatureColumns data, double[] mean, double[] scale) {
+        int n = data.size();
+        int d = data.dimensions();
+        double[] points = new double[n * d];
+        IntStream.range(0, d).parallel().forEach(j -> {
+            double[] column = data.column(j);
+            for (int i = 0; i < n; i++) {
+                points[i * d + j] = (column[i] - mean[j]) * scale[j];
+            }
+        });
+        return points;
+    }
+
+    static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int d) {
+        double sum = 0.0;
+        for (int j = 0; j < d; j++) {
+            double diff = a[aOffset + j] - b[bOffset + j];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    static int nearestCenter(double[] points, int offset, double[] centers, int k, int d) {
+        int best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < k; c++) {
+            double distance = squaredDistance(points, offset, centers, c * d, d);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Move a center toward a point with learning rate 1 / (points seen by the center)
+    static void moveCenter(double[] centers, long[] counts, int center, double[] points, int offset, int d) {
+        counts[center]++;
+        double rate = 1.0 / counts[center];
+        int base = center * d;
+        for (int j = 0; j < d; j++) {
+            centers[base + j] += rate * (points[offset + j] - centers[base + j]);
+        }
+    }
+}
@@ -9,6 +9,9 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.stage.Screen;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * Main Application Class
  * Professional SaaS Vendor Lock-In Analysis Dashboard
@@ -26,6 +29,12 @@ public class ProdlyApplication extends Application {
     private MigrationDifficultyScreen migrationDifficultyScreen;
     private ExitReadinessScreen exitReadinessScreen;
     
+    // Engines shared by the screens, so scores computed in one module can feed the others
+    private VendorLockInAnalyzerJNI vendorAnalyzer;
+    private MigrationDifficultyAnalyzerJNI migrationAnalyzer;
+    private ExitReadinessDashboardJNI readinessDashboard;
+    private ScoreDataflow scoreDataflow;
+    
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
@@ -162,12 +171,47 @@ public class ProdlyApplication extends Application {
         });
     }
     
+    public VendorLockInAnalyzerJNI getVendorAnalyzer() {
+        if (vendorAnalyzer == null) {
+            vendorAnalyzer = new VendorLockInAnalyzerJNI();
+        }
+        return vendorAnalyzer;
+    }
+    
+    public MigrationDifficultyAnalyzerJNI getMigrationAnalyzer() {
+        if (migrationAnalyzer == null) {
+            migrationAnalyzer = new MigrationDifficultyAnalyzerJNI();
+        }
+        return migrationAnalyzer;
+    }
+    
+    public ExitReadinessDashboardJNI getReadinessDashboard() {
+        if (readinessDashboard == null) {
+            readinessDashboard = new ExitReadinessDashboardJNI();
+        }
+        return readinessDashboard;
+    }
+    
+    // Keeps readiness in step with lock-in and migration changes made on the screens
+    public ScoreDataflow getScoreDataflow() {
+        if (scoreDataflow == null) {
+            scoreDataflow = new ScoreDataflow(getVendorAnalyzer(), getMigrationAnalyzer(),
+                                              getReadinessDashboard());
+        }
+        return scoreDataflow;
+    }
+    
     public void showToast(String message, String type) {
         // Toast notification implementation
         // This would show a temporary notification
     }
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // --server [--port N] runs the engines headless over HTTP instead of the GUI
+        if (Arrays.asList(args).contains("--server")) {
+            ProdlyServer.main(args);
+            return;
+        }
         launch(args);
     }
 }
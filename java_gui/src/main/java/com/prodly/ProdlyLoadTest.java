@@ -0,0 +1,214 @@
+package com.prodly;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for ProdlyServer. Seeds vendors through the binary batch
+ * endpoint, then runs closed-loop clients for a fixed time and prints the
+ * throughput and latency percentiles.
+ * <pre>
+ * java -cp ... com.prodly.ProdlyLoadTest [--url http://127.0.0.1:8080] [--clients 16]
+ *     [--seconds 10] [--vendors 10000] [--mode json|batch] [--batch 100] [--writes 10]
+ * </pre>
+ * json: each request is a GET /lockin/score, or a POST /lockin/vendors for
+ * `writes` percent of them. batch: each request is a POST /lockin/batch of
+ * `batch` score lookups.
+ */
+public final class ProdlyLoadTest {
+    private final HttpClient client;
+    private final String url;
+    private final int vendors;
+    private final String mode;
+    private final int batchSize;
+    private final int writePercent;
+
+    private final AtomicLong errors = new AtomicLong();
+
+    private ProdlyLoadTest(String url, int vendors, String mode, int batchSize, int writePercent, int clients) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(Math.max(2, clients)))
+            .build();
+        this.url = url;
+        this.vendors = vendors;
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.writePercent = writePercent;
+    }
+
+    private static void writeVendor(DataOutputStream out, int index, Random random) throws IOException {
+        out.writeByte(ProdlyServer.BATCH_ADD);
+        out.writeUTF("LT-" + index);
+        out.writeUTF("Load test vendor " + index);
+        out.writeDouble(random.nextDouble() * 1_000_000);
+        out.writeInt(1 + random.nextInt(60));
+        out.writeDouble(random.nextDouble() * 50_000);
+        out.writeInt(random.nextInt(50));
+        out.writeBoolean(random.nextBoolean());
+        out.writeDouble(random.nextDouble() * 200_000);
+    }
+
+    private HttpResponse<byte[]> post(String path, byte[] body, String contentType) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + path))
+            .header("Content-Type", contentType)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        Random random = new Random(42);
+        for (int start = 0; start < vendors; start += 1000) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int i = start; i < Math.min(vendors, start + 1000); i++) {
+                writeVendor(out, i, random);
+            }
+            HttpResponse<byte[]> response = post("/lockin/batch", bytes.toByteArray(), "application/octet-stream");
+            if (response.statusCode() != 200) {
+                throw new IOException("Seeding failed with " + response.statusCode() + ": "
+                                      + new String(response.body(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // One request of the configured mix; false if the server did not answer 200
+    private boolean request(Random random) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response;
+        if ("batch".equals(mode)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int i = 0; i < batchSize; i++) {
+                out.writeByte(ProdlyServer.BATCH_SCORE);
+                out.writeUTF("LT-" + random.nextInt(vendors));
+            }
+            response = post("/lockin/batch", bytes.toByteArray(), "application/octet-stream");
+        } else if (random.nextInt(100) < writePercent) {
+            int index = random.nextInt(vendors);
+            String json = "{\"vendorId\":\"LT-" + index + "\",\"vendorName\":\"Load test vendor " + index
+                + "\",\"contractValue\":" + random.nextInt(1_000_000) + ",\"contractMonths\":" + (1 + random.nextInt(60))
+                + ",\"dataVolumeGB\":" + random.nextInt(50_000) + ",\"apiDependencies\":" + random.nextInt(50)
+                + ",\"hasCustomIntegration\":" + random.nextBoolean() + ",\"switchingCost\":" + random.nextInt(200_000) + "}";
+            response = post("/lockin/vendors", json.getBytes(StandardCharsets.UTF_8), "application/json");
+        } else {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/lockin/score?vendorId=LT-" + random.nextInt(vendors)))
+                .GET().build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        return response.statusCode() == 200;
+    }
+
+    private long[] run(int clients, long durationNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNanos;
+        List<long[]> perClient = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            perClient.add(null);
+            int slot = c;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(slot);
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        if (!request(random)) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                long[] recorded = Arrays.copyOf(latencies, count);
+                synchronized (perClient) {
+                    perClient.set(slot, recorded);
+                }
+            }, "load-client-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int total = 0;
+        for (long[] latencies : perClient) {
+            total += latencies.length;
+        }
+        long[] all = new long[total];
+        int position = 0;
+        for (long[] latencies : perClient) {
+            System.arraycopy(latencies, 0, all, position, latencies.length);
+            position += latencies.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static double percentileMillis(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(q * sorted.length) - 1));
+        return sorted[index] / 1e6;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = "http://127.0.0.1:8080";
+        int clients = 16;
+        int seconds = 10;
+        int vendors = 10000;
+        String mode = "json";
+        int batchSize = 100;
+        int writePercent = 10;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--clients": clients = Integer.parseInt(args[i + 1]); break;
+                case "--seconds": seconds = Integer.parseInt(args[i + 1]); break;
+                case "--vendors": vendors = Integer.parseInt(args[i + 1]); break;
+                case "--mode": mode = args[i + 1]; break;
+                case "--batch": batchSize = Integer.parseInt(args[i + 1]); break;
+                case "--writes": writePercent = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ProdlyLoadTest test = new ProdlyLoadTest(url, vendors, mode, batchSize, writePercent, clients);
+        test.seed();
+        test.run(clients, 2_000_000_000L); // Warm up the JIT on both sides
+        test.errors.set(0);
+
+        long start = System.nanoTime();
+        long[] latencies = test.run(clients, seconds * 1_000_000_000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double throughput = latencies.length / elapsed;
+        System.out.printf("%s mode, %d clients, %.1f s: %d requests, %d errors, %.0f requests/s%s%n",
+                          mode, clients, elapsed, latencies.length, test.errors.get(), throughput,
+                          "batch".equals(mode) ? String.format(" (%.0f lookups/s)", throughput * batchSize) : "");
+        System.out.printf("latency ms: p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%n",
+                          percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.9),
+                          percentileMillis(latencies, 0.99), percentileMillis(latencies, 0.999),
+                          percentileMillis(latencies, 1.0));
+        System.exit(0); // The client's executor threads are not daemons
+    }
+}
@@ -0,0 +1,550 @@
+package com.prodly;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Headless HTTP service over the three engines, for programs rather than the
+ * GUI. Start it with {@code ProdlyApplication --server [--port 8080]}.
+ *
+ * JSON endpoints (GET parameters in the query string, POST bodies as objects):
+ * <pre>
+ * GET  /health
+ * POST /lockin/vendors       vendorId, vendorName, contractValue, contractMonths, dataVolumeGB,
+ *                            apiDependencies, hasCustomIntegration, switchingCost
+ * GET  /lockin/score         vendorId
+ * GET  /lockin/top           offset, limit
+ * GET  /lockin/sketch
+ * POST /migration/tasks      vendorId, taskId, taskName, difficulty, estimatedDays, dependencies
+ * GET  /migration/difficulty vendorId
+ * POST /readiness/vendors    vendorId, lockInScore, migrationDifficulty, dataExportCapability,
+ *                            contractFlexibility, technicalComplexity
+ * GET  /readiness/score      vendorId
+ * GET  /readiness/ranking    offset, limit
+ * </pre>
+ * and a binary batch endpoint, {@code POST /lockin/batch}, whose body is a
+ * sequence of operations in DataOutput encoding: BATCH_ADD followed by a
+ * vendor record in the ShardProtocol layout, or BATCH_SCORE followed by a
+ * vendor id. The response holds one double per operation: the vendor's score
+ * after it.
+ *
+ * Each exchange runs on a virtual thread when the JDK has them (21+), and on a
+ * fixed pool of platform threads otherwise. The engines are not thread-safe,
+ * so each is guarded by a read-write lock: score lookups, pages and sketches
+ * of the lock-in and readiness engines share it, everything else (including
+ * every migration call, which fills caches) holds it exclusively. The locks
+ * are java.util.concurrent locks rather than monitors, so a virtual thread
+ * waiting for an engine does not pin its carrier thread.
+ */
+public final class ProdlyServer implements AutoCloseable {
+    static final byte BATCH_ADD = 1;
+    static final byte BATCH_SCORE = 2;
+
+    private static final int MAX_PAGE = 10000;
+
+    private final VendorLockInAnalyzerJNI vendorAnalyzer;
+    private final MigrationDifficultyAnalyzerJNI migrationAnalyzer;
+    private final ExitReadinessDashboardJNI readinessDashboard;
+    private final ReadWriteLock vendorLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock migrationLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock readinessLock = new ReentrantReadWriteLock();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    // An operation on an engine that may fail with a message for the client
+    private interface Handler {
+        Response handle(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    private static final class Response {
+        final String contentType;
+        final byte[] body;
+
+        Response(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response json(StringBuilder json) {
+            return new Response("application/json", json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // Request the client got wrong: answered with the status and message
+    private static final class ClientError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ClientError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final Map<String, Handler> getHandlers = new HashMap<>();
+    private final Map<String, Handler> postHandlers = new HashMap<>();
+
+    public ProdlyServer(InetSocketAddress address, VendorLockInAnalyzerJNI vendorAnalyzer,
+                        MigrationDifficultyAnalyzerJNI migrationAnalyzer,
+                        ExitReadinessDashboardJNI readinessDashboard) throws IOException {
+        this.vendorAnalyzer = vendorAnalyzer;
+        this.migrationAnalyzer = migrationAnalyzer;
+        this.readinessDashboard = readinessDashboard;
+
+        getHandlers.put("/health", (exchange, query) -> health());
+        postHandlers.put("/lockin/vendors", (exchange, query) -> addVendor(readJson(exchange)));
+        getHandlers.put("/lockin/score", (exchange, query) -> lockInScore(required(query, "vendorId")));
+        getHandlers.put("/lockin/top", (exchange, query) -> topScores(query));
+        getHandlers.put("/lockin/sketch", (exchange, query) -> lockInSketch());
+        postHandlers.put("/lockin/batch", (exchange, query) -> batch(exchange.getRequestBody()));
+        postHandlers.put("/migration/tasks", (exchange, query) -> addTask(readJson(exchange)));
+        getHandlers.put("/migration/difficulty", (exchange, query) -> difficulty(required(query, "vendorId")));
+        postHandlers.put("/readiness/vendors", (exchange, query) -> addReadiness(readJson(exchange)));
+        getHandlers.put("/readiness/score", (exchange, query) -> readiness(required(query, "vendorId")));
+        getHandlers.put("/readiness/ranking", (exchange, query) -> readinessRanking(query));
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual
+            : Executors.newFixedThreadPool(Math.max(8, 4 * Runtime.getRuntime().availableProcessors()));
+        // The server writes headers and body separately; without TCP_NODELAY small
+        // responses wait out the client's delayed ACK (about 40 ms each). Read
+        // once when the first server is created, so an explicit setting wins.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when this JDK has it; the
+    // source level predates virtual threads, so it is looked up reflectively
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // Before JDK 21, or preview features disabled
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stop accepting requests, wait up to a second for those in progress, and
+     * release the threads. The engines stay open; they belong to the caller.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            Handler handler = ("POST".equals(method) ? postHandlers : getHandlers).get(path);
+            Response response;
+            int status = 200;
+            try {
+                if (handler == null) {
+                    boolean known = getHandlers.containsKey(path) || postHandlers.containsKey(path);
+                    throw new ClientError(known ? 405 : 404, known ? "Method not allowed: " + method : "Not found: " + path);
+                }
+                response = handler.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (ClientError e) {
+                status = e.status;
+                response = error(e.getMessage());
+            } catch (IllegalArgumentException | EOFException e) {
+                status = 400;
+                response = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                response = error(e.toString());
+            }
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            exchange.sendResponseHeaders(status, response.body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Response error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.quote(json, message != null ? message : "Unexpected error");
+        return Response.json(json.append('}'));
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static Map<String, Object> readJson(HttpExchange exchange) throws IOException {
+        return Json.parseObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue, int max) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Negative parameter: " + name);
+            }
+            return Math.min(parsed, max);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an integer: " + name + "=" + value);
+        }
+    }
+
+    private static String string(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String) || ((String) value).isEmpty()) {
+            throw new IllegalArgumentException("Missing string field: " + name);
+        }
+        return (String) value;
+    }
+
+    private static double number(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Missing number field: " + name);
+        }
+        return (Double) value;
+    }
+
+    private static int integer(Map<String, Object> body, String name) {
+        double value = number(body, name);
+        if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Not an integer: " + name);
+        }
+        return (int) value;
+    }
+
+    private static boolean bool(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException("Missing boolean field: " + name);
+        }
+        return (Boolean) value;
+    }
+
+    // A disk-backed analyzer moves pages through its cache on every read
+    private Lock vendorReadLock() {
+        return vendorAnalyzer.isDiskBacked() ? vendorLock.writeLock() : vendorLock.readLock();
+    }
+
+    private Response health() {
+        StringBuilder json = new StringBuilder("{\"status\":\"ok\",\"virtualThreads\":").append(virtualThreads);
+        return Response.json(json.append('}'));
+    }
+
+    private Response addVendor(Map<String, Object> body) {
+        String vendorId = string(body, "vendorId");
+        Object name = body.get("vendorName");
+        double score;
+        Lock lock = vendorLock.writeLock();
+        lock.lock();
+        try {
+            vendorAnalyzer.addVendor(vendorId, name instanceof String ? (String) name : vendorId,
+                                     number(body, "contractValue"), integer(body, "contractMonths"),
+                                     number(body, "dataVolumeGB"), integer(body, "apiDependencies"),
+                                     bool(body, "hasCustomIntegration"), number(body, "switchingCost"));
+            score = vendorAnalyzer.calculateLockInScore(vendorId);
+        } finally {
+            lock.unlock();
+        }
+        return scoreResponse(vendorId, "score", score);
+    }
+
+    private Response lockInScore(String vendorId) {
+        double score;
+        Lock lock = vendorReadLock();
+        lock.lock();
+        try {
+            score = vendorAnalyzer.calculateLockInScore(vendorId);
+        } finally {
+            lock.unlock();
+        }
+        return scoreResponse(vendorId, "score", score);
+    }
+
+    private static Response scoreResponse(String vendorId, String field, double score) {
+        StringBuilder json = new StringBuilder("{\"vendorId\":");
+        Json.quote(json, vendorId).append(",\"").append(field).append("\":");
+        return Response.json(Json.number(json, score).append('}'));
+    }
+
+    private Response topScores(Map<String, String> query) {
+        int offset = intParameter(query, "offset", 0, Integer.MAX_VALUE);
+        int limit = intParameter(query, "limit", 10, MAX_PAGE);
+        ScorePage page;
+        Lock lock = vendorReadLock();
+        lock.lock();
+        try {
+            page = vendorAnalyzer.getTopScores(offset, limit);
+        } finally {
+            lock.unlock();
+        }
+        return pageResponse(page, "score");
+    }
+
+    private static Response pageResponse(ScorePage page, String field) {
+        StringBuilder json = new StringBuilder("{\"version\":").append(page.getVersion())
+            .append(",\"offset\":").append(page.getOffset()).append(",\"vendors\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) json.append(',');
+            Json.quote(json.append("{\"vendorId\":"), page.getVendorId(i)).append(",\"").append(field).append("\":");
+            Json.number(json, page.getScore(i)).append('}');
+        }
+        return Response.json(json.append("]}"));
+    }
+
+    private Response lockInSketch() {
+        ScoreSketch sketch;
+        Lock lock = vendorReadLock();
+        lock.lock();
+        try {
+            sketch = vendorAnalyzer.getScoreSketch();
+        } finally {
+            lock.unlock();
+        }
+        StringBuilder json = new StringBuilder("{\"count\":").append(sketch.getCount());
+        Json.number(json.append(",\"mean\":"), sketch.getMean());
+        Json.number(json.append(",\"standardDeviation\":"), sketch.getStandardDeviation());
+        Json.number(json.append(",\"min\":"), sketch.getMin());
+        Json.number(json.append(",\"p50\":"), sketch.quantile(0.5));
+        Json.number(json.append(",\"p90\":"), sketch.quantile(0.9));
+        Json.number(json.append(",\"p99\":"), sketch.quantile(0.99));
+        Json.number(json.append(",\"max\":"), sketch.getMax());
+        return Response.json(json.append('}'));
+    }
+
+    // Parse the whole batch before taking the lock, so a malformed body changes nothing
+    private Response batch(InputStream body) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body));
+        List<Object[]> operations = new ArrayList<>();
+        boolean writes = false;
+        int op;
+        while ((op = in.read()) >= 0) {
+            if (op == BATCH_ADD) {
+                operations.add(new Object[] { in.readUTF(), in.readUTF(), in.readDouble(), in.readInt(),
+                                              in.readDouble(), in.readInt(), in.readBoolean(), in.readDouble() });
+                writes = true;
+            } else if (op == BATCH_SCORE) {
+                operations.add(new Object[] { in.readUTF() });
+            } else {
+                throw new IllegalArgumentException("Unknown batch operation: " + op);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * operations.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        Lock lock = writes ? vendorLock.writeLock() : vendorReadLock();
+        lock.lock();
+        try {
+            for (Object[] operation : operations) {
+                String vendorId = (String) operation[0];
+                if (operation.length > 1) {
+                    String name = (String) operation[1];
+                    vendorAnalyzer.addVendor(vendorId, name.isEmpty() ? vendorId : name,
+                                             (Double) operation[2], (Integer) operation[3],
+                                             (Double) operation[4], (Integer) operation[5],
+                                             (Boolean) operation[6], (Double) operation[7]);
+                }
+                out.writeDouble(vendorAnalyzer.calculateLockInScore(vendorId));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new Response("application/octet-stream", bytes.toByteArray());
+    }
+
+    private Response addTask(Map<String, Object> body) {
+        String vendorId = string(body, "vendorId");
+        String taskId = string(body, "taskId");
+        Object name = body.get("taskName");
+        List<String> dependencies = new ArrayList<>();
+        Object listed = body.get("dependencies");
+        if (listed instanceof List) {
+            for (Object dependency : (List<?>) listed) {
+                if (!(dependency instanceof String)) {
+                    throw new IllegalArgumentException("Dependencies must be task id strings");
+                }
+                dependencies.add((String) dependency);
+            }
+        } else if (listed != null) {
+            throw new IllegalArgumentException("Dependencies must be an array");
+        }
+        boolean added;
+        Lock lock = migrationLock.writeLock();
+        lock.lock();
+        try {
+            added = migrationAnalyzer.addTaskForVendor(vendorId, taskId, name instanceof String ? (String) name : taskId,
+                                                       integer(body, "difficulty"), integer(body, "estimatedDays"),
+                                                       dependencies.toArray(new String[0]));
+        } finally {
+            lock.unlock();
+        }
+        StringBuilder json = new StringBuilder("{\"taskId\":");
+        Json.quote(json, taskId).append(",\"added\":").append(added);
+        return Response.json(json.append('}'));
+    }
+
+    private Response difficulty(String vendorId) {
+        double difficulty;
+        int days;
+        String[] sequence;
+        Lock lock = migrationLock.writeLock();
+        lock.lock();
+        try {
+            difficulty = migrationAnalyzer.calculateMigrationDifficulty(vendorId);
+            days = migrationAnalyzer.getTotalMigrationDays(vendorId);
+            sequence = migrationAnalyzer.getOptimalMigrationSequence(vendorId);
+        } finally {
+            lock.unlock();
+        }
+        StringBuilder json = new StringBuilder("{\"vendorId\":");
+        Json.quote(json, vendorId).append(",\"difficulty\":");
+        Json.number(json, difficulty).append(",\"totalDays\":").append(days).append(",\"sequence\":[");
+        for (int i = 0; i < sequence.length; i++) {
+            if (i > 0) json.append(',');
+            Json.quote(json, sequence[i]);
+        }
+        return Response.json(json.append("]}"));
+    }
+
+    private Response addReadiness(Map<String, Object> body) {
+        String vendorId = string(body, "vendorId");
+        double readiness;
+        Lock lock = readinessLock.writeLock();
+        lock.lock();
+        try {
+            readinessDashboard.addVendorMetrics(vendorId, number(body, "lockInScore"),
+                                                number(body, "migrationDifficulty"),
+                                                integer(body, "dataExportCapability"),
+                                                integer(body, "contractFlexibility"),
+                                                integer(body, "technicalComplexity"));
+            readiness = readinessDashboard.calculateExitReadiness(vendorId);
+        } finally {
+            lock.unlock();
+        }
+        return scoreResponse(vendorId, "readiness", readiness);
+    }
+
+    private Response readiness(String vendorId) {
+        double readiness;
+        Lock lock = readinessLock.readLock();
+        lock.lock();
+        try {
+            readiness = readinessDashboard.calculateExitReadiness(vendorId);
+        } finally {
+            lock.unlock();
+        }
+        return scoreResponse(vendorId, "readiness", readiness);
+    }
+
+    private Response readinessRanking(Map<String, String> query) {
+        int offset = intParameter(query, "offset", 0, Integer.MAX_VALUE);
+        int limit = intParameter(query, "limit", 10, MAX_PAGE);
+        ScorePage page;
+        Lock lock = readinessLock.readLock();
+        lock.lock();
+        try {
+            page = readinessDashboard.getReadinessPage(offset, limit);
+        } finally {
+            lock.unlock();
+        }
+        return pageResponse(page, "readiness");
+    }
+
+    /**
+     * Serve empty engines until the process is stopped. Arguments: [--port N] (default 8080)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            }
+        }
+        VendorLockInAnalyzerJNI vendorAnalyzer = new VendorLockInAnalyzerJNI(false);
+        MigrationDifficultyAnalyzerJNI migrationAnalyzer = new MigrationDifficultyAnalyzerJNI(false);
+        ExitReadinessDashboardJNI readinessDashboard = new ExitReadinessDashboardJNI(false);
+        ProdlyServer server = new ProdlyServer(new InetSocketAddress(port), vendorAnalyzer,
+                                               migrationAnalyzer, readinessDashboard);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            vendorAnalyzer.close();
+            migrationAnalyzer.close();
+            readinessDashboard.close();
+        }, "prodly-server-shutdown"));
+        server.start();
+        System.out.println("Prodly server listening on port " + server.getPort()
+                           + (server.usesVirtualThreads() ? " (virtual threads)" : ""));
+    }
+}
@@ -0,0 +1,127 @@
+package com.prodly;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Resource-constrained list scheduler (Java implementation used in demo mode).
+ * Mirrors the native ResourceScheduler: ready tasks start strictly in priority
+ * order while enough engineers are free, and time advances to the next completion.
+ */
+class ResourceScheduler {
+
+    private ResourceScheduler() {
+    }
+
+    static MigrationSchedule schedule(List<MigrationDifficultyAnalyzerJNI.TaskData> taskList, int engineers,
+                                      ToIntFunction<MigrationDifficultyAnalyzerJNI.TaskData> demand,
+                                      ToIntFunction<MigrationDifficultyAnalyzerJNI.TaskData> priority) {
+        CompiledTaskGraph graph = new CompiledTaskGraph(taskList);
+        int n = graph.size();
+        int team = Math.max(1, engineers);
+
+        int[] priorities = new int[n];
+        int[] unfinished = new int[n];
+        int[] succOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = priority.applyAsInt(graph.tasks[i]);
+            unfinished[i] = graph.predOffsets[i + 1] - graph.predOffsets[i];
+            for (int p = graph.predOffsets[i]; p < graph.predOffsets[i + 1]; p++) {
+                succOffsets[graph.preds[p] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            succOffsets[i + 1] += succOffsets[i];
+        }
+        int[] succs = new int[graph.preds.length];
+        int[] fill = new int[n];
+        System.arraycopy(succOffsets, 0, fill, 0, n);
+        for (int i = 0; i < n; i++) {
+            for (int p = graph.predOffsets[i]; p < graph.predOffsets[i + 1]; p++) {
+                succs[fill[graph.preds[p]]++] = i;
+            }
+        }
+
+        // Highest priority first, topological position breaks ties (same as native)
+        PriorityQueue<Integer> ready = new PriorityQueue<>(new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                if (priorities[a] != priorities[b]) {
+                    return Integer.compare(priorities[b], priorities[a]);
+                }
+                return Integer.compare(a, b);
+            }
+        });
+        for (int i = 0; i < n; i++) {
+            if (unfinished[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        PriorityQueue<Integer> freeEngineers = new PriorityQueue<>();
+        for (int e = 0; e < team; e++) {
+            freeEngineers.add(e);
+        }
+        // Running tasks by (finish day, task)
+        final int[] finishDays = new int[n];
+        PriorityQueue<Integer> running = new PriorityQueue<>(new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                if (finishDays[a] != finishDays[b]) {
+                    return Integer.compare(finishDays[a], finishDays[b]);
+                }
+                return Integer.compare(a, b);
+            }
+        });
+
+        String[] taskIds = new String[n];
+        int[] startDays = new int[n];
+        int[] assignees = new int[n];
+        int[][] held = new int[n][];
+
+        int day = 0;
+        int started = 0;
+        while (started < n) {
+            while (!ready.isEmpty()) {
+                int task = ready.peek();
+                int need = Math.min(team, Math.max(1, demand.applyAsInt(graph.tasks[task])));
+                if (freeEngineers.size() < need) {
+                    break;
+                }
+                ready.poll();
+
+                taskIds[task] = graph.tasks[task].taskId;
+                startDays[task] = day;
+                finishDays[task] = day + Math.max(0, graph.tasks[task].estimatedDays);
+                held[task] = new int[need];
+                for (int k = 0; k < need; k++) {
+                    held[task][k] = freeEngineers.poll();
+                }
+                assignees[task] = held[task][0];
+                running.add(task);
+                started++;
+            }
+
+            if (running.isEmpty()) {
+                break;
+            }
+
+            day = finishDays[running.peek()];
+            while (!running.isEmpty() && finishDays[running.peek()] == day) {
+                int task = running.poll();
+                for (int engineer : held[task]) {
+                    freeEngineers.add(engineer);
+                }
+                for (int s = succOffsets[task]; s < succOffsets[task + 1]; s++) {
+                    if (--unfinished[succs[s]] == 0) {
+                        ready.add(succs[s]);
+                    }
+                }
+            }
+        }
+
+        return new MigrationSchedule(taskIds, startDays, finishDays, assignees, team);
+    }
+}
@@ -0,0 +1,497 @@
+package com.prodly;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Versioned what-if state for the three engines: vendors (module 1), migration
+ * tasks (module 2) and readiness metrics (module 3), held in persistent hash maps.
+ *
+ * {@link #fork} is O(1): the fork shares every map with its parent, and each
+ * later edit copies only the trie path to the changed key, so memory grows with
+ * the number of edits rather than with scenarios times portfolio size.
+ * {@link #diff} between a baseline and any fork walks only the unshared paths.
+ * Engines are filled with {@link #replayInto} when a scenario needs native analysis.
+ *
+ * A scenario is not thread-safe; fork it to hand a frozen copy to another thread.
+ */
+public class Scenario {
+
+    public static final class Vendor {
+        private final String vendorId;
+        private final String vendorName;
+        private final double contractValue;
+        private final int contractMonths;
+        private final double dataVolumeGB;
+        private final int apiDependencies;
+        private final boolean hasCustomIntegration;
+        private final double switchingCost;
+        private final long sequence; // Insertion order, kept when the vendor is replaced
+
+        Vendor(String vendorId, String vendorName, double contractValue, int contractMonths,
+               double dataVolumeGB, int apiDependencies, boolean hasCustomIntegration,
+               double switchingCost, long sequence) {
+            this.vendorId = vendorId;
+            this.vendorName = vendorName;
+            this.contractValue = contractValue;
+            this.contractMonths = contractMonths;
+            this.dataVolumeGB = dataVolumeGB;
+            this.apiDependencies = apiDependencies;
+            this.hasCustomIntegration = hasCustomIntegration;
+            this.switchingCost = switchingCost;
+            this.sequence = sequence;
+        }
+
+        public String getVendorId() {
+            return vendorId;
+        }
+
+        public String getVendorName() {
+            return vendorName;
+        }
+
+        public double getContractValue() {
+            return contractValue;
+        }
+
+        public int getContractMonths() {
+            return contractMonths;
+        }
+
+        public double getDataVolumeGB() {
+            return dataVolumeGB;
+        }
+
+        public int getApiDependencies() {
+            return apiDependencies;
+        }
+
+        public boolean hasCustomIntegration() {
+            return hasCustomIntegration;
+        }
+
+        public double getSwitchingCost() {
+            return switchingCost;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Vendor)) return false;
+            Vendor other = (Vendor) o;
+            return vendorId.equals(other.vendorId) && Objects.equals(vendorName, other.vendorName)
+                && contractValue == other.contractValue && contractMonths == other.contractMonths
+                && dataVolumeGB == other.dataVolumeGB && apiDependencies == other.apiDependencies
+                && hasCustomIntegration == other.hasCustomIntegration && switchingCost == other.switchingCost;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vendorId, vendorName, contractValue, contractMonths, dataVolumeGB,
+                                apiDependencies, hasCustomIntegration, switchingCost);
+        }
+    }
+
+    public static final class Metrics {
+        private final String vendorId;
+        private final double lockInScore;
+        private final double migrationDifficulty;
+        private final int dataExportCapability;
+        private final int contractFlexibility;
+        private final int technicalComplexity;
+        private final long sequence;
+
+        Metrics(String vendorId, double lockInScore, double migrationDifficulty, int dataExportCapability,
+                int contractFlexibility, int technicalComplexity, long sequence) {
+            this.vendorId = vendorId;
+            this.lockInScore = lockInScore;
+            this.migrationDifficulty = migrationDifficulty;
+            this.dataExportCapability = dataExportCapability;
+            this.contractFlexibility = contractFlexibility;
+            this.technicalComplexity = technicalComplexity;
+            this.sequence = sequence;
+        }
+
+        public String getVendorId() {
+            return vendorId;
+        }
+
+        public double getLockInScore() {
+            return lockInScore;
+        }
+
+        public double getMigrationDifficulty() {
+            return migrationDifficulty;
+        }
+
+        public int getDataExportCapability() {
+            return dataExportCapability;
+        }
+
+        public int getContractFlexibility() {
+            return contractFlexibility;
+        }
+
+        public int getTechnicalComplexity() {
+            return technicalComplexity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Metrics)) return false;
+            Metrics other = (Metrics) o;
+            return vendorId.equals(other.vendorId) && lockInScore == other.lockInScore
+                && migrationDifficulty == other.migrationDifficulty
+                && dataExportCapability == other.dataExportCapability
+                && contractFlexibility == other.contractFlexibility
+                && technicalComplexity == other.technicalComplexity;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vendorId, lockInScore, migrationDifficulty, dataExportCapability,
+                                contractFlexibility, technicalComplexity);
+        }
+    }
+
+    public static final class Task {
+        private final String taskId;
+        private final String taskName;
+        private final int difficulty;
+        private final int estimatedDays;
+        private final List<String> dependencies;
+        private final long sequence;
+
+        Task(String taskId, String taskName, int difficulty, int estimatedDays,
+             List<String> dependencies, long sequence) {
+            this.taskId = taskId;
+            this.taskName = taskName;
+            this.difficulty = difficulty;
+            this.estimatedDays = estimatedDays;
+            this.dependencies = dependencies;
+            this.sequence = sequence;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public int getDifficulty() {
+            return difficulty;
+        }
+
+        public int getEstimatedDays() {
+            return estimatedDays;
+        }
+
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Task)) return false;
+            Task other = (Task) o;
+            return taskId.equals(other.taskId) && Objects.equals(taskName, other.taskName)
+                && difficulty == other.difficulty && estimatedDays == other.estimatedDays
+                && dependencies.equals(other.dependencies);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(taskId, taskName, difficulty, estimatedDays, dependencies);
+        }
+    }
+
+    private final String name;
+    private PersistentMap<String, Vendor> vendors;
+    private PersistentMap<String, Metrics> metrics;
+    private PersistentMap<String, PersistentMap<String, Task>> tasks; // vendorId -> taskId -> task
+    private long nextSequence;
+
+    public Scenario(String name) {
+        this(name, PersistentMap.empty(), PersistentMap.empty(), PersistentMap.empty(), 0);
+    }
+
+    private Scenario(String name, PersistentMap<String, Vendor> vendors, PersistentMap<String, Metrics> metrics,
+                     PersistentMap<String, PersistentMap<String, Task>> tasks, long nextSequence) {
+        this.name = name;
+        this.vendors = vendors;
+        this.metrics = metrics;
+        this.tasks = tasks;
+        this.nextSequence = nextSequence;
+    }
+
+    /**
+     * Independent copy of this scenario in O(1); edits to either side are not seen by the other
+     */
+    public Scenario fork(String forkName) {
+        return new Scenario(forkName, vendors, metrics, tasks, nextSequence);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Same arguments as VendorLockInAnalyzerJNI.addVendor; replaces an existing vendor
+    public void addVendor(String vendorId, String vendorName, double contractValue,
+                          int contractMonths, double dataVolumeGB, int apiDependencies,
+                          boolean hasCustomIntegration, double switchingCost) {
+        Vendor previous = vendors.get(vendorId);
+        vendors = vendors.put(vendorId, new Vendor(vendorId, vendorName, contractValue, contractMonths,
+                                                   dataVolumeGB, apiDependencies, hasCustomIntegration,
+                                                   switchingCost, previous != null ? previous.sequence : nextSequence++));
+    }
+
+    // Same arguments as ExitReadinessDashboardJNI.addVendorMetrics; replaces existing metrics
+    public void addVendorMetrics(String vendorId, double lockInScore, double migrationDifficulty,
+                                 int dataExportCapability, int contractFlexibility, int technicalComplexity) {
+        Metrics previous = metrics.get(vendorId);
+        metrics = metrics.put(vendorId, new Metrics(vendorId, lockInScore, migrationDifficulty,
+                                                    dataExportCapability, contractFlexibility, technicalComplexity,
+                                                    previous != null ? previous.sequence : nextSequence++));
+    }
+
+    /**
+     * Same arguments as MigrationDifficultyAnalyzerJNI.addTaskForVendor. Returns false
+     * (task not added) if its dependencies would create a cycle among the vendor's tasks.
+     */
+    public boolean addTaskForVendor(String vendorId, String taskId, String taskName,
+                                    int difficulty, int estimatedDays, String[] dependencies) {
+        if (vendorId == null || vendorId.isEmpty()) {
+            vendorId = "default";
+        }
+        List<String> dependencyIds = new ArrayList<>();
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                if (dependency != null && !dependency.trim().isEmpty()) {
+                    dependencyIds.add(dependency.trim());
+                }
+            }
+        }
+        PersistentMap<String, Task> vendorTasks = tasks.get(vendorId);
+        if (vendorTasks == null) {
+            vendorTasks = PersistentMap.empty();
+        }
+        if (createsCycle(vendorTasks, taskId, dependencyIds)) {
+            return false;
+        }
+        Task previous = vendorTasks.get(taskId);
+        Task task = new Task(taskId, taskName, difficulty, estimatedDays,
+                             Collections.unmodifiableList(dependencyIds),
+                             previous != null ? previous.sequence : nextSequence++);
+        tasks = tasks.put(vendorId, vendorTasks.put(taskId, task));
+        return true;
+    }
+
+    // The task closes a cycle if it can reach itself through its dependencies
+    private static boolean createsCycle(PersistentMap<String, Task> vendorTasks, String taskId,
+                                        List<String> dependencies) {
+        ArrayDeque<String> pending = new ArrayDeque<>(dependencies);
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (current.equals(taskId)) {
+                return true;
+            }
+            Task task = vendorTasks.get(current);
+            if (visited.add(current) && task != null) {
+                pending.addAll(task.dependencies);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop a vendor with its readiness metrics and migration tasks; false if it was unknown
+     */
+    public boolean removeVendor(String vendorId) {
+        boolean known = vendors.containsKey(vendorId) || metrics.containsKey(vendorId) || tasks.containsKey(vendorId);
+        vendors = vendors.remove(vendorId);
+        metrics = metrics.remove(vendorId);
+        tasks = tasks.remove(vendorId);
+        return known;
+    }
+
+    public Vendor getVendor(String vendorId) {
+        return vendors.get(vendorId);
+    }
+
+    public Metrics getMetrics(String vendorId) {
+        return metrics.get(vendorId);
+    }
+
+    // Tasks of one vendor in insertion order
+    public List<Task> getTasks(String vendorId) {
+        PersistentMap<String, Task> vendorTasks = tasks.get(vendorId);
+        if (vendorTasks == null) {
+            return Collections.emptyList();
+        }
+        return inOrder(vendorTasks, task -> task.sequence);
+    }
+
+    public int getVendorCount() {
+        return vendors.size();
+    }
+
+    public int getMetricsCount() {
+        return metrics.size();
+    }
+
+    /**
+     * Changes from this scenario to other: vendors, metrics and tasks that were
+     * added, removed or changed. Only paths not shared by the two are visited.
+     */
+    public ScenarioDiff diff(Scenario other) {
+        List<ScenarioDiff.Change<Vendor>> vendorChanges = new ArrayList<>();
+        vendors.diff(other.vendors, (id, before, after) ->
+            vendorChanges.add(new ScenarioDiff.Change<>(id, null, before, after)));
+
+        List<ScenarioDiff.Change<Metrics>> metricsChanges = new ArrayList<>();
+        metrics.diff(other.metrics, (id, before, after) ->
+            metricsChanges.add(new ScenarioDiff.Change<>(id, null, before, after)));
+
+        List<ScenarioDiff.Change<Task>> taskChanges = new ArrayList<>();
+        tasks.diff(other.tasks, (vendorId, before, after) -> {
+            PersistentMap<String, Task> from = before != null ? before : PersistentMap.empty();
+            PersistentMap<String, Task> to = after != null ? after : PersistentMap.empty();
+            from.diff(to, (taskId, beforeTask, afterTask) ->
+                taskChanges.add(new ScenarioDiff.Change<>(vendorId, taskId, beforeTask, afterTask)));
+        });
+        return new ScenarioDiff(name, other.name, vendorChanges, metricsChanges, taskChanges);
+    }
+
+    /**
+     * Fill engines with this scenario, in insertion order; a null engine is skipped.
+     * Engines only add and replace, so pass fresh ones to drop removed vendors.
+     */
+    public void replayInto(VendorLockInAnalyzerJNI analyzer, MigrationDifficultyAnalyzerJNI migration,
+                           ExitReadinessDashboardJNI dashboard) {
+        if (analyzer != null) {
+            for (Vendor v : inOrder(vendors, v -> v.sequence)) {
+                analyzer.addVendor(v.vendorId, v.vendorName, v.contractValue, v.contractMonths,
+                                   v.dataVolumeGB, v.apiDependencies, v.hasCustomIntegration, v.switchingCost);
+            }
+        }
+        if (migration != null) {
+            List<String> vendorIds = new ArrayList<>();
+            tasks.forEach((vendorId, vendorTasks) -> vendorIds.add(vendorId));
+            Collections.sort(vendorIds);
+            for (String vendorId : vendorIds) {
+                for (Task t : getTasks(vendorId)) {
+                    migration.addTaskForVendor(vendorId, t.taskId, t.taskName, t.difficulty, t.estimatedDays,
+                                               t.dependencies.toArray(new String[0]));
+                }
+            }
+        }
+        if (dashboard != null) {
+            for (Metrics m : inOrder(metrics, m -> m.sequence)) {
+                dashboard.addVendorMetrics(m.vendorId, m.lockInScore, m.migrationDifficulty,
+                                           m.dataExportCapability, m.contractFlexibility, m.technicalComplexity);
+            }
+        }
+    }
+
+    /**
+     * Scenario inputs as columns, e.g. for a SensitivityEngine over a fork. Vendor
+     * fields come from the vendors and LOCK_IN_SCORE plus the readiness fields from
+     * the metrics; rows are the vendors holding every requested field, in insertion
+     * order. EXIT_READINESS is a score, not an input, and cannot be exported.
+     */
+    public FeatureColumns exportColumns(ScoreQuery.Field... fields) {
+        boolean needVendor = false;
+        boolean needMetrics = false;
+        for (ScoreQuery.Field field : fields) {
+            if (field == ScoreQuery.Field.EXIT_READINESS) {
+                throw new IllegalArgumentException("Scenarios hold inputs only, not " + field);
+            }
+            if (isVendorField(field)) {
+                needVendor = true;
+            } else {
+                needMetrics = true;
+            }
+        }
+
+        List<String> ids = new ArrayList<>();
+        if (needVendor || !needMetrics) {
+            for (Vendor v : inOrder(vendors, v -> v.sequence)) {
+                if (!needMetrics || metrics.containsKey(v.vendorId)) {
+                    ids.add(v.vendorId);
+                }
+            }
+        } else {
+            for (Metrics m : inOrder(metrics, m -> m.sequence)) {
+                ids.add(m.vendorId);
+            }
+        }
+
+        double[][] columns = new double[fields.length][ids.size()];
+        for (int row = 0; row < ids.size(); row++) {
+            Vendor vendor = needVendor ? vendors.get(ids.get(row)) : null;
+            Metrics vendorMetrics = needMetrics ? metrics.get(ids.get(row)) : null;
+            for (int j = 0; j < fields.length; j++) {
+                columns[j][row] = isVendorField(fields[j]) ? value(vendor, fields[j]) : value(vendorMetrics, fields[j]);
+            }
+        }
+        return new FeatureColumns(ids.toArray(new String[0]), Arrays.asList(fields), columns);
+    }
+
+    private static boolean isVendorField(ScoreQuery.Field field) {
+        return field.code >= ScoreQuery.Field.CONTRACT_VALUE.code && field.code <= ScoreQuery.Field.SWITCHING_COST.code;
+    }
+
+    private static double value(Vendor vendor, ScoreQuery.Field field) {
+        switch (field) {
+            case CONTRACT_VALUE: return vendor.contractValue;
+            case CONTRACT_MONTHS: return vendor.contractMonths;
+            case DATA_VOLUME_GB: return vendor.dataVolumeGB;
+            case API_DEPENDENCIES: return vendor.apiDependencies;
+            case CUSTOM_INTEGRATION: return vendor.hasCustomIntegration ? 1.0 : 0.0;
+            default: return vendor.switchingCost;
+        }
+    }
+
+    private static double value(Metrics metrics, ScoreQuery.Field field) {
+        switch (field) {
+            case LOCK_IN_SCORE: return metrics.lockInScore;
+            case MIGRATION_DIFFICULTY: return metrics.migrationDifficulty;
+            case DATA_EXPORT_CAPABILITY: return metrics.dataExportCapability;
+            case CONTRACT_FLEXIBILITY: return metrics.contractFlexibility;
+            default: return metrics.technicalComplexity;
+        }
+    }
+
+    // Values by insertion order: bucketed by sequence when the map holds a good share
+    // of all sequences (vendors, metrics), sorted otherwise (one vendor's tasks)
+    @SuppressWarnings("unchecked")
+    private <T> List<T> inOrder(PersistentMap<String, T> map, ToLongFunction<T> sequence) {
+        List<T> values = new ArrayList<>(map.size());
+        if ((long) map.size() * 8 < nextSequence) {
+            map.forEach((key, value) -> values.add(value));
+            values.sort(Comparator.comparingLong(sequence));
+            return values;
+        }
+        Object[] slots = new Object[(int) nextSequence];
+        map.forEach((key, value) -> slots[(int) sequence.applyAsLong(value)] = value);
+        for (Object slot : slots) {
+            if (slot != null) {
+                values.add((T) slot);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,91 @@
+package com.prodly;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Differences between two scenarios, per engine: each change holds the record
+ * before (null if added) and after (null if removed).
+ */
+public class ScenarioDiff {
+
+    public enum Kind { ADDED, REMOVED, CHANGED }
+
+    public static final class Change<T> {
+        private final String vendorId;
+        private final String taskId; // null for vendor and metrics changes
+        private final T before;
+        private final T after;
+
+        Change(String vendorId, String taskId, T before, T after) {
+            this.vendorId = vendorId;
+            this.taskId = taskId;
+            this.before = before;
+            this.after = after;
+        }
+
+        public Kind getKind() {
+            return before == null ? Kind.ADDED : after == null ? Kind.REMOVED : Kind.CHANGED;
+        }
+
+        public String getVendorId() {
+            return vendorId;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public T getBefore() {
+            return before;
+        }
+
+        public T getAfter() {
+            return after;
+        }
+    }
+
+    private final String from;
+    private final String to;
+    private final List<Change<Scenario.Vendor>> vendorChanges;
+    private final List<Change<Scenario.Metrics>> metricsChanges;
+    private final List<Change<Scenario.Task>> taskChanges;
+
+    ScenarioDiff(String from, String to, List<Change<Scenario.Vendor>> vendorChanges,
+                 List<Change<Scenario.Metrics>> metricsChanges, List<Change<Scenario.Task>> taskChanges) {
+        this.from = from;
+        this.to = to;
+        this.vendorChanges = Collections.unmodifiableList(vendorChanges);
+        this.metricsChanges = Collections.unmodifiableList(metricsChanges);
+        this.taskChanges = Collections.unmodifiableList(taskChanges);
+    }
+
+    // Names of the compared scenarios
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public List<Change<Scenario.Vendor>> getVendorChanges() {
+        return vendorChanges;
+    }
+
+    public List<Change<Scenario.Metrics>> getMetricsChanges() {
+        return metricsChanges;
+    }
+
+    public List<Change<Scenario.Task>> getTaskChanges() {
+        return taskChanges;
+    }
+
+    public int size() {
+        return vendorChanges.size() + metricsChanges.size() + taskChanges.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
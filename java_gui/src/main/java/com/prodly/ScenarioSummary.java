@@ -0,0 +1,67 @@
+package com.prodly;
+
+/**
+ * Random what-if scenarios per vendor: every scenario perturbs all chosen inputs
+ * at once, and each vendor keeps the mean lock-in change and the mean, lowest and
+ * highest readiness change over its scenarios. Rows follow the input columns.
+ */
+public class ScenarioSummary {
+    private final String[] vendorIds;
+    private final int scenarios;
+    private final double[] meanLockInDelta;
+    private final double[] meanReadinessDelta;
+    private final double[] minReadinessDelta;
+    private final double[] maxReadinessDelta;
+
+    ScenarioSummary(String[] vendorIds, int scenarios, double[] meanLockInDelta, double[] meanReadinessDelta,
+                    double[] minReadinessDelta, double[] maxReadinessDelta) {
+        this.vendorIds = vendorIds;
+        this.scenarios = scenarios;
+        this.meanLockInDelta = meanLockInDelta;
+        this.meanReadinessDelta = meanReadinessDelta;
+        this.minReadinessDelta = minReadinessDelta;
+        this.maxReadinessDelta = maxReadinessDelta;
+    }
+
+    public int size() {
+        return vendorIds.length;
+    }
+
+    public int getScenarios() {
+        return scenarios;
+    }
+
+    // Lock-in -> readiness chain evaluations performed
+    public long getEvaluations() {
+        return (long) scenarios * vendorIds.length;
+    }
+
+    public String getVendorId(int row) {
+        return vendorIds[row];
+    }
+
+    public double getMeanLockInDelta(int row) {
+        return meanLockInDelta[row];
+    }
+
+    public double getMeanReadinessDelta(int row) {
+        return meanReadinessDelta[row];
+    }
+
+    public double getMinReadinessDelta(int row) {
+        return minReadinessDelta[row];
+    }
+
+    public double getMaxReadinessDelta(int row) {
+        return maxReadinessDelta[row];
+    }
+
+    // Portfolio-wide mean change of the readiness score
+    public double getPortfolioReadinessDelta() {
+        double sum = 0.0;
+        for (double delta : meanReadinessDelta) {
+            sum += delta;
+        }
+        return vendorIds.length > 0 ? sum / vendorIds.length : 0.0;
+    }
+}
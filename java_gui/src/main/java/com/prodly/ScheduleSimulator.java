@@ -0,0 +1,158 @@
+package com.prodly;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo migration completion forecast (Java implementation used in demo mode).
+ * Mirrors the native ScheduleSimulator: tasks are compiled to flat arrays in
+ * topological order (CompiledTaskGraph), and trials are split into chunks that run on the
+ * fork-join pool, each with its own RNG and scratch buffer.
+ */
+public class ScheduleSimulator {
+
+    public enum Distribution {
+        TRIANGULAR(0),
+        PERT(1);
+
+        final int code;
+
+        Distribution(int code) {
+            this.code = code;
+        }
+    }
+
+    private final int taskCount;
+    private final int[] predOffsets;
+    private final int[] preds;
+    private final double[] optimistic;
+    private final double[] mostLikely;
+    private final double[] pessimistic;
+    private final double[] alpha;
+    private final double[] beta;
+
+    public ScheduleSimulator(List<MigrationDifficultyAnalyzerJNI.TaskData> tasks) {
+        CompiledTaskGraph graph = new CompiledTaskGraph(tasks);
+        taskCount = graph.size();
+        predOffsets = graph.predOffsets;
+        preds = graph.preds;
+        optimistic = new double[taskCount];
+        mostLikely = new double[taskCount];
+        pessimistic = new double[taskCount];
+        alpha = new double[taskCount];
+        beta = new double[taskCount];
+
+        for (int i = 0; i < taskCount; i++) {
+            // Same three-point estimate as the native simulator
+            double days = Math.max(0, graph.tasks[i].estimatedDays);
+            double difficulty = Math.min(10, Math.max(1, graph.tasks[i].difficulty));
+            optimistic[i] = days * 0.8;
+            mostLikely[i] = days;
+            pessimistic[i] = days * (1.0 + 0.15 * difficulty);
+            double range = pessimistic[i] - optimistic[i];
+            alpha[i] = range > 0 ? 1.0 + 4.0 * (mostLikely[i] - optimistic[i]) / range : 1.0;
+            beta[i] = range > 0 ? 1.0 + 4.0 * (pessimistic[i] - mostLikely[i]) / range : 1.0;
+        }
+    }
+
+    public CompletionForecast run(int trials, Distribution distribution, long seed) {
+        if (trials <= 0) {
+            return new CompletionForecast(0, 0, 0, 0, 0, 0, 0);
+        }
+
+        final double[] completion = new double[trials];
+        int chunks = Math.min(trials, Runtime.getRuntime().availableProcessors() * 4);
+        final int chunkSize = (trials + chunks - 1) / chunks;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int first = chunk * chunkSize;
+            int last = Math.min(trials, first + chunkSize);
+            // Per-chunk stream so results do not depend on thread scheduling
+            SplittableRandom random = new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (chunk + 1));
+            double[] finish = new double[taskCount];
+            for (int trial = first; trial < last; trial++) {
+                completion[trial] = evaluateTrial(random, distribution, finish);
+            }
+        });
+
+        double sum = 0.0;
+        for (double days : completion) {
+            sum += days;
+        }
+        Arrays.sort(completion);
+        return new CompletionForecast(trials, sum / trials,
+                                      percentile(completion, 0.50),
+                                      percentile(completion, 0.90),
+                                      percentile(completion, 0.99),
+                                      completion[0], completion[trials - 1]);
+    }
+
+    private double evaluateTrial(SplittableRandom random, Distribution distribution, double[] finish) {
+        double end = 0.0;
+        for (int i = 0; i < taskCount; i++) {
+            double a = optimistic[i];
+            double c = mostLikely[i];
+            double b = pessimistic[i];
+            double duration = c;
+
+            if (b > a) {
+                if (distribution == Distribution.PERT) {
+                    double x = sampleGamma(random, alpha[i]);
+                    double y = sampleGamma(random, beta[i]);
+                    duration = a + (b - a) * (x / (x + y));
+                } else {
+                    double u = random.nextDouble();
+                    double split = (c - a) / (b - a);
+                    duration = u < split
+                        ? a + Math.sqrt(u * (b - a) * (c - a))
+                        : b - Math.sqrt((1.0 - u) * (b - a) * (b - c));
+                }
+            }
+
+            double start = 0.0;
+            for (int p = predOffsets[i]; p < predOffsets[i + 1]; p++) {
+                start = Math.max(start, finish[preds[p]]);
+            }
+            finish[i] = start + duration;
+            end = Math.max(end, finish[i]);
+        }
+        return end;
+    }
+
+    // Marsaglia-Tsang gamma sampler; PERT shapes are always >= 1
+    private static double sampleGamma(SplittableRandom random, double shape) {
+        double d = shape - 1.0 / 3.0;
+        double c = 1.0 / Math.sqrt(9.0 * d);
+        while (true) {
+            double x = sampleNormal(random);
+            double v = 1.0 + c * x;
+            if (v <= 0) {
+                continue;
+            }
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (Math.log(u) < 0.5 * x * x + d - d * v + d * Math.log(v)) {
+                return d * v;
+            }
+        }
+    }
+
+    // Marsaglia polar method
+    private static double sampleNormal(SplittableRandom random) {
+        while (true) {
+            double u = 2.0 * random.nextDouble() - 1.0;
+            double v = 2.0 * random.nextDouble() - 1.0;
+            double s = u * u + v * v;
+            if (s > 0 && s < 1) {
+                return u * Math.sqrt(-2.0 * Math.log(s) / s);
+            }
+        }
+    }
+
+    private static double percentile(double[] sorted, double q) {
+        int k = Math.min(sorted.length - 1, (int) (q * sorted.length));
+        return sorted[k];
+    }
+}
@@ -0,0 +1,39 @@
+package com.prodly;
+
+/**
+ * A vendor's score entered a watched range: e.g. lock-in rose above 80
+ */
+public class ScoreAlert {
+    private final ScoreQuery.Field field;
+    private final String vendorId;
+    private final double previousScore; // NaN when the vendor had no score before
+    private final double score;
+
+    public ScoreAlert(ScoreQuery.Field field, String vendorId, double previousScore, double score) {
+        this.field = field;
+        this.vendorId = vendorId;
+        this.previousScore = previousScore;
+        this.score = score;
+    }
+
+    public ScoreQuery.Field getField() {
+        return field;
+    }
+
+    public String getVendorId() {
+        return vendorId;
+    }
+
+    public double getPreviousScore() {
+        return previousScore;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: %.2f -> %.2f", vendorId, field, previousScore, score);
+    }
+}
@@ -0,0 +1,260 @@
+package com.prodly;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Threshold-crossing alerts on one score field of an engine. Each watch is a
+ * range of scores with its own Flow.Publisher; a subscriber gets an alert when
+ * a vendor's score moves into the range (a vendor's first score counts when it
+ * lands inside). Delivery follows the subscriber's request(n): when a
+ * subscriber's buffer is full, the engine update that raised the alert waits.
+ *
+ * Watches are indexed by their two boundaries in sorted maps. A score moving
+ * from p to s can only change membership of watches with a boundary between
+ * p and s, so an update costs O(log w + candidates) for w watches, instead of
+ * testing every watch. The last score of every vendor is kept to know p.
+ */
+public class ScoreAlertPublisher {
+
+    /**
+     * Scores in [low, high] (infinite bounds allowed). Closing the watch completes its subscribers.
+     */
+    public final class Watch implements Flow.Publisher<ScoreAlert>, AutoCloseable {
+        private final double low;
+        private final double high;
+        private final SubmissionPublisher<ScoreAlert> publisher = new SubmissionPublisher<>();
+
+        private Watch(double low, double high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ScoreAlert> subscriber) {
+            publisher.subscribe(subscriber);
+        }
+
+        public double getLow() {
+            return low;
+        }
+
+        public double getHigh() {
+            return high;
+        }
+
+        boolean contains(double score) {
+            return score >= low && score <= high; // False for NaN
+        }
+
+        @Override
+        public void close() {
+            removeWatch(this);
+            publisher.close();
+        }
+    }
+
+    private final ScoreQuery.Field field;
+
+    // Boundary index: finite low and high bounds of every open watch
+    private final TreeMap<Double, List<Watch>> lowBounds = new TreeMap<>();
+    private final TreeMap<Double, List<Watch>> highBounds = new TreeMap<>();
+    private final List<Watch> unboundedBelow = new ArrayList<>(); // low = -infinity
+    private int watchCount;
+
+    private final Map<String, Double> lastScores = new HashMap<>();
+    private long updates;
+    private long candidatesChecked;
+    private long alerts;
+
+    ScoreAlertPublisher(ScoreQuery.Field field) {
+        this.field = field;
+    }
+
+    public ScoreQuery.Field getField() {
+        return field;
+    }
+
+    /**
+     * Alerts when a score rises above the threshold
+     */
+    public Watch above(double threshold) {
+        return range(Math.nextUp(threshold), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Alerts when a score drops below the threshold
+     */
+    public Watch below(double threshold) {
+        return range(Double.NEGATIVE_INFINITY, Math.nextDown(threshold));
+    }
+
+    /**
+     * Alerts when a score enters [low, high]
+     */
+    public synchronized Watch range(double low, double high) {
+        if (Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            throw new IllegalArgumentException("Invalid score range [" + low + ", " + high + "]");
+        }
+        Watch watch = new Watch(low, high);
+        if (low == Double.NEGATIVE_INFINITY) {
+            unboundedBelow.add(watch);
+        } else {
+            lowBounds.computeIfAbsent(low, k -> new ArrayList<>()).add(watch);
+        }
+        if (high != Double.POSITIVE_INFINITY) {
+            highBounds.computeIfAbsent(high, k -> new ArrayList<>()).add(watch);
+        }
+        watchCount++;
+        return watch;
+    }
+
+    private synchronized void removeWatch(Watch watch) {
+        boolean removed = watch.low == Double.NEGATIVE_INFINITY ? unboundedBelow.remove(watch)
+                                                                : removeBound(lowBounds, watch.low, watch);
+        if (watch.high != Double.POSITIVE_INFINITY) {
+            removeBound(highBounds, watch.high, watch);
+        }
+        if (removed) {
+            watchCount--;
+        }
+    }
+
+    private static boolean removeBound(TreeMap<Double, List<Watch>> bounds, double bound, Watch watch) {
+        List<Watch> watches = bounds.get(bound);
+        if (watches == null || !watches.remove(watch)) {
+            return false;
+        }
+        if (watches.isEmpty()) {
+            bounds.remove(bound);
+        }
+        return true;
+    }
+
+    public synchronized int getWatchCount() {
+        return watchCount;
+    }
+
+    public synchronized long getUpdateCount() {
+        return updates;
+    }
+
+    public synchronized long getAlertCount() {
+        return alerts;
+    }
+
+    // Watches tested against updates; stays close to the alert count if the index does its job
+    public synchronized long getCandidatesChecked() {
+        return candidatesChecked;
+    }
+
+    /**
+     * Record a vendor's new score and alert every watch the score moved into
+     */
+    void publish(String vendorId, double score) {
+        List<Map.Entry<Watch, ScoreAlert>> pending = null;
+        synchronized (this) {
+            pending = match(vendorId, score, pending);
+        }
+        submit(pending);
+    }
+
+    /**
+     * Record new scores of many vendors (e.g. after a model change or a bulk import)
+     */
+    void publishAll(String[] vendorIds, double[] scores, int count) {
+        List<Map.Entry<Watch, ScoreAlert>> pending = null;
+        synchronized (this) {
+            for (int i = 0; i < count; i++) {
+                pending = match(vendorIds[i], scores[i], pending);
+            }
+        }
+        submit(pending);
+    }
+
+    /**
+     * Record new scores of vendors that already have one; other vendors and NaN
+     * scores are ignored (e.g. vendors an engine skipped because it does not hold them)
+     */
+    void publishKnown(String[] vendorIds, double[] scores) {
+        List<Map.Entry<Watch, ScoreAlert>> pending = null;
+        synchronized (this) {
+            for (int i = 0; i < vendorIds.length; i++) {
+                if (!Double.isNaN(scores[i]) && lastScores.containsKey(vendorIds[i])) {
+                    pending = match(vendorIds[i], scores[i], pending);
+                }
+            }
+        }
+        submit(pending);
+    }
+
+    // Alerts are submitted outside the lock, so a subscriber that holds up the
+    // producer can still close its watch
+    private static void submit(List<Map.Entry<Watch, ScoreAlert>> pending) {
+        if (pending == null) {
+            return;
+        }
+        for (Map.Entry<Watch, ScoreAlert> alert : pending) {
+            try {
+                alert.getKey().publisher.submit(alert.getValue());
+            } catch (IllegalStateException e) {
+                // Watch closed after the alert was raised
+            }
+        }
+    }
+
+    private List<Map.Entry<Watch, ScoreAlert>> match(String vendorId, double score,
+                                                     List<Map.Entry<Watch, ScoreAlert>> pending) {
+        updates++;
+        Double last = lastScores.put(vendorId, score);
+        double previous = last != null ? last : Double.NaN;
+        if (watchCount == 0 || previous == score) {
+            return pending;
+        }
+
+        if (last == null) {
+            // First score: watches starting at or below it that also reach it
+            pending = alertEntered(unboundedBelow, vendorId, previous, score, pending);
+            for (List<Watch> watches : lowBounds.headMap(score, true).values()) {
+                pending = alertEntered(watches, vendorId, previous, score, pending);
+            }
+        } else if (score > previous) {
+            // Rising: entered watches have their low bound in (previous, score]
+            for (List<Watch> watches : lowBounds.subMap(previous, false, score, true).values()) {
+                pending = alertEntered(watches, vendorId, previous, score, pending);
+            }
+        } else {
+            // Falling: entered watches have their high bound in [score, previous)
+            for (List<Watch> watches : highBounds.subMap(score, true, previous, false).values()) {
+                pending = alertEntered(watches, vendorId, previous, score, pending);
+            }
+        }
+        return pending;
+    }
+
+    private List<Map.Entry<Watch, ScoreAlert>> alertEntered(List<Watch> watches, String vendorId,
+                                                            double previous, double score,
+                                                            List<Map.Entry<Watch, ScoreAlert>> pending) {
+        for (int i = 0; i < watches.size(); i++) {
+            Watch watch = watches.get(i);
+            candidatesChecked++;
+            if (watch.contains(score) && !watch.contains(previous)) {
+                alerts++;
+                if (watch.publisher.hasSubscribers()) {
+                    if (pending == null) {
+                        pending = new ArrayList<>();
+                    }
+                    pending.add(new AbstractMap.SimpleImmutableEntry<>(
+                        watch, new ScoreAlert(field, vendorId, previous, score)));
+                }
+            }
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,80 @@
+package com.prodly;
+
+import java.text.DecimalFormat;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.TableCell;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Table cell that draws a 0-100 score as a colored bar with its value on one
+ * Canvas. The table recycles cells while scrolling, and with them the canvas,
+ * so updating a cell repaints a few pixels instead of building a StackPane,
+ * Rectangle and Label; the scene graph holds one node per visible cell.
+ */
+public class ScoreBarCell<S> extends TableCell<S, Double> {
+    private static final double PADDING = 5;
+    private static final double BAR_HEIGHT = 20;
+    private static final Color RED = Color.rgb(244, 67, 54);
+    private static final Color AMBER = Color.rgb(255, 193, 7);
+    private static final Color GREEN = Color.rgb(76, 175, 80);
+
+    // Cells are only updated on the FX thread, so one formatter serves all
+    private static final DecimalFormat FORMAT = new DecimalFormat("#.##");
+
+    private final Canvas canvas;
+    private final double barWidth;
+    private final boolean highIsGood;
+    private double drawnScore = Double.NaN;
+
+    /**
+     * A score of 100 fills barWidth pixels. With highIsGood, low scores are
+     * red and high ones green (exit readiness); otherwise the reverse (lock-in).
+     */
+    public ScoreBarCell(double barWidth, boolean highIsGood) {
+        this.barWidth = barWidth;
+        this.highIsGood = highIsGood;
+        this.canvas = new Canvas(barWidth + 2 * PADDING, BAR_HEIGHT + 2 * PADDING);
+        setText(null);
+    }
+
+    @Override
+    protected void updateItem(Double score, boolean empty) {
+        super.updateItem(score, empty);
+        if (empty || score == null) {
+            setGraphic(null);
+            return;
+        }
+        // Scrolling rebinds cells to rows that often carry the same value
+        if (Double.compare(score, drawnScore) != 0) {
+            draw(score);
+            drawnScore = score;
+        }
+        setGraphic(canvas);
+    }
+
+    private void draw(double score) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        double width = Math.max(0, Math.min(100, score)) / 100.0 * barWidth;
+        gc.setFill(colorFor(score));
+        gc.fillRoundRect(PADDING, PADDING, width, BAR_HEIGHT, 10, 10);
+
+        gc.setFill(Color.WHITE);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.fillText(FORMAT.format(score), 2 * PADDING, PADDING + BAR_HEIGHT / 2);
+    }
+
+    private Color colorFor(double score) {
+        if (score < 33) {
+            return highIsGood ? RED : GREEN;
+        } else if (score < 66) {
+            return AMBER;
+        }
+        return highIsGood ? GREEN : RED;
+    }
+}
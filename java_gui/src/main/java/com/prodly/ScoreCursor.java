@@ -0,0 +1,90 @@
+package com.prodly;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cursor that pulls vendor scores from an engine one fixed-size page at a time.
+ * Only the current page is held, so peak memory depends on the page size.
+ *
+ * A snapshot cursor remembers the engine version it was opened at and fails
+ * fast with ConcurrentModificationException if the engine changes while paging.
+ */
+public class ScoreCursor implements Iterator<ScorePage> {
+
+    /**
+     * Page provider implemented by the JNI wrappers
+     */
+    interface PageSource {
+        ScorePage fetchPage(int offset, int limit);
+        long currentVersion();
+    }
+
+    private final PageSource source;
+    private final int pageSize;
+    private final boolean snapshot;
+    private final long openedVersion;
+    private int offset;
+    private ScorePage nextPage;
+    private boolean exhausted;
+
+    ScoreCursor(PageSource source, int pageSize, boolean snapshot) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.snapshot = snapshot;
+        this.openedVersion = source.currentVersion();
+        this.offset = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPage == null && !exhausted) {
+            ScorePage page = source.fetchPage(offset, pageSize);
+            if (snapshot && page.getVersion() != openedVersion) {
+                throw new ConcurrentModificationException(
+                    "Scores changed while paging (version " + openedVersion + " -> " + page.getVersion() + ")");
+            }
+            if (page.isEmpty()) {
+                exhausted = true;
+            } else {
+                nextPage = page;
+                offset += page.size();
+                exhausted = page.size() < pageSize;
+            }
+        }
+        return nextPage != null;
+    }
+
+    @Override
+    public ScorePage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ScorePage page = nextPage;
+        nextPage = null;
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long getOpenedVersion() {
+        return openedVersion;
+    }
+
+    // Lazy stream of pages; each page is fetched only when the stream pulls it
+    public Stream<ScorePage> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false);
+    }
+}
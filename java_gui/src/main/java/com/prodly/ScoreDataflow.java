@@ -0,0 +1,311 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dependency tracking between the modules: a vendor's lock-in score and its
+ * migration difficulty are inputs of its exit readiness. A change to either
+ * marks only that vendor dirty; its readiness (and its place in the readiness
+ * ranking) is recomputed when it is read, on flush, or by a background pass,
+ * so one change costs O(affected vendors) instead of a full rescore.
+ *
+ * Repeated changes to a dirty vendor are coalesced into one recomputation,
+ * and a flush pushes all pending vendors to the dashboard in one batch. The
+ * engines are not thread-safe: while background flushing or an export runs,
+ * change them only through this class (or under its lock).
+ */
+public class ScoreDataflow {
+
+    /**
+     * Counters since the dataflow was created
+     */
+    public static final class Stats {
+        private final long invalidations;
+        private final long coalesced;
+        private final long lockInRecomputed;
+        private final long migrationRecomputed;
+        private final long readinessRecomputed;
+        private final long skippedClean;
+        private final long flushes;
+        private final int pending;
+
+        Stats(long invalidations, long coalesced, long lockInRecomputed, long migrationRecomputed,
+              long readinessRecomputed, long skippedClean, long flushes, int pending) {
+            this.invalidations = invalidations;
+            this.coalesced = coalesced;
+            this.lockInRecomputed = lockInRecomputed;
+            this.migrationRecomputed = migrationRecomputed;
+            this.readinessRecomputed = readinessRecomputed;
+            this.skippedClean = skippedClean;
+            this.flushes = flushes;
+            this.pending = pending;
+        }
+
+        // Changes reported to the dataflow
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        // Changes to an already dirty vendor, absorbed by its pending recomputation
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getLockInRecomputed() {
+            return lockInRecomputed;
+        }
+
+        public long getMigrationRecomputed() {
+            return migrationRecomputed;
+        }
+
+        public long getReadinessRecomputed() {
+            return readinessRecomputed;
+        }
+
+        // Clean vendors left untouched by flushes, that a full rescore would have recomputed
+        public long getSkippedClean() {
+            return skippedClean;
+        }
+
+        /**
+         * Recomputations avoided compared to eagerly rescoring the whole
+         * portfolio on every flush and every vendor on every change
+         */
+        public long getRecomputationsAvoided() {
+            return coalesced + skippedClean;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+
+        // Vendors dirty when the snapshot was taken
+        public int getPending() {
+            return pending;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d changes, %d recomputed (%d lock-in, %d migration), %d avoided, %d pending",
+                                 invalidations, readinessRecomputed, lockInRecomputed, migrationRecomputed,
+                                 getRecomputationsAvoided(), pending);
+        }
+    }
+
+    // Dirty bits of a vendor: which readiness inputs are stale
+    private static final int LOCK_IN = 1;
+    private static final int MIGRATION = 2;
+
+    // Vendors pushed to the dashboard per JNI call; the lock is released between batches
+    private static final int FLUSH_BATCH = 4096;
+
+    private final VendorLockInAnalyzerJNI analyzer;
+    private final MigrationDifficultyAnalyzerJNI migration;
+    private final ExitReadinessDashboardJNI dashboard;
+
+    private final Map<String, Integer> dirty = new HashMap<>();
+    private ScheduledExecutorService background;
+
+    private long invalidations;
+    private long coalesced;
+    private long lockInRecomputed;
+    private long migrationRecomputed;
+    private long readinessRecomputed;
+    private long skippedClean;
+    private long flushes;
+
+    public ScoreDataflow(VendorLockInAnalyzerJNI analyzer, MigrationDifficultyAnalyzerJNI migration,
+                         ExitReadinessDashboardJNI dashboard) {
+        this.analyzer = analyzer;
+        this.migration = migration;
+        this.dashboard = dashboard;
+    }
+
+    /**
+     * Add or replace a vendor's lock-in inputs; its readiness becomes dirty
+     */
+    public synchronized void updateVendor(String vendorId, String vendorName, double contractValue,
+                                          int contractMonths, double dataVolumeGB, int apiDependencies,
+                                          boolean hasCustomIntegration, double switchingCost) {
+        analyzer.addVendor(vendorId, vendorName, contractValue, contractMonths, dataVolumeGB,
+                           apiDependencies, hasCustomIntegration, switchingCost);
+        markDirty(vendorId, LOCK_IN);
+    }
+
+    /**
+     * Add a migration task of a vendor; its readiness becomes dirty if the task was added
+     */
+    public synchronized boolean addTaskForVendor(String vendorId, String taskId, String taskName,
+                                                 int difficulty, int estimatedDays, String[] dependencies) {
+        if (!migration.addTaskForVendor(vendorId, taskId, taskName, difficulty, estimatedDays, dependencies)) {
+            return false;
+        }
+        markDirty(vendorId, MIGRATION);
+        return true;
+    }
+
+    /**
+     * Replace the lock-in scoring model; the analyzer rescores every vendor, so
+     * the lock-in input of every vendor with readiness metrics becomes dirty
+     */
+    public synchronized void setLockInModel(ScoringModel model) {
+        analyzer.setScoringModel(model);
+        for (String vendorId : dashboard.exportColumns(ScoreQuery.Field.LOCK_IN_SCORE).getIds()) {
+            markDirty(vendorId, LOCK_IN);
+        }
+    }
+
+    /**
+     * Add or replace a vendor's readiness metrics, as ExitReadinessDashboardJNI.addVendorMetrics
+     */
+    public synchronized void updateMetrics(String vendorId, double lockInScore, double migrationDifficulty,
+                                           int dataExportCapability, int contractFlexibility,
+                                           int technicalComplexity) {
+        dashboard.addVendorMetrics(vendorId, lockInScore, migrationDifficulty,
+                                   dataExportCapability, contractFlexibility, technicalComplexity);
+    }
+
+    /**
+     * Store the readiness metrics of a pipeline run
+     */
+    public synchronized void applyScores(PipelineScores scores, PipelineBatch batch) {
+        scores.applyTo(dashboard, batch);
+    }
+
+    /**
+     * Report a change made directly on the lock-in analyzer
+     */
+    public synchronized void lockInChanged(String vendorId) {
+        markDirty(vendorId, LOCK_IN);
+    }
+
+    /**
+     * Report a change made directly on the migration analyzer
+     */
+    public synchronized void migrationChanged(String vendorId) {
+        markDirty(vendorId, MIGRATION);
+    }
+
+    private void markDirty(String vendorId, int input) {
+        invalidations++;
+        Integer pending = dirty.get(vendorId);
+        if (pending != null) {
+            coalesced++;
+            dirty.put(vendorId, pending | input);
+        } else {
+            dirty.put(vendorId, input);
+        }
+    }
+
+    public synchronized boolean isDirty(String vendorId) {
+        return dirty.containsKey(vendorId);
+    }
+
+    public synchronized int getPendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Current exit readiness of a vendor, recomputing only this vendor if it is dirty
+     */
+    public synchronized double getExitReadiness(String vendorId) {
+        Integer pending = dirty.remove(vendorId);
+        if (pending != null) {
+            recompute(new String[] { vendorId }, new int[] { pending });
+        }
+        return dashboard.calculateExitReadiness(vendorId);
+    }
+
+    /**
+     * Recompute every dirty vendor in batches; returns the number of vendors
+     * whose readiness was updated (dirty vendors without readiness metrics are dropped)
+     */
+    public int flush() {
+        int updated = 0;
+        boolean flushed = false;
+        while (true) {
+            synchronized (this) {
+                if (dirty.isEmpty()) {
+                    if (flushed) {
+                        skippedClean += Math.max(0, dashboard.getVendorCount() - updated);
+                        flushes++;
+                    }
+                    return updated;
+                }
+                int count = Math.min(FLUSH_BATCH, dirty.size());
+                String[] vendorIds = new String[count];
+                int[] inputs = new int[count];
+                Iterator<Map.Entry<String, Integer>> pending = dirty.entrySet().iterator();
+                for (int i = 0; i < count; i++) {
+                    Map.Entry<String, Integer> entry = pending.next();
+                    vendorIds[i] = entry.getKey();
+                    inputs[i] = entry.getValue();
+                    pending.remove();
+                }
+                updated += recompute(vendorIds, inputs);
+                flushed = true;
+            }
+        }
+    }
+
+    // Recompute the stale inputs of the vendors and push them to the dashboard in one call
+    private int recompute(String[] vendorIds, int[] inputs) {
+        double[] lockInScores = new double[vendorIds.length];
+        double[] migrationDifficulties = new double[vendorIds.length];
+        for (int i = 0; i < vendorIds.length; i++) {
+            lockInScores[i] = Double.NaN;
+            migrationDifficulties[i] = Double.NaN;
+            if ((inputs[i] & LOCK_IN) != 0) {
+                lockInScores[i] = analyzer.calculateLockInScore(vendorIds[i]);
+                lockInRecomputed++;
+            }
+            if ((inputs[i] & MIGRATION) != 0) {
+                migrationDifficulties[i] = migration.calculateMigrationDifficulty(vendorIds[i]);
+                migrationRecomputed++;
+            }
+        }
+        int updated = dashboard.updateScores(vendorIds, lockInScores, migrationDifficulties);
+        readinessRecomputed += updated;
+        return updated;
+    }
+
+    /**
+     * Flush dirty vendors in the background every period until stopped
+     */
+    public synchronized void startBackgroundFlush(long period, TimeUnit unit) {
+        stopBackgroundFlush();
+        background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-dataflow-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay(this::flush, period, period, unit);
+    }
+
+    public synchronized void stopBackgroundFlush() {
+        if (background != null) {
+            background.shutdown();
+            background = null;
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(invalidations, coalesced, lockInRecomputed, migrationRecomputed,
+                         readinessRecomputed, skippedClean, flushes, dirty.size());
+    }
+
+    /**
+     * Dirty vendors, in no particular order
+     */
+    public synchronized List<String> getPendingVendors() {
+        return new ArrayList<>(dirty.keySet());
+    }
+}
@@ -0,0 +1,61 @@
+package com.prodly;
+
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+
+/**
+ * Portfolio score distribution drawn from an engine's ScoreSketch: summary
+ * statistics and a histogram. The cost of a refresh depends on the sketch
+ * layout, not on the number of vendors.
+ */
+public class ScoreDistributionPane extends VBox {
+    private static final int BINS = 10;
+
+    private final Label summaryLabel = new Label();
+    private final XYChart.Series<String, Number> series = new XYChart.Series<>();
+
+    public ScoreDistributionPane(String title) {
+        super(10);
+
+        Label titleLabel = new Label(title);
+        titleLabel.getStyleClass().add("section-title");
+
+        CategoryAxis xAxis = new CategoryAxis();
+        xAxis.setLabel("Score");
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel("Vendors");
+        BarChart<String, Number> chart = new BarChart<>(xAxis, yAxis);
+        chart.setLegendVisible(false);
+        chart.setAnimated(false);
+        chart.setBarGap(1);
+        chart.setCategoryGap(2);
+        chart.setPrefHeight(200);
+        chart.getData().add(series);
+
+        getChildren().addAll(titleLabel, summaryLabel, chart);
+    }
+
+    public void show(ScoreSketch sketch) {
+        if (sketch.getCount() == 0) {
+            summaryLabel.setText("No vendors scored yet");
+        } else {
+            summaryLabel.setText(String.format(
+                "%d vendors   Mean %.1f   SD %.1f   P50 %.1f   P90 %.1f   P99 %.1f",
+                sketch.getCount(), sketch.getMean(), sketch.getStandardDeviation(),
+                sketch.quantile(0.5), sketch.quantile(0.9), sketch.quantile(0.99)));
+        }
+
+        long[] counts = sketch.histogram(BINS);
+        double binWidth = (sketch.getHigh() - sketch.getLow()) / BINS;
+        series.getData().clear();
+        for (int b = 0; b < BINS; b++) {
+            String range = String.format("%.0f-%.0f", sketch.getLow() + b * binWidth,
+                                         sketch.getLow() + (b + 1) * binWidth);
+            series.getData().add(new XYChart.Data<>(range, counts[b]));
+        }
+    }
+}
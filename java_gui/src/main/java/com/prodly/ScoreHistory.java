@@ -0,0 +1,60 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A vendor's recorded scores over time: one timestamp column and one value
+ * column per field, in time order
+ */
+public class ScoreHistory {
+    private final String vendorId;
+    private final List<ScoreQuery.Field> fields;
+    private final long[] times;
+    private final double[][] values;
+
+    public ScoreHistory(String vendorId, List<ScoreQuery.Field> fields, long[] times, double[][] values) {
+        if (fields.size() != values.length) {
+            throw new IllegalArgumentException("Expected one value column per field");
+        }
+        for (double[] column : values) {
+            if (column.length != times.length) {
+                throw new IllegalArgumentException("Columns must have one value per timestamp");
+            }
+        }
+        this.vendorId = vendorId;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.times = times;
+        this.values = values;
+    }
+
+    public String getVendorId() {
+        return vendorId;
+    }
+
+    public List<ScoreQuery.Field> getFields() {
+        return fields;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    // Backing arrays, shared rather than copied; do not modify
+    public long[] getTimes() {
+        return times;
+    }
+
+    public double[] getValues(ScoreQuery.Field field) {
+        int index = fields.indexOf(field);
+        if (index < 0) {
+            throw new IllegalArgumentException("Field not recorded: " + field);
+        }
+        return values[index];
+    }
+}
@@ -0,0 +1,799 @@
+package com.prodly;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only history of vendor scores, e.g. a daily snapshot of lock-in and
+ * exit readiness for the whole portfolio.
+ *
+ * Points go into an open segment that holds one compressed block per vendor:
+ * timestamps as delta-of-deltas (a regular daily snapshot costs one bit) and
+ * each value XORed with the vendor's previous value (an unchanged score costs
+ * one bit, a small change the few bits that differ). Once the open segment
+ * spans segmentSpan, it is sealed to a segment file and memory-mapped for
+ * reading. A segment file indexes its blocks by vendor, so reading one vendor
+ * decodes only that vendor's blocks in the segments overlapping the query.
+ *
+ * Segment file layout (big-endian):
+ * <pre>
+ *   int magic, int fieldCount, int vendorCount, int reserved
+ *   long minTime, long maxTime, long pointCount
+ *   int[fieldCount] field codes           (each array padded to 8 bytes)
+ *   int[vendorCount] points per vendor
+ *   int[vendorCount + 1] first word of each vendor's block
+ *   long[] block words
+ * </pre>
+ * Vendor ids are kept in vendors.dat in order of their first point; a vendor's
+ * position there is its key in every segment.
+ */
+public class ScoreHistoryStore implements AutoCloseable {
+    public static final long DEFAULT_SEGMENT_SPAN = 30L * 24 * 60 * 60 * 1000; // 30 days
+
+    private static final int MAGIC = 0x50534831; // "PSH1"
+    private static final int HEADER_BYTES = 40;
+    private static final String VENDORS_FILE = "vendors.dat";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final List<ScoreQuery.Field> fields;
+    private final int fieldCount;
+    private final long segmentSpan;
+
+    // Vendor keys, in order of first point
+    private final Map<String, Integer> vendorKeys = new HashMap<>();
+    private final List<String> vendorIds = new ArrayList<>();
+    private int persistedVendors;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private long sealedUntil = Long.MIN_VALUE; // Newest sealed point; earlier points are rejected
+    private long sealedPoints;
+    private int nextSegment;
+
+    // Open segment: one block per vendor key, encoder state alongside
+    private long[][] blockWords = new long[0][];
+    private long[] blockBits = new long[0];
+    private int[] blockCounts = new int[0];
+    private long[] lastTimes = new long[0];
+    private long[] lastDeltas = new long[0];
+    private long[][] lastValues;   // [field][key] double bits
+    private byte[][] lastLeading;  // [field][key] leading zeros of the last XOR window
+    private byte[][] lastTrailing; // [field][key] trailing zeros of the last XOR window
+    private long openMinTime = Long.MAX_VALUE;
+    private long openMaxTime = Long.MIN_VALUE;
+    private long openPoints;
+
+    public ScoreHistoryStore(Path directory, ScoreQuery.Field... fields) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SPAN, fields);
+    }
+
+    /**
+     * Open (or create) the store in directory, recording the given fields for each vendor
+     */
+    public ScoreHistoryStore(Path directory, long segmentSpan, ScoreQuery.Field... fields) throws IOException {
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("A score history needs at least one field");
+        }
+        if (segmentSpan <= 0) {
+            throw new IllegalArgumentException("Segment span must be positive");
+        }
+        this.directory = directory;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields.clone()));
+        this.fieldCount = fields.length;
+        this.segmentSpan = segmentSpan;
+        this.lastValues = new long[fieldCount][0];
+        this.lastLeading = new byte[fieldCount][0];
+        this.lastTrailing = new byte[fieldCount][0];
+
+        Files.createDirectories(directory);
+        loadVendors();
+        loadSegments();
+    }
+
+    public List<ScoreQuery.Field> getFields() {
+        return fields;
+    }
+
+    public synchronized int getVendorCount() {
+        return vendorIds.size();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public synchronized long getPointCount() {
+        return sealedPoints + openPoints;
+    }
+
+    /**
+     * Record one vendor's scores at time, one value per store field (NaN for unknown)
+     */
+    public synchronized void record(String vendorId, long time, double... values) throws IOException {
+        if (values.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " values");
+        }
+        int key = keyOf(vendorId);
+        checkTime(key, time);
+        sealIfSpanned(time);
+        double[][] columns = new double[fieldCount][];
+        for (int f = 0; f < fieldCount; f++) {
+            columns[f] = new double[] { values[f] };
+        }
+        append(key, time, columns, 0);
+    }
+
+    /**
+     * Record a snapshot of many vendors at time, e.g.
+     * record(now, dashboard.exportColumns(LOCK_IN_SCORE, EXIT_READINESS)).
+     * The export must contain every store field.
+     */
+    public synchronized void record(long time, FeatureColumns scores) throws IOException {
+        double[][] columns = new double[fieldCount][];
+        for (int f = 0; f < fieldCount; f++) {
+            columns[f] = scores.column(fields.get(f));
+        }
+        String[] ids = scores.getIds();
+        int[] keys = new int[ids.length];
+        for (int row = 0; row < keys.length; row++) {
+            keys[row] = keyOf(ids[row]); // A new vendor without points is harmless if this fails
+            checkTime(keys[row], time);
+        }
+        sealIfSpanned(time);
+        for (int row = 0; row < keys.length; row++) {
+            append(keys[row], time, columns, row);
+        }
+    }
+
+    private void checkTime(int key, long time) {
+        if (time < sealedUntil || time < lastTimes[key]) {
+            throw new IllegalArgumentException("Scores must be recorded in time order: " + time);
+        }
+    }
+
+    private void sealIfSpanned(long time) throws IOException {
+        if (openPoints > 0 && time - openMinTime >= segmentSpan) {
+            seal();
+        }
+    }
+
+    /**
+     * Seal the open segment to disk
+     */
+    public synchronized void flush() throws IOException {
+        if (openPoints > 0) {
+            seal();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        segments.clear(); // Mappings are released with the buffers
+    }
+
+    /**
+     * A vendor's points with from <= time <= to (empty for an unknown vendor)
+     */
+    public synchronized ScoreHistory range(String vendorId, long from, long to) {
+        Integer key = vendorKeys.get(vendorId);
+        HistoryBuilder history = new HistoryBuilder();
+        if (key != null) {
+            for (Segment segment : segments) {
+                if (segment.maxTime >= from && segment.minTime <= to) {
+                    readRange(segment.reader(key, fieldCount), from, to, history);
+                }
+            }
+            readRange(openReader(key), from, to, history);
+        }
+        return history.build(vendorId);
+    }
+
+    private static void readRange(BlockReader reader, long from, long to, HistoryBuilder history) {
+        if (reader == null) {
+            return;
+        }
+        while (reader.next() && reader.time <= to) {
+            if (reader.time >= from) {
+                history.add(reader);
+            }
+        }
+    }
+
+    /**
+     * A vendor's scores in [from, to] averaged per bucket of bucketMillis; each
+     * point is stamped with its bucket's start, and empty buckets are left out
+     */
+    public synchronized ScoreHistory downsample(String vendorId, long from, long to, long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket size must be positive");
+        }
+        ScoreHistory points = range(vendorId, from, to);
+        long[] times = points.getTimes();
+        double[][] values = new double[fieldCount][];
+        for (int f = 0; f < fieldCount; f++) {
+            values[f] = points.getValues(fields.get(f));
+        }
+        HistoryBuilder buckets = new HistoryBuilder();
+        double[] sums = new double[fieldCount];
+        int i = 0;
+        while (i < times.length) {
+            long bucket = Math.floorDiv(times[i] - from, bucketMillis);
+            Arrays.fill(sums, 0.0);
+            int count = 0;
+            for (; i < times.length && Math.floorDiv(times[i] - from, bucketMillis) == bucket; i++) {
+                for (int f = 0; f < fieldCount; f++) {
+                    sums[f] += values[f][i];
+                }
+                count++;
+            }
+            for (int f = 0; f < fieldCount; f++) {
+                sums[f] /= count;
+            }
+            buckets.add(from + bucket * bucketMillis, sums);
+        }
+        return buckets.build(vendorId);
+    }
+
+    /**
+     * A vendor's score for field as of time: the latest value recorded at or
+     * before time, skipping NaN (unknown) values; NaN if there is none
+     */
+    public synchronized double valueAt(String vendorId, ScoreQuery.Field field, long time) {
+        Integer key = vendorKeys.get(vendorId);
+        return key != null ? valueAt(key, fieldIndex(field), time) : Double.NaN;
+    }
+
+    /**
+     * The k vendors whose score for field changed most, up or down, between
+     * from and to (as of each time), largest change first. Vendors without a
+     * score at both times are left out.
+     */
+    public synchronized List<ScoreMove> largestMovers(ScoreQuery.Field field, long from, long to, int k) {
+        int f = fieldIndex(field);
+        int n = vendorIds.size();
+        double[] before = new double[n];
+        double[] after = new double[n];
+        IntStream.range(0, n).parallel().forEach(key -> {
+            before[key] = valueAt(key, f, from);
+            after[key] = valueAt(key, f, to);
+        });
+
+        // Min-heap of the k largest changes so far
+        Comparator<Integer> byChange = Comparator.comparingDouble(key -> Math.abs(after[key] - before[key]));
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, k), byChange);
+        for (int key = 0; key < n && k > 0; key++) {
+            double change = Math.abs(after[key] - before[key]);
+            if (Double.isNaN(change)) {
+                continue;
+            }
+            if (top.size() < k) {
+                top.add(key);
+            } else if (change > Math.abs(after[top.peek()] - before[top.peek()])) {
+                top.poll();
+                top.add(key);
+            }
+        }
+        List<ScoreMove> movers = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int key = top.poll();
+            movers.add(new ScoreMove(vendorIds.get(key), before[key], after[key]));
+        }
+        Collections.reverse(movers);
+        return movers;
+    }
+
+    private int fieldIndex(ScoreQuery.Field field) {
+        int index = fields.indexOf(field);
+        if (index < 0) {
+            throw new IllegalArgumentException("Field not recorded: " + field);
+        }
+        return index;
+    }
+
+    // Newest block first: a vendor's points are in time order across segments
+    private double valueAt(int key, int field, long time) {
+        double value = latestAtOrBefore(openReader(key), field, time);
+        for (int s = segments.size() - 1; s >= 0 && Double.isNaN(value); s--) {
+            Segment segment = segments.get(s);
+            if (segment.minTime <= time) {
+                value = latestAtOrBefore(segment.reader(key, fieldCount), field, time);
+            }
+        }
+        return value;
+    }
+
+    private static double latestAtOrBefore(BlockReader reader, int field, long time) {
+        double value = Double.NaN;
+        while (reader != null && reader.next() && reader.time <= time) {
+            double recorded = Double.longBitsToDouble(reader.valueBits[field]);
+            if (!Double.isNaN(recorded)) {
+                value = recorded;
+            }
+        }
+        return value;
+    }
+
+    // ---- Open segment ----
+
+    private int keyOf(String vendorId) {
+        Integer key = vendorKeys.get(vendorId);
+        if (key != null) {
+            return key;
+        }
+        int newKey = vendorIds.size();
+        vendorKeys.put(vendorId, newKey);
+        vendorIds.add(vendorId);
+        if (newKey >= blockCounts.length) {
+            int capacity = Math.max(1024, blockCounts.length * 2);
+            blockWords = Arrays.copyOf(blockWords, capacity);
+            blockBits = Arrays.copyOf(blockBits, capacity);
+            blockCounts = Arrays.copyOf(blockCounts, capacity);
+            lastTimes = Arrays.copyOf(lastTimes, capacity);
+            Arrays.fill(lastTimes, newKey, capacity, Long.MIN_VALUE);
+            lastDeltas = Arrays.copyOf(lastDeltas, capacity);
+            for (int f = 0; f < fieldCount; f++) {
+                lastValues[f] = Arrays.copyOf(lastValues[f], capacity);
+                lastLeading[f] = Arrays.copyOf(lastLeading[f], capacity);
+                lastTrailing[f] = Arrays.copyOf(lastTrailing[f], capacity);
+            }
+        }
+        return newKey;
+    }
+
+    private void append(int key, long time, double[][] columns, int row) {
+        if (blockCounts[key] == 0) {
+            // First point of the block in full
+            writeBits(key, time, 64);
+            lastDeltas[key] = 0;
+            for (int f = 0; f < fieldCount; f++) {
+                long bits = Double.doubleToLongBits(columns[f][row]);
+                writeBits(key, bits, 64);
+                lastValues[f][key] = bits;
+                lastLeading[f][key] = 64; // No XOR window yet
+                lastTrailing[f][key] = 64;
+            }
+        } else {
+            long delta = time - lastTimes[key];
+            writeDeltaOfDelta(key, delta - lastDeltas[key]);
+            lastDeltas[key] = delta;
+            for (int f = 0; f < fieldCount; f++) {
+                writeValue(key, f, Double.doubleToLongBits(columns[f][row]));
+            }
+        }
+        lastTimes[key] = time;
+        blockCounts[key]++;
+        openPoints++;
+        openMinTime = Math.min(openMinTime, time);
+        openMaxTime = Math.max(openMaxTime, time);
+    }
+
+    // '0' for 0, then '10', '110', '1110' for 14, 24 and 36 signed bits, '1111' for 64
+    private void writeDeltaOfDelta(int key, long dod) {
+        if (dod == 0) {
+            writeBits(key, 0, 1);
+        } else if (dod >= -(1L << 13) && dod < (1L << 13)) {
+            writeBits(key, 0b10, 2);
+            writeBits(key, dod, 14);
+        } else if (dod >= -(1L << 23) && dod < (1L << 23)) {
+            writeBits(key, 0b110, 3);
+            writeBits(key, dod, 24);
+        } else if (dod >= -(1L << 35) && dod < (1L << 35)) {
+            writeBits(key, 0b1110, 4);
+            writeBits(key, dod, 36);
+        } else {
+            writeBits(key, 0b1111, 4);
+            writeBits(key, dod, 64);
+        }
+    }
+
+    // '0' if unchanged; '10' + the XOR within the previous window; '11' + 5 bits
+    // leading zeros + 6 bits length - 1 + the XOR's meaningful bits
+    private void writeValue(int key, int f, long bits) {
+        long xor = bits ^ lastValues[f][key];
+        lastValues[f][key] = bits;
+        if (xor == 0) {
+            writeBits(key, 0, 1);
+            return;
+        }
+        int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+        int trailing = Long.numberOfTrailingZeros(xor);
+        int previousLeading = lastLeading[f][key];
+        int previousTrailing = lastTrailing[f][key];
+        if (leading >= previousLeading && trailing >= previousTrailing) {
+            writeBits(key, 0b10, 2);
+            writeBits(key, xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+        } else {
+            int length = 64 - leading - trailing;
+            writeBits(key, 0b11, 2);
+            writeBits(key, leading, 5);
+            writeBits(key, length - 1, 6);
+            writeBits(key, xor >>> trailing, length);
+            lastLeading[f][key] = (byte) leading;
+            lastTrailing[f][key] = (byte) trailing;
+        }
+    }
+
+    private void writeBits(int key, long value, int n) {
+        long position = blockBits[key];
+        long[] words = blockWords[key];
+        int needed = (int) ((position + n + 63) >>> 6);
+        if (words == null || needed > words.length) {
+            int capacity = Math.max(needed, words == null ? 4 : words.length * 2);
+            words = words == null ? new long[capacity] : Arrays.copyOf(words, capacity);
+            blockWords[key] = words;
+        }
+        if (value == 0) {
+            blockBits[key] = position + n; // Words start zeroed
+            return;
+        }
+        if (n < 64) {
+            value &= (1L << n) - 1;
+        }
+        int index = (int) (position >>> 6);
+        int free = 64 - (int) (position & 63);
+        if (n <= free) {
+            words[index] |= value << (free - n);
+        } else {
+            words[index] |= value >>> (n - free);
+            words[index + 1] |= value << (64 - (n - free));
+        }
+        blockBits[key] = position + n;
+    }
+
+    private BlockReader openReader(int key) {
+        if (blockCounts[key] == 0) {
+            return null;
+        }
+        return new BlockReader(blockWords[key], null, 0, blockCounts[key], fieldCount);
+    }
+
+    // ---- Segment files ----
+
+    private void seal() throws IOException {
+        persistVendors();
+        int vendorCount = vendorIds.size();
+        long dataWords = 0;
+        for (int key = 0; key < vendorCount; key++) {
+            dataWords += (blockBits[key] + 63) >>> 6;
+        }
+        long tableBytes = align(HEADER_BYTES + 4L * fieldCount) + align(4L * vendorCount) + align(4L * (vendorCount + 1));
+        if (tableBytes + 8 * (dataWords + 1) > Integer.MAX_VALUE) {
+            throw new IOException("Segment exceeds 2 GB; use a shorter segment span");
+        }
+
+        Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextSegment, SEGMENT_SUFFIX));
+        Path temporary = directory.resolve(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(fieldCount);
+            out.writeInt(vendorCount);
+            out.writeInt(0);
+            out.writeLong(openMinTime);
+            out.writeLong(openMaxTime);
+            out.writeLong(openPoints);
+            for (ScoreQuery.Field field : fields) {
+                out.writeInt(field.code);
+            }
+            pad(out);
+            for (int key = 0; key < vendorCount; key++) {
+                out.writeInt(blockCounts[key]);
+            }
+            pad(out);
+            int word = 0;
+            for (int key = 0; key < vendorCount; key++) {
+                out.writeInt(word);
+                word += (int) ((blockBits[key] + 63) >>> 6);
+            }
+            out.writeInt(word);
+            pad(out);
+            for (int key = 0; key < vendorCount; key++) {
+                long[] words = blockWords[key];
+                int used = (int) ((blockBits[key] + 63) >>> 6);
+                for (int i = 0; i < used; i++) {
+                    out.writeLong(words[i]);
+                }
+            }
+            out.writeLong(0); // Lets a reader fetch the word after the last one
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        segments.add(Segment.map(path, fields));
+        nextSegment++;
+        sealedUntil = Math.max(sealedUntil, openMaxTime);
+        sealedPoints += openPoints;
+
+        // Reuse the block buffers for the next segment
+        for (int key = 0; key < vendorCount; key++) {
+            if (blockWords[key] != null) {
+                Arrays.fill(blockWords[key], 0, (int) ((blockBits[key] + 63) >>> 6), 0L);
+            }
+            blockBits[key] = 0;
+            blockCounts[key] = 0;
+        }
+        openMinTime = Long.MAX_VALUE;
+        openMaxTime = Long.MIN_VALUE;
+        openPoints = 0;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static void pad(DataOutputStream out) throws IOException {
+        while (out.size() % 8 != 0) {
+            out.writeByte(0);
+        }
+    }
+
+    private void persistVendors() throws IOException {
+        if (persistedVendors == vendorIds.size()) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(directory.resolve(VENDORS_FILE),
+                                      StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            for (int key = persistedVendors; key < vendorIds.size(); key++) {
+                out.writeUTF(vendorIds.get(key));
+            }
+        }
+        persistedVendors = vendorIds.size();
+    }
+
+    private void loadVendors() throws IOException {
+        Path path = directory.resolve(VENDORS_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                keyOf(in.readUTF());
+            }
+        } catch (EOFException e) {
+            // End of the vendor list
+        }
+        persistedVendors = vendorIds.size();
+    }
+
+    private void loadSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    paths.add(path);
+                } else if (name.endsWith(".tmp")) {
+                    Files.delete(path); // Seal interrupted before the rename
+                }
+            }
+        }
+        Collections.sort(paths); // Zero-padded sequence numbers sort in sealing order
+        for (Path path : paths) {
+            Segment segment = Segment.map(path, fields);
+            if (segment.vendorCount > vendorIds.size()) {
+                throw new IOException("Segment " + path.getFileName() + " refers to unknown vendors");
+            }
+            segments.add(segment);
+            sealedUntil = Math.max(sealedUntil, segment.maxTime);
+            sealedPoints += segment.pointCount;
+            String name = path.getFileName().toString();
+            nextSegment = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                                          name.length() - SEGMENT_SUFFIX.length())) + 1;
+        }
+    }
+
+    /**
+     * A sealed, memory-mapped segment file
+     */
+    private static final class Segment {
+        final MappedByteBuffer buffer;
+        final int vendorCount;
+        final long minTime;
+        final long maxTime;
+        final long pointCount;
+        final int countsBase;
+        final int offsetsBase;
+        final int dataBase;
+
+        private Segment(MappedByteBuffer buffer, int fieldCount) {
+            this.buffer = buffer;
+            this.vendorCount = buffer.getInt(8);
+            this.minTime = buffer.getLong(16);
+            this.maxTime = buffer.getLong(24);
+            this.pointCount = buffer.getLong(32);
+            this.countsBase = (int) align(HEADER_BYTES + 4L * fieldCount);
+            this.offsetsBase = countsBase + (int) align(4L * vendorCount);
+            this.dataBase = offsetsBase + (int) align(4L * (vendorCount + 1));
+        }
+
+        static Segment map(Path path, List<ScoreQuery.Field> fields) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a score history segment: " + path.getFileName());
+            }
+            int fieldCount = buffer.getInt(4);
+            boolean sameFields = fieldCount == fields.size();
+            for (int f = 0; sameFields && f < fieldCount; f++) {
+                sameFields = buffer.getInt(HEADER_BYTES + 4 * f) == fields.get(f).code;
+            }
+            if (!sameFields) {
+                throw new IOException("Segment " + path.getFileName() + " records different fields");
+            }
+            return new Segment(buffer, fieldCount);
+        }
+
+        BlockReader reader(int key, int fieldCount) {
+            if (key >= vendorCount) {
+                return null;
+            }
+            int count = buffer.getInt(countsBase + 4 * key);
+            if (count == 0) {
+                return null;
+            }
+            int firstWord = buffer.getInt(offsetsBase + 4 * key);
+            return new BlockReader(null, buffer, dataBase + 8 * firstWord, count, fieldCount);
+        }
+    }
+
+    /**
+     * Decodes one vendor's block, from an open block's words or a mapped segment
+     */
+    private static final class BlockReader {
+        private final long[] words;
+        private final ByteBuffer buffer;
+        private final int base;
+        private int remaining;
+        private boolean started;
+        private long bitPosition;
+
+        long time;
+        private long delta;
+        final long[] valueBits;
+        private final int[] leading;
+        private final int[] trailing;
+
+        BlockReader(long[] words, ByteBuffer buffer, int base, int count, int fieldCount) {
+            this.words = words;
+            this.buffer = buffer;
+            this.base = base;
+            this.remaining = count;
+            this.valueBits = new long[fieldCount];
+            this.leading = new int[fieldCount];
+            this.trailing = new int[fieldCount];
+        }
+
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            if (!started) {
+                started = true;
+                time = readBits(64);
+                for (int f = 0; f < valueBits.length; f++) {
+                    valueBits[f] = readBits(64);
+                }
+                return true;
+            }
+            // Common case: regular interval and no value changed, all zero flags
+            if (readBits(1 + valueBits.length) == 0) {
+                time += delta;
+                return true;
+            }
+            bitPosition -= 1 + valueBits.length;
+            long dod;
+            if (readBits(1) == 0) {
+                dod = 0;
+            } else if (readBits(1) == 0) {
+                dod = signed(readBits(14), 14);
+            } else if (readBits(1) == 0) {
+                dod = signed(readBits(24), 24);
+            } else if (readBits(1) == 0) {
+                dod = signed(readBits(36), 36);
+            } else {
+                dod = readBits(64);
+            }
+            delta += dod;
+            time += delta;
+            for (int f = 0; f < valueBits.length; f++) {
+                if (readBits(1) == 0) {
+                    continue;
+                }
+                if (readBits(1) == 1) {
+                    leading[f] = (int) readBits(5);
+                    trailing[f] = 64 - leading[f] - ((int) readBits(6) + 1);
+                }
+                valueBits[f] ^= readBits(64 - leading[f] - trailing[f]) << trailing[f];
+            }
+            return true;
+        }
+
+        private long word(int index) {
+            return words != null ? words[index] : buffer.getLong(base + 8 * index);
+        }
+
+        // n in 1..64, most significant bit first
+        private long readBits(int n) {
+            int index = (int) (bitPosition >>> 6);
+            int offset = (int) (bitPosition & 63);
+            bitPosition += n;
+            long first = word(index) << offset;
+            if (offset + n <= 64) {
+                return first >>> (64 - n);
+            }
+            return (first >>> (64 - n)) | (word(index + 1) >>> (128 - offset - n));
+        }
+
+        private static long signed(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+
+    /**
+     * Accumulates decoded points into columns
+     */
+    private final class HistoryBuilder {
+        private long[] times = new long[16];
+        private final double[][] values = new double[fieldCount][16];
+        private int size;
+
+        void add(BlockReader reader) {
+            grow();
+            times[size] = reader.time;
+            for (int f = 0; f < fieldCount; f++) {
+                values[f][size] = Double.longBitsToDouble(reader.valueBits[f]);
+            }
+            size++;
+        }
+
+        void add(long time, double[] row) {
+            grow();
+            times[size] = time;
+            for (int f = 0; f < fieldCount; f++) {
+                values[f][size] = row[f];
+            }
+            size++;
+        }
+
+        private void grow() {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                for (int f = 0; f < fieldCount; f++) {
+                    values[f] = Arrays.copyOf(values[f], size * 2);
+                }
+            }
+        }
+
+        ScoreHistory build(String vendorId) {
+            double[][] columns = new double[fieldCount][];
+            for (int f = 0; f < fieldCount; f++) {
+                columns[f] = Arrays.copyOf(values[f], size);
+            }
+            return new ScoreHistory(vendorId, fields, Arrays.copyOf(times, size), columns);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.prodly;
+
+/**
+ * How far a vendor's score moved between two points in time
+ */
+public class ScoreMove {
+    private final String vendorId;
+    private final double before;
+    private final double after;
+
+    public ScoreMove(String vendorId, double before, double after) {
+        this.vendorId = vendorId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public String getVendorId() {
+        return vendorId;
+    }
+
+    public double getBefore() {
+        return before;
+    }
+
+    public double getAfter() {
+        return after;
+    }
+
+    public double getChange() {
+        return after - before;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.2f -> %.2f (%+.2f)", vendorId, before, after, getChange());
+    }
+}
@@ -0,0 +1,60 @@
+package com.prodly;
+
+/**
+ * One page of vendor scores streamed from an analyzer engine.
+ * Scores are held in a primitive buffer, so a page costs memory proportional
+ * to the page size rather than to the portfolio size.
+ */
+public class ScorePage {
+    private final String[] vendorIds;
+    private final String[] vendorNames; // null when the engine does not track names
+    private final double[] scores;
+    private final int offset;
+    private final int size;
+    private final long version;
+
+    public ScorePage(String[] vendorIds, String[] vendorNames, double[] scores,
+                     int offset, int size, long version) {
+        this.vendorIds = vendorIds;
+        this.vendorNames = vendorNames;
+        this.scores = scores;
+        this.offset = offset;
+        this.size = size;
+        this.version = version;
+    }
+
+    public String getVendorId(int index) {
+        return vendorIds[index];
+    }
+
+    public String getVendorName(int index) {
+        return vendorNames != null ? vendorNames[index] : null;
+    }
+
+    public double getScore(int index) {
+        return scores[index];
+    }
+
+    // Raw score buffer; only the first size() entries are valid
+    public double[] getScores() {
+        return scores;
+    }
+
+    // Position of the first entry of this page within the full result
+    public int getOffset() {
+        return offset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Engine version the page was read at
+    public long getVersion() {
+        return version;
+    }
+}
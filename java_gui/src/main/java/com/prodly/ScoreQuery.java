@@ -0,0 +1,181 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Filter, sort and limit query that is pushed down to the scoring engines,
+ * e.g. "lock-in > 70 and custom integration" or "readiness < 40, lowest first".
+ * Only matching rows cross JNI; field and operator codes match ScoreQuery.h.
+ */
+public class ScoreQuery {
+
+    public enum Field {
+        // Module 1 (vendor lock-in)
+        LOCK_IN_SCORE(0),
+        CONTRACT_VALUE(1),
+        CONTRACT_MONTHS(2),
+        DATA_VOLUME_GB(3),
+        API_DEPENDENCIES(4),
+        CUSTOM_INTEGRATION(5), // 1 = has custom integration
+        SWITCHING_COST(6),
+        // Module 3 (exit readiness); LOCK_IN_SCORE is also a readiness input
+        EXIT_READINESS(7),
+        MIGRATION_DIFFICULTY(8),
+        DATA_EXPORT_CAPABILITY(9),
+        CONTRACT_FLEXIBILITY(10),
+        TECHNICAL_COMPLEXITY(11);
+
+        final int code;
+
+        Field(int code) {
+            this.code = code;
+        }
+    }
+
+    public enum Op {
+        LT(0), LE(1), GT(2), GE(3), EQ(4), NE(5);
+
+        final int code;
+
+        Op(int code) {
+            this.code = code;
+        }
+
+        boolean test(double value, double operand) {
+            switch (this) {
+                case LT: return value < operand;
+                case LE: return value <= operand;
+                case GT: return value > operand;
+                case GE: return value >= operand;
+                case EQ: return value == operand;
+                default: return value != operand;
+            }
+        }
+    }
+
+    /**
+     * Field access for evaluating a query in Java (demo mode)
+     */
+    interface FieldValues<T> {
+        double get(T row, Field field);
+    }
+
+    private final List<Field> fields = new ArrayList<>();
+    private final List<Op> ops = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+    private Field sortField;
+    private boolean descending = true;
+    private int limit = -1;
+
+    public ScoreQuery where(Field field, Op op, double value) {
+        fields.add(field);
+        ops.add(op);
+        values.add(value);
+        return this;
+    }
+
+    public ScoreQuery orderBy(Field field, boolean descending) {
+        this.sortField = field;
+        this.descending = descending;
+        return this;
+    }
+
+    // At most limit rows; without a call every match is returned
+    public ScoreQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public Field getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Reject fields the target engine does not hold
+    void checkFields(List<Field> supported) {
+        for (Field field : fields) {
+            if (!supported.contains(field)) {
+                throw new IllegalArgumentException("Field not available in this module: " + field);
+            }
+        }
+        if (sortField != null && !supported.contains(sortField)) {
+            throw new IllegalArgumentException("Cannot sort by field not available in this module: " + sortField);
+        }
+    }
+
+    // Primitive encoding for the native call
+    int[] fieldCodes() {
+        int[] codes = new int[fields.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = fields.get(i).code;
+        }
+        return codes;
+    }
+
+    int[] opCodes() {
+        int[] codes = new int[ops.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = ops.get(i).code;
+        }
+        return codes;
+    }
+
+    double[] operands() {
+        double[] operands = new double[values.size()];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = values.get(i);
+        }
+        return operands;
+    }
+
+    int sortFieldCode() {
+        return sortField != null ? sortField.code : -1;
+    }
+
+    // Evaluate against in-memory rows (demo mode)
+    <T> List<T> apply(Iterable<T> rows, final FieldValues<T> accessor) {
+        List<T> result = new ArrayList<>();
+        for (T row : rows) {
+            if (matches(row, accessor)) {
+                result.add(row);
+            }
+        }
+
+        if (sortField != null) {
+            Comparator<T> order = new Comparator<T>() {
+                @Override
+                public int compare(T a, T b) {
+                    return Double.compare(accessor.get(a, sortField), accessor.get(b, sortField));
+                }
+            };
+            Collections.sort(result, descending ? order.reversed() : order);
+        }
+
+        if (limit >= 0 && result.size() > limit) {
+            return new ArrayList<>(result.subList(0, limit));
+        }
+        return result;
+    }
+
+    private <T> boolean matches(T row, FieldValues<T> accessor) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (!ops.get(i).test(accessor.get(row, fields.get(i)), values.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,299 @@
+package com.prodly;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming summary of a score distribution, same layout as the C++ ScoreSketch
+ * the engines keep: equal-width buckets over [low, high] (scores outside are
+ * clamped into the end buckets) with a Fenwick tree over the counts, so rank
+ * and quantile queries cost O(log buckets) whatever the portfolio size.
+ * Sketches with the same layout merge by adding counts, so partitions, worker
+ * threads or several engines can be summarized together. Count, mean and
+ * standard deviation are exact; quantiles, min and max are accurate to one
+ * bucket width (0.01 points by default).
+ */
+public class ScoreSketch {
+    private final double low;
+    private final double high;
+    private final double width;
+    private final long[] counts;
+    private final long[] tree; // Fenwick tree over counts, 1-based
+    private long total;
+    private double sum;
+    private double sumOfSquares;
+
+    public ScoreSketch() {
+        this(0.0, 100.0, 10000);
+    }
+
+    public ScoreSketch(double low, double high, int buckets) {
+        if (!(high > low) || buckets < 1) {
+            throw new IllegalArgumentException("Invalid sketch layout: [" + low + ", " + high + "] in " + buckets);
+        }
+        this.low = low;
+        this.high = high;
+        this.width = (high - low) / buckets;
+        this.counts = new long[buckets];
+        this.tree = new long[buckets + 1];
+    }
+
+    // Decode Object[] { double[] { low, high, sum, sumOfSquares }, long[] bucketCounts }
+    static ScoreSketch fromNative(Object[] result) {
+        double[] header = (double[]) result[0];
+        long[] bucketCounts = (long[]) result[1];
+        ScoreSketch sketch = new ScoreSketch(header[0], header[1], bucketCounts.length);
+        sketch.addCounts(bucketCounts);
+        sketch.sum = header[2];
+        sketch.sumOfSquares = header[3];
+        return sketch;
+    }
+
+    // Binary form for shipping between processes: the layout, the moments and the
+    // non-empty buckets as varint (gap, count) pairs, a few bytes per used bucket
+    void write(DataOutput out) throws IOException {
+        out.writeDouble(low);
+        out.writeDouble(high);
+        out.writeInt(counts.length);
+        out.writeDouble(sum);
+        out.writeDouble(sumOfSquares);
+        int used = 0;
+        for (long count : counts) {
+            if (count != 0) used++;
+        }
+        out.writeInt(used);
+        int previous = -1;
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] != 0) {
+                writeVarLong(out, b - previous);
+                writeVarLong(out, counts[b]);
+                previous = b;
+            }
+        }
+    }
+
+    static ScoreSketch read(DataInput in) throws IOException {
+        double low = in.readDouble();
+        double high = in.readDouble();
+        long[] bucketCounts = new long[in.readInt()];
+        double sum = in.readDouble();
+        double sumOfSquares = in.readDouble();
+        int used = in.readInt();
+        int bucket = -1;
+        for (int i = 0; i < used; i++) {
+            bucket += (int) readVarLong(in);
+            if (bucket < 0 || bucket >= bucketCounts.length) {
+                throw new IOException("Sketch bucket out of range: " + bucket);
+            }
+            bucketCounts[bucket] = readVarLong(in);
+        }
+        return fromNative(new Object[] { new double[] { low, high, sum, sumOfSquares }, bucketCounts });
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int bucketOf(double score) {
+        if (!(score > low)) {
+            return 0; // Also NaN
+        }
+        return (int) Math.min(counts.length - 1, (long) ((score - low) / width));
+    }
+
+    private void update(int bucket, long delta) {
+        counts[bucket] += delta;
+        for (int i = bucket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    public void add(double score) {
+        update(bucketOf(score), 1);
+        total++;
+        sum += score;
+        sumOfSquares += score * score;
+    }
+
+    /**
+     * Remove a score added earlier (ignored if its bucket is empty)
+     */
+    public void remove(double score) {
+        int bucket = bucketOf(score);
+        if (counts[bucket] == 0) {
+            return;
+        }
+        update(bucket, -1);
+        total--;
+        sum -= score;
+        sumOfSquares -= score * score;
+    }
+
+    public void replace(double before, double after) {
+        remove(before);
+        add(after);
+    }
+
+    /**
+     * Add the other sketch's scores; both must have the same layout
+     */
+    public void merge(ScoreSketch other) {
+        if (other.low != low || other.high != high || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Sketch layouts differ");
+        }
+        addCounts(other.counts);
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    // Add bucket counts and rebuild the Fenwick tree in O(buckets)
+    private void addCounts(long[] added) {
+        int n = counts.length;
+        for (int b = 0; b < n; b++) {
+            counts[b] += added[b];
+            total += added[b];
+            tree[b + 1] = counts[b];
+        }
+        for (int i = 1; i <= n; i++) {
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    public ScoreSketch copy() {
+        ScoreSketch copy = new ScoreSketch(low, high, counts.length);
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public double getMean() {
+        return total > 0 ? sum / total : 0.0;
+    }
+
+    public double getStandardDeviation() {
+        if (total == 0) {
+            return 0.0;
+        }
+        double mean = getMean();
+        return Math.sqrt(Math.max(0.0, sumOfSquares / total - mean * mean));
+    }
+
+    public double getMin() {
+        return total > 0 ? midpoint(bucketAtRank(0)) : 0.0;
+    }
+
+    public double getMax() {
+        return total > 0 ? midpoint(bucketAtRank(total - 1)) : 0.0;
+    }
+
+    /**
+     * Score at quantile q in [0, 1], e.g. 0.9 for P90 (0 when empty)
+     */
+    public double quantile(double q) {
+        if (total == 0) {
+            return 0.0;
+        }
+        q = Math.min(1.0, Math.max(0.0, q));
+        long rank = Math.min(total - 1, (long) Math.ceil(q * total) - 1);
+        return midpoint(bucketAtRank(Math.max(0, rank)));
+    }
+
+    /**
+     * Number of scores in each of `bins` equal ranges of [low, high], from the prefix
+     * counts at the bin edges: O(bins * log buckets)
+     */
+    public long[] histogram(int bins) {
+        long[] result = new long[bins];
+        long previous = 0;
+        for (int b = 0; b < bins; b++) {
+            int edge = (int) ((long) counts.length * (b + 1) / bins);
+            long prefix = prefix(edge);
+            result[b] = prefix - previous;
+            previous = prefix;
+        }
+        return result;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    // Scores in the first `buckets` buckets
+    private long prefix(int buckets) {
+        long count = 0;
+        for (int i = buckets; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    // First bucket whose prefix count exceeds rank (binary lifting down the tree)
+    private int bucketAtRank(long rank) {
+        int n = counts.length;
+        int position = 0;
+        for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= n && tree[next] <= rank) {
+                position = next;
+                rank -= tree[next];
+            }
+        }
+        return Math.min(position, n - 1);
+    }
+
+    private double midpoint(int bucket) {
+        return low + (bucket + 0.5) * width;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f p50=%.2f p90=%.2f p99=%.2f", total, getMean(),
+                             quantile(0.5), quantile(0.9), quantile(0.99));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ScoreSketch)) {
+            return false;
+        }
+        ScoreSketch other = (ScoreSketch) o;
+        return low == other.low && high == other.high && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+}
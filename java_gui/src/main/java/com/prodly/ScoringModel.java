@@ -0,0 +1,376 @@
+package com.prodly;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Weighted scoring formula: a score is the sum of factor points clamped to 0-100.
+ * A factor scores {@code weight} points when its input reaches {@code scale}
+ * (or, inverted, when the input is 0), linearly in between and beyond, and never
+ * more than {@code cap}. The input is one field, optionally divided by another;
+ * a ratio with a zero divisor scores no points.
+ *
+ * Models compile to a flat coefficient table, points = min(cap, intercept +
+ * slope * input), which the engines evaluate column-at-a-time and which
+ * {@link #compile} binds to row accessors once for demo-mode scoring.
+ *
+ * Profiles are loaded from properties under a prefix, e.g. for "lockIn.":
+ * <pre>
+ * lockIn.name=Procurement
+ * lockIn.factors=contract,switching
+ * lockIn.contract.field=CONTRACT_VALUE
+ * lockIn.contract.weight=40
+ * lockIn.contract.scale=5000000
+ * lockIn.contract.cap=40
+ * lockIn.switching.field=SWITCHING_COST
+ * lockIn.switching.per=CONTRACT_VALUE
+ * lockIn.switching.weight=60
+ * </pre>
+ * scale defaults to 1, cap to none and invert to false.
+ */
+public final class ScoringModel {
+
+    public static final class Factor {
+        private final String name;
+        private final ScoreQuery.Field field;
+        private final ScoreQuery.Field per; // Divisor field, null = none
+        private final double weight;
+        private final double scale;
+        private final double cap;
+        private final boolean invert;
+
+        public Factor(String name, ScoreQuery.Field field, ScoreQuery.Field per,
+                      double weight, double scale, double cap, boolean invert) {
+            if (field == null) {
+                throw new IllegalArgumentException("Factor " + name + " has no input field");
+            }
+            if (scale == 0.0 || Double.isNaN(scale) || Double.isNaN(weight) || Double.isNaN(cap)) {
+                throw new IllegalArgumentException("Factor " + name + " needs a non-zero scale and numeric weight/cap");
+            }
+            this.name = name;
+            this.field = field;
+            this.per = per;
+            this.weight = weight;
+            this.scale = scale;
+            this.cap = cap;
+            this.invert = invert;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ScoreQuery.Field getField() {
+            return field;
+        }
+
+        public ScoreQuery.Field getPer() {
+            return per;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public double getScale() {
+            return scale;
+        }
+
+        public double getCap() {
+            return cap;
+        }
+
+        public boolean isInverted() {
+            return invert;
+        }
+
+        double intercept() {
+            return invert ? weight : 0.0;
+        }
+
+        double slope() {
+            return invert ? -weight / scale : weight / scale;
+        }
+    }
+
+    private static final double NO_CAP = Double.POSITIVE_INFINITY;
+
+    private final String name;
+    private final List<Factor> factors;
+
+    // Compiled coefficient table, one entry per factor
+    private final int[] fields;
+    private final int[] perFields;
+    private final double[] intercepts;
+    private final double[] slopes;
+    private final double[] caps;
+
+    public ScoringModel(String name, List<Factor> factors) {
+        this.name = name;
+        this.factors = Collections.unmodifiableList(new ArrayList<>(factors));
+        int n = factors.size();
+        fields = new int[n];
+        perFields = new int[n];
+        intercepts = new double[n];
+        slopes = new double[n];
+        caps = new double[n];
+        for (int i = 0; i < n; i++) {
+            Factor factor = factors.get(i);
+            fields[i] = factor.field.code;
+            perFields[i] = factor.per != null ? factor.per.code : -1;
+            intercepts[i] = factor.intercept();
+            slopes[i] = factor.slope();
+            caps[i] = factor.cap;
+        }
+    }
+
+    // Contract value 25, duration 20, data volume 15, API dependencies 15,
+    // custom integration 10, switching cost / contract value 15 points
+    public static ScoringModel defaultLockIn() {
+        return new ScoringModel("Default lock-in", Arrays.asList(
+            new Factor("contract", ScoreQuery.Field.CONTRACT_VALUE, null, 25.0, 5000000.0, 25.0, false),
+            new Factor("duration", ScoreQuery.Field.CONTRACT_MONTHS, null, 20.0, 36.0, 20.0, false),
+            new Factor("data", ScoreQuery.Field.DATA_VOLUME_GB, null, 15.0, 1000.0, 15.0, false),
+            new Factor("api", ScoreQuery.Field.API_DEPENDENCIES, null, 15.0, 10.0, 15.0, false),
+            new Factor("integration", ScoreQuery.Field.CUSTOM_INTEGRATION, null, 10.0, 1.0, 10.0, false),
+            new Factor("switching", ScoreQuery.Field.SWITCHING_COST, ScoreQuery.Field.CONTRACT_VALUE,
+                       15.0, 1.0, 15.0, false)));
+    }
+
+    // Inverse lock-in 30, inverse migration difficulty 25, data export 20,
+    // contract flexibility 15, inverse technical complexity 10 points
+    public static ScoringModel defaultReadiness() {
+        return new ScoringModel("Default readiness", Arrays.asList(
+            new Factor("lockIn", ScoreQuery.Field.LOCK_IN_SCORE, null, 30.0, 100.0, NO_CAP, true),
+            new Factor("migration", ScoreQuery.Field.MIGRATION_DIFFICULTY, null, 25.0, 100.0, NO_CAP, true),
+            new Factor("dataExport", ScoreQuery.Field.DATA_EXPORT_CAPABILITY, null, 20.0, 100.0, NO_CAP, false),
+            new Factor("flexibility", ScoreQuery.Field.CONTRACT_FLEXIBILITY, null, 15.0, 100.0, NO_CAP, false),
+            new Factor("complexity", ScoreQuery.Field.TECHNICAL_COMPLEXITY, null, 10.0, 100.0, NO_CAP, true)));
+    }
+
+    /**
+     * Model defined by the properties under prefix (see the class comment)
+     */
+    public static ScoringModel fromProperties(Properties properties, String prefix) {
+        String factorList = required(properties, prefix + "factors");
+        List<Factor> factors = new ArrayList<>();
+        for (String factorName : factorList.split(",")) {
+            factorName = factorName.trim();
+            if (factorName.isEmpty()) continue;
+            String key = prefix + factorName + ".";
+            String per = properties.getProperty(key + "per");
+            String cap = properties.getProperty(key + "cap");
+            factors.add(new Factor(factorName,
+                                   field(required(properties, key + "field")),
+                                   per != null ? field(per) : null,
+                                   number(required(properties, key + "weight"), key + "weight"),
+                                   number(properties.getProperty(key + "scale", "1"), key + "scale"),
+                                   cap != null ? number(cap, key + "cap") : NO_CAP,
+                                   Boolean.parseBoolean(properties.getProperty(key + "invert", "false").trim())));
+        }
+        return new ScoringModel(properties.getProperty(prefix + "name", prefix + "model").trim(), factors);
+    }
+
+    /**
+     * Model defined by the properties file at path under prefix
+     */
+    public static ScoringModel load(Path path, String prefix) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties, prefix);
+    }
+
+    // Binary form for snapshots; read(write(model)) scores like model
+    void write(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(factors.size());
+        for (Factor factor : factors) {
+            out.writeUTF(factor.name);
+            out.writeUTF(factor.field.name());
+            out.writeUTF(factor.per != null ? factor.per.name() : "");
+            out.writeDouble(factor.weight);
+            out.writeDouble(factor.scale);
+            out.writeDouble(factor.cap);
+            out.writeBoolean(factor.invert);
+        }
+    }
+
+    static ScoringModel read(DataInput in) throws IOException {
+        String name = in.readUTF();
+        int count = in.readInt();
+        List<Factor> factors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String factorName = in.readUTF();
+            ScoreQuery.Field field = field(in.readUTF());
+            String per = in.readUTF();
+            factors.add(new Factor(factorName, field, per.isEmpty() ? null : field(per),
+                                   in.readDouble(), in.readDouble(), in.readDouble(), in.readBoolean()));
+        }
+        return new ScoringModel(name, factors);
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing scoring property: " + key);
+        }
+        return value.trim();
+    }
+
+    private static ScoreQuery.Field field(String value) {
+        try {
+            return ScoreQuery.Field.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown scoring field: " + value.trim());
+        }
+    }
+
+    private static double number(String value, String key) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Scoring property " + key + " is not a number: " + value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Factor> getFactors() {
+        return factors;
+    }
+
+    // Throws if a factor reads a field outside inputs
+    void requireInputs(List<ScoreQuery.Field> inputs) {
+        for (Factor factor : factors) {
+            if (!inputs.contains(factor.field) || (factor.per != null && !inputs.contains(factor.per))) {
+                throw new IllegalArgumentException("Factor " + factor.name + " must read one of " + inputs);
+            }
+        }
+    }
+
+    /**
+     * Bind the coefficient table to row accessors: field lookups happen once
+     * here, so scoring a row is a loop over arrays with no switch or map lookups
+     */
+    public <T> ToDoubleFunction<T> compile(Function<ScoreQuery.Field, ToDoubleFunction<T>> accessors) {
+        int n = factors.size();
+        // Generic arrays can only be created raw; they never escape this method
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        ToDoubleFunction<T>[] inputs = new ToDoubleFunction[n];
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        ToDoubleFunction<T>[] divisors = new ToDoubleFunction[n];
+        for (int i = 0; i < n; i++) {
+            Factor factor = factors.get(i);
+            inputs[i] = accessors.apply(factor.field);
+            divisors[i] = factor.per != null ? accessors.apply(factor.per) : null;
+        }
+        double[] a = intercepts.clone();
+        double[] b = slopes.clone();
+        double[] c = caps.clone();
+
+        return row -> {
+            double score = 0.0;
+            for (int i = 0; i < n; i++) {
+                double value = inputs[i].applyAsDouble(row);
+                if (divisors[i] != null) {
+                    double divisor = divisors[i].applyAsDouble(row);
+                    if (divisor == 0.0) continue;
+                    value /= divisor;
+                }
+                score += points(a[i], b[i], c[i], value);
+            }
+            return Math.min(100.0, Math.max(0.0, score));
+        };
+    }
+
+    /**
+     * Bind the coefficient table to double[] rows laid out like layout (the last
+     * position of a field wins). Scoring a row allocates nothing.
+     */
+    RowScorer bind(List<ScoreQuery.Field> layout) {
+        int n = factors.size();
+        int[] inputs = new int[n];
+        int[] divisors = new int[n];
+        for (int i = 0; i < n; i++) {
+            Factor factor = factors.get(i);
+            inputs[i] = layout.lastIndexOf(factor.field);
+            divisors[i] = factor.per != null ? layout.lastIndexOf(factor.per) : -1;
+            if (inputs[i] < 0 || (factor.per != null && divisors[i] < 0)) {
+                throw new IllegalArgumentException("Factor " + factor.name + " reads a field missing from " + layout);
+            }
+        }
+        return new RowScorer(inputs, divisors, intercepts.clone(), slopes.clone(), caps.clone());
+    }
+
+    static final class RowScorer {
+        private final int[] inputs;
+        private final int[] divisors; // -1 = none
+        private final double[] a;
+        private final double[] b;
+        private final double[] c;
+
+        private RowScorer(int[] inputs, int[] divisors, double[] a, double[] b, double[] c) {
+            this.inputs = inputs;
+            this.divisors = divisors;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
+
+        double score(double[] row) {
+            double score = 0.0;
+            for (int i = 0; i < inputs.length; i++) {
+                double value = row[inputs[i]];
+                if (divisors[i] >= 0) {
+                    double divisor = row[divisors[i]];
+                    if (divisor == 0.0) continue;
+                    value /= divisor;
+                }
+                score += points(a[i], b[i], c[i], value);
+            }
+            return Math.min(100.0, Math.max(0.0, score));
+        }
+    }
+
+    private static double points(double intercept, double slope, double cap, double value) {
+        double points = intercept + slope * value;
+        return points < cap ? points : cap; // Like std::min: NaN points count as the cap
+    }
+
+    // Coefficient table for the engines
+
+    int[] fieldCodes() {
+        return fields.clone();
+    }
+
+    int[] perFieldCodes() {
+        return perFields.clone();
+    }
+
+    double[] intercepts() {
+        return intercepts.clone();
+    }
+
+    double[] slopes() {
+        return slopes.clone();
+    }
+
+    double[] caps() {
+        return caps.clone();
+    }
+}
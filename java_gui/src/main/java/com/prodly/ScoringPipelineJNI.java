@@ -0,0 +1,210 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * JNI wrapper for the ScoringPipeline C++ class: lock-in, migration difficulty
+ * and exit readiness of every vendor in a batch, computed in one native call.
+ * Readiness reads the computed lock-in and migration scores instead of
+ * hand-entered ones. Vendors are scored in parallel partitions.
+ */
+public class ScoringPipelineJNI {
+    private static boolean libraryLoaded = false;
+
+    // Fields the lock-in and readiness models may read
+    private static final List<ScoreQuery.Field> LOCK_IN_INPUTS = PipelineBatch.FIELDS.subList(0, 6);
+    private static final List<ScoreQuery.Field> READINESS_INPUTS = Arrays.asList(
+        ScoreQuery.Field.LOCK_IN_SCORE, ScoreQuery.Field.MIGRATION_DIFFICULTY,
+        ScoreQuery.Field.DATA_EXPORT_CAPABILITY, ScoreQuery.Field.CONTRACT_FLEXIBILITY,
+        ScoreQuery.Field.TECHNICAL_COMPLEXITY);
+
+    static {
+        try {
+            System.loadLibrary("prodlyjni");
+            libraryLoaded = true;
+        } catch (UnsatisfiedLinkError e) {
+            libraryLoaded = false;
+        }
+    }
+
+    private native long createNativeObject();
+    private native void setLockInModel(long nativePtr, int[] fields, int[] perFields,
+                                       double[] intercepts, double[] slopes, double[] caps);
+    private native void setReadinessModel(long nativePtr, int[] fields, int[] perFields,
+                                          double[] intercepts, double[] slopes, double[] caps);
+    private native double[][] run(long nativePtr, int vendorCount, int[] fields, double[][] columns,
+                                  int[] taskOffsets, int[] taskDays, int[] taskDifficulty,
+                                  int[] dependencyOffsets, int[] dependencies, int threads);
+    private native void deleteNativeObject(long nativePtr);
+
+    private long nativePtr;
+    private ScoringModel lockInModel = ScoringModel.defaultLockIn();
+    private ScoringModel readinessModel = ScoringModel.defaultReadiness();
+
+    public ScoringPipelineJNI() {
+        nativePtr = libraryLoaded ? createNativeObject() : 0;
+    }
+
+    public void setLockInModel(ScoringModel model) {
+        model.requireInputs(LOCK_IN_INPUTS);
+        if (libraryLoaded) {
+            setLockInModel(nativePtr, model.fieldCodes(), model.perFieldCodes(),
+                           model.intercepts(), model.slopes(), model.caps());
+        }
+        lockInModel = model;
+    }
+
+    public void setReadinessModel(ScoringModel model) {
+        model.requireInputs(READINESS_INPUTS);
+        if (libraryLoaded) {
+            setReadinessModel(nativePtr, model.fieldCodes(), model.perFieldCodes(),
+                              model.intercepts(), model.slopes(), model.caps());
+        }
+        readinessModel = model;
+    }
+
+    public ScoringModel getLockInModel() {
+        return lockInModel;
+    }
+
+    public ScoringModel getReadinessModel() {
+        return readinessModel;
+    }
+
+    /**
+     * Score every vendor of the batch on all hardware threads
+     */
+    public PipelineScores run(PipelineBatch batch) {
+        return run(batch, 0);
+    }
+
+    /**
+     * Score every vendor of the batch (threads <= 0 uses all hardware threads)
+     */
+    public PipelineScores run(PipelineBatch batch, int threads) {
+        PipelineBatch.Layout layout = batch.layout();
+        String[] vendorIds = new String[layout.vendorCount];
+        for (int row = 0; row < vendorIds.length; row++) {
+            vendorIds[row] = batch.getVendorId(row);
+        }
+        if (!libraryLoaded) {
+            return runDemo(vendorIds, layout, threads);
+        }
+        int[] fields = new int[PipelineBatch.FIELDS.size()];
+        for (int c = 0; c < fields.length; c++) {
+            fields[c] = PipelineBatch.FIELDS.get(c).code;
+        }
+        return PipelineScores.fromNative(vendorIds,
+            run(nativePtr, layout.vendorCount, fields, layout.columns, layout.taskOffsets, layout.taskDays,
+                layout.taskDifficulty, layout.dependencyOffsets, layout.dependencies, threads));
+    }
+
+    // Demo mode: the same stages over double[] rows laid out as FIELDS, lock-in, migration difficulty
+    private PipelineScores runDemo(String[] vendorIds, PipelineBatch.Layout layout, int threads) {
+        List<ScoreQuery.Field> rowLayout = new ArrayList<>(PipelineBatch.FIELDS);
+        rowLayout.add(ScoreQuery.Field.LOCK_IN_SCORE);
+        rowLayout.add(ScoreQuery.Field.MIGRATION_DIFFICULTY); // Computed value shadows the typed-in column
+        ScoringModel.RowScorer lockIn = lockInModel.bind(rowLayout);
+        ScoringModel.RowScorer readiness = readinessModel.bind(rowLayout);
+        int dimensions = PipelineBatch.FIELDS.size();
+
+        int n = layout.vendorCount;
+        double[] lockInScores = new double[n];
+        double[] migrationScores = new double[n];
+        double[] readinessScores = new double[n];
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int chunks = Math.max(1, Math.min(n, workers * 4));
+        int chunkSize = (n + chunks - 1) / chunks;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * chunkSize;
+            int to = Math.min(n, from + chunkSize);
+            double[] row = new double[dimensions + 2];
+            for (int vendor = from; vendor < to; vendor++) {
+                for (int j = 0; j < dimensions; j++) {
+                    row[j] = layout.columns[j][vendor];
+                }
+                row[dimensions] = lockIn.score(row);
+                row[dimensions + 1] = migrationDifficulty(layout, vendor);
+                lockInScores[vendor] = row[dimensions];
+                migrationScores[vendor] = row[dimensions + 1];
+                readinessScores[vendor] = readiness.score(row);
+            }
+        });
+        return new PipelineScores(vendorIds, lockInScores, migrationScores, readinessScores);
+    }
+
+    // Same formula as ScoringPipeline::migrationDifficulty: total days, task count, longest chain
+    private static double migrationDifficulty(PipelineBatch.Layout layout, int vendor) {
+        int first = layout.taskOffsets[vendor];
+        int last = layout.taskOffsets[vendor + 1];
+        int count = last - first;
+        if (count == 0) {
+            return layout.columns[PipelineBatch.FIELDS.indexOf(ScoreQuery.Field.MIGRATION_DIFFICULTY)][vendor];
+        }
+
+        // Successor lists (CSR) of the vendor's tasks
+        int totalDays = 0;
+        int[] indegree = new int[count];
+        int[] successorOffsets = new int[count + 1];
+        for (int task = first; task < last; task++) {
+            totalDays += layout.taskDays[task];
+            for (int d = layout.dependencyOffsets[task]; d < layout.dependencyOffsets[task + 1]; d++) {
+                int dependency = layout.dependencies[d];
+                if (dependency < first || dependency >= last || dependency == task) continue;
+                successorOffsets[dependency - first + 1]++;
+                indegree[task - first]++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            successorOffsets[i + 1] += successorOffsets[i];
+        }
+        int[] successors = new int[successorOffsets[count]];
+        int[] cursor = Arrays.copyOf(successorOffsets, count);
+        for (int task = first; task < last; task++) {
+            for (int d = layout.dependencyOffsets[task]; d < layout.dependencyOffsets[task + 1]; d++) {
+                int dependency = layout.dependencies[d];
+                if (dependency < first || dependency >= last || dependency == task) continue;
+                successors[cursor[dependency - first]++] = task - first;
+            }
+        }
+
+        // Kahn's order; chain[i] = tasks on the longest dependency chain ending at i
+        int[] chain = new int[count];
+        int[] ready = new int[count];
+        int readyCount = 0;
+        for (int i = 0; i < count; i++) {
+            chain[i] = 1;
+            if (indegree[i] == 0) ready[readyCount++] = i;
+        }
+        int longest = 0;
+        for (int head = 0; head < readyCount; head++) {
+            int task = ready[head];
+            longest = Math.max(longest, chain[task]);
+            for (int s = successorOffsets[task]; s < successorOffsets[task + 1]; s++) {
+                int successor = successors[s];
+                chain[successor] = Math.max(chain[successor], chain[task] + 1);
+                if (--indegree[successor] == 0) {
+                    ready[readyCount++] = successor;
+                }
+            }
+        }
+
+        double score = Math.min(40.0, (totalDays / 180.0) * 40.0)
+                     + Math.min(30.0, (count / 20.0) * 30.0)
+                     + Math.min(30.0, (longest / 15.0) * 30.0);
+        return Math.min(100.0, Math.max(0.0, score));
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        if (libraryLoaded && nativePtr != 0) {
+            deleteNativeObject(nativePtr);
+            nativePtr = 0;
+        }
+        super.finalize();
+    }
+}
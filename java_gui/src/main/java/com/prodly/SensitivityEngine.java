@@ -0,0 +1,299 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * What-if analysis of the lock-in -> readiness chain. Every vendor's inputs are
+ * perturbed, the lock-in model rescores the vendor, and that lock-in score feeds
+ * the readiness model's lock-in input, so a change to e.g. contract months shows
+ * up in both scores.
+ *
+ * The inputs are primitive columns exported once from the engines and both
+ * scoring models are bound to a flat row layout, so the hot loop only reads and
+ * writes a per-chunk double[] row. Vendors are split into chunks on the
+ * fork-join pool; random scenarios draw from one RNG per vendor, seeded from
+ * the seed and the vendor's row, so results depend only on the seed and not
+ * on the number of chunks or cores.
+ */
+public class SensitivityEngine {
+
+    /**
+     * Steps applied to one input field: relative steps scale the value by
+     * (1 + step), absolute steps add the step
+     */
+    public static final class Perturbation {
+        private final ScoreQuery.Field field;
+        private final double[] steps;
+        private final boolean relative;
+
+        private Perturbation(ScoreQuery.Field field, double[] steps, boolean relative) {
+            if (steps.length == 0) {
+                throw new IllegalArgumentException("Perturbation of " + field + " needs at least one step");
+            }
+            this.field = field;
+            this.steps = steps.clone();
+            this.relative = relative;
+        }
+
+        // e.g. relative(CONTRACT_MONTHS, -0.2, 0.2) for -20% / +20%
+        public static Perturbation relative(ScoreQuery.Field field, double... fractions) {
+            return new Perturbation(field, fractions, true);
+        }
+
+        // e.g. absolute(DATA_EXPORT_CAPABILITY, -10, 10) for -10 / +10 points
+        public static Perturbation absolute(ScoreQuery.Field field, double... deltas) {
+            return new Perturbation(field, deltas, false);
+        }
+
+        public ScoreQuery.Field getField() {
+            return field;
+        }
+
+        public double[] getSteps() {
+            return steps.clone();
+        }
+
+        public boolean isRelative() {
+            return relative;
+        }
+    }
+
+    // Lock-in and readiness inputs exported by forPortfolio
+    private static final ScoreQuery.Field[] LOCK_IN_INPUTS = {
+        ScoreQuery.Field.CONTRACT_VALUE, ScoreQuery.Field.CONTRACT_MONTHS,
+        ScoreQuery.Field.DATA_VOLUME_GB, ScoreQuery.Field.API_DEPENDENCIES,
+        ScoreQuery.Field.CUSTOM_INTEGRATION, ScoreQuery.Field.SWITCHING_COST
+    };
+    private static final ScoreQuery.Field[] READINESS_INPUTS = {
+        ScoreQuery.Field.MIGRATION_DIFFICULTY, ScoreQuery.Field.DATA_EXPORT_CAPABILITY,
+        ScoreQuery.Field.CONTRACT_FLEXIBILITY, ScoreQuery.Field.TECHNICAL_COMPLEXITY
+    };
+
+    private final FeatureColumns inputs;
+    private final double[][] columns;
+    private final int dimensions; // Row width without the chained lock-in score at the end
+    private final ScoringModel.RowScorer lockIn;
+    private final ScoringModel.RowScorer readiness;
+
+    /**
+     * Engine over exported inputs. The readiness model's LOCK_IN_SCORE input is
+     * the lock-in model's score; every other field either model reads must be a column.
+     */
+    public SensitivityEngine(FeatureColumns inputs, ScoringModel lockInModel, ScoringModel readinessModel) {
+        this.inputs = inputs;
+        this.dimensions = inputs.dimensions();
+        this.columns = new double[dimensions][];
+        for (int j = 0; j < dimensions; j++) {
+            columns[j] = inputs.column(j);
+        }
+        List<ScoreQuery.Field> layout = new ArrayList<>(inputs.getFields());
+        layout.add(ScoreQuery.Field.LOCK_IN_SCORE);
+        this.lockIn = lockInModel.bind(layout);
+        this.readiness = readinessModel.bind(layout);
+    }
+
+    /**
+     * Engine over the vendors known to both engines, scored with their current models
+     */
+    public static SensitivityEngine forPortfolio(VendorLockInAnalyzerJNI analyzer,
+                                                 ExitReadinessDashboardJNI dashboard) {
+        FeatureColumns inputs = analyzer.exportColumns(LOCK_IN_INPUTS)
+                                        .join(dashboard.exportColumns(READINESS_INPUTS));
+        return new SensitivityEngine(inputs, analyzer.getScoringModel(), dashboard.getScoringModel());
+    }
+
+    public int size() {
+        return inputs.size();
+    }
+
+    /**
+     * Portfolio tornado: mean score changes over all vendors for every step of every perturbation
+     */
+    public Tornado tornado(List<Perturbation> perturbations) {
+        return tornado(0, inputs.size(), perturbations);
+    }
+
+    /**
+     * Tornado of a single vendor
+     */
+    public Tornado tornado(String vendorId, List<Perturbation> perturbations) {
+        int row = Arrays.asList(inputs.getIds()).indexOf(vendorId);
+        if (row < 0) {
+            throw new IllegalArgumentException("Unknown vendor: " + vendorId);
+        }
+        return tornado(row, row + 1, perturbations);
+    }
+
+    private Tornado tornado(int first, int last, List<Perturbation> perturbations) {
+        int count = perturbations.size();
+        int[] targets = columnsOf(perturbations);
+        boolean[] relative = new boolean[count];
+        int[] stepOffsets = new int[count + 1];
+        for (int p = 0; p < count; p++) {
+            relative[p] = perturbations.get(p).relative;
+            stepOffsets[p + 1] = stepOffsets[p] + perturbations.get(p).steps.length;
+        }
+        double[] steps = new double[stepOffsets[count]];
+        for (int p = 0; p < count; p++) {
+            double[] own = perturbations.get(p).steps;
+            System.arraycopy(own, 0, steps, stepOffsets[p], own.length);
+        }
+
+        // Per chunk: base lock-in, base readiness, then (lock-in, readiness) delta sums per step
+        int vendors = last - first;
+        int chunks = Math.max(1, Math.min(vendors, Runtime.getRuntime().availableProcessors() * 4));
+        int chunkSize = (vendors + chunks - 1) / chunks;
+        double[][] partial = new double[chunks][2 + 2 * steps.length];
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = first + chunk * chunkSize;
+            int to = Math.min(last, from + chunkSize);
+            double[] row = new double[dimensions + 1];
+            double[] sums = partial[chunk];
+            for (int vendor = from; vendor < to; vendor++) {
+                load(vendor, row);
+                double baseLockIn = lockIn.score(row);
+                row[dimensions] = baseLockIn;
+                double baseReadiness = readiness.score(row);
+                sums[0] += baseLockIn;
+                sums[1] += baseReadiness;
+
+                for (int p = 0; p < count; p++) {
+                    int column = targets[p];
+                    double original = row[column];
+                    for (int s = stepOffsets[p]; s < stepOffsets[p + 1]; s++) {
+                        row[column] = relative[p] ? original * (1.0 + steps[s]) : original + steps[s];
+                        double score = lockIn.score(row);
+                        row[dimensions] = score;
+                        sums[2 + 2 * s] += score - baseLockIn;
+                        sums[3 + 2 * s] += readiness.score(row) - baseReadiness;
+                        row[dimensions] = baseLockIn;
+                    }
+                    row[column] = original;
+                }
+            }
+        });
+
+        double[] total = new double[2 + 2 * steps.length];
+        for (double[] sums : partial) {
+            for (int i = 0; i < total.length; i++) {
+                total[i] += sums[i];
+            }
+        }
+        double scale = vendors > 0 ? 1.0 / vendors : 0.0;
+        List<Tornado.Bar> bars = new ArrayList<>();
+        for (int p = 0; p < count; p++) {
+            int stepCount = stepOffsets[p + 1] - stepOffsets[p];
+            double[] lockInDeltas = new double[stepCount];
+            double[] readinessDeltas = new double[stepCount];
+            for (int s = 0; s < stepCount; s++) {
+                lockInDeltas[s] = total[2 + 2 * (stepOffsets[p] + s)] * scale;
+                readinessDeltas[s] = total[3 + 2 * (stepOffsets[p] + s)] * scale;
+            }
+            bars.add(new Tornado.Bar(perturbations.get(p).field, perturbations.get(p).getSteps(),
+                                     lockInDeltas, readinessDeltas));
+        }
+        return new Tornado(vendors, total[0] * scale, total[1] * scale,
+                           (long) vendors * (steps.length + 1), bars);
+    }
+
+    /**
+     * Random scenarios: in each, every perturbed field moves by a step drawn
+     * uniformly between its smallest and largest step, all fields at once
+     */
+    public ScenarioSummary simulate(List<Perturbation> ranges, int scenarios, long seed) {
+        int count = ranges.size();
+        int[] targets = columnsOf(ranges);
+        boolean[] relative = new boolean[count];
+        double[] low = new double[count];
+        double[] width = new double[count];
+        for (int p = 0; p < count; p++) {
+            Perturbation range = ranges.get(p);
+            double min = Arrays.stream(range.steps).min().getAsDouble();
+            double max = Arrays.stream(range.steps).max().getAsDouble();
+            relative[p] = range.relative;
+            low[p] = min;
+            width[p] = max - min;
+        }
+
+        int n = inputs.size();
+        double[] meanLockIn = new double[n];
+        double[] meanReadiness = new double[n];
+        double[] minReadiness = new double[n];
+        double[] maxReadiness = new double[n];
+        int runs = Math.max(0, scenarios);
+        int chunks = Math.max(1, Math.min(n, Runtime.getRuntime().availableProcessors() * 4));
+        int chunkSize = (n + chunks - 1) / chunks;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * chunkSize;
+            int to = Math.min(n, from + chunkSize);
+            double[] row = new double[dimensions + 1];
+            double[] base = new double[count];
+            for (int vendor = from; vendor < to; vendor++) {
+                SplittableRandom random = new SplittableRandom(vendorSeed(seed, vendor));
+                load(vendor, row);
+                double baseLockIn = lockIn.score(row);
+                row[dimensions] = baseLockIn;
+                double baseReadiness = readiness.score(row);
+                for (int p = 0; p < count; p++) {
+                    base[p] = row[targets[p]];
+                }
+
+                double lockInSum = 0.0;
+                double readinessSum = 0.0;
+                double lowest = runs > 0 ? Double.POSITIVE_INFINITY : 0.0;
+                double highest = runs > 0 ? Double.NEGATIVE_INFINITY : 0.0;
+                for (int scenario = 0; scenario < runs; scenario++) {
+                    for (int p = 0; p < count; p++) {
+                        double step = low[p] + width[p] * random.nextDouble();
+                        row[targets[p]] = relative[p] ? base[p] * (1.0 + step) : base[p] + step;
+                    }
+                    double score = lockIn.score(row);
+                    row[dimensions] = score;
+                    double delta = readiness.score(row) - baseReadiness;
+                    lockInSum += score - baseLockIn;
+                    readinessSum += delta;
+                    lowest = Math.min(lowest, delta);
+                    highest = Math.max(highest, delta);
+                }
+                meanLockIn[vendor] = runs > 0 ? lockInSum / runs : 0.0;
+                meanReadiness[vendor] = runs > 0 ? readinessSum / runs : 0.0;
+                minReadiness[vendor] = lowest;
+                maxReadiness[vendor] = highest;
+            }
+        });
+
+        return new ScenarioSummary(inputs.getIds(), runs, meanLockIn, meanReadiness, minReadiness, maxReadiness);
+    }
+
+    // Seeds adjacent rows far apart: SplittableRandom steps its state by a fixed
+    // gamma, so seed + row would give neighbouring vendors overlapping streams
+    private static long vendorSeed(long seed, int vendor) {
+        long z = seed + 0x9E3779B97F4A7C15L * (vendor + 1L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int[] columnsOf(List<Perturbation> perturbations) {
+        int[] targets = new int[perturbations.size()];
+        for (int p = 0; p < targets.length; p++) {
+            targets[p] = inputs.getFields().indexOf(perturbations.get(p).field);
+            if (targets[p] < 0) {
+                throw new IllegalArgumentException("Field is not an input column: " + perturbations.get(p).field);
+            }
+        }
+        return targets;
+    }
+
+    private void load(int vendor, double[] row) {
+        for (int j = 0; j < dimensions; j++) {
+            row[j] = columns[j][vendor];
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.prodly;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator of a vendor lock-in engine partitioned across ShardWorker
+ * processes, on this machine or others. Vendors are assigned to shards by a
+ * consistent hash of their id (ShardRing); per-vendor calls go to the owning
+ * shard, and portfolio-wide queries are sent to every shard before any reply
+ * is read, so the shards work in parallel, then merged: scores concatenated,
+ * top-k lists merged by score and score sketches added.
+ *
+ * addVendor() is buffered per shard and sent in batches of about 64 KB, with
+ * up to MAX_IN_FLIGHT_BATCHES unacknowledged per shard, so loading is bounded
+ * by the shards rather than by round trips. Any other call first sends the
+ * buffered adds of the shards it touches, so it sees them. A rejected add is
+ * reported by the next call to that shard (or flush()), as with a buffered
+ * writer. Dependencies and scenario queries stay with single-process analyzers.
+ */
+public final class ShardCluster implements AutoCloseable {
+    private static final int BATCH_BYTES = 64 * 1024;
+    private static final int MAX_IN_FLIGHT_BATCHES = 8;
+    private static final String READY_PREFIX = "ShardWorker listening on port ";
+
+    private final ShardRing ring;
+    private final Shard[] shards;
+    private final List<Process> processes; // Empty unless the cluster launched its workers
+    private boolean closed;
+
+    private static final class Shard {
+        final int index;
+        final SocketChannel channel;
+        final ByteBuffer header = ByteBuffer.allocate(4);
+        final ShardProtocol.FrameBuffer batch = new ShardProtocol.FrameBuffer(BATCH_BYTES + 1024);
+        final ShardProtocol.FrameBuffer request = new ShardProtocol.FrameBuffer(256);
+        int inFlight; // Requests sent whose responses are unread
+        IOException deferred; // First rejected add batch, reported on the next response
+
+        Shard(int index, SocketChannel channel) {
+            this.index = index;
+            this.channel = channel;
+            batch.start(ShardProtocol.OP_ADD_VENDORS);
+        }
+
+        void send(ShardProtocol.FrameBuffer frame) throws IOException {
+            ShardProtocol.writeFully(channel, frame.frame());
+            inFlight++;
+        }
+
+        // Send the buffered adds, keeping at most MAX_IN_FLIGHT_BATCHES unacknowledged
+        void sendBatch() throws IOException {
+            if (batch.bodySize() > 1) {
+                send(batch);
+                batch.start(ShardProtocol.OP_ADD_VENDORS);
+                while (inFlight > MAX_IN_FLIGHT_BATCHES) {
+                    acknowledge();
+                }
+            }
+        }
+
+        // Read the oldest outstanding response, which must be an add batch
+        void acknowledge() throws IOException {
+            byte[] body = ShardProtocol.readFrame(channel, header);
+            inFlight--;
+            if (body[0] != ShardProtocol.STATUS_OK && deferred == null) {
+                deferred = failure(body);
+            }
+        }
+
+        // Response to the last request sent, after the add batches before it
+        DataInputStream receive() throws IOException {
+            while (inFlight > 1) {
+                acknowledge();
+            }
+            byte[] body = ShardProtocol.readFrame(channel, header);
+            inFlight--;
+            if (deferred != null) {
+                IOException e = deferred;
+                deferred = null;
+                throw e;
+            }
+            if (body[0] != ShardProtocol.STATUS_OK) {
+                throw failure(body);
+            }
+            return ShardProtocol.body(body, 0, body.length);
+        }
+
+        void flush() throws IOException {
+            sendBatch();
+            while (inFlight > 0) {
+                acknowledge();
+            }
+            if (deferred != null) {
+                IOException e = deferred;
+                deferred = null;
+                throw e;
+            }
+        }
+
+        IOException failure(byte[] body) throws IOException {
+            return new IOException("Shard " + index + ": " + ShardProtocol.body(body, 0, body.length).readUTF());
+        }
+    }
+
+    private ShardCluster(List<SocketChannel> channels, List<Process> processes) {
+        this.ring = new ShardRing(channels.size());
+        this.shards = new Shard[channels.size()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, channels.get(i));
+        }
+        this.processes = processes;
+    }
+
+    /**
+     * Coordinate workers already running at these addresses. The order defines
+     * the shards, so it must be the same every time the workers are reused.
+     * close() leaves the workers running.
+     */
+    public static ShardCluster connect(List<InetSocketAddress> workers) throws IOException {
+        return new ShardCluster(open(workers), new ArrayList<>());
+    }
+
+    /**
+     * Start `shards` ShardWorker processes on this machine with the current
+     * JVM, class path and library path (plus jvmOptions, e.g. "-Xmx2g"), and
+     * coordinate them. close() shuts the workers down.
+     */
+    public static ShardCluster launchLocal(int shards, String... jvmOptions) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("A cluster needs at least one shard: " + shards);
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Djava.library.path=" + System.getProperty("java.library.path", ""));
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add(ShardWorker.class.getName());
+        command.add("0");
+
+        List<Process> processes = new ArrayList<>();
+        try {
+            // Start every worker before waiting for any, so they boot in parallel
+            for (int i = 0; i < shards; i++) {
+                processes.add(new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+            }
+            List<InetSocketAddress> addresses = new ArrayList<>();
+            for (Process process : processes) {
+                addresses.add(new InetSocketAddress("127.0.0.1", awaitPort(process)));
+            }
+            return new ShardCluster(open(addresses), processes);
+        } catch (IOException | RuntimeException e) {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            throw e;
+        }
+    }
+
+    // Read the worker's port from its first line, then discard the rest of its stdout
+    private static int awaitPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null && !line.startsWith(READY_PREFIX)) {
+            // Skip library loading messages
+        }
+        if (line == null) {
+            throw new IOException("Shard worker exited before listening");
+        }
+        Thread drain = new Thread(() -> {
+            try {
+                while (reader.readLine() != null) {
+                    // Demo mode prints a line per vendor
+                }
+            } catch (IOException e) {
+                // Worker exited
+            }
+        }, "shard-worker-output");
+        drain.setDaemon(true);
+        drain.start();
+        return Integer.parseInt(line.substring(READY_PREFIX.length()).trim());
+    }
+
+    private static List<SocketChannel> open(List<InetSocketAddress> workers) throws IOException {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one shard");
+        }
+        List<SocketChannel> channels = new ArrayList<>();
+        try {
+            for (InetSocketAddress address : workers) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channels.add(channel);
+            }
+        } catch (IOException e) {
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+            throw e;
+        }
+        return channels;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Shard that owns the vendor id
+    public int shardOf(String vendorId) {
+        return ring.shardOf(vendorId);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Shard cluster is closed");
+        }
+    }
+
+    public synchronized void addVendor(String vendorId, String vendorName, double contractValue,
+                                       int contractMonths, double dataVolumeGB, int apiDependencies,
+                                       boolean hasCustomIntegration, double switchingCost) throws IOException {
+        checkOpen();
+        Shard shard = shards[ring.shardOf(vendorId)];
+        DataOutputStream out = shard.batch.data();
+        out.writeUTF(vendorId);
+        out.writeUTF(vendorName != null ? vendorName : "");
+        out.writeDouble(contractValue);
+        out.writeInt(contractMonths);
+        out.writeDouble(dataVolumeGB);
+        out.writeInt(apiDependencies);
+        out.writeBoolean(hasCustomIntegration);
+        out.writeDouble(switchingCost);
+        if (shard.batch.bodySize() >= BATCH_BYTES) {
+            shard.sendBatch();
+        }
+    }
+
+    public synchronized double calculateLockInScore(String vendorId) throws IOException {
+        checkOpen();
+        Shard shard = shards[ring.shardOf(vendorId)];
+        shard.sendBatch();
+        shard.request.start(ShardProtocol.OP_SCORE).data().writeUTF(vendorId);
+        shard.send(shard.request);
+        return shard.receive().readDouble();
+    }
+
+    // Send the same request to every shard; responses are read with gather()
+    private void scatter(byte op) throws IOException {
+        checkOpen();
+        for (Shard shard : shards) {
+            shard.sendBatch();
+            shard.send(shard.request.start(op));
+        }
+    }
+
+    /**
+     * Rows of { vendorId, score, name } from every shard, shard by shard
+     */
+    public synchronized String[][] getAllScores() throws IOException {
+        scatter(ShardProtocol.OP_ALL_SCORES);
+        List<String[]> rows = new ArrayList<>();
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                DataInputStream in = shard.receive();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String id = in.readUTF();
+                    double score = in.readDouble();
+                    rows.add(new String[] { id, String.valueOf(score), in.readUTF() });
+                }
+            } catch (IOException e) {
+                if (failure == null) failure = e; // Keep reading so the other shards stay in step
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return rows.toArray(new String[rows.size()][]);
+    }
+
+    /**
+     * Vendors by descending lock-in score across all shards, starting at rank
+     * offset. Every shard sends its own top offset + limit, which are merged;
+     * the version is the sum of the shard versions. Names are not included.
+     */
+    public synchronized ScorePage getTopScores(long offset, int limit) throws IOException {
+        int wanted = (int) Math.min(Integer.MAX_VALUE, Math.max(0, offset) + Math.max(0, limit));
+        checkOpen();
+        for (Shard shard : shards) {
+            shard.sendBatch();
+            shard.request.start(ShardProtocol.OP_TOP_SCORES).data().writeInt(wanted);
+            shard.send(shard.request);
+        }
+
+        String[][] ids = new String[shards.length][];
+        double[][] scores = new double[shards.length][];
+        long version = 0;
+        IOException failure = null;
+        for (int s = 0; s < shards.length; s++) {
+            ids[s] = new String[0];
+            scores[s] = new double[0];
+            try {
+                DataInputStream in = shards[s].receive();
+                version += in.readLong();
+                int count = in.readInt();
+                ids[s] = new String[count];
+                scores[s] = new double[count];
+                for (int i = 0; i < count; i++) {
+                    ids[s][i] = in.readUTF();
+                    scores[s][i] = in.readDouble();
+                }
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        // k-way merge of the shard lists, which are already in descending order
+        String[] pageIds = new String[Math.max(0, limit)];
+        double[] pageScores = new double[Math.max(0, limit)];
+        int[] next = new int[shards.length];
+        int count = 0;
+        for (long rank = 0; count < pageIds.length; rank++) {
+            int best = -1;
+            for (int s = 0; s < shards.length; s++) {
+                if (next[s] < scores[s].length
+                        && (best < 0 || scores[s][next[s]] > scores[best][next[best]])) {
+                    best = s;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            if (rank >= offset) {
+                pageIds[count] = ids[best][next[best]];
+                pageScores[count] = scores[best][next[best]];
+                count++;
+            }
+            next[best]++;
+        }
+        return new ScorePage(pageIds, null, pageScores, (int) Math.min(offset, Integer.MAX_VALUE), count, version);
+    }
+
+    /**
+     * Distribution of lock-in scores across all shards: the shard sketches added
+     */
+    public synchronized ScoreSketch getScoreSketch() throws IOException {
+        scatter(ShardProtocol.OP_SKETCH);
+        ScoreSketch merged = null;
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                ScoreSketch sketch = ScoreSketch.read(shard.receive());
+                if (merged == null) {
+                    merged = sketch;
+                } else {
+                    merged.merge(sketch);
+                }
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return merged;
+    }
+
+    public synchronized long getVendorCount() throws IOException {
+        long total = 0;
+        for (long count : getShardSizes()) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Vendors held by each shard, to check the balance
+    public synchronized long[] getShardSizes() throws IOException {
+        scatter(ShardProtocol.OP_COUNT);
+        long[] sizes = new long[shards.length];
+        IOException failure = null;
+        for (int s = 0; s < shards.length; s++) {
+            try {
+                sizes[s] = shards[s].receive().readInt();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return sizes;
+    }
+
+    /**
+     * Replace the scoring model on every shard, which rescore in parallel
+     */
+    public synchronized void setScoringModel(ScoringModel model) throws IOException {
+        checkOpen();
+        for (Shard shard : shards) {
+            shard.sendBatch();
+            model.write(shard.request.start(ShardProtocol.OP_SET_MODEL).data());
+            shard.send(shard.request);
+        }
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                shard.receive();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Send every buffered add and wait until the shards have applied them
+     */
+    public synchronized void flush() throws IOException {
+        checkOpen();
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                shard.flush();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Flush, then disconnect; workers this cluster launched are shut down
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        IOException failure = null;
+        try {
+            flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+        closed = true;
+        for (Shard shard : shards) {
+            try {
+                if (!processes.isEmpty()) {
+                    shard.send(shard.request.start(ShardProtocol.OP_SHUTDOWN));
+                    shard.receive();
+                }
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            } finally {
+                shard.channel.close();
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.prodly;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Wire format between a ShardCluster coordinator and its ShardWorkers.
+ *
+ * Every message is a frame: a 4-byte big-endian body length, then the body.
+ * A request body starts with an opcode byte, a response body with a status
+ * byte (STATUS_ERROR is followed by the message). The rest is DataOutput
+ * encoding: doubles and ints in 8 and 4 bytes, strings as writeUTF. Responses
+ * come back in request order on each connection, so a coordinator can send
+ * several requests before reading.
+ *
+ * OP_ADD_VENDORS     vendor records until the end of the body   -> (empty)
+ * OP_SCORE           id                                         -> double
+ * OP_ALL_SCORES                                                 -> int n, n x (id, double, name)
+ * OP_TOP_SCORES      int limit                                  -> long version, int n, n x (id, double)
+ * OP_SKETCH                                                     -> ScoreSketch.write
+ * OP_COUNT                                                      -> int vendors, long version
+ * OP_SET_MODEL       ScoringModel.write                         -> (empty)
+ * OP_SHUTDOWN                                                   -> (empty), then the worker exits
+ */
+final class ShardProtocol {
+    static final byte OP_ADD_VENDORS = 1;
+    static final byte OP_SCORE = 2;
+    static final byte OP_ALL_SCORES = 3;
+    static final byte OP_TOP_SCORES = 4;
+    static final byte OP_SKETCH = 5;
+    static final byte OP_COUNT = 6;
+    static final byte OP_SET_MODEL = 7;
+    static final byte OP_SHUTDOWN = 8;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    // Guards against reading garbage as a length
+    static final int MAX_FRAME_BYTES = 1 << 30;
+
+    private ShardProtocol() {
+    }
+
+    /**
+     * A frame under construction: write the body through data(), then send
+     * frame(), which fills in the length without copying
+     */
+    static final class FrameBuffer extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        FrameBuffer(int capacity) {
+            super(capacity);
+            reset();
+        }
+
+        // Start a new frame whose body begins with the opcode or status byte
+        FrameBuffer start(byte first) {
+            reset();
+            write(first);
+            return this;
+        }
+
+        @Override
+        public synchronized void reset() {
+            super.reset();
+            count = 4; // Room for the length
+        }
+
+        DataOutputStream data() {
+            return data;
+        }
+
+        int bodySize() {
+            return count - 4;
+        }
+
+        ByteBuffer frame() {
+            int length = bodySize();
+            buf[0] = (byte) (length >>> 24);
+            buf[1] = (byte) (length >>> 16);
+            buf[2] = (byte) (length >>> 8);
+            buf[3] = (byte) length;
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    // Write the whole buffer to a blocking channel
+    static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Read one frame body from a blocking channel
+    static byte[] readFrame(SocketChannel channel, ByteBuffer header) throws IOException {
+        header.clear();
+        readFully(channel, header);
+        header.flip();
+        int length = header.getInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] body = new byte[length];
+        readFully(channel, ByteBuffer.wrap(body));
+        return body;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by peer");
+            }
+        }
+    }
+
+    // Reader over a frame body, positioned after its first byte
+    static DataInputStream body(byte[] body, int offset, int length) {
+        return new DataInputStream(new ByteArrayInputStream(body, offset + 1, length - 1));
+    }
+}
@@ -0,0 +1,78 @@
+package com.prodly;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Consistent hash ring that assigns vendor ids to shards. Every shard owns
+ * VIRTUAL_NODES points on a 64-bit ring, derived from its index only, and a
+ * vendor belongs to the shard of the first point at or after the hash of its
+ * id. Growing the ring from n to n + 1 shards therefore moves only the ids the
+ * new shard takes over, about 1 / (n + 1) of them, and with 160 points per
+ * shard each one owns within about ten percent of an even share.
+ *
+ * Points are kept in a sorted array, so a lookup is one hash and a binary search.
+ */
+final class ShardRing {
+    static final int VIRTUAL_NODES = 160;
+
+    private final int shards;
+    private final long[] points;
+    private final int[] owners;
+
+    ShardRing(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard: " + shards);
+        }
+        this.shards = shards;
+        long[][] entries = new long[shards * VIRTUAL_NODES][];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                long point = hash(("shard-" + shard + "#" + i).getBytes(StandardCharsets.UTF_8));
+                entries[shard * VIRTUAL_NODES + i] = new long[] { point, shard };
+            }
+        }
+        // Ties (practically never) go to the lower shard so every process agrees
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compareUnsigned(a[0], b[0]) : Long.compare(a[1], b[1]));
+        points = new long[entries.length];
+        owners = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    int getShardCount() {
+        return shards;
+    }
+
+    int shardOf(String vendorId) {
+        long h = hash(vendorId.getBytes(StandardCharsets.UTF_8));
+        // First point >= h in unsigned order, wrapping past the end
+        int lo = 0;
+        int hi = points.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(points[mid], h) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return owners[lo == points.length ? 0 : lo];
+    }
+
+    // FNV-1a with a murmur finalizer, so similar ids land far apart
+    static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,247 @@
+package com.prodly;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * One shard of a ShardCluster: a vendor lock-in engine served over
+ * non-blocking sockets in the ShardProtocol format. A single selector thread
+ * reads frames, runs them against the engine in arrival order and queues the
+ * responses, so a coordinator can pipeline batches of adds without waiting.
+ * Several coordinators may connect; their requests are interleaved per frame.
+ *
+ * Run as its own process with
+ * <pre>
+ * java -cp ... com.prodly.ShardWorker [port]
+ * </pre>
+ * (port 0 or none picks a free one). The first line on stdout is
+ * "ShardWorker listening on port N"; ShardCluster.launchLocal waits for it.
+ */
+public final class ShardWorker implements AutoCloseable {
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final VendorLockInAnalyzerJNI analyzer;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private boolean stopping;
+
+    private static final class Connection {
+        final SocketChannel channel;
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public ShardWorker(InetSocketAddress address) throws IOException {
+        this.analyzer = new VendorLockInAnalyzerJNI(false);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Serve requests until a coordinator sends OP_SHUTDOWN
+     */
+    public void run() throws IOException {
+        while (!stopping) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                try {
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            read(key, connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(key, connection);
+                        }
+                    }
+                } catch (IOException e) {
+                    // A broken connection only affects its coordinator
+                    key.cancel();
+                    key.channel().close();
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+    }
+
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            key.cancel();
+            connection.channel.close();
+            return;
+        }
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length < 1 || length > ShardProtocol.MAX_FRAME_BYTES) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            if (in.remaining() < 4 + length) {
+                if (4 + length > in.capacity()) {
+                    // Grow to hold the whole frame
+                    ByteBuffer larger = ByteBuffer.allocate(Math.max(4 + length, in.capacity() * 2));
+                    larger.put(in);
+                    connection.in = larger;
+                }
+                break;
+            }
+            int start = in.position() + 4;
+            connection.out.add(handle(in.array(), in.arrayOffset() + start, length));
+            in.position(start + length);
+        }
+        if (connection.in == in) {
+            in.compact();
+        }
+        write(key, connection);
+    }
+
+    private void write(SelectionKey key, Connection connection) throws IOException {
+        while (!connection.out.isEmpty()) {
+            ByteBuffer buffer = connection.out.peek();
+            connection.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            connection.out.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    // Run one request; failures become STATUS_ERROR responses
+    private ByteBuffer handle(byte[] body, int offset, int length) throws IOException {
+        byte op = body[offset];
+        DataInputStream in = ShardProtocol.body(body, offset, length);
+        ShardProtocol.FrameBuffer response = new ShardProtocol.FrameBuffer(64).start(ShardProtocol.STATUS_OK);
+        DataOutputStream out = response.data();
+        try {
+            switch (op) {
+                case ShardProtocol.OP_ADD_VENDORS:
+                    while (in.available() > 0) {
+                        analyzer.addVendor(in.readUTF(), in.readUTF(), in.readDouble(), in.readInt(),
+                                           in.readDouble(), in.readInt(), in.readBoolean(), in.readDouble());
+                    }
+                    break;
+                case ShardProtocol.OP_SCORE:
+                    out.writeDouble(analyzer.calculateLockInScore(in.readUTF()));
+                    break;
+                case ShardProtocol.OP_ALL_SCORES: {
+                    String[][] scores = analyzer.getAllScores();
+                    out.writeInt(scores.length);
+                    for (String[] row : scores) {
+                        out.writeUTF(row[0]);
+                        out.writeDouble(Double.parseDouble(row[1]));
+                        out.writeUTF(row.length > 2 && row[2] != null ? row[2] : "");
+                    }
+                    break;
+                }
+                case ShardProtocol.OP_TOP_SCORES: {
+                    int limit = Math.min(in.readInt(), analyzer.getVendorCount());
+                    ScorePage page = analyzer.getTopScores(0, Math.max(0, limit));
+                    out.writeLong(page.getVersion());
+                    out.writeInt(page.size());
+                    for (int i = 0; i < page.size(); i++) {
+                        out.writeUTF(page.getVendorId(i));
+                        out.writeDouble(page.getScore(i));
+                    }
+                    break;
+                }
+                case ShardProtocol.OP_SKETCH:
+                    analyzer.getScoreSketch().write(out);
+                    break;
+                case ShardProtocol.OP_COUNT:
+                    out.writeInt(analyzer.getVendorCount());
+                    out.writeLong(analyzer.getVersion());
+                    break;
+                case ShardProtocol.OP_SET_MODEL:
+                    analyzer.setScoringModel(ScoringModel.read(in));
+                    break;
+                case ShardProtocol.OP_SHUTDOWN:
+                    stopping = true;
+                    break;
+                default:
+                    throw new IOException("Unknown opcode: " + op);
+            }
+        } catch (IOException | RuntimeException e) {
+            response.start(ShardProtocol.STATUS_ERROR);
+            response.data().writeUTF(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        return response.frame();
+    }
+
+    /**
+     * Close every connection and free the engine. Responses still queued are
+     * written first, on a blocking channel, so OP_SHUTDOWN gets its reply.
+     */
+    @Override
+    public void close() throws IOException {
+        for (SelectionKey key : new ArrayList<>(selector.keys())) {
+            if (key.attachment() instanceof Connection) {
+                Connection connection = (Connection) key.attachment();
+                key.cancel();
+                try {
+                    selector.selectNow(); // Deregister so the channel can block
+                    connection.channel.configureBlocking(true);
+                    for (ByteBuffer buffer : connection.out) {
+                        ShardProtocol.writeFully(connection.channel, buffer);
+                    }
+                } catch (IOException e) {
+                    // The coordinator is gone; nothing left to tell it
+                }
+                connection.channel.close();
+            }
+        }
+        server.close();
+        selector.close();
+        analyzer.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (ShardWorker worker = new ShardWorker(new InetSocketAddress(port))) {
+            System.out.println("ShardWorker listening on port " + worker.getPort());
+            System.out.flush();
+            worker.run();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A vendor returned by a similar-vendor search and its distance from the query
+ * vendor in normalized feature space (0 = identical terms)
+ */
+public class SimilarVendor {
+    private final String vendorId;
+    private final String vendorName;
+    private final double distance;
+    private final double lockInScore;
+
+    public SimilarVendor(String vendorId, String vendorName, double distance, double lockInScore) {
+        this.vendorId = vendorId;
+        this.vendorName = vendorName;
+        this.distance = distance;
+        this.lockInScore = lockInScore;
+    }
+
+    // Decode Object[] { String[] ids, String[] names, double[] distances, double[] scores }
+    static List<SimilarVendor> fromNative(Object[] result) {
+        String[] ids = (String[]) result[0];
+        String[] names = (String[]) result[1];
+        double[] distances = (double[]) result[2];
+        double[] scores = (double[]) result[3];
+        List<SimilarVendor> vendors = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            vendors.add(new SimilarVendor(ids[i], names[i], distances[i], scores[i]));
+        }
+        return vendors;
+    }
+
+    public String getVendorId() {
+        return vendorId;
+    }
+
+    public String getVendorName() {
+        return vendorName;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getLockInScore() {
+        return lockInScore;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.3f)", vendorId, distance);
+    }
+}
@@ -0,0 +1,120 @@
+package com.prodly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One-at-a-time sensitivity of the lock-in -> readiness chain: for every
+ * perturbed field, the mean change of both scores at each step while all other
+ * inputs stay at their current values. Bars are ordered by readiness swing,
+ * widest first, as in a tornado chart.
+ */
+public class Tornado {
+
+    public static class Bar {
+        private final ScoreQuery.Field field;
+        private final double[] steps;
+        private final double[] lockInDeltas;
+        private final double[] readinessDeltas;
+
+        Bar(ScoreQuery.Field field, double[] steps, double[] lockInDeltas, double[] readinessDeltas) {
+            this.field = field;
+            this.steps = steps;
+            this.lockInDeltas = lockInDeltas;
+            this.readinessDeltas = readinessDeltas;
+        }
+
+        public ScoreQuery.Field getField() {
+            return field;
+        }
+
+        public double[] getSteps() {
+            return steps.clone();
+        }
+
+        public double[] getLockInDeltas() {
+            return lockInDeltas.clone();
+        }
+
+        public double[] getReadinessDeltas() {
+            return readinessDeltas.clone();
+        }
+
+        // Ends of the bar: the most negative and most positive change over all steps (0 if none)
+        public double getLockInLow() {
+            return low(lockInDeltas);
+        }
+
+        public double getLockInHigh() {
+            return high(lockInDeltas);
+        }
+
+        public double getReadinessLow() {
+            return low(readinessDeltas);
+        }
+
+        public double getReadinessHigh() {
+            return high(readinessDeltas);
+        }
+
+        public double getReadinessSwing() {
+            return getReadinessHigh() - getReadinessLow();
+        }
+
+        private static double low(double[] deltas) {
+            double low = 0.0;
+            for (double delta : deltas) {
+                low = Math.min(low, delta);
+            }
+            return low;
+        }
+
+        private static double high(double[] deltas) {
+            double high = 0.0;
+            for (double delta : deltas) {
+                high = Math.max(high, delta);
+            }
+            return high;
+        }
+    }
+
+    private final int vendors;
+    private final double baseLockIn;
+    private final double baseReadiness;
+    private final long evaluations;
+    private final List<Bar> bars;
+
+    Tornado(int vendors, double baseLockIn, double baseReadiness, long evaluations, List<Bar> bars) {
+        this.vendors = vendors;
+        this.baseLockIn = baseLockIn;
+        this.baseReadiness = baseReadiness;
+        this.evaluations = evaluations;
+        List<Bar> ordered = new ArrayList<>(bars);
+        ordered.sort(Comparator.comparingDouble(Bar::getReadinessSwing).reversed());
+        this.bars = Collections.unmodifiableList(ordered);
+    }
+
+    public int getVendors() {
+        return vendors;
+    }
+
+    // Mean scores before any perturbation
+    public double getBaseLockIn() {
+        return baseLockIn;
+    }
+
+    public double getBaseReadiness() {
+        return baseReadiness;
+    }
+
+    // Lock-in -> readiness chain evaluations performed
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public List<Bar> getBars() {
+        return bars;
+    }
+}
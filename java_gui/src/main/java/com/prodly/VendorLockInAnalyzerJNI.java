@@ -1,14 +1,36 @@
 package com.prodly;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 
 /**
  * JNI wrapper for VendorLockInAnalyzer C++ class
+ *
+ * An analyzer opened on a storage path keeps its vendors and score index in
+ * disk B+trees behind a fixed-size page cache, for portfolios larger than
+ * RAM. It pages vendors in id order and by score; propagation, queries,
+ * column export and similar-vendor search are not available on it.
+ *
+ * Each instance owns its engine (or, in demo mode, its demo storage), so one
+ * process can serve many portfolios; close() releases it.
  */
-public class VendorLockInAnalyzerJNI {
+public class VendorLockInAnalyzerJNI implements AutoCloseable {
     private static boolean libraryLoaded = false;
     
     // In-memory storage for demo mode
@@ -22,6 +44,7 @@ public class VendorLockInAnalyzerJNI {
         boolean hasCustomIntegration;
         double switchingCost;
         double lockInScore;
+        int slot; // Insertion position, used for stable paging
         
         VendorData(String id, String name, double contractVal, int months,
                    double dataVol, int apiDeps, boolean customIntegration,
@@ -34,40 +57,35 @@ public class VendorLockInAnalyzerJNI {
             this.apiDependencies = apiDeps;
             this.hasCustomIntegration = customIntegration;
             this.switchingCost = switchingCost;
-            this.lockInScore = calculateDemoScore();
-        }
-        
-        private double calculateDemoScore() {
-            // Demo calculation similar to C++ logic
-            double score = 0.0;
-            
-            // Contract value factor (0-25 points)
-            score += Math.min(25.0, (contractValue / 1000000.0) * 5.0);
-            
-            // Contract duration factor (0-20 points)
-            score += Math.min(20.0, (contractMonths / 36.0) * 20.0);
-            
-            // Data volume factor (0-15 points)
-            score += Math.min(15.0, (dataVolumeGB / 1000.0) * 15.0);
-            
-            // API dependencies factor (0-15 points)
-            score += Math.min(15.0, (apiDependencies / 10.0) * 15.0);
-            
-            // Custom integration factor (0-10 points)
-            if (hasCustomIntegration) {
-                score += 10.0;
-            }
-            
-            // Switching cost factor (0-15 points)
-            if (contractValue > 0) {
-                score += Math.min(15.0, (switchingCost / contractValue) * 15.0);
-            }
-            
-            return Math.min(100.0, Math.max(0.0, score));
         }
     }
     
-    private static Map<String, VendorData> demoVendorStorage = new HashMap<>();
+    // Query fields held by this module
+    private static final List<ScoreQuery.Field> QUERY_FIELDS = Arrays.asList(
+        ScoreQuery.Field.LOCK_IN_SCORE, ScoreQuery.Field.CONTRACT_VALUE,
+        ScoreQuery.Field.CONTRACT_MONTHS, ScoreQuery.Field.DATA_VOLUME_GB,
+        ScoreQuery.Field.API_DEPENDENCIES, ScoreQuery.Field.CUSTOM_INTEGRATION,
+        ScoreQuery.Field.SWITCHING_COST);
+    
+    // Fields a lock-in scoring model may read
+    private static final List<ScoreQuery.Field> SCORING_INPUTS = QUERY_FIELDS.subList(1, QUERY_FIELDS.size());
+    
+    // Approximate footprint per vendor and per dependency edge: engine RSS growth
+    // over 1M vendors, demo-mode heap growth over 200k
+    private static final long NATIVE_BYTES_PER_VENDOR = 620;
+    private static final long DEMO_BYTES_PER_VENDOR = 240;
+    private static final long NATIVE_BYTES_PER_EDGE = 40;
+    private static final long DEMO_BYTES_PER_EDGE = 390;
+    
+    private ScoringModel demoScoringModel = ScoringModel.defaultLockIn();
+    private ToDoubleFunction<VendorData> demoScorer = demoScoringModel.compile(VendorLockInAnalyzerJNI::demoAccessor);
+    private Map<String, VendorData> demoVendorStorage = new HashMap<>();
+    private List<VendorData> demoVendorOrder = new ArrayList<>();
+    private long demoVersion = 0;
+    private ScoreSketch demoScoreSketch = libraryLoaded ? null : new ScoreSketch(); // About 160 KB
+    // Dependency edges in both directions: vendor -> what it depends on, and the reverse
+    private Map<String, Set<String>> demoDependencies = new HashMap<>();
+    private Map<String, Set<String>> demoDependents = new HashMap<>();
     
     static {
         try {
@@ -81,28 +99,110 @@ public class VendorLockInAnalyzerJNI {
     }
 
     private native long createNativeObject();
-    private native void addVendor(long nativePtr, String vendorId, String vendorName,
-                                  double contractValue, int contractMonths,
-                                  double dataVolumeGB, int apiDependencies,
-                                  boolean hasCustomIntegration, double switchingCost);
+    private native long createDiskObject(String storagePath, int cachePages);
+    private native double addVendor(long nativePtr, String vendorId, String vendorName,
+                                    double contractValue, int contractMonths,
+                                    double dataVolumeGB, int apiDependencies,
+                                    boolean hasCustomIntegration, double switchingCost);
     private native double calculateLockInScore(long nativePtr, String vendorId);
+    private native void setScoringModel(long nativePtr, int[] fields, int[] perFields,
+                                        double[] intercepts, double[] slopes, double[] caps);
     private native String[][] getAllScores(long nativePtr);
+    private native double[] getPropagatedScores(long nativePtr, double damping, double tolerance);
+    private native Object[] getScoreSketch(long nativePtr);
+    private native int getScoresPage(long nativePtr, int offset, String[] idsOut,
+                                     String[] namesOut, double[] scoresOut);
+    private native int getTopScores(long nativePtr, long offset, String[] idsOut, double[] scoresOut);
+    private native void flush(long nativePtr);
+    private native int getVendorCount(long nativePtr);
+    private native int getSlot(long nativePtr, String vendorId);
+    private native long getVersion(long nativePtr);
+    private native Object[] query(long nativePtr, int[] fields, int[] ops, double[] values,
+                                  int sortField, boolean descending, int limit);
+    private native Object[] exportColumns(long nativePtr, int[] fields);
+    private native Object[] exportColumnsRange(long nativePtr, int[] fields, int offset, int limit);
+    private native Object[] findSimilarVendors(long nativePtr, String vendorId, int k);
+    private native void addDependency(long nativePtr, String vendorId, String dependencyId);
+    private native boolean dependsOn(long nativePtr, String vendorId, String dependencyId);
+    private native String[] getVendorDependencies(long nativePtr, String vendorId);
+    private native String[] getVendorDependents(long nativePtr, String vendorId);
+    private native String[] getDependencyEdges(long nativePtr);
     private native void deleteNativeObject(long nativePtr);
 
+    // Longest vendor id (UTF-8 bytes) a disk-backed analyzer stores
+    public static final int MAX_DISK_ID_BYTES = 32;
+
     private long nativePtr;
+    private boolean closed;
+    private final boolean diskBacked;
+    private long edgeCount; // Dependency edges added, for the memory estimate
+    private ScoringModel scoringModel = ScoringModel.defaultLockIn();
+    private volatile ScoreAlertPublisher scoreAlerts; // Created on first use
 
     public VendorLockInAnalyzerJNI() {
+        this(true);
+    }
+
+    // Demo mode starts with sample vendors only when sampleData is set
+    VendorLockInAnalyzerJNI(boolean sampleData) {
+        diskBacked = false;
         if (libraryLoaded) {
             nativePtr = createNativeObject();
         } else {
             nativePtr = 0;
-            // Initialize with sample data for demo mode
+            if (sampleData) {
+                initializeSampleData();
+            }
+        }
+    }
+
+    /**
+     * Disk-backed analyzer over storage.vendors and storage.scores (created if
+     * missing). At most cachePages 4 KB pages are held in memory, so the hot set
+     * of lookups and the upper levels of both indexes stay cached. Demo mode has
+     * no disk store and falls back to the in-memory demo storage.
+     */
+    public VendorLockInAnalyzerJNI(Path storage, int cachePages) throws IOException {
+        if (cachePages < 16) {
+            throw new IllegalArgumentException("Page cache needs at least 16 pages: " + cachePages);
+        }
+        if (!libraryLoaded) {
+            diskBacked = false;
+            nativePtr = 0;
+            System.err.println("Warning: disk-backed storage needs the native library. Using demo storage.");
             initializeSampleData();
+            return;
+        }
+        Path parent = storage.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        nativePtr = createDiskObject(storage.toAbsolutePath().toString(), cachePages);
+        if (nativePtr == 0) {
+            throw new IOException("Cannot open vendor storage at " + storage);
+        }
+        diskBacked = true;
+    }
+
+    public boolean isDiskBacked() {
+        return diskBacked;
+    }
+
+    // Native handle; fails instead of handing a deleted engine to native code
+    private long ptr() {
+        if (closed) {
+            throw new IllegalStateException("Analyzer is closed");
+        }
+        return nativePtr;
+    }
+
+    private void requireInMemory(String operation) {
+        if (diskBacked) {
+            throw new UnsupportedOperationException(operation + " is not available on a disk-backed analyzer");
         }
     }
     
     private void initializeSampleData() {
-        // Only add sample data if storage is empty (first instance)
         if (demoVendorStorage.isEmpty()) {
             // Sample Vendor 1: High lock-in risk (AWS)
             addVendor("AWS-001", "Amazon Web Services", 
@@ -147,19 +247,40 @@ public class VendorLockInAnalyzerJNI {
     public void addVendor(String vendorId, String vendorName, double contractValue,
                          int contractMonths, double dataVolumeGB, int apiDependencies,
                          boolean hasCustomIntegration, double switchingCost) {
+        if (diskBacked && vendorId.getBytes(StandardCharsets.UTF_8).length > MAX_DISK_ID_BYTES) {
+            throw new IllegalArgumentException("Vendor id longer than " + MAX_DISK_ID_BYTES + " bytes: " + vendorId);
+        }
+        double score;
         if (!libraryLoaded) {
-            // Store in demo mode
-            VendorData vendor = new VendorData(vendorId, vendorName, contractValue,
-                                             contractMonths, dataVolumeGB, apiDependencies,
-                                             hasCustomIntegration, switchingCost);
-            demoVendorStorage.put(vendorId, vendor);
+            score = storeDemoVendor(new VendorData(vendorId, vendorName, contractValue,
+                                                   contractMonths, dataVolumeGB, apiDependencies,
+                                                   hasCustomIntegration, switchingCost));
             System.out.println("Demo mode: Vendor stored: " + vendorId);
         } else {
-            addVendor(nativePtr, vendorId, vendorName, contractValue, contractMonths,
-                     dataVolumeGB, apiDependencies, hasCustomIntegration, switchingCost);
+            score = addVendor(ptr(), vendorId, vendorName, contractValue, contractMonths,
+                              dataVolumeGB, apiDependencies, hasCustomIntegration, switchingCost);
+        }
+        if (scoreAlerts != null) {
+            scoreAlerts.publish(vendorId, score);
         }
     }
 
+    private double storeDemoVendor(VendorData vendor) {
+        vendor.lockInScore = demoScorer.applyAsDouble(vendor);
+        VendorData previous = demoVendorStorage.put(vendor.vendorId, vendor);
+        if (previous != null) {
+            vendor.slot = previous.slot;
+            demoVendorOrder.set(vendor.slot, vendor);
+            demoScoreSketch.replace(previous.lockInScore, vendor.lockInScore);
+        } else {
+            vendor.slot = demoVendorOrder.size();
+            demoVendorOrder.add(vendor);
+            demoScoreSketch.add(vendor.lockInScore);
+        }
+        demoVersion++;
+        return vendor.lockInScore;
+    }
+
     public double calculateLockInScore(String vendorId) {
         if (!libraryLoaded) {
             // Return score from demo storage
@@ -170,7 +291,78 @@ public class VendorLockInAnalyzerJNI {
             // Return a demo score based on vendor ID hash if not found
             return Math.abs(vendorId.hashCode() % 100);
         }
-        return calculateLockInScore(nativePtr, vendorId);
+        return calculateLockInScore(ptr(), vendorId);
+    }
+
+    /**
+     * Replace the lock-in scoring model (e.g. a business unit's profile) and
+     * rescore every vendor in parallel. Factors may read contract value, contract
+     * months, data volume, API dependencies, custom integration and switching cost.
+     */
+    public void setScoringModel(ScoringModel model) {
+        model.requireInputs(SCORING_INPUTS);
+        if (!libraryLoaded) {
+            demoScoringModel = model;
+            demoScorer = model.compile(VendorLockInAnalyzerJNI::demoAccessor);
+            double[] scores = demoVendorOrder.parallelStream().mapToDouble(demoScorer).toArray();
+            ScoreSketch sketch = new ScoreSketch();
+            for (int i = 0; i < scores.length; i++) {
+                demoVendorOrder.get(i).lockInScore = scores[i];
+                sketch.add(scores[i]);
+            }
+            demoScoreSketch = sketch;
+            demoVersion++;
+            publishAllScores();
+            return;
+        }
+        setScoringModel(ptr(), model.fieldCodes(), model.perFieldCodes(),
+                        model.intercepts(), model.slopes(), model.caps());
+        scoringModel = model;
+        publishAllScores();
+    }
+
+    /**
+     * Alerts on lock-in scores crossing into watched ranges, e.g.
+     * getScoreAlerts().above(80).subscribe(subscriber)
+     */
+    public synchronized ScoreAlertPublisher getScoreAlerts() {
+        if (scoreAlerts == null) {
+            scoreAlerts = new ScoreAlertPublisher(ScoreQuery.Field.LOCK_IN_SCORE);
+            publishAllScores(); // Current scores, so only later moves raise alerts
+        }
+        return scoreAlerts;
+    }
+
+    private void publishAllScores() {
+        if (scoreAlerts != null && diskBacked) {
+            // Page through the score index instead of exporting every vendor at once
+            String[] ids = new String[4096];
+            double[] scores = new double[ids.length];
+            int count = ids.length;
+            for (long offset = 0; count == ids.length; offset += count) {
+                count = getTopScores(ptr(), offset, ids, scores);
+                scoreAlerts.publishAll(ids, scores, count);
+            }
+        } else if (scoreAlerts != null) {
+            FeatureColumns scores = exportColumns(ScoreQuery.Field.LOCK_IN_SCORE);
+            scoreAlerts.publishAll(scores.getIds(), scores.column(0), scores.size());
+        }
+    }
+
+    public ScoringModel getScoringModel() {
+        return libraryLoaded ? scoringModel : demoScoringModel;
+    }
+
+    /**
+     * Distribution of lock-in scores across the portfolio. The engine keeps the
+     * sketch current on every add and rescore, so this copies a fixed-size summary
+     * instead of reading vendor rows.
+     */
+    public ScoreSketch getScoreSketch() {
+        if (!libraryLoaded) {
+            return demoScoreSketch.copy();
+        }
+        return ScoreSketch.fromNative(getScoreSketch(ptr()));
     }
 
     public String[][] getAllScores() {
@@ -186,15 +378,547 @@ public class VendorLockInAnalyzerJNI {
             }
             return result.toArray(new String[result.size()][]);
         }
-        return getAllScores(nativePtr);
+        return getAllScores(ptr());
+    }
+
+    /**
+     * Lock-in score propagated over dependency edges with the default damping (0.5)
+     * and tolerance (1e-3 points).
+     */
+    public double[] getPropagatedScores() {
+        return getPropagatedScores(0.5, 1e-3);
+    }
+
+    /**
+     * Lock-in score propagated over dependency edges: every vendor passes
+     * {@code damping} of its propagated score on to the vendors it depends on,
+     * split evenly, so vendors that locked-in vendors rely on score higher.
+     * Scores are in slot order (the order of {@link #getScoresPage}), clamped
+     * to 100. The engine iterates in parallel and warm-starts from its last result.
+     */
+    public double[] getPropagatedScores(double damping, double tolerance) {
+        requireInMemory("Score propagation");
+        if (!libraryLoaded) {
+            return demoPropagatedScores(damping, tolerance);
+        }
+        return getPropagatedScores(ptr(), damping, tolerance);
     }
 
+    // Same iteration as the engine, single-threaded and cold-started
+    private double[] demoPropagatedScores(double damping, double tolerance) {
+        damping = Math.min(0.99, Math.max(0.0, damping));
+        Map<String, Integer> vertices = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (VendorData vendor : demoVendorOrder) {
+            vertices.put(vendor.vendorId, names.size());
+            names.add(vendor.vendorId);
+        }
+        for (Map.Entry<String, Set<String>> entry : demoDependencies.entrySet()) {
+            for (String id : entry.getValue()) {
+                if (vertices.putIfAbsent(id, names.size()) == null) names.add(id);
+            }
+            if (vertices.putIfAbsent(entry.getKey(), names.size()) == null) names.add(entry.getKey());
+        }
+
+        int n = names.size();
+        double[] base = new double[n];
+        double[] share = new double[n];
+        int[][] dependents = new int[n][];
+        for (int v = 0; v < n; v++) {
+            VendorData vendor = demoVendorStorage.get(names.get(v));
+            base[v] = vendor != null ? vendor.lockInScore : 0.0;
+            Set<String> dependencies = demoDependencies.get(names.get(v));
+            share[v] = dependencies == null || dependencies.isEmpty() ? 0.0 : 1.0 / dependencies.size();
+            Set<String> from = demoDependents.getOrDefault(names.get(v), Collections.<String>emptySet());
+            dependents[v] = from.stream().mapToInt(vertices::get).toArray();
+        }
+
+        double[] current = base.clone();
+        double[] next = new double[n];
+        for (int iteration = 0; iteration < 1000; iteration++) {
+            double maxDelta = 0.0;
+            for (int v = 0; v < n; v++) {
+                double sum = 0.0;
+                for (int u : dependents[v]) {
+                    sum += current[u] * share[u];
+                }
+                next[v] = base[v] + damping * sum;
+                maxDelta = Math.max(maxDelta, Math.abs(next[v] - current[v]));
+            }
+            double[] swap = current;
+            current = next;
+            next = swap;
+            if (maxDelta <= tolerance) break;
+        }
+
+        double[] result = new double[demoVendorOrder.size()];
+        for (int slot = 0; slot < result.length; slot++) {
+            result[slot] = Math.min(100.0, current[slot]);
+        }
+        return result;
+    }
+
+    /**
+     * Get one page of scores in insertion order. Pages stay stable while vendors
+     * are appended; re-adding a vendor updates it in place. A disk-backed analyzer
+     * pages in vendor id order instead.
+     */
+    public ScorePage getScoresPage(int offset, int limit) {
+        String[] ids = new String[limit];
+        String[] names = new String[limit];
+        double[] scores = new double[limit];
+        int count;
+        long version;
+        
+        if (!libraryLoaded) {
+            int end = Math.min(demoVendorOrder.size(), offset + limit);
+            count = Math.max(0, end - offset);
+            for (int i = 0; i < count; i++) {
+                VendorData vendor = demoVendorOrder.get(offset + i);
+                ids[i] = vendor.vendorId;
+                names[i] = vendor.vendorName;
+                scores[i] = vendor.lockInScore;
+            }
+            version = demoVersion;
+        } else {
+            version = getVersion(ptr());
+            count = getScoresPage(ptr(), offset, ids, names, scores);
+        }
+        return new ScorePage(ids, names, scores, offset, count, version);
+    }
+
+    /**
+     * Vendors by descending lock-in score, starting at rank offset. The engine
+     * starts from the rank through its score index, so deep pages cost the same
+     * as the first. Names are not included.
+     */
+    public ScorePage getTopScores(long offset, int limit) {
+        String[] ids = new String[limit];
+        double[] scores = new double[limit];
+        int count;
+        long version;
+        
+        if (!libraryLoaded) {
+            List<VendorData> ranked = new ArrayList<>(demoVendorOrder);
+            ranked.sort((a, b) -> Double.compare(b.lockInScore, a.lockInScore));
+            int start = (int) Math.min(offset, ranked.size());
+            count = Math.min(limit, ranked.size() - start);
+            for (int i = 0; i < count; i++) {
+                ids[i] = ranked.get(start + i).vendorId;
+                scores[i] = ranked.get(start + i).lockInScore;
+            }
+            version = demoVersion;
+        } else {
+            version = getVersion(ptr());
+            count = getTopScores(ptr(), offset, ids, scores);
+        }
+        return new ScorePage(ids, null, scores, (int) Math.min(offset, Integer.MAX_VALUE), count, version);
+    }
+
+    /**
+     * Write cached changes of a disk-backed analyzer to its files; a no-op otherwise
+     */
+    public void flush() {
+        if (libraryLoaded && diskBacked) {
+            flush(ptr());
+        }
+    }
+
+    public int getVendorCount() {
+        if (!libraryLoaded) {
+            return demoVendorOrder.size();
+        }
+        return getVendorCount(ptr());
+    }
+
+    public long getVersion() {
+        if (!libraryLoaded) {
+            return demoVersion;
+        }
+        return getVersion(ptr());
+    }
+
+    /**
+     * Open a cursor over all scores. With snapshot set, paging fails fast if
+     * vendors are added or updated before the cursor is exhausted.
+     */
+    public ScoreCursor openScoreCursor(int pageSize, boolean snapshot) {
+        return new ScoreCursor(scorePages(), pageSize, snapshot);
+    }
+
+    // Pages of getScoresPage, for cursors and paged table models
+    ScoreCursor.PageSource scorePages() {
+        return new ScoreCursor.PageSource() {
+            @Override
+            public ScorePage fetchPage(int offset, int limit) {
+                return getScoresPage(offset, limit);
+            }
+
+            @Override
+            public long currentVersion() {
+                return getVersion();
+            }
+        };
+    }
+
+    // Lazy page stream; peak memory depends on pageSize, not on the portfolio.
+    // Fails fast if scores change mid-stream, like streamReadiness.
+    public Stream<ScorePage> streamScores(int pageSize) {
+        return openScoreCursor(pageSize, true).stream();
+    }
+
+    /**
+     * Run a filter/sort/limit query inside the engine. Lock-in score predicates
+     * use the score index; other fields are scanned column-wise.
+     */
+    public ScorePage query(ScoreQuery q) {
+        requireInMemory("Querying");
+        q.checkFields(QUERY_FIELDS);
+        
+        if (!libraryLoaded) {
+            List<VendorData> rows = q.apply(demoVendorOrder, new ScoreQuery.FieldValues<VendorData>() {
+                @Override
+                public double get(VendorData vendor, ScoreQuery.Field field) {
+                    return demoFieldValue(vendor, field);
+                }
+            });
+            String[] ids = new String[rows.size()];
+            String[] names = new String[rows.size()];
+            double[] scores = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = rows.get(i).vendorId;
+                names[i] = rows.get(i).vendorName;
+                scores[i] = rows.get(i).lockInScore;
+            }
+            return new ScorePage(ids, names, scores, 0, ids.length, demoVersion);
+        }
+        
+        long version = getVersion(ptr());
+        Object[] result = query(ptr(), q.fieldCodes(), q.opCodes(), q.operands(),
+                                q.sortFieldCode(), q.isDescending(), q.getLimit());
+        String[] ids = (String[]) result[0];
+        return new ScorePage(ids, (String[]) result[1], (double[]) result[2], 0, ids.length, version);
+    }
+
+    /**
+     * Export vendor fields as primitive columns in slot order, in one engine call
+     */
+    public FeatureColumns exportColumns(ScoreQuery.Field... fields) {
+        requireInMemory("Column export");
+        List<ScoreQuery.Field> requested = Arrays.asList(fields);
+        int[] codes = fieldCodes(fields);
+        
+        if (!libraryLoaded) {
+            String[] ids = new String[demoVendorOrder.size()];
+            double[][] columns = new double[fields.length][ids.length];
+            for (int row = 0; row < ids.length; row++) {
+                VendorData vendor = demoVendorOrder.get(row);
+                ids[row] = vendor.vendorId;
+                for (int c = 0; c < fields.length; c++) {
+                    columns[c][row] = demoFieldValue(vendor, fields[c]);
+                }
+            }
+            return new FeatureColumns(ids, requested, columns);
+        }
+        return FeatureColumns.fromNative(requested, exportColumns(ptr(), codes));
+    }
+
+    /**
+     * Export vendor fields for slots [offset, offset + limit) only, so a caller
+     * can stream the portfolio in pages of bounded size
+     */
+    public FeatureColumns exportColumns(int offset, int limit, ScoreQuery.Field... fields) {
+        requireInMemory("Column export");
+        List<ScoreQuery.Field> requested = Arrays.asList(fields);
+        int[] codes = fieldCodes(fields);
+        
+        if (!libraryLoaded) {
+            int start = Math.min(Math.max(0, offset), demoVendorOrder.size());
+            int end = (int) Math.min(demoVendorOrder.size(), (long) start + Math.max(0, limit));
+            String[] ids = new String[end - start];
+            double[][] columns = new double[fields.length][ids.length];
+            for (int row = 0; row < ids.length; row++) {
+                VendorData vendor = demoVendorOrder.get(start + row);
+                ids[row] = vendor.vendorId;
+                for (int c = 0; c < fields.length; c++) {
+                    columns[c][row] = demoFieldValue(vendor, fields[c]);
+                }
+            }
+            return new FeatureColumns(ids, requested, columns);
+        }
+        return FeatureColumns.fromNative(requested, exportColumnsRange(ptr(), codes, offset, limit));
+    }
+
+    /**
+     * Export vendor fields of one vendor: a single row, or none if the analyzer
+     * does not hold vendorId
+     */
+    public FeatureColumns exportColumns(String vendorId, ScoreQuery.Field... fields) {
+        requireInMemory("Column export");
+        List<ScoreQuery.Field> requested = Arrays.asList(fields);
+        fieldCodes(fields);
+        
+        if (!libraryLoaded) {
+            VendorData vendor = demoVendorStorage.get(vendorId);
+            if (vendor == null) {
+                return new FeatureColumns(new String[0], requested, new double[fields.length][0]);
+            }
+            double[][] columns = new double[fields.length][1];
+            for (int c = 0; c < fields.length; c++) {
+                columns[c][0] = demoFieldValue(vendor, fields[c]);
+            }
+            return new FeatureColumns(new String[] { vendorId }, requested, columns);
+        }
+        int slot = getSlot(ptr(), vendorId);
+        if (slot < 0) {
+            return new FeatureColumns(new String[0], requested, new double[fields.length][0]);
+        }
+        return exportColumns(slot, 1, fields);
+    }
+
+    private static int[] fieldCodes(ScoreQuery.Field[] fields) {
+        int[] codes = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            if (!QUERY_FIELDS.contains(fields[i])) {
+                throw new IllegalArgumentException("Field not available in this module: " + fields[i]);
+            }
+            codes[i] = fields[i].code;
+        }
+        return codes;
+    }
+
+    /**
+     * The k vendors whose terms look most like vendorId's, closest first. Contract
+     * value, duration, data volume, API dependencies, custom integration and the
+     * switching-cost ratio are each scaled by the value at which their lock-in
+     * factor saturates. The engine answers from a KD-tree index.
+     */
+    public List<SimilarVendor> findSimilarVendors(String vendorId, int k) {
+        requireInMemory("Similar-vendor search");
+        if (!libraryLoaded) {
+            VendorData query = demoVendorStorage.get(vendorId);
+            List<SimilarVendor> result = new ArrayList<>();
+            if (query == null || k <= 0) return result;
+            double[] target = demoFeatures(query);
+            for (VendorData vendor : demoVendorOrder) {
+                if (vendor == query) continue;
+                double[] features = demoFeatures(vendor);
+                double sum = 0.0;
+                for (int d = 0; d < features.length; d++) {
+                    sum += (features[d] - target[d]) * (features[d] - target[d]);
+                }
+                result.add(new SimilarVendor(vendor.vendorId, vendor.vendorName, Math.sqrt(sum), vendor.lockInScore));
+            }
+            result.sort((a, b) -> Double.compare(a.getDistance(), b.getDistance()));
+            return new ArrayList<>(result.subList(0, Math.min(k, result.size())));
+        }
+        return SimilarVendor.fromNative(findSimilarVendors(ptr(), vendorId, k));
+    }
+
+    private static double demoFieldValue(VendorData vendor, ScoreQuery.Field field) {
+        return demoAccessor(field).applyAsDouble(vendor);
+    }
+
+    private static ToDoubleFunction<VendorData> demoAccessor(ScoreQuery.Field field) {
+        switch (field) {
+            case CONTRACT_VALUE: return vendor -> vendor.contractValue;
+            case CONTRACT_MONTHS: return vendor -> vendor.contractMonths;
+            case DATA_VOLUME_GB: return vendor -> vendor.dataVolumeGB;
+            case API_DEPENDENCIES: return vendor -> vendor.apiDependencies;
+            case CUSTOM_INTEGRATION: return vendor -> vendor.hasCustomIntegration ? 1.0 : 0.0;
+            case SWITCHING_COST: return vendor -> vendor.switchingCost;
+            default: return vendor -> vendor.lockInScore;
+        }
+    }
+
+    private static double[] demoFeatures(VendorData vendor) {
+        return new double[] {
+            vendor.contractValue / 5000000.0,
+            vendor.contractMonths / 36.0,
+            vendor.dataVolumeGB / 1000.0,
+            vendor.apiDependencies / 10.0,
+            vendor.hasCustomIntegration ? 1.0 : 0.0,
+            vendor.contractValue > 0 ? vendor.switchingCost / vendor.contractValue : 0.0
+        };
+    }
+
+    /**
+     * Record that vendorId depends on dependencyId. Vendors not added yet
+     * still get a place in the dependency graph.
+     */
+    public void addDependency(String vendorId, String dependencyId) {
+        edgeCount++;
+        if (!libraryLoaded) {
+            demoDependencies.computeIfAbsent(vendorId, k -> new LinkedHashSet<>()).add(dependencyId);
+            demoDependents.computeIfAbsent(dependencyId, k -> new LinkedHashSet<>()).add(vendorId);
+            return;
+        }
+        addDependency(ptr(), vendorId, dependencyId);
+    }
+
+    /**
+     * True if vendorId depends on dependencyId directly or transitively.
+     * Answered from the engine's reachability index without a traversal.
+     */
+    public boolean dependsOn(String vendorId, String dependencyId) {
+        if (!libraryLoaded) {
+            return demoReachable(demoDependencies, vendorId).contains(dependencyId);
+        }
+        return dependsOn(ptr(), vendorId, dependencyId);
+    }
+
+    /**
+     * Vendors that vendorId transitively depends on.
+     */
+    public List<String> getVendorDependencies(String vendorId) {
+        if (!libraryLoaded) {
+            Set<String> dependencies = demoReachable(demoDependencies, vendorId);
+            dependencies.remove(vendorId);
+            return new ArrayList<>(dependencies);
+        }
+        return Arrays.asList(getVendorDependencies(ptr(), vendorId));
+    }
+
+    /**
+     * Blast radius of a vendor: every vendor that transitively depends on it
+     * and so is affected if it is removed.
+     */
+    public List<String> getVendorDependents(String vendorId) {
+        if (!libraryLoaded) {
+            Set<String> dependents = demoReachable(demoDependents, vendorId);
+            dependents.remove(vendorId);
+            return new ArrayList<>(dependents);
+        }
+        return Arrays.asList(getVendorDependents(ptr(), vendorId));
+    }
+
+    // Breadth-first walk for demo mode; the start vendor is included only if it lies on a cycle
+    private static Set<String> demoReachable(Map<String, Set<String>> edges, String start) {
+        Set<String> seen = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (String next : edges.getOrDefault(queue.poll(), Collections.<String>emptySet())) {
+                if (seen.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Approximate memory held for this analyzer: engine memory for its vendors
+     * and dependency edges, or the demo storage's heap. Disk-backed analyzers
+     * count only their page cache, which getVendorCount does not drive.
+     */
+    public long estimateMemoryBytes() {
+        if (diskBacked) {
+            return 0;
+        }
+        if (libraryLoaded) {
+            return getVendorCount() * NATIVE_BYTES_PER_VENDOR + edgeCount * NATIVE_BYTES_PER_EDGE;
+        }
+        return getVendorCount() * DEMO_BYTES_PER_VENDOR + edgeCount * DEMO_BYTES_PER_EDGE;
+    }
+
+    // Grows with every change a snapshot would capture
+    long changeCount() {
+        return getVersion() + edgeCount;
+    }
+
+    /**
+     * Write the scoring model, every vendor's inputs and the direct dependency
+     * edges; readSnapshot rebuilds an equal analyzer (scores are recomputed).
+     * Score alert watches are not part of the snapshot.
+     */
+    void writeSnapshot(DataOutput out) throws IOException {
+        requireInMemory("Snapshots");
+        getScoringModel().write(out);
+        
+        FeatureColumns columns = exportColumns(QUERY_FIELDS.toArray(new ScoreQuery.Field[0]));
+        out.writeInt(columns.size());
+        int pageSize = 4096;
+        for (int offset = 0; offset < columns.size(); offset += pageSize) {
+            ScorePage page = getScoresPage(offset, pageSize);
+            for (int i = 0; i < page.size(); i++) {
+                int row = offset + i;
+                String name = page.getVendorName(i);
+                out.writeUTF(columns.getIds()[row]);
+                out.writeUTF(name != null ? name : "");
+                out.writeDouble(columns.column(1)[row]); // Contract value
+                out.writeInt((int) columns.column(2)[row]); // Contract months
+                out.writeDouble(columns.column(3)[row]); // Data volume
+                out.writeInt((int) columns.column(4)[row]); // API dependencies
+                out.writeBoolean(columns.column(5)[row] != 0.0); // Custom integration
+                out.writeDouble(columns.column(6)[row]); // Switching cost
+            }
+        }
+        
+        String[] edges;
+        if (!libraryLoaded) {
+            List<String> flattened = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : demoDependencies.entrySet()) {
+                for (String dependency : entry.getValue()) {
+                    flattened.add(entry.getKey());
+                    flattened.add(dependency);
+                }
+            }
+            edges = flattened.toArray(new String[0]);
+        } else {
+            edges = getDependencyEdges(ptr());
+        }
+        out.writeInt(edges.length / 2);
+        for (String id : edges) {
+            out.writeUTF(id);
+        }
+    }
+
+    // Restore a snapshot into this (empty) analyzer
+    void readSnapshot(DataInput in) throws IOException {
+        setScoringModel(ScoringModel.read(in));
+        int vendors = in.readInt();
+        for (int i = 0; i < vendors; i++) {
+            VendorData vendor = new VendorData(in.readUTF(), in.readUTF(), in.readDouble(), in.readInt(),
+                                               in.readDouble(), in.readInt(), in.readBoolean(), in.readDouble());
+            if (!libraryLoaded) {
+                storeDemoVendor(vendor);
+            } else {
+                addVendor(ptr(), vendor.vendorId, vendor.vendorName, vendor.contractValue,
+                          vendor.contractMonths, vendor.dataVolumeGB, vendor.apiDependencies,
+                          vendor.hasCustomIntegration, vendor.switchingCost);
+            }
+        }
+        int edges = in.readInt();
+        for (int i = 0; i < edges; i++) {
+            addDependency(in.readUTF(), in.readUTF());
+        }
+    }
+
+    /**
+     * Release the engine (or the demo storage). A disk-backed analyzer writes its
+     * page cache back first. Later calls into the engine throw IllegalStateException.
+     */
     @Override
-    protected void finalize() throws Throwable {
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         if (libraryLoaded && nativePtr != 0) {
             deleteNativeObject(nativePtr);
             nativePtr = 0;
         }
+        demoVendorStorage = new HashMap<>();
+        demoVendorOrder = new ArrayList<>();
+        demoDependencies = new HashMap<>();
+        demoDependents = new HashMap<>();
+        demoScoreSketch = libraryLoaded ? null : new ScoreSketch();
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
         super.finalize();
     }
 }
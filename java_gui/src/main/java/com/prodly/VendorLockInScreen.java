@@ -6,10 +6,9 @@ import javafx.geometry.Pos;
 import javafx.geometry.VPos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.util.Callback;
-import java.text.DecimalFormat;
+import javafx.stage.FileChooser;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Module 1: Vendor Lock-In Score Calculator Screen
@@ -20,10 +19,21 @@ public class VendorLockInScreen {
     private VBox root;
     private VendorLockInAnalyzerJNI analyzer;
     private TableView<VendorScore> resultsTable;
+    private PagedScoreList<VendorScore> resultRows;
+    private TableView<SimilarVendor> similarTable;
+    private Label similarTitle;
+    private ScoreDistributionPane distributionPane;
+    private Button exportButton;
+    private ProgressBar exportProgress;
+    private Label exportStatus;
+    
+    private static final int SIMILAR_VENDOR_COUNT = 5;
+    private static final int TABLE_PAGE_SIZE = 256;
+    private static final int TABLE_CACHED_PAGES = 8;
     
     public VendorLockInScreen(ProdlyApplication app) {
         this.app = app;
-        this.analyzer = new VendorLockInAnalyzerJNI();
+        this.analyzer = app.getVendorAnalyzer();
         createUI();
     }
     
@@ -135,17 +145,83 @@ public class VendorLockInScreen {
         refreshButton.getStyleClass().add("secondary-button");
         refreshButton.setOnAction(e -> refreshResults());
         
-        Button exportButton = new Button("Export Results");
+        exportButton = new Button("Export Results");
         exportButton.getStyleClass().add("secondary-button");
+        exportButton.setOnAction(e -> exportResults());
+        
+        Button profileButton = new Button("Load Scoring Profile");
+        profileButton.getStyleClass().add("secondary-button");
+        profileButton.setOnAction(e -> loadScoringProfile());
+        
+        // Shown while an export runs
+        exportProgress = new ProgressBar(0);
+        exportProgress.setVisible(false);
+        exportStatus = new Label();
         
-        actionBar.getChildren().addAll(refreshButton, exportButton);
+        actionBar.getChildren().addAll(refreshButton, exportButton, profileButton, exportProgress, exportStatus);
         
-        results.getChildren().addAll(sectionTitle, resultsTable, actionBar);
+        distributionPane = new ScoreDistributionPane("Lock-In Score Distribution");
+        
+        results.getChildren().addAll(sectionTitle, resultsTable, actionBar, createSimilarVendorsSection(),
+                                     distributionPane);
         VBox.setVgrow(resultsTable, Priority.ALWAYS);
         
+        // Selecting a vendor lists the vendors with the most similar terms
+        resultsTable.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> {
+            showSimilarVendors(selected);
+        });
+        
         return results;
     }
     
+    private VBox createSimilarVendorsSection() {
+        VBox section = new VBox(10);
+        
+        similarTitle = new Label("Similar Vendors");
+        similarTitle.getStyleClass().add("section-title");
+        
+        similarTable = new TableView<>();
+        similarTable.getStyleClass().add("results-table");
+        similarTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        similarTable.setPlaceholder(new Label("Select a vendor to find vendors with similar terms"));
+        similarTable.setPrefHeight(180);
+        
+        TableColumn<SimilarVendor, String> idCol = new TableColumn<>("Vendor ID");
+        idCol.setCellValueFactory(data -> new javafx.beans.property.ReadOnlyStringWrapper(data.getValue().getVendorId()));
+        
+        TableColumn<SimilarVendor, String> nameCol = new TableColumn<>("Vendor Name");
+        nameCol.setCellValueFactory(data -> new javafx.beans.property.ReadOnlyStringWrapper(data.getValue().getVendorName()));
+        
+        TableColumn<SimilarVendor, String> distanceCol = new TableColumn<>("Distance");
+        distanceCol.setCellValueFactory(data -> new javafx.beans.property.ReadOnlyStringWrapper(
+            String.format("%.3f", data.getValue().getDistance())));
+        
+        TableColumn<SimilarVendor, String> scoreCol = new TableColumn<>("Lock-In Score");
+        scoreCol.setCellValueFactory(data -> new javafx.beans.property.ReadOnlyStringWrapper(
+            String.format("%.2f", data.getValue().getLockInScore())));
+        
+        similarTable.getColumns().addAll(idCol, nameCol, distanceCol, scoreCol);
+        
+        section.getChildren().addAll(similarTitle, similarTable);
+        return section;
+    }
+    
+    private void showSimilarVendors(VendorScore selected) {
+        similarTable.getItems().clear();
+        if (selected == null) {
+            similarTitle.setText("Similar Vendors");
+            return;
+        }
+        
+        similarTitle.setText("Similar Vendors to " + selected.vendorNameProperty().get());
+        try {
+            similarTable.getItems().addAll(
+                analyzer.findSimilarVendors(selected.vendorIdProperty().get(), SIMILAR_VENDOR_COUNT));
+        } catch (Exception e) {
+            System.err.println("Error finding similar vendors: " + e.getMessage());
+        }
+    }
+    
     private TableView<VendorScore> createResultsTable() {
         TableView<VendorScore> table = new TableView<>();
         table.getStyleClass().add("results-table");
@@ -164,55 +240,22 @@ public class VendorLockInScreen {
         // Lock-In Score column with colored bars
         TableColumn<VendorScore, Double> scoreCol = new TableColumn<>("Lock-In Score");
         scoreCol.setCellValueFactory(data -> data.getValue().scoreProperty().asObject());
-        scoreCol.setCellFactory(new Callback<TableColumn<VendorScore, Double>, TableCell<VendorScore, Double>>() {
-            @Override
-            public TableCell<VendorScore, Double> call(TableColumn<VendorScore, Double> param) {
-                return new TableCell<VendorScore, Double>() {
-                    private final StackPane stackPane = new StackPane();
-                    private final Rectangle bar = new Rectangle();
-                    private final Label label = new Label();
-                    
-                    {
-                        bar.setHeight(20);
-                        bar.setArcWidth(10);
-                        bar.setArcHeight(10);
-                        stackPane.getChildren().addAll(bar, label);
-                        stackPane.setAlignment(Pos.CENTER_LEFT);
-                        stackPane.setPadding(new Insets(5));
-                    }
-                    
-                    @Override
-                    protected void updateItem(Double score, boolean empty) {
-                        super.updateItem(score, empty);
-                        if (empty || score == null) {
-                            setGraphic(null);
-                        } else {
-                            double width = (score / 100.0) * 200;
-                            bar.setWidth(width);
-                            
-                            // Color based on score: green (low) -> yellow -> red (high)
-                            if (score < 33) {
-                                bar.setFill(Color.rgb(76, 175, 80)); // Green
-                            } else if (score < 66) {
-                                bar.setFill(Color.rgb(255, 193, 7)); // Amber
-                            } else {
-                                bar.setFill(Color.rgb(244, 67, 54)); // Red
-                            }
-                            
-                            DecimalFormat df = new DecimalFormat("#.##");
-                            label.setText(df.format(score));
-                            label.setTextFill(Color.WHITE);
-                            
-                            setGraphic(stackPane);
-                        }
-                    }
-                };
-            }
-        });
+        scoreCol.setCellFactory(col -> new ScoreBarCell<>(200, false));
         scoreCol.setPrefWidth(250);
         
         table.getColumns().addAll(idCol, nameCol, scoreCol);
         
+        // Rows are read from the engine a page at a time as the table scrolls;
+        // the paged model cannot be sorted in place
+        for (TableColumn<VendorScore, ?> column : table.getColumns()) {
+            column.setSortable(false);
+        }
+        resultRows = new PagedScoreList<>(analyzer.scorePages(), analyzer::getVendorCount,
+                                          app.getScoreDataflow(), TABLE_PAGE_SIZE, TABLE_CACHED_PAGES,
+                                          (page, i) -> new VendorScore(page.getVendorId(i), displayName(page, i),
+                                                                       page.getScore(i)));
+        table.setItems(resultRows);
+        
         return table;
     }
     
@@ -232,10 +275,10 @@ public class VendorLockInScreen {
             int apiDepsCount = Integer.parseInt(apiDeps.getText());
             double switchingCostVal = Double.parseDouble(switchingCost.getText());
             
-            // Add vendor to analyzer
-            analyzer.addVendor(vendorId.getText(), vendorName.getText(),
-                              contractVal, months, dataVol, apiDepsCount,
-                              customIntegration.isSelected(), switchingCostVal);
+            // Add vendor to analyzer; its exit readiness is marked stale
+            app.getScoreDataflow().updateVendor(vendorId.getText(), vendorName.getText(),
+                                                contractVal, months, dataVol, apiDepsCount,
+                                                customIntegration.isSelected(), switchingCostVal);
             
             // Calculate score
             double score = analyzer.calculateLockInScore(vendorId.getText());
@@ -264,33 +307,91 @@ public class VendorLockInScreen {
     }
     
     private void refreshResults() {
-        resultsTable.getItems().clear();
-        
         try {
-            String[][] scores = analyzer.getAllScores();
-            if (scores != null && scores.length > 0) {
-                for (String[] entry : scores) {
-                    if (entry != null && entry.length >= 2) {
-                        try {
-                            String vendorId = entry[0];
-                            String vendorName = (entry.length >= 3 && entry[2] != null && !entry[2].isEmpty()) 
-                                ? entry[2] 
-                                : ("Vendor " + vendorId); // Use vendor name if available, otherwise generate
-                            double score = Double.parseDouble(entry[1]);
-                            VendorScore vs = new VendorScore(vendorId, vendorName, score);
-                            resultsTable.getItems().add(vs);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error parsing score for vendor: " + entry[0]);
-                        }
-                    }
-                }
-            }
+            resultRows.refresh();
+            distributionPane.show(analyzer.getScoreSketch());
         } catch (Exception e) {
             System.err.println("Error loading results: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
+    // Business-unit profile: lockIn.* properties, see ScoringModel
+    private void loadScoringProfile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Load Scoring Profile");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Scoring profiles", "*.properties"));
+        File file = chooser.showOpenDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        try {
+            ScoringModel model = ScoringModel.load(file.toPath(), "lockIn.");
+            app.getScoreDataflow().setLockInModel(model);
+            refreshResults();
+            showSuccess("Vendors rescored with " + model.getName());
+        } catch (IOException | IllegalArgumentException e) {
+            showError("Could not load scoring profile: " + e.getMessage());
+        }
+    }
+    
+    // Vendor name if the engine has one, otherwise a generated one
+    private static String displayName(ScorePage page, int index) {
+        String name = page.getVendorName(index);
+        return name != null && !name.isEmpty() ? name : "Vendor " + page.getVendorId(index);
+    }
+    
+    // Stream vendors, migration tasks and exit readiness to disk on a background thread
+    private void exportResults() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Results");
+        FileChooser.ExtensionFilter csv = new FileChooser.ExtensionFilter("CSV files (one per table)", "*.csv");
+        FileChooser.ExtensionFilter columnar = new FileChooser.ExtensionFilter("Columnar export", "*.pcol");
+        chooser.getExtensionFilters().addAll(csv, columnar);
+        chooser.setInitialFileName("portfolio.csv");
+        File file = chooser.showSaveDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        // The extension wins; a bare name follows the selected filter
+        String name = file.getName().toLowerCase();
+        boolean columnarFile = name.endsWith(".pcol")
+            || (!name.endsWith(".csv") && chooser.getSelectedExtensionFilter() == columnar);
+        PortfolioExport.Format format = columnarFile ? PortfolioExport.Format.COLUMNAR : PortfolioExport.Format.CSV;
+        PortfolioExport export = new PortfolioExport(analyzer, app.getMigrationAnalyzer(),
+                                                     app.getReadinessDashboard(), app.getScoreDataflow(),
+                                                     file.toPath(), format);
+        exportButton.setDisable(true);
+        exportProgress.setVisible(true);
+        exportProgress.progressProperty().bind(export.progressProperty());
+        exportStatus.textProperty().bind(export.messageProperty());
+        export.setOnSucceeded(e -> {
+            finishExport();
+            showSuccess("Exported " + export.getValue() + " rows to " + export.getWrittenFiles().size()
+                        + (export.getWrittenFiles().size() == 1 ? " file" : " files") + " in " + file.getParent());
+        });
+        export.setOnFailed(e -> {
+            finishExport();
+            Throwable error = export.getException();
+            showError("Export failed: " + (error != null ? error.getMessage() : "unknown error"));
+        });
+        export.setOnCancelled(e -> finishExport());
+        
+        Thread worker = new Thread(export, "portfolio-export");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    private void finishExport() {
+        exportProgress.progressProperty().unbind();
+        exportStatus.textProperty().unbind();
+        exportProgress.setVisible(false);
+        exportStatus.setText("");
+        exportButton.setDisable(false);
+    }
+    
     private void showError(String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
@@ -0,0 +1,132 @@
+package com.prodly;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * One tenant's portfolio: its own lock-in analyzer, migration analyzer and
+ * readiness dashboard. Obtained from {@link WorkspaceManager#open}, which keeps
+ * the workspace in memory until every holder has closed it, e.g.
+ * <pre>
+ * try (Workspace workspace = manager.open("acme")) {
+ *     workspace.getVendorAnalyzer().addVendor(...);
+ * }
+ * </pre>
+ * Do not keep the analyzers past close(): an idle workspace may be evicted,
+ * which closes them, and the next open() returns a reloaded workspace.
+ *
+ * Evicted workspaces are stored as a deflated snapshot of every input (vendors,
+ * dependency edges, tasks, readiness metrics and scoring models); scores are
+ * recomputed on reload.
+ */
+public final class Workspace implements AutoCloseable {
+    // Two empty engines' score sketches dominate: about 320 KB with either the
+    // engine or the demo storage, measured over 1000 empty workspaces
+    static final long BASE_BYTES = 325_000;
+
+    private static final int MAGIC = 0x50575331; // "PWS1"
+
+    private final WorkspaceManager manager;
+    private final String tenantId;
+    private final VendorLockInAnalyzerJNI vendorAnalyzer;
+    private final MigrationDifficultyAnalyzerJNI migrationAnalyzer;
+    private final ExitReadinessDashboardJNI readinessDashboard;
+
+    // Bookkeeping owned by the manager (guarded by its lock)
+    int holders;
+    long lastAccess;
+    long memoryBytes;
+    long savedChanges = -1; // changeCount() when the snapshot file was written, -1 if none
+
+    Workspace(WorkspaceManager manager, String tenantId) {
+        this.manager = manager;
+        this.tenantId = tenantId;
+        this.vendorAnalyzer = new VendorLockInAnalyzerJNI(false);
+        this.migrationAnalyzer = new MigrationDifficultyAnalyzerJNI(false);
+        this.readinessDashboard = new ExitReadinessDashboardJNI(false);
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public VendorLockInAnalyzerJNI getVendorAnalyzer() {
+        return vendorAnalyzer;
+    }
+
+    public MigrationDifficultyAnalyzerJNI getMigrationAnalyzer() {
+        return migrationAnalyzer;
+    }
+
+    public ExitReadinessDashboardJNI getReadinessDashboard() {
+        return readinessDashboard;
+    }
+
+    /**
+     * Approximate memory held by this workspace's engines (or demo storage),
+     * from per-row footprints measured for each module
+     */
+    public long estimateMemoryBytes() {
+        return BASE_BYTES + vendorAnalyzer.estimateMemoryBytes()
+            + migrationAnalyzer.estimateMemoryBytes() + readinessDashboard.estimateMemoryBytes();
+    }
+
+    /**
+     * Release this hold on the workspace; once no holder is left it may be evicted
+     */
+    @Override
+    public void close() {
+        manager.release(this);
+    }
+
+    // Grows with every change a snapshot would capture
+    long changeCount() {
+        return vendorAnalyzer.changeCount() + migrationAnalyzer.changeCount()
+            + readinessDashboard.changeCount();
+    }
+
+    // Write the snapshot next to path and move it into place, so a crash leaves the old one
+    void save(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(tenantId);
+            vendorAnalyzer.writeSnapshot(out);
+            migrationAnalyzer.writeSnapshot(out);
+            readinessDashboard.writeSnapshot(out);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a workspace snapshot: " + path);
+            }
+            String storedTenant = in.readUTF();
+            if (!storedTenant.equals(tenantId)) {
+                throw new IOException("Snapshot " + path + " belongs to tenant " + storedTenant);
+            }
+            vendorAnalyzer.readSnapshot(in);
+            migrationAnalyzer.readSnapshot(in);
+            readinessDashboard.readSnapshot(in);
+        }
+    }
+
+    // Free the engines; the workspace must not be used afterwards
+    void discard() {
+        vendorAnalyzer.close();
+        migrationAnalyzer.close();
+        readinessDashboard.close();
+    }
+}
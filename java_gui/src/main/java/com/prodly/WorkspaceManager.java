@@ -0,0 +1,227 @@
+package com.prodly;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workspaces of many tenants under one memory budget.
+ *
+ * Resident workspaces are kept in least-recently-used order. Whenever their
+ * estimated memory exceeds the budget, the least recently used workspaces that
+ * nobody holds open are evicted: written to a snapshot file in the spill
+ * directory (skipped if nothing changed since the last one) and their engines
+ * freed. open() reloads an evicted tenant from its snapshot, so eviction is
+ * invisible to callers apart from the reload latency. Workspaces held open are
+ * never evicted, so the budget can be exceeded while many are in use.
+ *
+ * Snapshots stay on disk after a reload and are rewritten on the next eviction;
+ * close() saves every resident workspace, so tenants survive a restart.
+ */
+public final class WorkspaceManager implements AutoCloseable {
+    private static final String SNAPSHOT_SUFFIX = ".workspace";
+
+    private final Path spillDirectory;
+    private final long memoryBudget;
+
+    // Resident workspaces, least recently used first
+    private final LinkedHashMap<String, Workspace> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private boolean closed;
+
+    private long evictions;
+    private long reloads;
+    private long reloadNanos;
+
+    public WorkspaceManager(Path spillDirectory, long memoryBudgetBytes) throws IOException {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudgetBytes);
+        }
+        this.spillDirectory = spillDirectory;
+        this.memoryBudget = memoryBudgetBytes;
+        Files.createDirectories(spillDirectory);
+    }
+
+    /**
+     * The tenant's workspace, reloaded from its snapshot if it was evicted and
+     * created empty if the tenant is new. The caller must close() it when done.
+     */
+    public synchronized Workspace open(String tenantId) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Workspace manager is closed");
+        }
+        Workspace workspace = resident.get(tenantId);
+        if (workspace == null) {
+            workspace = new Workspace(this, tenantId);
+            Path snapshot = snapshotPath(tenantId);
+            if (Files.exists(snapshot)) {
+                long start = System.nanoTime();
+                try {
+                    workspace.load(snapshot);
+                } catch (IOException | RuntimeException e) {
+                    workspace.discard();
+                    throw e;
+                }
+                workspace.savedChanges = workspace.changeCount();
+                reloadNanos += System.nanoTime() - start;
+                reloads++;
+            }
+            workspace.memoryBytes = workspace.estimateMemoryBytes();
+            residentBytes += workspace.memoryBytes;
+            resident.put(tenantId, workspace);
+        }
+        // Held while the budget is enforced, so making room never evicts it
+        workspace.holders++;
+        workspace.lastAccess = System.currentTimeMillis();
+        try {
+            enforceBudget();
+        } catch (IOException | RuntimeException e) {
+            // The caller gets no workspace to close, so drop the hold here
+            workspace.holders--;
+            throw e;
+        }
+        return workspace;
+    }
+
+    synchronized void release(Workspace workspace) {
+        if (workspace.holders <= 0 || resident.get(workspace.getTenantId()) != workspace) {
+            return; // Already released (or evicted after a double close)
+        }
+        workspace.holders--;
+        workspace.lastAccess = System.currentTimeMillis();
+
+        // The holder may have added data; re-estimate before checking the budget
+        residentBytes -= workspace.memoryBytes;
+        workspace.memoryBytes = workspace.estimateMemoryBytes();
+        residentBytes += workspace.memoryBytes;
+        try {
+            enforceBudget();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void enforceBudget() throws IOException {
+        Iterator<Workspace> it = resident.values().iterator();
+        while (residentBytes > memoryBudget && it.hasNext()) {
+            Workspace candidate = it.next();
+            if (candidate.holders == 0) {
+                evict(candidate);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Evict every workspace nobody holds that has been idle for at least
+     * idleMillis, regardless of the budget. Returns the number evicted.
+     */
+    public synchronized int evictIdle(long idleMillis) throws IOException {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        Iterator<Workspace> it = resident.values().iterator();
+        while (it.hasNext()) {
+            Workspace candidate = it.next();
+            if (candidate.lastAccess > cutoff) {
+                break; // LRU order: everything after was used more recently
+            }
+            if (candidate.holders == 0) {
+                evict(candidate);
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // Caller removes the workspace from resident
+    private void evict(Workspace workspace) throws IOException {
+        long changes = workspace.changeCount();
+        if (changes != workspace.savedChanges) {
+            workspace.save(snapshotPath(workspace.getTenantId()));
+        }
+        workspace.discard();
+        residentBytes -= workspace.memoryBytes;
+        evictions++;
+    }
+
+    private Path snapshotPath(String tenantId) {
+        // Any tenant id maps to a safe, distinct file name
+        String name = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(tenantId.getBytes(StandardCharsets.UTF_8));
+        return spillDirectory.resolve(name + SNAPSHOT_SUFFIX);
+    }
+
+    public synchronized boolean isResident(String tenantId) {
+        return resident.containsKey(tenantId);
+    }
+
+    public synchronized int getResidentCount() {
+        return resident.size();
+    }
+
+    // Estimated memory of the resident workspaces
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    // Estimated memory per resident tenant, most recently used last
+    public synchronized Map<String, Long> getResidentUsage() {
+        Map<String, Long> usage = new LinkedHashMap<>();
+        for (Workspace workspace : resident.values()) {
+            usage.put(workspace.getTenantId(), workspace.memoryBytes);
+        }
+        return usage;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getReloadCount() {
+        return reloads;
+    }
+
+    // Mean time to rebuild an evicted workspace from its snapshot
+    public synchronized double getMeanReloadMillis() {
+        return reloads == 0 ? 0.0 : reloadNanos / 1e6 / reloads;
+    }
+
+    /**
+     * Save every resident workspace and free the engines. Workspaces still held
+     * open are saved as they are now.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<Workspace> all = new ArrayList<>(resident.values());
+        resident.clear();
+        IOException failure = null;
+        for (Workspace workspace : all) {
+            try {
+                evict(workspace);
+            } catch (IOException e) {
+                workspace.discard();
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}